@@ -0,0 +1,37 @@
+package de.passwordvault.model.analysis;
+
+
+/**
+ * Interface models an engine which rates the strength of passwords with a score between {@code 0}
+ * and {@link #getMaxScore()}. Implementations must be thread-safe, since passwords may be scored in
+ * parallel.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public interface PasswordStrengthEngine {
+
+    /**
+     * Method returns the maximum score which a password can achieve.
+     *
+     * @return  Maximum score.
+     */
+    int getMaxScore();
+
+    /**
+     * Method calculates the score of the passed password.
+     *
+     * @param password  Password to score.
+     * @return          Score of the password between {@code 0} and {@link #getMaxScore()}.
+     */
+    int calculateScore(String password);
+
+    /**
+     * Method returns the version of the engine. Engines with the same version calculate the same
+     * score for every password, so that scores can be persisted alongside the version.
+     *
+     * @return  Version of the engine.
+     */
+    long getVersion();
+
+}
@@ -1,25 +1,33 @@
 package de.passwordvault.model.analysis;
 
+import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import de.passwordvault.model.storage.app.Storable;
 import de.passwordvault.model.storage.app.StorageException;
 import de.passwordvault.model.storage.csv.CsvBuilder;
-import de.passwordvault.model.storage.csv.CsvParser;
+import de.passwordvault.model.storage.csv.CsvCursor;
 
 
 /**
  * Class models a quality gate for a password. A quality gate consists of a regex which a password
- * must match in order to pass a quality gate. There can be any number of quality gates.
+ * must match in order to pass a quality gate. There can be any number of quality gates. The regex is
+ * compiled once when it is first needed, and compiled again only after it is changed.
  *
  * @author  Christian-2003
- * @version 3.5.4
+ * @version 3.7.4
  */
 public class QualityGate implements Serializable, Storable {
 
+    /**
+     * Field stores the tag used for debugging messages.
+     */
+    private static final String TAG = "QualityGate";
+
+
     /**
      * Attribute stores the regex of the quality gate.
      */
@@ -50,6 +58,19 @@ public class QualityGate implements Serializable, Storable {
      */
     private final boolean editable;
 
+    /**
+     * Attribute stores the compiled regex of the quality gate. This is {@code null} if the regex was
+     * not compiled yet or is invalid.
+     */
+    @Nullable
+    private transient Pattern pattern;
+
+    /**
+     * Attribute indicates whether the regex was compiled since it was last changed. If this is
+     * {@code true} while {@link #pattern} is {@code null}, the regex is invalid.
+     */
+    private transient boolean patternCompiled;
+
 
     /**
      * Constructor instantiates a new {@code QualityGate} without any content.
@@ -112,8 +133,10 @@ public class QualityGate implements Serializable, Storable {
      *
      * @param regex New regex for the quality gate.
      */
-    public void setRegex(@NonNull String regex) {
+    public synchronized void setRegex(@NonNull String regex) {
         this.regex = regex;
+        pattern = null;
+        patternCompiled = false;
     }
 
     /**
@@ -184,9 +207,41 @@ public class QualityGate implements Serializable, Storable {
     }
 
 
+    /**
+     * Method returns the compiled regex of the quality gate. The regex is compiled when this method is
+     * called for the first time after the regex was changed. If the regex is invalid, {@code null} is
+     * returned.
+     *
+     * @return  Compiled regex of the quality gate.
+     */
+    @Nullable
+    public synchronized Pattern getPattern() {
+        if (!patternCompiled) {
+            try {
+                pattern = Pattern.compile(regex);
+            }
+            catch (PatternSyntaxException e) {
+                Log.w(TAG, "Invalid regex for quality gate '" + description + "': " + e.getDescription());
+                pattern = null;
+            }
+            patternCompiled = true;
+        }
+        return pattern;
+    }
+
+    /**
+     * Method returns whether the regex of the quality gate is valid.
+     *
+     * @return  Whether the regex is valid.
+     */
+    public boolean isRegexValid() {
+        return getPattern() != null;
+    }
+
     /**
      * Method tests whether the passed argument matches the quality gate. If so, {@code true} is
-     * returned. If the passed argument does not match the quality gate, {@code false} is returned.
+     * returned. If the passed argument does not match the quality gate or the regex of the quality
+     * gate is invalid, {@code false} is returned.
      *
      * @param s String to be tested.
      * @return  Whether the argument matches the quality gate.
@@ -195,12 +250,8 @@ public class QualityGate implements Serializable, Storable {
         if (s == null) {
             return false;
         }
-        try {
-            return s.matches(regex);
-        }
-        catch (PatternSyntaxException e) {
-            return false;
-        }
+        Pattern compiledPattern = getPattern();
+        return compiledPattern != null && compiledPattern.matcher(s).matches();
     }
 
 
@@ -213,12 +264,25 @@ public class QualityGate implements Serializable, Storable {
      */
     @Override
     public String toStorable() {
-        CsvBuilder builder = new CsvBuilder();
+        StringBuilder builder = new StringBuilder();
+        appendStorable(builder);
+        return builder.toString();
+    }
+
+    /**
+     * Method appends the string-representation of this instance (as generated by
+     * {@link #toStorable()}) to the passed builder.
+     *
+     * @param storable              Builder to which to append the string-representation.
+     * @throws NullPointerException The passed builder is {@code null}.
+     */
+    @Override
+    public void appendStorable(StringBuilder storable) throws NullPointerException {
+        CsvBuilder builder = new CsvBuilder(storable);
         builder.append(getRegex());
         builder.append(getDescription());
         builder.append(isEnabled());
         builder.append(getAuthor());
-        return builder.toString();
     }
 
     /**
@@ -234,24 +298,24 @@ public class QualityGate implements Serializable, Storable {
         if (s == null) {
             throw new NullPointerException();
         }
-        CsvParser parser = new CsvParser(s);
-        ArrayList<String> columns = parser.parseCsv();
-        for (int i = 0; i < columns.size(); i++) {
-            String cell = columns.get(i);
+        CsvCursor cursor = new CsvCursor(s);
+        for (int i = 0; cursor.hasNext(); i++) {
             try {
                 switch (i) {
                     case 0:
-                        setRegex(cell);
+                        setRegex(cursor.nextString());
                         break;
                     case 1:
-                        setDescription(cell);
+                        setDescription(cursor.nextString());
                         break;
                     case 2:
-                        setEnabled(Boolean.parseBoolean(cell));
+                        setEnabled(cursor.nextBoolean());
                         break;
                     case 3:
-                        author = cell;
+                        author = cursor.nextString();
                         break;
+                    default:
+                        cursor.skip();
                 }
             }
             catch (Exception e) {
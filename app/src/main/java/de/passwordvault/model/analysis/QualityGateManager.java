@@ -19,7 +19,7 @@ import de.passwordvault.model.storage.csv.CsvParser;
  * automatically loaded from shared preferences.
  *
  * @author  Christian-2003
- * @version 3.5.4
+ * @version 3.7.4
  */
 public class QualityGateManager implements Observable<ArrayList<QualityGate>> {
 
@@ -52,6 +52,12 @@ public class QualityGateManager implements Observable<ArrayList<QualityGate>> {
      */
     private int cachedNumberOfQualityGates;
 
+    /**
+     * Attribute caches the snapshot of the quality gates, which is created again whenever the
+     * quality gates change.
+     */
+    private QualityGateSnapshot snapshot;
+
 
     /**
      * Constructor instantiates a new QualityGateManager-instance.
@@ -195,24 +201,33 @@ public class QualityGateManager implements Observable<ArrayList<QualityGate>> {
     }
 
     /**
-     * Method calculates the number of quality gates that the passed string passes. Calling this
-     * method automatically recalculates the cached number of active quality gates.
+     * Method calculates the number of quality gates that the passed string passes through the
+     * {@link #getSnapshot() snapshot} of the quality gates. Calling this method automatically
+     * recalculates the cached number of active quality gates.
      *
      * @param s String to be tested.
      * @return  The number of passed quality gates.
      */
     public int calculatePassedQualityGates(String s) {
-        int i = 0;
-        cachedNumberOfQualityGates = 0;
-        for (QualityGate gate : qualityGates) {
-            if (gate.isEnabled()) {
-                if (gate.matches(s)) {
-                    i++;
-                }
-                cachedNumberOfQualityGates++;
-            }
+        QualityGateSnapshot currentSnapshot = getSnapshot();
+        cachedNumberOfQualityGates = currentSnapshot.getNumberOfQualityGates();
+        return currentSnapshot.calculatePassedQualityGates(s);
+    }
+
+
+    /**
+     * Method returns an immutable snapshot of all enabled quality gates, which evaluates the quality
+     * gates in a single pass. The snapshot is not affected by later changes to the quality gates and
+     * can be shared between threads, e.g. to analyze passwords in parallel. The snapshot is cached
+     * until the quality gates change.
+     *
+     * @return  Snapshot of the enabled quality gates.
+     */
+    public synchronized QualityGateSnapshot getSnapshot() {
+        if (snapshot == null || !snapshot.isUpToDate(qualityGates)) {
+            snapshot = new QualityGateSnapshot(qualityGates);
         }
-        return i;
+        return snapshot;
     }
 
 
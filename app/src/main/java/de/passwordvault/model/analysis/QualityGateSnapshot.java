@@ -0,0 +1,400 @@
+package de.passwordvault.model.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/**
+ * Class models an immutable snapshot of the enabled quality gates, which evaluates all quality gates
+ * for a password in a single pass. Quality gates whose regex only checks the length of a password
+ * (e.g. {@code \b(\w|\W){12,}\b}) or whether a password contains a character of a character class
+ * (e.g. {@code (\w|\W)*[0-9]+(\w|\W)*}) are lowered into a length check and a bit within a
+ * per-character bitmask. The bitmasks of the first 256 characters are precomputed through the regex
+ * engine, so that the lowered quality gates behave exactly like their regexes. Only the remaining
+ * quality gates are evaluated through their compiled regexes. Since the snapshot is immutable, it can
+ * be shared between all threads which analyze passwords. Snapshots are created through
+ * {@link QualityGateManager#getSnapshot()}.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public final class QualityGateSnapshot implements PasswordStrengthEngine {
+
+    /**
+     * Field stores the pattern which recognizes regexes that only check the minimum length of a
+     * password, optionally requiring word boundaries at the beginning and end.
+     */
+    private static final Pattern LENGTH_GATE = Pattern.compile("(\\\\b)?\\(\\\\w\\|\\\\W\\)\\{(\\d{1,9}),\\}(\\\\b)?");
+
+    /**
+     * Field stores the pattern which recognizes regexes that check whether a password contains a
+     * character of a character class.
+     */
+    private static final Pattern CLASS_GATE = Pattern.compile("\\(\\\\w\\|\\\\W\\)\\*(\\[.*\\])\\+\\(\\\\w\\|\\\\W\\)\\*", Pattern.DOTALL);
+
+    /**
+     * Field stores the pattern which matches a word boundary at the beginning of a string.
+     */
+    private static final Pattern WORD_BOUNDARY = Pattern.compile("\\b");
+
+    /**
+     * Field stores the number of characters whose bitmasks are precomputed.
+     */
+    private static final int PRECOMPUTED_CHARACTERS = 256;
+
+    /**
+     * Field stores the maximum number of character class quality gates, which is limited by the
+     * number of bits within a bitmask.
+     */
+    private static final int MAX_CLASS_GATES = Long.SIZE;
+
+    /**
+     * Field stores the offset basis of the 64 bit FNV-1a hash with which the {@link #version} is
+     * calculated.
+     */
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    /**
+     * Field stores the prime of the 64 bit FNV-1a hash with which the {@link #version} is calculated.
+     */
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+
+    /**
+     * Attribute stores the quality gates from which the snapshot was created.
+     */
+    private final QualityGate[] sourceGates;
+
+    /**
+     * Attribute stores the regexes of the {@link #sourceGates} when the snapshot was created.
+     */
+    private final String[] sourceRegexes;
+
+    /**
+     * Attribute stores whether the {@link #sourceGates} were enabled when the snapshot was created.
+     */
+    private final boolean[] sourceEnabled;
+
+    /**
+     * Attribute stores the minimum lengths (in code points) of the lowered length quality gates.
+     */
+    private final int[] minLengths;
+
+    /**
+     * Attribute stores for every lowered length quality gate whether the first and last character
+     * of a password must be word characters.
+     */
+    private final boolean[] wordBoundaries;
+
+    /**
+     * Attribute stores the character classes of the lowered character class quality gates. The index
+     * within the array is the bit within the bitmasks.
+     */
+    private final Pattern[] characterClasses;
+
+    /**
+     * Attribute stores the bitmasks of the first {@link #PRECOMPUTED_CHARACTERS} characters.
+     */
+    private final long[] characterMasks;
+
+    /**
+     * Attribute stores whether the first {@link #PRECOMPUTED_CHARACTERS} characters are word
+     * characters.
+     */
+    private final boolean[] wordCharacters;
+
+    /**
+     * Attribute stores the compiled regexes of all enabled quality gates which could not be lowered.
+     */
+    private final Pattern[] patterns;
+
+    /**
+     * Attribute stores the number of enabled quality gates, including those with an invalid regex.
+     */
+    private final int numberOfQualityGates;
+
+    /**
+     * Attribute stores the number of enabled quality gates whose regex is invalid. These quality
+     * gates are never passed.
+     */
+    private final int numberOfInvalidQualityGates;
+
+    /**
+     * Attribute stores the version of the snapshot, which is a hash of the regexes of all enabled
+     * quality gates. Snapshots with the same version calculate the same number of passed quality
+     * gates for every string.
+     */
+    private final long version;
+
+
+    /**
+     * Constructor instantiates a new snapshot of the passed quality gates. Disabled quality gates
+     * are ignored.
+     *
+     * @param qualityGates          Quality gates of which to create the snapshot.
+     * @throws NullPointerException The passed list is {@code null}.
+     */
+    QualityGateSnapshot(List<QualityGate> qualityGates) throws NullPointerException {
+        if (qualityGates == null) {
+            throw new NullPointerException();
+        }
+        sourceGates = qualityGates.toArray(new QualityGate[0]);
+        sourceRegexes = new String[sourceGates.length];
+        sourceEnabled = new boolean[sourceGates.length];
+        ArrayList<Integer> lengths = new ArrayList<>();
+        ArrayList<Boolean> boundaries = new ArrayList<>();
+        ArrayList<Pattern> classes = new ArrayList<>();
+        ArrayList<Pattern> compiledPatterns = new ArrayList<>();
+        int enabled = 0;
+        int invalid = 0;
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < sourceGates.length; i++) {
+            QualityGate qualityGate = sourceGates[i];
+            sourceRegexes[i] = qualityGate.getRegex();
+            sourceEnabled[i] = qualityGate.isEnabled();
+            if (!sourceEnabled[i]) {
+                continue;
+            }
+            enabled++;
+            for (int j = 0; j < sourceRegexes[i].length(); j++) {
+                hash = (hash ^ sourceRegexes[i].charAt(j)) * FNV_PRIME;
+            }
+            //Separate the regexes with a value outside of the char range, since the characters could
+            //otherwise be shifted between them:
+            hash = (hash ^ 0x10000) * FNV_PRIME;
+            Pattern pattern = qualityGate.getPattern();
+            if (pattern == null) {
+                invalid++;
+                continue;
+            }
+            Matcher lengthMatcher = LENGTH_GATE.matcher(sourceRegexes[i]);
+            if (lengthMatcher.matches() && (lengthMatcher.group(1) == null) == (lengthMatcher.group(3) == null)) {
+                lengths.add(Integer.parseInt(lengthMatcher.group(2)));
+                boundaries.add(lengthMatcher.group(1) != null);
+                continue;
+            }
+            Matcher classMatcher = CLASS_GATE.matcher(sourceRegexes[i]);
+            if (classes.size() < MAX_CLASS_GATES && classMatcher.matches() && isSingleCharacterClass(classMatcher.group(1))) {
+                classes.add(Pattern.compile(classMatcher.group(1)));
+                continue;
+            }
+            compiledPatterns.add(pattern);
+        }
+
+        minLengths = new int[lengths.size()];
+        wordBoundaries = new boolean[boundaries.size()];
+        for (int i = 0; i < minLengths.length; i++) {
+            minLengths[i] = lengths.get(i);
+            wordBoundaries[i] = boundaries.get(i);
+        }
+        characterClasses = classes.toArray(new Pattern[0]);
+        characterMasks = new long[PRECOMPUTED_CHARACTERS];
+        wordCharacters = new boolean[PRECOMPUTED_CHARACTERS];
+        for (int c = 0; c < PRECOMPUTED_CHARACTERS; c++) {
+            characterMasks[c] = evaluateCharacterMask(c);
+            wordCharacters[c] = evaluateWordCharacter(c);
+        }
+        patterns = compiledPatterns.toArray(new Pattern[0]);
+        numberOfQualityGates = enabled;
+        numberOfInvalidQualityGates = invalid;
+        version = hash;
+    }
+
+
+    /**
+     * Method returns the number of enabled quality gates, which is the maximum security score.
+     *
+     * @return  Number of enabled quality gates.
+     */
+    public int getNumberOfQualityGates() {
+        return numberOfQualityGates;
+    }
+
+    /**
+     * Method returns the number of enabled quality gates whose regex is invalid.
+     *
+     * @return  Number of invalid quality gates.
+     */
+    public int getNumberOfInvalidQualityGates() {
+        return numberOfInvalidQualityGates;
+    }
+
+    /**
+     * Method returns the number of enabled quality gates, which is the maximum score.
+     *
+     * @return  Maximum score.
+     */
+    @Override
+    public int getMaxScore() {
+        return numberOfQualityGates;
+    }
+
+    /**
+     * Method calculates the number of quality gates that the passed password passes.
+     *
+     * @param password  Password to score.
+     * @return          Number of passed quality gates.
+     */
+    @Override
+    public int calculateScore(String password) {
+        return calculatePassedQualityGates(password);
+    }
+
+    /**
+     * Method returns the version of the snapshot. The version changes whenever a quality gate is
+     * enabled, disabled, added, removed or changes its regex, and can therefore be persisted
+     * alongside results calculated through the snapshot.
+     *
+     * @return  Version of the snapshot.
+     */
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Method returns whether the snapshot was created from the passed quality gates and none of them
+     * changed their regex or whether they are enabled since.
+     *
+     * @param qualityGates  Quality gates to test.
+     * @return              Whether the snapshot is up to date for the passed quality gates.
+     */
+    public boolean isUpToDate(List<QualityGate> qualityGates) {
+        if (qualityGates.size() != sourceGates.length) {
+            return false;
+        }
+        for (int i = 0; i < sourceGates.length; i++) {
+            QualityGate qualityGate = qualityGates.get(i);
+            if (qualityGate != sourceGates[i] || qualityGate.isEnabled() != sourceEnabled[i] || !qualityGate.getRegex().equals(sourceRegexes[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method calculates the number of quality gates that the passed string passes. The string is
+     * scanned once for all lowered quality gates.
+     *
+     * @param s String to be tested.
+     * @return  The number of passed quality gates.
+     */
+    public int calculatePassedQualityGates(String s) {
+        if (s == null) {
+            return 0;
+        }
+        int passed = 0;
+        if (minLengths.length > 0 || characterClasses.length > 0) {
+            long allClasses = characterClasses.length == MAX_CLASS_GATES ? -1L : (1L << characterClasses.length) - 1;
+            long mask = 0;
+            int length = 0;
+            int first = -1;
+            int last = -1;
+            for (int i = 0; i < s.length(); ) {
+                int codePoint = s.codePointAt(i);
+                i += Character.charCount(codePoint);
+                if (first == -1) {
+                    first = codePoint;
+                }
+                last = codePoint;
+                length++;
+                if (mask != allClasses) {
+                    mask |= codePoint < PRECOMPUTED_CHARACTERS ? characterMasks[codePoint] : evaluateCharacterMask(codePoint);
+                }
+            }
+            passed += Long.bitCount(mask);
+            boolean boundaries = length > 0 && hasWordBoundaries(s, first, last);
+            for (int i = 0; i < minLengths.length; i++) {
+                if (length >= minLengths[i] && (!wordBoundaries[i] || boundaries)) {
+                    passed++;
+                }
+            }
+        }
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(s).matches()) {
+                passed++;
+            }
+        }
+        return passed;
+    }
+
+
+    /**
+     * Method returns whether word boundaries exist at the beginning and end of the passed non-empty
+     * string.
+     *
+     * @param s     String to test.
+     * @param first First code point of the string.
+     * @param last  Last code point of the string.
+     * @return      Whether the string starts and ends with a word boundary.
+     */
+    private boolean hasWordBoundaries(String s, int first, int last) {
+        //Characters outside of the precomputed range are evaluated within the string, since the regex
+        //engine may treat combining marks as part of the preceding character:
+        boolean start = first < PRECOMPUTED_CHARACTERS ? wordCharacters[first] : WORD_BOUNDARY.matcher(s).lookingAt();
+        return start && (last < PRECOMPUTED_CHARACTERS ? wordCharacters[last] : WORD_BOUNDARY.matcher(s).region(s.length(), s.length()).useTransparentBounds(true).lookingAt());
+    }
+
+    /**
+     * Method evaluates the bitmask of the lowered character class quality gates which match the
+     * passed code point through the regex engine.
+     *
+     * @param codePoint Code point to evaluate.
+     * @return          Bitmask of the matching character classes.
+     */
+    private long evaluateCharacterMask(int codePoint) {
+        String character = new String(Character.toChars(codePoint));
+        long mask = 0;
+        for (int i = 0; i < characterClasses.length; i++) {
+            if (characterClasses[i].matcher(character).matches()) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Method evaluates whether the passed code point is a word character through the regex engine.
+     *
+     * @param codePoint Code point to evaluate.
+     * @return          Whether the code point is a word character.
+     */
+    private static boolean evaluateWordCharacter(int codePoint) {
+        return WORD_BOUNDARY.matcher(new String(Character.toChars(codePoint))).lookingAt();
+    }
+
+    /**
+     * Method returns whether the passed expression consists of a single character class, i.e. the
+     * bracket opened by the first character is closed by the last character.
+     *
+     * @param expression    Expression to test.
+     * @return              Whether the expression is a single character class.
+     */
+    private static boolean isSingleCharacterClass(String expression) {
+        if (expression.length() < 3 || expression.charAt(0) != '[' || expression.contains("\\Q")) {
+            return false;
+        }
+        int contentStart = expression.startsWith("[^") ? 2 : 1;
+        if (expression.charAt(contentStart) == ']') {
+            //Engines disagree on whether a leading ']' is a literal:
+            return false;
+        }
+        int depth = 0;
+        for (int i = 0; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (c == '\\') {
+                i++;
+            }
+            else if (c == '[') {
+                depth++;
+            }
+            else if (c == ']' && --depth == 0) {
+                return i == expression.length() - 1;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,258 @@
+package de.passwordvault.model.analysis.passwords
+
+import android.util.Log
+import de.passwordvault.model.analysis.PasswordStrengthEngine
+import de.passwordvault.model.detail.DetailType
+import de.passwordvault.model.entry.EntryAbbreviated
+import de.passwordvault.model.entry.EntryExtended
+import de.passwordvault.model.storage.app.StorageException
+import de.passwordvault.model.storage.app.StorageManager
+import de.passwordvault.model.storage.csv.CsvBuilder
+import de.passwordvault.model.storage.csv.CsvCursor
+import de.passwordvault.model.storage.encryption.EncryptionException
+
+
+/**
+ * Class implements a persistent cache for the results of the password security analysis. The
+ * results are stored encrypted within the vault, with one record per entry. The results of an entry
+ * remain valid as long as the entry has not been changed, so that only changed entries need to be
+ * decrypted during the next analysis. If the strength engine or its quality gates change, the cached
+ * passwords are scored again without decrypting the entries. Instances are not thread-safe, except for [get], which may
+ * be invoked concurrently once the results are loaded.
+ *
+ * @author  Christian-2003
+ * @since   3.7.4
+ */
+class PasswordAnalysisCache(
+
+    /**
+     * Attribute stores the storage manager through which the results are persisted.
+     */
+    private val storageManager: StorageManager = StorageManager()
+
+) {
+
+    /**
+     * Attribute stores the results which were loaded from storage, mapped to the UUIDs of the
+     * entries.
+     */
+    private val storedResults: HashMap<String, String> = HashMap()
+
+    /**
+     * Attribute stores the results of the current analysis, mapped to the UUIDs of the entries.
+     */
+    private val results: HashMap<String, String> = HashMap()
+
+
+    /**
+     * Method loads the cached results from storage. If the results cannot be loaded, the cache is
+     * empty.
+     */
+    fun load() {
+        storedResults.clear()
+        try {
+            storedResults.putAll(storageManager.loadPasswordAnalyses())
+        }
+        catch (e: StorageException) {
+            Log.w(TAG, "Could not load cached password analysis: " + e.message)
+        }
+    }
+
+
+    /**
+     * Method returns the cached results of the passed entry. If no results are cached or the entry
+     * was changed after the results were cached, null is returned.
+     *
+     * @param entry Entry whose cached results to return.
+     * @return      Cached results of the entry.
+     */
+    fun get(entry: EntryAbbreviated): CachedEntry? {
+        val content: String = storedResults[entry.uuid] ?: return null
+        val cached: CachedEntry = CachedEntry.fromStorable(content) ?: return null
+        return if (cached.changed == entry.changed.timeInMillis) cached else null
+    }
+
+
+    /**
+     * Method stores the passed results of the passed entry for the current analysis. Only results
+     * which are stored through this method are persisted through [save].
+     *
+     * @param entry     Entry whose results to store.
+     * @param results   Results of the entry.
+     */
+    fun put(entry: EntryAbbreviated, results: CachedEntry) {
+        this.results[entry.uuid] = results.toStorable()
+    }
+
+
+    /**
+     * Method persists the results of the current analysis. Results of entries which were not stored
+     * through [put], or which were deleted in the meantime, are removed from storage.
+     */
+    fun save() {
+        try {
+            storageManager.savePasswordAnalyses(results)
+        }
+        catch (e: EncryptionException) {
+            Log.w(TAG, "Could not save cached password analysis: " + e.message)
+        }
+    }
+
+
+    /**
+     * Class models the cached results of a single entry.
+     */
+    class CachedEntry(
+
+        /**
+         * Attribute stores the date (in milliseconds) on which the entry was changed before the
+         * results were calculated.
+         */
+        val changed: Long,
+
+        /**
+         * Attribute stores the version of the strength engine with which the passwords were scored.
+         */
+        val engineVersion: Long,
+
+        /**
+         * Attribute stores the cached passwords of the entry.
+         */
+        val passwords: List<CachedPassword>
+
+    ) {
+
+        /**
+         * Method returns the results for the passed strength engine. If the passwords were scored
+         * with another engine or another version of the engine, they are scored again.
+         *
+         * @param engine    Strength engine with which the passwords shall be scored.
+         * @return          Results scored with the passed engine.
+         */
+        fun scoredWith(engine: PasswordStrengthEngine): CachedEntry {
+            if (engineVersion == engine.version) {
+                return this
+            }
+            return CachedEntry(changed, engine.version, passwords.map { password ->
+                CachedPassword(password.detailUuid, password.detailChanged, engine.calculateScore(password.password), password.password)
+            })
+        }
+
+
+        /**
+         * Method converts the results into their string-representation.
+         *
+         * @return  String-representation of the results.
+         */
+        fun toStorable(): String {
+            val builder = CsvBuilder()
+            builder.append(changed)
+            builder.append(engineVersion)
+            builder.append(passwords.size)
+            passwords.forEach { password ->
+                builder.append(password.detailUuid)
+                builder.append(password.detailChanged)
+                builder.append(password.securityScore)
+                builder.append(password.password)
+            }
+            return builder.toString()
+        }
+
+
+        companion object {
+
+            /**
+             * Method scores the passwords of the passed entry with the passed strength engine.
+             *
+             * @param entry     Entry whose passwords to score.
+             * @param engine    Strength engine with which to score the passwords.
+             * @return          Results of the entry.
+             */
+            fun create(entry: EntryExtended, engine: PasswordStrengthEngine): CachedEntry {
+                val passwords: MutableList<CachedPassword> = mutableListOf()
+                entry.details.forEach { detail ->
+                    if (detail.type == DetailType.PASSWORD) {
+                        passwords.add(CachedPassword(detail.uuid, detail.changed.timeInMillis, engine.calculateScore(detail.content), detail.content))
+                    }
+                }
+                return CachedEntry(entry.changed.timeInMillis, engine.version, passwords)
+            }
+
+            /**
+             * Method creates the results from their string-representation, as generated by
+             * [toStorable].
+             *
+             * @param s String-representation of the results.
+             * @return  Results, or null if the string-representation is corrupt.
+             */
+            fun fromStorable(s: String): CachedEntry? {
+                val cursor = CsvCursor(s)
+                try {
+                    val changed: Long = cursor.nextLong()
+                    val engineVersion: Long = cursor.nextLong()
+                    val count: Int = cursor.nextInt()
+                    if (count < 0) {
+                        return null
+                    }
+                    val passwords: MutableList<CachedPassword> = ArrayList(count)
+                    for (i in 0 until count) {
+                        val detailUuid: String = cursor.nextString() ?: return null
+                        val detailChanged: Long = cursor.nextLong()
+                        val securityScore: Int = cursor.nextInt()
+                        val password: String = cursor.nextString() ?: return null
+                        passwords.add(CachedPassword(detailUuid, detailChanged, securityScore, password))
+                    }
+                    return CachedEntry(changed, engineVersion, passwords)
+                }
+                catch (e: IllegalStateException) {
+                    return null
+                }
+                catch (e: NumberFormatException) {
+                    return null
+                }
+            }
+
+        }
+
+    }
+
+
+    /**
+     * Class models a single cached password.
+     */
+    class CachedPassword(
+
+        /**
+         * Attribute stores the UUID of the detail containing the password.
+         */
+        val detailUuid: String,
+
+        /**
+         * Attribute stores the date (in milliseconds) on which the detail was changed.
+         */
+        val detailChanged: Long,
+
+        /**
+         * Attribute stores the score of the password, e.g. the number of quality gates which the
+         * password passes.
+         */
+        val securityScore: Int,
+
+        /**
+         * Attribute stores the password.
+         */
+        val password: String
+
+    )
+
+
+    companion object {
+
+        /**
+         * Field stores the tag used for debugging messages.
+         */
+        private const val TAG: String = "PasswordAnalysisCache"
+
+    }
+
+}
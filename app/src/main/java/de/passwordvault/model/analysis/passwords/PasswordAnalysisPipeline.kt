@@ -0,0 +1,208 @@
+package de.passwordvault.model.analysis.passwords
+
+import de.passwordvault.model.analysis.PasswordStrengthEngine
+import de.passwordvault.model.entry.EntryAbbreviated
+import de.passwordvault.model.entry.EntryExtended
+import de.passwordvault.model.entry.EntryManager
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.channelFlow
+import kotlinx.coroutines.flow.conflate
+import kotlinx.coroutines.flow.flowOn
+import kotlinx.coroutines.joinAll
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
+
+
+/**
+ * Class implements the password security analysis as a pipeline of two stages. In the first stage,
+ * a bounded number of workers decrypt the entries in parallel (or read their results from the
+ * [PasswordAnalysisCache]) and score their passwords. In the second stage, the scored passwords are
+ * grouped in the order of the entries, so that the result is independent of the order in which the
+ * workers finish. The progress of the analysis, including the numbers of weak and identical passwords
+ * found so far, is published through a flow. The analyzed passwords and the result of the analysis
+ * are only published once the analysis has finished.
+ *
+ * @author  Christian-2003
+ * @since   3.7.4
+ */
+class PasswordAnalysisPipeline(
+
+    /**
+     * Attribute stores the entry manager from which the entries are loaded.
+     */
+    private val entryManager: EntryManager,
+
+    /**
+     * Attribute stores the strength engine with which the passwords are scored.
+     */
+    private val strengthEngine: PasswordStrengthEngine,
+
+    /**
+     * Attribute stores the cache for the results of the analysis.
+     */
+    private val cache: PasswordAnalysisCache,
+
+    /**
+     * Attribute stores the number of workers which decrypt and score entries in parallel. If this is
+     * 0 or less, the number of available processors is used.
+     */
+    private val workers: Int
+
+) {
+
+    /**
+     * Method analyzes all entries of the entry manager. The returned flow emits the progress of the
+     * analysis, and completes after emitting the final progress, which is finished. Intermediate
+     * progress may be dropped if the collector is slower than the analysis.
+     *
+     * @param requiredScore  Score up to which a password is considered weak.
+     * @return               Flow emitting the progress of the analysis.
+     */
+    fun analyze(requiredScore: Int): Flow<Progress> = channelFlow {
+        withContext(Dispatchers.IO) {
+            cache.load()
+        }
+        val entries: List<EntryAbbreviated> = ArrayList(entryManager.data)
+        val results: Array<PasswordAnalysisCache.CachedEntry?> = arrayOfNulls(entries.size)
+        val pending: Channel<Int> = Channel(Channel.UNLIMITED)
+        val completed: Channel<Int> = Channel(Channel.UNLIMITED)
+        entries.indices.forEach { index ->
+            pending.trySend(index)
+        }
+        pending.close()
+
+        //Stage 1: Decrypt and score the entries in parallel:
+        val workerCount: Int = (if (workers > 0) workers else Runtime.getRuntime().availableProcessors()).coerceIn(1, entries.size.coerceAtLeast(1))
+        val workerJobs = List(workerCount) {
+            launch(Dispatchers.IO) {
+                for (index in pending) {
+                    results[index] = analyzeEntry(entries[index])
+                    //Sending the index publishes the result to the second stage:
+                    completed.send(index)
+                }
+            }
+        }
+        launch {
+            workerJobs.joinAll()
+            completed.close()
+        }
+
+        //Stage 2: Group the passwords in the order of the entries:
+        val analyzer = PasswordAnalyzer(requiredScore)
+        val passwords: MutableList<AnalyzedPassword> = mutableListOf()
+        val received = BooleanArray(entries.size)
+        var analyzedEntries = 0
+        var nextEntry = 0
+        for (index in completed) {
+            received[index] = true
+            analyzedEntries++
+            while (nextEntry < entries.size && received[nextEntry]) {
+                val entry: EntryAbbreviated = entries[nextEntry]
+                results[nextEntry]?.let { result ->
+                    cache.put(entry, result)
+                    result.passwords.forEach { cachedPassword ->
+                        val password = AnalyzedPassword(cachedPassword.securityScore, cachedPassword.password, entry)
+                        passwords.add(password)
+                        analyzer.add(password)
+                    }
+                }
+                results[nextEntry] = null
+                nextEntry++
+            }
+            if (analyzedEntries % PROGRESS_INTERVAL == 0 && analyzedEntries < entries.size) {
+                send(Progress(analyzedEntries, entries.size, analyzer.weakPasswordCount, analyzer.identicalPasswordGroupCount))
+            }
+        }
+
+        withContext(Dispatchers.IO) {
+            cache.save()
+        }
+        send(Progress(entries.size, entries.size, analyzer.weakPasswordCount, analyzer.identicalPasswordGroupCount, passwords, analyzer.getResult()))
+    }.conflate().flowOn(Dispatchers.Default)
+
+
+    /**
+     * Method analyzes the passwords of the passed entry. The results are read from the cache if the
+     * entry did not change since they were cached. This method is invoked concurrently by the
+     * workers.
+     *
+     * @param entry Entry to analyze.
+     * @return      Results of the entry, or null if the entry could not be loaded.
+     */
+    private fun analyzeEntry(entry: EntryAbbreviated): PasswordAnalysisCache.CachedEntry? {
+        val cached: PasswordAnalysisCache.CachedEntry? = cache.get(entry)
+        if (cached != null) {
+            return cached.scoredWith(strengthEngine)
+        }
+        val extended: EntryExtended = entryManager.get(entry.uuid, false) ?: return null
+        return PasswordAnalysisCache.CachedEntry.create(extended, strengthEngine)
+    }
+
+
+    /**
+     * Class models the progress of the analysis.
+     */
+    class Progress(
+
+        /**
+         * Attribute stores the number of entries which have been analyzed.
+         */
+        val analyzedEntries: Int,
+
+        /**
+         * Attribute stores the number of entries to analyze.
+         */
+        val totalEntries: Int,
+
+        /**
+         * Attribute stores the number of weak passwords found so far.
+         */
+        val weakPasswords: Int,
+
+        /**
+         * Attribute stores the number of groups of identical passwords found so far.
+         */
+        val identicalPasswords: Int,
+
+        /**
+         * Attribute stores all analyzed passwords. This is null until the analysis has finished.
+         */
+        val passwords: List<AnalyzedPassword>? = null,
+
+        /**
+         * Attribute stores the result of the analysis. This is null until the analysis has finished.
+         */
+        val result: PasswordAnalyzer.Result? = null
+
+    ) {
+
+        /**
+         * Attribute stores whether the analysis has finished.
+         */
+        val isFinished: Boolean
+            get() = result != null
+
+        /**
+         * Method returns the fraction of entries which have been analyzed.
+         *
+         * @return  Fraction between 0 and 1.
+         */
+        fun getFraction(): Float {
+            return if (totalEntries > 0) analyzedEntries.toFloat() / totalEntries else 1f
+        }
+
+    }
+
+
+    companion object {
+
+        /**
+         * Field stores the number of analyzed entries after which the progress is published.
+         */
+        private const val PROGRESS_INTERVAL: Int = 16
+
+    }
+
+}
@@ -0,0 +1,170 @@
+package de.passwordvault.model.analysis.passwords
+
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets
+import java.security.SecureRandom
+import javax.crypto.Mac
+import javax.crypto.spec.SecretKeySpec
+
+
+/**
+ * Class implements the password security analysis. Identical passwords are detected in a single
+ * pass by grouping the passwords by a keyed hash (HMAC), so that the passwords do not need to be
+ * compared with each other. The key is generated randomly for every analyzer, so that the hashes
+ * cannot be correlated with hashes of other analyses. Passwords can be added incrementally, so that
+ * partial results are available while the analysis is running. Instances are not thread-safe.
+ *
+ * @author  Christian-2003
+ * @since   3.7.4
+ */
+class PasswordAnalyzer(
+
+    /**
+     * Attribute stores the number of passed quality gates up to which a password is considered weak.
+     */
+    private val requiredQualityGates: Int
+
+) {
+
+    /**
+     * Attribute stores the MAC with which the passwords are hashed.
+     */
+    private val mac: Mac = Mac.getInstance(HMAC_ALGORITHM).apply {
+        val key = ByteArray(KEY_LENGTH)
+        SecureRandom().nextBytes(key)
+        init(SecretKeySpec(key, HMAC_ALGORITHM))
+    }
+
+    /**
+     * Attribute stores the sum of the security scores of all added passwords.
+     */
+    private var securityScoreSum: Double = 0.0
+
+    /**
+     * Attribute stores the number of added passwords.
+     */
+    private var numberOfPasswords: Int = 0
+
+    /**
+     * Attribute stores all weak passwords which were added.
+     */
+    private val weakPasswords: MutableList<AnalyzedPassword> = mutableListOf()
+
+    /**
+     * Attribute stores the added passwords, grouped by their keyed hash.
+     */
+    private val groups: LinkedHashMap<ByteBuffer, MutableList<AnalyzedPassword>> = LinkedHashMap()
+
+    /**
+     * Attribute stores the number of weak passwords which were added so far.
+     */
+    val weakPasswordCount: Int
+        get() = weakPasswords.size
+
+    /**
+     * Attribute stores the number of groups of identical passwords which were found so far.
+     */
+    var identicalPasswordGroupCount: Int = 0
+        private set
+
+
+    /**
+     * Method adds the passed password to the analysis.
+     *
+     * @param password  Password to add.
+     */
+    fun add(password: AnalyzedPassword) {
+        securityScoreSum += password.securityScore
+        numberOfPasswords++
+        if (password.securityScore <= requiredQualityGates) {
+            weakPasswords.add(password)
+        }
+        val group: MutableList<AnalyzedPassword> = groups.getOrPut(hash(password.password)) { mutableListOf() }
+        group.add(password)
+        if (group.size == 2) {
+            identicalPasswordGroupCount++
+        }
+    }
+
+
+    /**
+     * Method returns the result of the analysis of all passwords which were added so far. The
+     * returned result is not affected by passwords which are added afterwards.
+     *
+     * @return  Result of the analysis.
+     */
+    fun getResult(): Result {
+        return Result(
+            securityScore = if (numberOfPasswords > 0) securityScoreSum / numberOfPasswords else 0.0,
+            weakPasswords = weakPasswords.toList(),
+            identicalPasswords = groups.values.filter { group -> group.size > 1 }.map { group -> group.toList() }
+        )
+    }
+
+
+    /**
+     * Method adds the passed passwords to the analysis and returns the result.
+     *
+     * @param passwords Passwords to analyze.
+     * @return          Result of the analysis.
+     */
+    fun analyze(passwords: List<AnalyzedPassword>): Result {
+        passwords.forEach { password ->
+            add(password)
+        }
+        return getResult()
+    }
+
+
+    /**
+     * Method hashes the passed password with the keyed hash of the analyzer. The returned buffer
+     * implements equals and hashCode based on the hash, so that it can be used as key of a map.
+     *
+     * @param password  Password to hash.
+     * @return          Keyed hash of the password.
+     */
+    private fun hash(password: String): ByteBuffer {
+        return ByteBuffer.wrap(mac.doFinal(password.toByteArray(StandardCharsets.UTF_8)))
+    }
+
+
+    /**
+     * Class models the result of the password security analysis. Groups of identical passwords are
+     * ordered by the first occurrence of their password, and the passwords within every group are
+     * ordered by their occurrence.
+     */
+    class Result(
+
+        /**
+         * Attribute stores the average security score of all analyzed passwords.
+         */
+        val securityScore: Double,
+
+        /**
+         * Attribute stores all weak passwords.
+         */
+        val weakPasswords: List<AnalyzedPassword>,
+
+        /**
+         * Attribute stores all groups of identical passwords.
+         */
+        val identicalPasswords: List<List<AnalyzedPassword>>
+
+    )
+
+
+    companion object {
+
+        /**
+         * Field stores the algorithm of the keyed hash.
+         */
+        private const val HMAC_ALGORITHM: String = "HmacSHA256"
+
+        /**
+         * Field stores the length of the key for the keyed hash in bytes.
+         */
+        private const val KEY_LENGTH: Int = 32
+
+    }
+
+}
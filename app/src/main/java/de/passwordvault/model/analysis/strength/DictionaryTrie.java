@@ -0,0 +1,271 @@
+package de.passwordvault.model.analysis.strength;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+
+/**
+ * Class implements a read-only dictionary of ranked words, which is stored as a trie within a few
+ * flat arrays. The nodes are stored in breadth-first order, so that the children of every node are
+ * stored consecutively and sorted by their character. This requires 12 bytes per node, and
+ * does not create a single object per node. The rank of a word is its position within the word list,
+ * starting at {@code 1} for the most frequent word. Word lists are shipped gzip-compressed (see
+ * {@link #readCompressed(String, InputStream)}), and are only decompressed while the trie is built.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class DictionaryTrie {
+
+    /**
+     * Field stores the index of the root node.
+     */
+    public static final int ROOT = 0;
+
+
+    /**
+     * Attribute stores the name of the dictionary.
+     */
+    private final String name;
+
+    /**
+     * Attribute stores for every node the character of the edge leading to the node.
+     */
+    private final char[] labels;
+
+    /**
+     * Attribute stores for every node the index of its first child.
+     */
+    private final int[] firstChild;
+
+    /**
+     * Attribute stores for every node the number of its children.
+     */
+    private final char[] childCount;
+
+    /**
+     * Attribute stores for every node the rank of the word ending at the node, or {@code 0} if no
+     * word ends at the node.
+     */
+    private final int[] ranks;
+
+
+    /**
+     * Constructor instantiates a new dictionary from the passed words, which must be ordered by their
+     * frequency. Words are converted into lowercase, and duplicate words keep their best rank.
+     *
+     * @param name                  Name of the dictionary.
+     * @param words                 Words ordered by their frequency.
+     * @throws NullPointerException The passed name or words are {@code null}.
+     */
+    public DictionaryTrie(String name, ArrayList<String> words) throws NullPointerException {
+        if (name == null || words == null) {
+            throw new NullPointerException();
+        }
+        this.name = name;
+        ArrayList<String> uniqueWords = new ArrayList<>(words.size());
+        HashSet<String> seen = new HashSet<>();
+        for (String word : words) {
+            String lowercase = word.trim().toLowerCase(Locale.ROOT);
+            if (!lowercase.isEmpty() && seen.add(lowercase)) {
+                uniqueWords.add(lowercase);
+            }
+        }
+        Word[] sorted = new Word[uniqueWords.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = new Word(uniqueWords.get(i), i + 1);
+        }
+        Arrays.sort(sorted, (a, b) -> a.text.compareTo(b.text));
+
+        //Every node is described by a range of sorted words sharing the prefix of the node:
+        int capacity = 1;
+        for (Word word : sorted) {
+            capacity += word.text.length();
+        }
+        char[] nodeLabels = new char[capacity];
+        int[] nodeFirstChild = new int[capacity];
+        char[] nodeChildCount = new char[capacity];
+        int[] nodeRanks = new int[capacity];
+        int[] rangeStart = new int[capacity];
+        int[] rangeEnd = new int[capacity];
+        int[] depths = new int[capacity];
+        rangeEnd[ROOT] = sorted.length;
+        int size = 1;
+        for (int node = 0; node < size; node++) {
+            int from = rangeStart[node];
+            int to = rangeEnd[node];
+            int depth = depths[node];
+            if (from < to && sorted[from].text.length() == depth) {
+                nodeRanks[node] = sorted[from].rank;
+                from++;
+            }
+            nodeFirstChild[node] = size;
+            while (from < to) {
+                char c = sorted[from].text.charAt(depth);
+                int end = from + 1;
+                while (end < to && sorted[end].text.charAt(depth) == c) {
+                    end++;
+                }
+                nodeLabels[size] = c;
+                rangeStart[size] = from;
+                rangeEnd[size] = end;
+                depths[size] = depth + 1;
+                size++;
+                nodeChildCount[node]++;
+                from = end;
+            }
+        }
+        labels = Arrays.copyOf(nodeLabels, size);
+        firstChild = Arrays.copyOf(nodeFirstChild, size);
+        childCount = Arrays.copyOf(nodeChildCount, size);
+        ranks = Arrays.copyOf(nodeRanks, size);
+    }
+
+
+    /**
+     * Static method reads a dictionary from the passed stream, which contains one word per line,
+     * ordered by frequency. Empty lines are ignored.
+     *
+     * @param name                  Name of the dictionary.
+     * @param input                 Stream from which to read the words.
+     * @return                      Dictionary.
+     * @throws NullPointerException The passed name or stream is {@code null}.
+     * @throws IOException          The stream could not be read.
+     */
+    public static DictionaryTrie read(String name, InputStream input) throws NullPointerException, IOException {
+        if (name == null || input == null) {
+            throw new NullPointerException();
+        }
+        ArrayList<String> words = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            words.add(line);
+        }
+        return new DictionaryTrie(name, words);
+    }
+
+    /**
+     * Static method reads a dictionary from the passed gzip-compressed stream, which contains one word
+     * per line, ordered by frequency. Empty lines are ignored.
+     *
+     * @param name                  Name of the dictionary.
+     * @param input                 Gzip-compressed stream from which to read the words.
+     * @return                      Dictionary.
+     * @throws NullPointerException The passed name or stream is {@code null}.
+     * @throws IOException          The stream could not be read or decompressed.
+     */
+    public static DictionaryTrie readCompressed(String name, InputStream input) throws NullPointerException, IOException {
+        if (name == null || input == null) {
+            throw new NullPointerException();
+        }
+        return read(name, new GZIPInputStream(input, 8192));
+    }
+
+
+    /**
+     * Method returns the name of the dictionary.
+     *
+     * @return  Name of the dictionary.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Method returns the number of nodes of the trie.
+     *
+     * @return  Number of nodes.
+     */
+    public int getNodeCount() {
+        return labels.length;
+    }
+
+    /**
+     * Method returns the child of the passed node which is reached through the passed character.
+     *
+     * @param node  Node whose child to return.
+     * @param c     Character of the edge to the child.
+     * @return      Index of the child, or {@code -1} if no such child exists.
+     */
+    public int getChild(int node, char c) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (labels[middle] < c) {
+                low = middle + 1;
+            }
+            else if (labels[middle] > c) {
+                high = middle - 1;
+            }
+            else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Method returns the rank of the word ending at the passed node.
+     *
+     * @param node  Node whose rank to return.
+     * @return      Rank of the word, or {@code 0} if no word ends at the node.
+     */
+    public int getRank(int node) {
+        return ranks[node];
+    }
+
+    /**
+     * Method returns the rank of the passed lowercase word.
+     *
+     * @param word  Word whose rank to return.
+     * @return      Rank of the word, or {@code 0} if the word is not contained.
+     */
+    public int getRank(String word) {
+        int node = ROOT;
+        for (int i = 0; i < word.length() && node != -1; i++) {
+            node = getChild(node, word.charAt(i));
+        }
+        return node == -1 ? 0 : ranks[node];
+    }
+
+
+    /**
+     * Class models a word with its rank while the trie is built.
+     */
+    private static class Word {
+
+        /**
+         * Attribute stores the text of the word.
+         */
+        private final String text;
+
+        /**
+         * Attribute stores the rank of the word.
+         */
+        private final int rank;
+
+
+        /**
+         * Constructor instantiates a new word.
+         *
+         * @param text  Text of the word.
+         * @param rank  Rank of the word.
+         */
+        private Word(String text, int rank) {
+            this.text = text;
+            this.rank = rank;
+        }
+
+    }
+
+}
@@ -0,0 +1,463 @@
+package de.passwordvault.model.analysis.strength;
+
+import android.util.Log;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedList;
+import java.util.List;
+import de.passwordvault.App;
+import de.passwordvault.R;
+import de.passwordvault.model.analysis.PasswordStrengthEngine;
+
+
+/**
+ * Class implements a password strength engine which estimates the number of guesses an attacker
+ * needs to guess a password, following the model of zxcvbn (Wheeler, 2016). The password is split
+ * into the sequence of matches (dictionary words, keyboard walks, sequences, repeats and dates) which
+ * requires the fewest guesses, and parts which do not match any pattern are guessed by brute force.
+ * The number of guesses is mapped to a score between {@code 0} and {@link #MAX_SCORE}.
+ * The class is implemented using singleton-pattern. The singleton-instance can be retrieved through
+ * {@link #getInstance()}, which loads the dictionaries from the raw resources.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class EntropyStrengthEngine implements PasswordStrengthEngine {
+
+    /**
+     * Field stores the maximum score which a password can achieve.
+     */
+    public static final int MAX_SCORE = 4;
+
+    /**
+     * Field stores the number of guesses up to which a password achieves the scores {@code 0} to
+     * {@code 3}.
+     */
+    private static final double[] SCORE_THRESHOLDS = {1e3 + 5, 1e6 + 5, 1e8 + 5, 1e10 + 5};
+
+    /**
+     * Field stores the maximum number of characters which are analyzed. Remaining characters are
+     * ignored, which underestimates the strength of very long passwords.
+     */
+    private static final int MAX_LENGTH = 64;
+
+    /**
+     * Field stores the number of guesses per character which is brute forced.
+     */
+    private static final double BRUTEFORCE_CARDINALITY = 10;
+
+    /**
+     * Field stores the minimum number of guesses for a match of a single character which does not
+     * cover the entire password.
+     */
+    private static final double MIN_GUESSES_SINGLE_CHARACTER = 10;
+
+    /**
+     * Field stores the minimum number of guesses for a match of multiple characters which does not
+     * cover the entire password.
+     */
+    private static final double MIN_GUESSES_MULTIPLE_CHARACTERS = 50;
+
+    /**
+     * Field stores the number of guesses by which every additional match is penalized.
+     */
+    private static final double MATCH_PENALTY = 10000;
+
+    /**
+     * Field stores the version of the estimation. Increment this whenever the estimation or the
+     * dictionaries change.
+     */
+    private static final long ESTIMATION_VERSION = 2;
+
+    /**
+     * Field stores the tag used for debugging messages.
+     */
+    private static final String TAG = "EntropyStrengthEngine";
+
+    /**
+     * Field stores the factorials up to {@link #MAX_LENGTH}.
+     */
+    private static final double[] FACTORIALS = new double[MAX_LENGTH + 1];
+
+    /**
+     * Field stores the powers of {@link #MATCH_PENALTY} up to {@link #MAX_LENGTH}.
+     */
+    private static final double[] PENALTIES = new double[MAX_LENGTH + 1];
+
+    /**
+     * Field stores the powers of {@link #BRUTEFORCE_CARDINALITY} up to {@link #MAX_LENGTH}.
+     */
+    private static final double[] BRUTEFORCE_GUESSES = new double[MAX_LENGTH + 1];
+
+    static {
+        FACTORIALS[0] = 1;
+        PENALTIES[0] = 1;
+        BRUTEFORCE_GUESSES[0] = 1;
+        for (int i = 1; i <= MAX_LENGTH; i++) {
+            FACTORIALS[i] = FACTORIALS[i - 1] * i;
+            PENALTIES[i] = PENALTIES[i - 1] * MATCH_PENALTY;
+            BRUTEFORCE_GUESSES[i] = BRUTEFORCE_GUESSES[i - 1] * BRUTEFORCE_CARDINALITY;
+        }
+    }
+
+
+    /**
+     * Field stores the singleton-instance of the engine.
+     */
+    private static EntropyStrengthEngine singleton;
+
+
+    /**
+     * Attribute stores the matcher which finds the patterns within passwords.
+     */
+    private final PatternMatcher matcher;
+
+    /**
+     * Attribute stores the version of the engine, which includes the reference year for dates.
+     */
+    private final long version;
+
+
+    /**
+     * Constructor instantiates a new engine which uses the passed dictionaries.
+     *
+     * @param dictionaries          Dictionaries in which to look up words.
+     * @param referenceYear         Year relative to which dates are guessed.
+     * @throws NullPointerException The passed dictionaries are {@code null}.
+     */
+    public EntropyStrengthEngine(DictionaryTrie[] dictionaries, int referenceYear) throws NullPointerException {
+        matcher = new PatternMatcher(dictionaries, new KeyboardGraph[] {KeyboardGraph.QWERTY, KeyboardGraph.QWERTZ}, referenceYear);
+        version = ESTIMATION_VERSION * 10000 + referenceYear;
+    }
+
+
+    /**
+     * Static method returns the {@link #singleton}-instance of the engine.
+     *
+     * @return  Singleton-instance of the engine.
+     */
+    public static synchronized EntropyStrengthEngine getInstance() {
+        if (singleton == null) {
+            DictionaryTrie[] dictionaries = {
+                    loadDictionary("passwords", R.raw.strength_passwords),
+                    loadDictionary("words", R.raw.strength_words),
+                    loadDictionary("words_de", R.raw.strength_words_de),
+                    loadDictionary("names", R.raw.strength_names)
+            };
+            singleton = new EntropyStrengthEngine(dictionaries, Calendar.getInstance().get(Calendar.YEAR));
+        }
+        return singleton;
+    }
+
+
+    /**
+     * Method returns the maximum score which a password can achieve.
+     *
+     * @return  Maximum score.
+     */
+    @Override
+    public int getMaxScore() {
+        return MAX_SCORE;
+    }
+
+    /**
+     * Method calculates the score of the passed password.
+     *
+     * @param password  Password to score.
+     * @return          Score of the password between {@code 0} and {@link #MAX_SCORE}.
+     */
+    @Override
+    public int calculateScore(String password) {
+        return estimate(password).getScore();
+    }
+
+    /**
+     * Method returns the version of the engine.
+     *
+     * @return  Version of the engine.
+     */
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+
+    /**
+     * Method estimates the strength of the passed password.
+     *
+     * @param password              Password whose strength to estimate.
+     * @return                      Estimated strength.
+     * @throws NullPointerException The passed password is {@code null}.
+     */
+    public StrengthEstimate estimate(String password) throws NullPointerException {
+        if (password == null) {
+            throw new NullPointerException();
+        }
+        if (password.length() > MAX_LENGTH) {
+            password = password.substring(0, MAX_LENGTH);
+        }
+        LinkedList<StrengthMatch> sequence = new LinkedList<>();
+        double guesses = findMostGuessableSequence(password, sequence);
+        int score = 0;
+        while (score < SCORE_THRESHOLDS.length && guesses >= SCORE_THRESHOLDS[score]) {
+            score++;
+        }
+        return new StrengthEstimate(guesses, score, sequence);
+    }
+
+
+    /**
+     * Method finds the sequence of non-overlapping matches covering the passed password which
+     * requires the fewest guesses. Sequences of {@code l} matches are guessed in
+     * {@code l! * product(guesses) + 10000^(l - 1)} guesses, so that fewer matches are preferred.
+     *
+     * @param password  Password for which to find the sequence.
+     * @param sequence  List to which to add the matches of the sequence.
+     * @return          Number of guesses for the sequence.
+     */
+    private double findMostGuessableSequence(String password, List<StrengthMatch> sequence) {
+        int n = password.length();
+        if (n == 0) {
+            return 1;
+        }
+        ArrayList<StrengthMatch> matches = matcher.findMatches(password);
+        findRepeatMatches(password, matches);
+        @SuppressWarnings("unchecked")
+        ArrayList<StrengthMatch>[] matchesByEnd = new ArrayList[n];
+        for (StrengthMatch match : matches) {
+            if (matchesByEnd[match.getEnd()] == null) {
+                matchesByEnd[match.getEnd()] = new ArrayList<>();
+            }
+            matchesByEnd[match.getEnd()].add(match);
+        }
+
+        //optimum.guesses[k][l] stores the fewest guesses for the prefix ending at k, using l matches:
+        Optimum optimum = new Optimum(n);
+        for (int k = 0; k < n; k++) {
+            if (matchesByEnd[k] != null) {
+                for (StrengthMatch match : matchesByEnd[k]) {
+                    double guesses = getMatchGuesses(match.getGuesses(), match.getStart(), match.getEnd(), n);
+                    if (match.getStart() > 0) {
+                        for (int l = 1; l <= match.getStart(); l++) {
+                            if (optimum.exists(match.getStart() - 1, l)) {
+                                optimum.update(match.getStart(), k, l + 1, guesses, match);
+                            }
+                        }
+                    }
+                    else {
+                        optimum.update(0, k, 1, guesses, match);
+                    }
+                }
+            }
+
+            //Brute force the characters up to k, after any sequence not ending with brute force:
+            optimum.update(0, k, 1, getBruteforceGuesses(0, k, n), null);
+            for (int i = 1; i <= k; i++) {
+                double guesses = getBruteforceGuesses(i, k, n);
+                for (int l = 1; l <= i; l++) {
+                    if (optimum.exists(i - 1, l) && optimum.matches[i - 1][l] != null) {
+                        optimum.update(i, k, l + 1, guesses, null);
+                    }
+                }
+            }
+        }
+
+        //Unwind the optimal sequence:
+        int length = 1;
+        for (int l = 2; l <= n; l++) {
+            if (optimum.exists(n - 1, l) && optimum.guesses[n - 1][l] < optimum.guesses[n - 1][length]) {
+                length = l;
+            }
+        }
+        double guesses = optimum.guesses[n - 1][length];
+        int k = n - 1;
+        for (int l = length; k >= 0; l--) {
+            StrengthMatch match = optimum.matches[k][l];
+            int start = optimum.starts[k][l];
+            if (match == null) {
+                match = new StrengthMatch(StrengthMatch.Pattern.BRUTEFORCE, start, k, getBruteforceGuesses(start, k, n), null);
+            }
+            sequence.add(0, match);
+            k = start - 1;
+        }
+        return guesses;
+    }
+
+
+    /**
+     * Method finds all parts of the passed password which repeat a shorter part at least twice, e.g.
+     * "aaa" or "abcabc". The number of guesses of a repeat is the number of guesses of the repeated
+     * part times the number of repetitions.
+     *
+     * @param password  Password in which to find repeats.
+     * @param matches   List to which to add the matches.
+     */
+    private void findRepeatMatches(String password, ArrayList<StrengthMatch> matches) {
+        int n = password.length();
+        int i = 0;
+        while (i < n - 1) {
+            int bestPeriod = 0;
+            int bestLength = 0;
+            for (int period = 1; period <= (n - i) / 2; period++) {
+                int k = i + period;
+                while (k < n && password.charAt(k) == password.charAt(k - period)) {
+                    k++;
+                }
+                int length = (k - i) / period * period;
+                if (length >= 2 * period && length > bestLength) {
+                    bestPeriod = period;
+                    bestLength = length;
+                }
+            }
+            if (bestLength == 0) {
+                i++;
+                continue;
+            }
+            double baseGuesses = findMostGuessableSequence(password.substring(i, i + bestPeriod), new LinkedList<StrengthMatch>());
+            matches.add(new StrengthMatch(StrengthMatch.Pattern.REPEAT, i, i + bestLength - 1, baseGuesses * (bestLength / bestPeriod), null));
+            i += bestLength;
+        }
+    }
+
+
+    /**
+     * Method applies the minimum number of guesses to a match. Matches which do not cover the entire
+     * password require a minimum number of guesses, since attackers cannot know where they start.
+     *
+     * @param guesses   Estimated number of guesses of the match.
+     * @param start     Index of the first character of the match (inclusive).
+     * @param end       Index of the last character of the match (inclusive).
+     * @param length    Length of the password.
+     * @return          Number of guesses of the match.
+     */
+    private static double getMatchGuesses(double guesses, int start, int end, int length) {
+        double minGuesses = 1;
+        if (end - start + 1 < length) {
+            minGuesses = start == end ? MIN_GUESSES_SINGLE_CHARACTER : MIN_GUESSES_MULTIPLE_CHARACTERS;
+        }
+        return Math.max(guesses, minGuesses);
+    }
+
+
+    /**
+     * Method returns the number of guesses to brute force the passed range.
+     *
+     * @param start     Index of the first character (inclusive).
+     * @param end       Index of the last character (inclusive).
+     * @param length    Length of the password.
+     * @return          Number of guesses.
+     */
+    private static double getBruteforceGuesses(int start, int end, int length) {
+        int characters = end - start + 1;
+        double minGuesses = characters == 1 ? MIN_GUESSES_SINGLE_CHARACTER + 1 : MIN_GUESSES_MULTIPLE_CHARACTERS + 1;
+        return Math.max(BRUTEFORCE_GUESSES[characters], minGuesses);
+    }
+
+
+    /**
+     * Method loads a dictionary from the gzip-compressed raw resource with the passed ID. If the
+     * dictionary cannot be loaded, an empty dictionary is returned.
+     *
+     * @param name  Name of the dictionary.
+     * @param id    ID of the raw resource.
+     * @return      Dictionary.
+     */
+    private static DictionaryTrie loadDictionary(String name, int id) {
+        try (InputStream input = App.getContext().getResources().openRawResource(id)) {
+            return DictionaryTrie.readCompressed(name, input);
+        }
+        catch (Exception e) {
+            Log.w(TAG, "Could not load dictionary '" + name + "': " + e.getMessage());
+            return new DictionaryTrie(name, new ArrayList<>());
+        }
+    }
+
+
+    /**
+     * Class stores the optimal sequences found so far while finding the most guessable sequence.
+     * Every optimum is identified by the index of its last character and its number of matches.
+     */
+    private static class Optimum {
+
+        /**
+         * Attribute stores the number of guesses of every optimum, or {@code 0} if there is none.
+         */
+        private final double[][] guesses;
+
+        /**
+         * Attribute stores the product of the guesses of the matches of every optimum.
+         */
+        private final double[][] products;
+
+        /**
+         * Attribute stores the last match of every optimum, or {@code null} if the last match is
+         * brute forced.
+         */
+        private final StrengthMatch[][] matches;
+
+        /**
+         * Attribute stores the index of the first character of the last match of every optimum.
+         */
+        private final int[][] starts;
+
+
+        /**
+         * Constructor instantiates new optima for a password of the passed length.
+         *
+         * @param length    Length of the password.
+         */
+        private Optimum(int length) {
+            guesses = new double[length][length + 1];
+            products = new double[length][length + 1];
+            matches = new StrengthMatch[length][length + 1];
+            starts = new int[length][length + 1];
+        }
+
+
+        /**
+         * Method returns whether an optimum exists for the passed index and number of matches.
+         *
+         * @param k Index of the last character.
+         * @param l Number of matches.
+         * @return  Whether an optimum exists.
+         */
+        private boolean exists(int k, int l) {
+            return guesses[k][l] > 0;
+        }
+
+
+        /**
+         * Method appends the passed match to the optimum ending before the match with one match less,
+         * and stores the result if it is better than every optimum ending at the same index with at
+         * most as many matches.
+         *
+         * @param start         Index of the first character of the match (inclusive).
+         * @param end           Index of the last character of the match (inclusive).
+         * @param l             Number of matches including the passed match.
+         * @param matchGuesses  Number of guesses of the match.
+         * @param match         Match, or {@code null} if the match is brute forced.
+         */
+        private void update(int start, int end, int l, double matchGuesses, StrengthMatch match) {
+            if (l >= guesses[end].length) {
+                return;
+            }
+            double product = matchGuesses;
+            if (l > 1) {
+                product *= products[start - 1][l - 1];
+            }
+            double total = FACTORIALS[l] * product + PENALTIES[l - 1];
+            for (int competing = 1; competing <= l; competing++) {
+                if (exists(end, competing) && guesses[end][competing] <= total) {
+                    return;
+                }
+            }
+            guesses[end][l] = total;
+            products[end][l] = product;
+            matches[end][l] = match;
+            starts[end][l] = start;
+        }
+
+    }
+
+}
@@ -0,0 +1,179 @@
+package de.passwordvault.model.analysis.strength;
+
+
+/**
+ * Class models the adjacency of the keys of a keyboard layout, which is used to detect walks across
+ * adjacent keys, e.g. "qwerty" or "1qaz". Rows are slanted, so that every key has up to six neighbors:
+ * left and right within the same row, and two keys each within the rows above and below. Only
+ * characters up to {@code U+00FF} are supported, which suffices for the supported layouts.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class KeyboardGraph {
+
+    /**
+     * Field stores the number of supported characters.
+     */
+    private static final int CHARACTERS = 256;
+
+    /**
+     * Field stores the bit which marks a character as being typed with shift.
+     */
+    private static final int SHIFTED = 1 << 16;
+
+    /**
+     * Field stores for every row the offset of its first key in half keys, relative to the first key
+     * of the top row.
+     */
+    private static final int[] ROW_OFFSETS = {0, 3, 4, 5};
+
+    /**
+     * Field stores the US QWERTY-layout.
+     */
+    public static final KeyboardGraph QWERTY = new KeyboardGraph(
+            "qwerty",
+            new String[] {"`1234567890-=", "qwertyuiop[]\\", "asdfghjkl;'", "zxcvbnm,./"},
+            new String[] {"~!@#$%^&*()_+", "QWERTYUIOP{}|", "ASDFGHJKL:\"", "ZXCVBNM<>?"}
+    );
+
+    /**
+     * Field stores the German QWERTZ-layout.
+     */
+    public static final KeyboardGraph QWERTZ = new KeyboardGraph(
+            "qwertz",
+            new String[] {"^1234567890ß´", "qwertzuiopü+", "asdfghjklöä#", "yxcvbnm,.-"},
+            new String[] {"°!\"§$%&/()=?`", "QWERTZUIOPÜ*", "ASDFGHJKLÖÄ'", "YXCVBNM;:_"}
+    );
+
+
+    /**
+     * Attribute stores the name of the layout.
+     */
+    private final String name;
+
+    /**
+     * Attribute stores for every character its row (bits 8 to 15) and slanted column (bits 0 to 7),
+     * incremented by one, together with {@link #SHIFTED}. Characters which are not on the keyboard
+     * are {@code 0}.
+     */
+    private final int[] positions;
+
+    /**
+     * Attribute stores the number of keys, which is the number of possible starting positions of a
+     * walk.
+     */
+    private final int startingPositions;
+
+    /**
+     * Attribute stores the average number of neighbors of a key.
+     */
+    private final double averageDegree;
+
+
+    /**
+     * Constructor instantiates a new keyboard graph.
+     *
+     * @param name      Name of the layout.
+     * @param rows      Rows of the layout, starting at the top row.
+     * @param shifted   Rows of the layout when shift is pressed.
+     */
+    private KeyboardGraph(String name, String[] rows, String[] shifted) {
+        this.name = name;
+        positions = new int[CHARACTERS];
+        int keys = 0;
+        for (int row = 0; row < rows.length; row++) {
+            for (int column = 0; column < rows[row].length(); column++) {
+                int position = ((row << 8) | (2 * column + ROW_OFFSETS[row])) + 1;
+                positions[rows[row].charAt(column)] = position;
+                positions[shifted[row].charAt(column)] = position | SHIFTED;
+                keys++;
+            }
+        }
+        startingPositions = keys;
+
+        int neighbors = 0;
+        for (int row = 0; row < rows.length; row++) {
+            for (int column = 0; column < rows[row].length(); column++) {
+                char key = rows[row].charAt(column);
+                for (String other : rows) {
+                    for (int i = 0; i < other.length(); i++) {
+                        if (getDirection(key, other.charAt(i)) != -1) {
+                            neighbors++;
+                        }
+                    }
+                }
+            }
+        }
+        averageDegree = (double)neighbors / keys;
+    }
+
+
+    /**
+     * Method returns the name of the layout.
+     *
+     * @return  Name of the layout.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Method returns the number of keys, which is the number of possible starting positions of a
+     * walk.
+     *
+     * @return  Number of keys.
+     */
+    public int getStartingPositions() {
+        return startingPositions;
+    }
+
+    /**
+     * Method returns the average number of neighbors of a key.
+     *
+     * @return  Average number of neighbors.
+     */
+    public double getAverageDegree() {
+        return averageDegree;
+    }
+
+    /**
+     * Method returns whether the passed character is typed with shift.
+     *
+     * @param c Character to test.
+     * @return  Whether the character is typed with shift.
+     */
+    public boolean isShifted(char c) {
+        return c < CHARACTERS && (positions[c] & SHIFTED) != 0;
+    }
+
+    /**
+     * Method returns the direction in which the key of the second character is located relative to
+     * the key of the first character.
+     *
+     * @param from  Character from which to walk.
+     * @param to    Character to which to walk.
+     * @return      Direction between {@code 0} and {@code 5}, or {@code -1} if the keys are not
+     *              adjacent.
+     */
+    public int getDirection(char from, char to) {
+        if (from >= CHARACTERS || to >= CHARACTERS || positions[from] == 0 || positions[to] == 0) {
+            return -1;
+        }
+        int fromPosition = (positions[from] & ~SHIFTED) - 1;
+        int toPosition = (positions[to] & ~SHIFTED) - 1;
+        int rowDelta = (toPosition >> 8) - (fromPosition >> 8);
+        int columnDelta = (toPosition & 0xFF) - (fromPosition & 0xFF);
+        if (rowDelta == 0) {
+            return columnDelta == -2 ? 0 : (columnDelta == 2 ? 1 : -1);
+        }
+        else if (rowDelta == -1) {
+            return columnDelta == -1 ? 2 : (columnDelta == 1 ? 3 : -1);
+        }
+        else if (rowDelta == 1) {
+            return columnDelta == -1 ? 4 : (columnDelta == 1 ? 5 : -1);
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,632 @@
+package de.passwordvault.model.analysis.strength;
+
+import java.util.ArrayList;
+
+
+/**
+ * Class finds all parts of a password which match a pattern that attackers guess first, and
+ * estimates the number of guesses for every part. The estimates follow the model of zxcvbn (Wheeler,
+ * 2016). Instances are immutable and can be used concurrently.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class PatternMatcher {
+
+    /**
+     * Field stores the year before which passwords are not expected to contain dates.
+     */
+    private static final int MIN_YEAR = 1000;
+
+    /**
+     * Field stores the year after which passwords are not expected to contain dates.
+     */
+    private static final int MAX_YEAR = 2050;
+
+    /**
+     * Field stores the minimum number of years an attacker is expected to guess.
+     */
+    private static final int MIN_YEAR_SPACE = 20;
+
+    /**
+     * Field stores the maximum absolute distance between subsequent characters of a sequence.
+     */
+    private static final int MAX_SEQUENCE_DELTA = 5;
+
+    /**
+     * Field stores the characters which separate the parts of a date.
+     */
+    private static final String DATE_SEPARATORS = " /\\_.-";
+
+    /**
+     * Field stores the positions at which dates without separator of length 4 to 8 are split into
+     * three numbers.
+     */
+    private static final int[][][] DATE_SPLITS = {
+            {{1, 2}, {2, 3}},
+            {{1, 3}, {2, 3}},
+            {{1, 2}, {2, 4}, {4, 5}},
+            {{1, 3}, {2, 3}, {4, 5}, {4, 6}},
+            {{2, 4}, {4, 6}}
+    };
+
+    /**
+     * Field stores for every character up to {@code U+007F} the letters which it substitutes in l33t
+     * speak, e.g. "4" for "a".
+     */
+    private static final String[] L33T_SUBSTITUTIONS = new String[128];
+
+    static {
+        String[][] substitutions = {
+                {"4", "a"}, {"@", "a"}, {"8", "b"}, {"(", "c"}, {"{", "c"}, {"[", "c"}, {"<", "c"},
+                {"3", "e"}, {"6", "g"}, {"9", "g"}, {"1", "il"}, {"!", "i"}, {"|", "il"}, {"7", "lt"},
+                {"0", "o"}, {"$", "s"}, {"5", "s"}, {"+", "t"}, {"%", "x"}, {"2", "z"}
+        };
+        for (String[] substitution : substitutions) {
+            L33T_SUBSTITUTIONS[substitution[0].charAt(0)] = substitution[1];
+        }
+    }
+
+
+    /**
+     * Attribute stores the dictionaries in which to look up words.
+     */
+    private final DictionaryTrie[] dictionaries;
+
+    /**
+     * Attribute stores the keyboard layouts on which to look for walks.
+     */
+    private final KeyboardGraph[] keyboards;
+
+    /**
+     * Attribute stores the year relative to which dates are guessed.
+     */
+    private final int referenceYear;
+
+
+    /**
+     * Constructor instantiates a new pattern matcher.
+     *
+     * @param dictionaries          Dictionaries in which to look up words.
+     * @param keyboards             Keyboard layouts on which to look for walks.
+     * @param referenceYear         Year relative to which dates are guessed.
+     * @throws NullPointerException The passed dictionaries or keyboards are {@code null}.
+     */
+    public PatternMatcher(DictionaryTrie[] dictionaries, KeyboardGraph[] keyboards, int referenceYear) throws NullPointerException {
+        if (dictionaries == null || keyboards == null) {
+            throw new NullPointerException();
+        }
+        this.dictionaries = dictionaries;
+        this.keyboards = keyboards;
+        this.referenceYear = referenceYear;
+    }
+
+
+    /**
+     * Method finds all matches within the passed password. Matches may overlap.
+     *
+     * @param password  Password in which to find matches.
+     * @return          List of matches.
+     */
+    public ArrayList<StrengthMatch> findMatches(String password) {
+        ArrayList<StrengthMatch> matches = new ArrayList<>();
+        char[] characters = password.toCharArray();
+        char[] reversed = new char[characters.length];
+        for (int i = 0; i < characters.length; i++) {
+            reversed[characters.length - 1 - i] = characters[i];
+        }
+        char[] word = new char[characters.length];
+        for (DictionaryTrie dictionary : dictionaries) {
+            for (int i = 0; i < characters.length; i++) {
+                findDictionaryMatches(dictionary, characters, i, DictionaryTrie.ROOT, i, word, false, matches);
+                findDictionaryMatches(dictionary, reversed, i, DictionaryTrie.ROOT, i, word, true, matches);
+            }
+        }
+        for (KeyboardGraph keyboard : keyboards) {
+            findKeyboardMatches(keyboard, characters, matches);
+        }
+        findSequenceMatches(characters, matches);
+        findDateMatches(characters, matches);
+        return matches;
+    }
+
+
+    /**
+     * Method finds all words of the passed dictionary which start at the passed index of the
+     * passed characters, by walking the trie depth-first. At l33t characters, the walk branches into
+     * every letter which the character may substitute.
+     *
+     * @param dictionary    Dictionary in which to look up words.
+     * @param characters    Characters of the password, possibly reversed.
+     * @param start         Index at which the words start.
+     * @param node          Current node of the trie.
+     * @param index         Index of the next character to match.
+     * @param word          Buffer for the letters of the dictionary word matched so far.
+     * @param reversed      Whether the characters are reversed.
+     * @param matches       List to which to add the matches.
+     */
+    private void findDictionaryMatches(DictionaryTrie dictionary, char[] characters, int start, int node, int index, char[] word, boolean reversed, ArrayList<StrengthMatch> matches) {
+        if (index > start) {
+            int rank = dictionary.getRank(node);
+            if (rank > 0) {
+                addDictionaryMatch(dictionary, characters, start, index - 1, word, rank, reversed, matches);
+            }
+        }
+        if (index >= characters.length) {
+            return;
+        }
+        char c = characters[index];
+        int child = dictionary.getChild(node, Character.toLowerCase(c));
+        if (child != -1) {
+            word[index - start] = Character.toLowerCase(c);
+            findDictionaryMatches(dictionary, characters, start, child, index + 1, word, reversed, matches);
+        }
+        if (c < L33T_SUBSTITUTIONS.length && L33T_SUBSTITUTIONS[c] != null) {
+            String letters = L33T_SUBSTITUTIONS[c];
+            for (int i = 0; i < letters.length(); i++) {
+                child = dictionary.getChild(node, letters.charAt(i));
+                if (child != -1) {
+                    word[index - start] = letters.charAt(i);
+                    findDictionaryMatches(dictionary, characters, start, child, index + 1, word, reversed, matches);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Method adds a dictionary match for the passed range of the passed characters.
+     *
+     * @param dictionary    Dictionary containing the word.
+     * @param characters    Characters of the password, possibly reversed.
+     * @param start         Index of the first character of the word (inclusive).
+     * @param end           Index of the last character of the word (inclusive).
+     * @param word          Letters of the dictionary word.
+     * @param rank          Rank of the word within the dictionary.
+     * @param reversed      Whether the characters are reversed.
+     * @param matches       List to which to add the match.
+     */
+    private void addDictionaryMatch(DictionaryTrie dictionary, char[] characters, int start, int end, char[] word, int rank, boolean reversed, ArrayList<StrengthMatch> matches) {
+        int length = end - start + 1;
+        double guesses = rank * getUppercaseVariations(characters, start, end) * getL33tVariations(characters, start, end, word);
+        if (reversed) {
+            if (length == 1) {
+                //Single characters are matched without reversing:
+                return;
+            }
+            guesses *= 2;
+            int passwordEnd = characters.length - 1 - start;
+            matches.add(new StrengthMatch(StrengthMatch.Pattern.DICTIONARY, passwordEnd - length + 1, passwordEnd, guesses, dictionary.getName()));
+        }
+        else {
+            matches.add(new StrengthMatch(StrengthMatch.Pattern.DICTIONARY, start, end, guesses, dictionary.getName()));
+        }
+    }
+
+
+    /**
+     * Method calculates the number of ways in which the letters of the passed range can be
+     * capitalized, given that capitalizing the first, last or all letters is guessed first.
+     *
+     * @param characters    Characters of the password.
+     * @param start         Index of the first character (inclusive).
+     * @param end           Index of the last character (inclusive).
+     * @return              Number of variations.
+     */
+    private static double getUppercaseVariations(char[] characters, int start, int end) {
+        int uppercase = 0;
+        int lowercase = 0;
+        for (int i = start; i <= end; i++) {
+            if (Character.isUpperCase(characters[i])) {
+                uppercase++;
+            }
+            else if (Character.isLowerCase(characters[i])) {
+                lowercase++;
+            }
+        }
+        if (uppercase == 0) {
+            return 1;
+        }
+        if (lowercase == 0 || (uppercase == 1 && (Character.isUpperCase(characters[start]) || Character.isUpperCase(characters[end])))) {
+            return 2;
+        }
+        double variations = 0;
+        for (int i = 1; i <= Math.min(uppercase, lowercase); i++) {
+            variations += binomial(uppercase + lowercase, i);
+        }
+        return variations;
+    }
+
+
+    /**
+     * Method calculates the number of ways in which the l33t substitutions of the passed range could
+     * have been applied.
+     *
+     * @param characters    Characters of the password.
+     * @param start         Index of the first character (inclusive).
+     * @param end           Index of the last character (inclusive).
+     * @param word          Letters of the dictionary word.
+     * @return              Number of variations.
+     */
+    private static double getL33tVariations(char[] characters, int start, int end, char[] word) {
+        double variations = 1;
+        for (int i = start; i <= end; i++) {
+            char substituted = characters[i];
+            char letter = word[i - start];
+            if (Character.toLowerCase(substituted) == letter) {
+                continue;
+            }
+            boolean counted = false;
+            for (int j = start; j < i && !counted; j++) {
+                counted = characters[j] == substituted && word[j - start] == letter;
+            }
+            if (counted) {
+                continue;
+            }
+            int substitutedCount = 0;
+            int unsubstitutedCount = 0;
+            for (int j = start; j <= end; j++) {
+                if (characters[j] == substituted) {
+                    substitutedCount++;
+                }
+                else if (Character.toLowerCase(characters[j]) == letter) {
+                    unsubstitutedCount++;
+                }
+            }
+            if (unsubstitutedCount == 0) {
+                variations *= 2;
+            }
+            else {
+                double possibilities = 0;
+                for (int j = 1; j <= Math.min(substitutedCount, unsubstitutedCount); j++) {
+                    possibilities += binomial(substitutedCount + unsubstitutedCount, j);
+                }
+                variations *= possibilities;
+            }
+        }
+        return variations;
+    }
+
+
+    /**
+     * Method finds all walks of at least three characters across adjacent keys of the passed
+     * keyboard.
+     *
+     * @param keyboard      Keyboard on which to look for walks.
+     * @param characters    Characters of the password.
+     * @param matches       List to which to add the matches.
+     */
+    private static void findKeyboardMatches(KeyboardGraph keyboard, char[] characters, ArrayList<StrengthMatch> matches) {
+        int i = 0;
+        while (i < characters.length - 1) {
+            int j = i + 1;
+            int lastDirection = -1;
+            int turns = 0;
+            int shifted = keyboard.isShifted(characters[i]) ? 1 : 0;
+            while (j < characters.length) {
+                int direction = keyboard.getDirection(characters[j - 1], characters[j]);
+                if (direction == -1) {
+                    break;
+                }
+                if (direction != lastDirection) {
+                    turns++;
+                    lastDirection = direction;
+                }
+                if (keyboard.isShifted(characters[j])) {
+                    shifted++;
+                }
+                j++;
+            }
+            if (j - i > 2) {
+                matches.add(new StrengthMatch(StrengthMatch.Pattern.KEYBOARD, i, j - 1, getKeyboardGuesses(keyboard, j - i, turns, shifted), keyboard.getName()));
+            }
+            i = j;
+        }
+    }
+
+
+    /**
+     * Method estimates the number of guesses for a walk across the passed keyboard.
+     *
+     * @param keyboard  Keyboard of the walk.
+     * @param length    Number of characters of the walk.
+     * @param turns     Number of changes of direction during the walk.
+     * @param shifted   Number of characters typed with shift.
+     * @return          Estimated number of guesses.
+     */
+    private static double getKeyboardGuesses(KeyboardGraph keyboard, int length, int turns, int shifted) {
+        double guesses = 0;
+        for (int i = 2; i <= length; i++) {
+            int possibleTurns = Math.min(turns, i - 1);
+            for (int j = 1; j <= possibleTurns; j++) {
+                guesses += binomial(i - 1, j - 1) * keyboard.getStartingPositions() * Math.pow(keyboard.getAverageDegree(), j);
+            }
+        }
+        if (shifted > 0) {
+            int unshifted = length - shifted;
+            if (unshifted == 0) {
+                guesses *= 2;
+            }
+            else {
+                double variations = 0;
+                for (int i = 1; i <= Math.min(shifted, unshifted); i++) {
+                    variations += binomial(length, i);
+                }
+                guesses *= variations;
+            }
+        }
+        return guesses;
+    }
+
+
+    /**
+     * Method finds all sequences of characters with a constant distance of at most
+     * {@link #MAX_SEQUENCE_DELTA}, e.g. "abc", "9753" or "ace".
+     *
+     * @param characters    Characters of the password.
+     * @param matches       List to which to add the matches.
+     */
+    private static void findSequenceMatches(char[] characters, ArrayList<StrengthMatch> matches) {
+        if (characters.length < 2) {
+            return;
+        }
+        int start = 0;
+        int lastDelta = characters[1] - characters[0];
+        for (int k = 2; k < characters.length; k++) {
+            int delta = characters[k] - characters[k - 1];
+            if (delta != lastDelta) {
+                addSequenceMatch(characters, start, k - 1, lastDelta, matches);
+                start = k - 1;
+                lastDelta = delta;
+            }
+        }
+        addSequenceMatch(characters, start, characters.length - 1, lastDelta, matches);
+    }
+
+
+    /**
+     * Method adds a sequence match for the passed range if it is a valid sequence.
+     *
+     * @param characters    Characters of the password.
+     * @param start         Index of the first character (inclusive).
+     * @param end           Index of the last character (inclusive).
+     * @param delta         Distance between subsequent characters.
+     * @param matches       List to which to add the match.
+     */
+    private static void addSequenceMatch(char[] characters, int start, int end, int delta, ArrayList<StrengthMatch> matches) {
+        int absoluteDelta = Math.abs(delta);
+        if ((end - start > 1 || absoluteDelta == 1) && absoluteDelta > 0 && absoluteDelta <= MAX_SEQUENCE_DELTA) {
+            char first = characters[start];
+            double base;
+            if ("aAzZ019".indexOf(first) != -1) {
+                base = 4;
+            }
+            else if (Character.isDigit(first)) {
+                base = 10;
+            }
+            else {
+                base = 26;
+            }
+            if (delta < 0) {
+                base *= 2;
+            }
+            matches.add(new StrengthMatch(StrengthMatch.Pattern.SEQUENCE, start, end, base * (end - start + 1), null));
+        }
+    }
+
+
+    /**
+     * Method finds all dates with and without separators, as well as recent years.
+     *
+     * @param characters    Characters of the password.
+     * @param matches       List to which to add the matches.
+     */
+    private void findDateMatches(char[] characters, ArrayList<StrengthMatch> matches) {
+        int[] numbers = new int[3];
+        for (int i = 0; i < characters.length; i++) {
+            //Recent years:
+            if (i + 4 <= characters.length && isDigits(characters, i, i + 4)) {
+                int year = parse(characters, i, i + 4);
+                if (year >= 1900 && year <= MAX_YEAR) {
+                    matches.add(new StrengthMatch(StrengthMatch.Pattern.DATE, i, i + 3, getYearSpace(year), null));
+                }
+            }
+
+            //Dates without separator:
+            for (int length = 4; length <= 8 && i + length <= characters.length; length++) {
+                if (!isDigits(characters, i, i + length)) {
+                    break;
+                }
+                int bestYear = -1;
+                for (int[] split : DATE_SPLITS[length - 4]) {
+                    numbers[0] = parse(characters, i, i + split[0]);
+                    numbers[1] = parse(characters, i + split[0], i + split[1]);
+                    numbers[2] = parse(characters, i + split[1], i + length);
+                    int year = getYearOfDate(numbers);
+                    if (year != -1 && (bestYear == -1 || Math.abs(year - referenceYear) < Math.abs(bestYear - referenceYear))) {
+                        bestYear = year;
+                    }
+                }
+                if (bestYear != -1) {
+                    matches.add(new StrengthMatch(StrengthMatch.Pattern.DATE, i, i + length - 1, getYearSpace(bestYear) * 365, null));
+                }
+            }
+
+            //Dates with separator:
+            for (int length = 6; length <= 10 && i + length <= characters.length; length++) {
+                if (isSeparatedDate(characters, i, i + length, numbers)) {
+                    int year = getYearOfDate(numbers);
+                    if (year != -1) {
+                        matches.add(new StrengthMatch(StrengthMatch.Pattern.DATE, i, i + length - 1, getYearSpace(year) * 365 * 4, null));
+                    }
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Method tests whether the passed range is a date of the form "d{1,4} sep d{1,2} sep d{1,4}",
+     * where both separators are identical, and stores the three numbers in the passed array.
+     *
+     * @param characters    Characters of the password.
+     * @param start         Index of the first character (inclusive).
+     * @param end           Index of the last character (exclusive).
+     * @param numbers       Array in which to store the numbers.
+     * @return              Whether the range is a date with separator.
+     */
+    private static boolean isSeparatedDate(char[] characters, int start, int end, int[] numbers) {
+        int firstSeparator = start;
+        while (firstSeparator < end && Character.isDigit(characters[firstSeparator])) {
+            firstSeparator++;
+        }
+        int firstLength = firstSeparator - start;
+        if (firstLength < 1 || firstLength > 4 || firstSeparator >= end || DATE_SEPARATORS.indexOf(characters[firstSeparator]) == -1) {
+            return false;
+        }
+        int secondSeparator = firstSeparator + 1;
+        while (secondSeparator < end && Character.isDigit(characters[secondSeparator])) {
+            secondSeparator++;
+        }
+        int secondLength = secondSeparator - firstSeparator - 1;
+        if (secondLength < 1 || secondLength > 2 || secondSeparator >= end || characters[secondSeparator] != characters[firstSeparator]) {
+            return false;
+        }
+        int thirdLength = end - secondSeparator - 1;
+        if (thirdLength < 1 || thirdLength > 4 || !isDigits(characters, secondSeparator + 1, end)) {
+            return false;
+        }
+        numbers[0] = parse(characters, start, firstSeparator);
+        numbers[1] = parse(characters, firstSeparator + 1, secondSeparator);
+        numbers[2] = parse(characters, secondSeparator + 1, end);
+        return true;
+    }
+
+
+    /**
+     * Method interprets the passed three numbers as day, month and year in any plausible order.
+     *
+     * @param numbers   Three numbers of the date.
+     * @return          Four-digit year of the date, or {@code -1} if the numbers are no date.
+     */
+    private static int getYearOfDate(int[] numbers) {
+        if (numbers[1] > 31 || numbers[1] <= 0) {
+            return -1;
+        }
+        int over12 = 0;
+        int over31 = 0;
+        int under1 = 0;
+        for (int number : numbers) {
+            if ((number > 99 && number < MIN_YEAR) || number > MAX_YEAR) {
+                return -1;
+            }
+            if (number > 31) {
+                over31++;
+            }
+            if (number > 12) {
+                over12++;
+            }
+            if (number <= 0) {
+                under1++;
+            }
+        }
+        if (over31 >= 2 || over12 == 3 || under1 >= 2) {
+            return -1;
+        }
+
+        //Four-digit years at the end or the beginning:
+        for (int i = 0; i < 2; i++) {
+            int year = i == 0 ? numbers[2] : numbers[0];
+            if (year >= MIN_YEAR && year <= MAX_YEAR) {
+                return isDayAndMonth(numbers[i == 0 ? 0 : 1], numbers[i == 0 ? 1 : 2]) ? year : -1;
+            }
+        }
+
+        //Two-digit years at the end or the beginning:
+        for (int i = 0; i < 2; i++) {
+            int year = i == 0 ? numbers[2] : numbers[0];
+            if (isDayAndMonth(numbers[i == 0 ? 0 : 1], numbers[i == 0 ? 1 : 2])) {
+                return year > 99 ? year : (year > 50 ? 1900 + year : 2000 + year);
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * Method tests whether the passed numbers are a day and a month in any order.
+     *
+     * @param first     First number.
+     * @param second    Second number.
+     * @return          Whether the numbers are a day and a month.
+     */
+    private static boolean isDayAndMonth(int first, int second) {
+        return (first >= 1 && first <= 31 && second >= 1 && second <= 12) || (second >= 1 && second <= 31 && first >= 1 && first <= 12);
+    }
+
+
+    /**
+     * Method returns the number of years which an attacker guesses before guessing the passed year.
+     *
+     * @param year  Year to guess.
+     * @return      Number of years to guess.
+     */
+    private double getYearSpace(int year) {
+        return Math.max(Math.abs(year - referenceYear), MIN_YEAR_SPACE);
+    }
+
+
+    /**
+     * Method tests whether the passed range consists of digits only.
+     *
+     * @param characters    Characters of the password.
+     * @param start         Index of the first character (inclusive).
+     * @param end           Index of the last character (exclusive).
+     * @return              Whether the range consists of digits only.
+     */
+    private static boolean isDigits(char[] characters, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (characters[i] < '0' || characters[i] > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Method parses the passed range of ASCII-digits.
+     *
+     * @param characters    Characters of the password.
+     * @param start         Index of the first digit (inclusive).
+     * @param end           Index of the last digit (exclusive).
+     * @return              Parsed number.
+     */
+    private static int parse(char[] characters, int start, int end) {
+        int number = 0;
+        for (int i = start; i < end; i++) {
+            number = number * 10 + (characters[i] - '0');
+        }
+        return number;
+    }
+
+
+    /**
+     * Method calculates the binomial coefficient "n choose k".
+     *
+     * @param n Number of elements.
+     * @param k Number of chosen elements.
+     * @return  Binomial coefficient.
+     */
+    static double binomial(int n, int k) {
+        if (k > n || k < 0) {
+            return 0;
+        }
+        double result = 1;
+        for (int i = 1; i <= k; i++) {
+            result = result * (n - k + i) / i;
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,82 @@
+package de.passwordvault.model.analysis.strength;
+
+import java.util.List;
+
+
+/**
+ * Class models the estimated strength of a password, which consists of the estimated number of
+ * guesses an attacker needs, the resulting score, and the matches from which the estimate results.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class StrengthEstimate {
+
+    /**
+     * Attribute stores the estimated number of guesses.
+     */
+    private final double guesses;
+
+    /**
+     * Attribute stores the score between {@code 0} and {@link EntropyStrengthEngine#MAX_SCORE}.
+     */
+    private final int score;
+
+    /**
+     * Attribute stores the non-overlapping matches which cover the password and result in the
+     * estimated number of guesses.
+     */
+    private final List<StrengthMatch> matches;
+
+
+    /**
+     * Constructor instantiates a new estimate.
+     *
+     * @param guesses   Estimated number of guesses.
+     * @param score     Score of the password.
+     * @param matches   Matches which cover the password.
+     */
+    public StrengthEstimate(double guesses, int score, List<StrengthMatch> matches) {
+        this.guesses = guesses;
+        this.score = score;
+        this.matches = matches;
+    }
+
+
+    /**
+     * Method returns the estimated number of guesses.
+     *
+     * @return  Estimated number of guesses.
+     */
+    public double getGuesses() {
+        return guesses;
+    }
+
+    /**
+     * Method returns the decimal logarithm of the estimated number of guesses.
+     *
+     * @return  Decimal logarithm of the estimated number of guesses.
+     */
+    public double getGuessesLog10() {
+        return Math.log10(guesses);
+    }
+
+    /**
+     * Method returns the score between {@code 0} and {@link EntropyStrengthEngine#MAX_SCORE}.
+     *
+     * @return  Score of the password.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Method returns the non-overlapping matches which cover the password.
+     *
+     * @return  Matches which cover the password.
+     */
+    public List<StrengthMatch> getMatches() {
+        return matches;
+    }
+
+}
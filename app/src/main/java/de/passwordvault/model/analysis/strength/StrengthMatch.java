@@ -0,0 +1,140 @@
+package de.passwordvault.model.analysis.strength;
+
+
+/**
+ * Class models a part of a password which matches a pattern that attackers guess first, together
+ * with the estimated number of guesses that are required to guess the part.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class StrengthMatch {
+
+    /**
+     * Enum contains all patterns which can be matched.
+     */
+    public enum Pattern {
+
+        /**
+         * Part is a word of a dictionary, possibly reversed, capitalized or with l33t substitutions.
+         */
+        DICTIONARY,
+
+        /**
+         * Part is a walk across adjacent keys of a keyboard, e.g. "qwerty" or "zaq1".
+         */
+        KEYBOARD,
+
+        /**
+         * Part is a sequence of characters with a constant distance, e.g. "abc" or "9753".
+         */
+        SEQUENCE,
+
+        /**
+         * Part is a repetition of a shorter part, e.g. "aaa" or "abcabc".
+         */
+        REPEAT,
+
+        /**
+         * Part is a date or a year, e.g. "1990" or "24.12.1990".
+         */
+        DATE,
+
+        /**
+         * Part does not match any pattern and must be guessed character by character.
+         */
+        BRUTEFORCE
+
+    }
+
+
+    /**
+     * Attribute stores the pattern of the match.
+     */
+    private final Pattern pattern;
+
+    /**
+     * Attribute stores the index of the first character of the match (inclusive).
+     */
+    private final int start;
+
+    /**
+     * Attribute stores the index of the last character of the match (inclusive).
+     */
+    private final int end;
+
+    /**
+     * Attribute stores the estimated number of guesses for the match.
+     */
+    private final double guesses;
+
+    /**
+     * Attribute stores a description of the match, e.g. the name of the dictionary.
+     */
+    private final String description;
+
+
+    /**
+     * Constructor instantiates a new match.
+     *
+     * @param pattern       Pattern of the match.
+     * @param start         Index of the first character of the match (inclusive).
+     * @param end           Index of the last character of the match (inclusive).
+     * @param guesses       Estimated number of guesses for the match.
+     * @param description   Description of the match.
+     */
+    public StrengthMatch(Pattern pattern, int start, int end, double guesses, String description) {
+        this.pattern = pattern;
+        this.start = start;
+        this.end = end;
+        this.guesses = guesses;
+        this.description = description;
+    }
+
+
+    /**
+     * Method returns the pattern of the match.
+     *
+     * @return  Pattern of the match.
+     */
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Method returns the index of the first character of the match (inclusive).
+     *
+     * @return  Index of the first character.
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * Method returns the index of the last character of the match (inclusive).
+     *
+     * @return  Index of the last character.
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * Method returns the estimated number of guesses for the match.
+     *
+     * @return  Estimated number of guesses.
+     */
+    public double getGuesses() {
+        return guesses;
+    }
+
+    /**
+     * Method returns a description of the match, e.g. the name of the dictionary.
+     *
+     * @return  Description of the match.
+     */
+    public String getDescription() {
+        return description;
+    }
+
+}
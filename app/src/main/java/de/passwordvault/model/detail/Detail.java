@@ -1,7 +1,6 @@
 package de.passwordvault.model.detail;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Objects;
 import java.util.UUID;
@@ -9,14 +8,14 @@ import de.passwordvault.model.Identifiable;
 import de.passwordvault.model.storage.app.Storable;
 import de.passwordvault.model.storage.app.StorageException;
 import de.passwordvault.model.storage.csv.CsvBuilder;
-import de.passwordvault.model.storage.csv.CsvParser;
+import de.passwordvault.model.storage.csv.CsvCursor;
 
 
 /**
  * Class models a detail which can contain all types of detailed information for an entry.
  *
  * @author  Christian-2003
- * @version 3.3.0
+ * @version 3.7.4
  */
 public class Detail implements Identifiable, Storable, Serializable {
 
@@ -402,7 +401,21 @@ public class Detail implements Identifiable, Storable, Serializable {
      */
     @Override
     public String toStorable() {
-        CsvBuilder builder = new CsvBuilder();
+        StringBuilder builder = new StringBuilder();
+        appendStorable(builder);
+        return builder.toString();
+    }
+
+    /**
+     * Method appends the string-representation of this instance (as generated by
+     * {@link #toStorable()}) to the passed builder.
+     *
+     * @param storable              Builder to which to append the string-representation.
+     * @throws NullPointerException The passed builder is {@code null}.
+     */
+    @Override
+    public void appendStorable(StringBuilder storable) throws NullPointerException {
+        CsvBuilder builder = new CsvBuilder(storable);
 
         builder.append(uuid);
         builder.append(name);
@@ -414,8 +427,6 @@ public class Detail implements Identifiable, Storable, Serializable {
         builder.append(obfuscated);
         builder.append(username);
         builder.append(password);
-
-        return builder.toString();
     }
 
     /**
@@ -431,33 +442,32 @@ public class Detail implements Identifiable, Storable, Serializable {
         if (s == null) {
             throw new NullPointerException();
         }
-        CsvParser parser = new CsvParser(s);
-        ArrayList<String> cells = parser.parseCsv();
+        CsvCursor cursor = new CsvCursor(s);
         int index = 0;
-        for (String cell : cells) {
+        while (cursor.hasNext()) {
             try {
                 switch (index++) {
                     case 0:
-                        uuid = cell;
+                        uuid = cursor.nextString();
                         break;
                     case 1:
-                        setName(cell);
+                        setName(cursor.nextString());
                         break;
                     case 2:
-                        setContent(cell);
+                        setContent(cursor.nextString());
                         break;
                     case 3:
                         Calendar created = Calendar.getInstance();
-                        created.setTimeInMillis(Long.parseLong(cell));
+                        created.setTimeInMillis(cursor.nextLong());
                         setCreated(created);
                         break;
                     case 4:
                         Calendar changed = Calendar.getInstance();
-                        changed.setTimeInMillis(Long.parseLong(cell));
+                        changed.setTimeInMillis(cursor.nextLong());
                         setChanged(changed);
                         break;
                     case 5:
-                        int typePersistentId = Integer.parseInt(cell);
+                        int typePersistentId = cursor.nextInt();
                         for (DetailType type : DetailType.values()) {
                             if (type.getPersistentId() == typePersistentId) {
                                 setType(type);
@@ -466,17 +476,19 @@ public class Detail implements Identifiable, Storable, Serializable {
                         }
                         break;
                     case 6:
-                        setVisible(Boolean.parseBoolean(cell));
+                        setVisible(cursor.nextBoolean());
                         break;
                     case 7:
-                        setObfuscated(Boolean.parseBoolean(cell));
+                        setObfuscated(cursor.nextBoolean());
                         break;
                     case 8:
-                        setUsername(Boolean.parseBoolean(cell));
+                        setUsername(cursor.nextBoolean());
                         break;
                     case 9:
-                        setPassword(Boolean.parseBoolean(cell));
+                        setPassword(cursor.nextBoolean());
                         break;
+                    default:
+                        cursor.skip();
                 }
             }
             catch (Exception e) {
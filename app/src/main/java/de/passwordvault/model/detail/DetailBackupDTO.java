@@ -12,7 +12,7 @@ import de.passwordvault.model.storage.csv.CsvParser;
  * XML backups.
  *
  * @author  Christian-2003
- * @version 3.3.0
+ * @version 3.7.4
  */
 public class DetailBackupDTO extends Detail {
 
@@ -91,7 +91,21 @@ public class DetailBackupDTO extends Detail {
      */
     @Override
     public String toStorable() {
-        CsvBuilder builder = new CsvBuilder();
+        StringBuilder builder = new StringBuilder();
+        appendStorable(builder);
+        return builder.toString();
+    }
+
+    /**
+     * Method appends the string-representation of this instance (as generated by
+     * {@link #toStorable()}) to the passed builder.
+     *
+     * @param storable              Builder to which to append the string-representation.
+     * @throws NullPointerException The passed builder is {@code null}.
+     */
+    @Override
+    public void appendStorable(StringBuilder storable) throws NullPointerException {
+        CsvBuilder builder = new CsvBuilder(storable);
 
         builder.append(uuid);
         builder.append(entryUuid);
@@ -104,8 +118,6 @@ public class DetailBackupDTO extends Detail {
         builder.append(obfuscated);
         builder.append(username);
         builder.append(password);
-
-        return builder.toString();
     }
 
     /**
@@ -2,7 +2,6 @@ package de.passwordvault.model.entry;
 
 import android.graphics.drawable.Drawable;
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Objects;
 import java.util.UUID;
@@ -12,7 +11,7 @@ import de.passwordvault.model.packages.PackageCollection;
 import de.passwordvault.model.storage.app.Storable;
 import de.passwordvault.model.storage.app.StorageException;
 import de.passwordvault.model.storage.csv.CsvBuilder;
-import de.passwordvault.model.storage.csv.CsvParser;
+import de.passwordvault.model.storage.csv.CsvCursor;
 import de.passwordvault.model.tags.Tag;
 import de.passwordvault.model.tags.TagCollection;
 
@@ -22,7 +21,7 @@ import de.passwordvault.model.tags.TagCollection;
  * of account. Further details about an entry are only available in {@link EntryExtended}.
  *
  * @author  Christian-2003
- * @version 3.5.0
+ * @version 3.7.4
  */
 public class EntryAbbreviated implements Identifiable, Storable, Serializable {
 
@@ -376,7 +375,21 @@ public class EntryAbbreviated implements Identifiable, Storable, Serializable {
      * @return  String-representation of this instance.
      */
     public String toStorable() {
-        CsvBuilder builder = new CsvBuilder();
+        StringBuilder builder = new StringBuilder();
+        appendStorable(builder);
+        return builder.toString();
+    }
+
+    /**
+     * Method appends the string-representation of this instance (as generated by
+     * {@link #toStorable()}) to the passed builder.
+     *
+     * @param storable              Builder to which to append the string-representation.
+     * @throws NullPointerException The passed builder is {@code null}.
+     */
+    @Override
+    public void appendStorable(StringBuilder storable) throws NullPointerException {
+        CsvBuilder builder = new CsvBuilder(storable);
 
         builder.append(uuid);
         builder.append(name);
@@ -387,8 +400,6 @@ public class EntryAbbreviated implements Identifiable, Storable, Serializable {
         builder.append(tags.toCsv());
         builder.append(packages.toCsv());
         builder.append(addedAutomatically);
-
-        return builder.toString();
     }
 
     /**
@@ -404,44 +415,44 @@ public class EntryAbbreviated implements Identifiable, Storable, Serializable {
         if (s == null) {
             throw new NullPointerException();
         }
-        CsvParser parser = new CsvParser(s);
-        ArrayList<String> cells = parser.parseCsv();
+        CsvCursor cursor = new CsvCursor(s);
 
-        for (int i = 0; i < cells.size(); i++) {
-            String cell = cells.get(i);
+        for (int i = 0; cursor.hasNext(); i++) {
             try {
                 switch (i) {
                     case 0:
-                        setUuid(cell);
+                        setUuid(cursor.nextString());
                         break;
                     case 1:
-                        setName(cell);
+                        setName(cursor.nextString());
                         break;
                     case 2:
-                        setDescription(cell);
+                        setDescription(cursor.nextString());
                         break;
                     case 3:
                         Calendar created = Calendar.getInstance();
-                        created.setTimeInMillis(Long.parseLong(cell));
+                        created.setTimeInMillis(cursor.nextLong());
                         setCreated(created);
                         break;
                     case 4:
                         Calendar changed = Calendar.getInstance();
-                        changed.setTimeInMillis(Long.parseLong(cell));
+                        changed.setTimeInMillis(cursor.nextLong());
                         setChanged(changed);
                         break;
                     case 5:
-                        setVisible(Boolean.parseBoolean(cell));
+                        setVisible(cursor.nextBoolean());
                         break;
                     case 6:
-                        setTags(new TagCollection(cell));
+                        setTags(new TagCollection(cursor.nextCharSequence()));
                         break;
                     case 7:
-                        setPackages(new PackageCollection(cell));
+                        setPackages(new PackageCollection(cursor.nextCharSequence()));
                         break;
                     case 8:
-                        setAddedAutomatically(Boolean.parseBoolean(cell));
+                        setAddedAutomatically(cursor.nextBoolean());
                         break;
+                    default:
+                        cursor.skip();
                 }
             }
             catch (NumberFormatException e) {
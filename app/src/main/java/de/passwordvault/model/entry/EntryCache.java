@@ -0,0 +1,295 @@
+package de.passwordvault.model.entry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import de.passwordvault.model.detail.Detail;
+
+
+/**
+ * Class models a cache for extended entries, which is bounded by the number of entries and by the
+ * approximate number of bytes which the entries occupy. When either limit is exceeded, the least
+ * recently used entries are evicted and passed to the {@link EvictionListener}. Entries can be
+ * pinned (e.g. because they were modified and are not yet saved), in which case they are never
+ * evicted. The entry which was used most recently is never evicted either, so that an entry which
+ * is currently displayed remains valid. All methods are synchronized, since entries are loaded
+ * concurrently while searching.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class EntryCache {
+
+    /**
+     * Interface models a listener which is informed whenever an entry is evicted from the cache.
+     */
+    public interface EvictionListener {
+
+        /**
+         * Method is called whenever the passed entry is evicted from the cache.
+         *
+         * @param entry Entry which was evicted.
+         */
+        void onEntryEvicted(EntryExtended entry);
+
+    }
+
+
+    /**
+     * Field stores the approximate number of bytes that every entry occupies regardless of its details.
+     */
+    private static final int ENTRY_OVERHEAD = 256;
+
+    /**
+     * Field stores the approximate number of bytes that every detail occupies regardless of its
+     * name and content.
+     */
+    private static final int DETAIL_OVERHEAD = 128;
+
+
+    /**
+     * Attribute stores the cached entries in access-order, starting with the least recently used entry.
+     */
+    private final LinkedHashMap<String, EntryExtended> entries;
+
+    /**
+     * Attribute stores the weight of every cached entry, as it was calculated when the entry was added.
+     */
+    private final HashMap<String, Long> weights;
+
+    /**
+     * Attribute stores the UUIDs of all entries which must not be evicted.
+     */
+    private final HashSet<String> pinned;
+
+    /**
+     * Attribute stores the listener which is informed about evicted entries.
+     */
+    private final EvictionListener listener;
+
+    /**
+     * Attribute stores the maximum number of entries within the cache.
+     */
+    private int maxEntries;
+
+    /**
+     * Attribute stores the maximum weight of all entries within the cache.
+     */
+    private long maxWeight;
+
+    /**
+     * Attribute stores the current weight of all entries within the cache.
+     */
+    private long weight;
+
+
+    /**
+     * Constructor instantiates a new cache with the passed limits.
+     *
+     * @param maxEntries    Maximum number of entries within the cache.
+     * @param maxWeight     Maximum approximate number of bytes that the entries may occupy.
+     * @param listener      Listener to inform about evicted entries. Pass {@code null} if no listener
+     *                      shall be informed.
+     */
+    public EntryCache(int maxEntries, long maxWeight, EvictionListener listener) {
+        entries = new LinkedHashMap<>(16, 0.75f, true);
+        weights = new HashMap<>();
+        pinned = new HashSet<>();
+        this.listener = listener;
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        weight = 0;
+    }
+
+
+    /**
+     * Method changes the limits of the cache. If the cache exceeds the new limits, entries are
+     * evicted immediately.
+     *
+     * @param maxEntries    Maximum number of entries within the cache.
+     * @param maxWeight     Maximum approximate number of bytes that the entries may occupy.
+     */
+    public synchronized void setLimits(int maxEntries, long maxWeight) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        evictIfNecessary(null);
+    }
+
+    /**
+     * Method returns the entry with the passed UUID and marks it as most recently used. If no entry
+     * is cached for the UUID, {@code null} is returned.
+     *
+     * @param uuid  UUID of the entry to return.
+     * @return      Cached entry.
+     */
+    public synchronized EntryExtended get(String uuid) {
+        return entries.get(uuid);
+    }
+
+    /**
+     * Method adds the passed entry to the cache and marks it as most recently used. Afterwards, least
+     * recently used entries are evicted if the cache exceeds its limits. An entry which is replaced
+     * by the passed entry is not passed to the eviction listener.
+     *
+     * @param uuid                  UUID of the entry.
+     * @param entry                 Entry to cache.
+     * @throws NullPointerException The passed UUID or entry is {@code null}.
+     */
+    public synchronized void put(String uuid, EntryExtended entry) throws NullPointerException {
+        if (uuid == null || entry == null) {
+            throw new NullPointerException();
+        }
+        long entryWeight = calculateWeight(entry);
+        entries.put(uuid, entry);
+        Long previousWeight = weights.put(uuid, entryWeight);
+        weight += entryWeight - (previousWeight != null ? previousWeight : 0);
+        evictIfNecessary(uuid);
+    }
+
+    /**
+     * Method removes the entry with the passed UUID from the cache. The removed entry is not passed
+     * to the eviction listener.
+     *
+     * @param uuid  UUID of the entry to remove.
+     * @return      Removed entry or {@code null} if no entry was cached for the UUID.
+     */
+    public synchronized EntryExtended remove(String uuid) {
+        pinned.remove(uuid);
+        Long entryWeight = weights.remove(uuid);
+        if (entryWeight != null) {
+            weight -= entryWeight;
+        }
+        return entries.remove(uuid);
+    }
+
+    /**
+     * Method removes all entries from the cache. The removed entries are not passed to the eviction
+     * listener.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        weights.clear();
+        pinned.clear();
+        weight = 0;
+    }
+
+    /**
+     * Method pins the entry with the passed UUID, so that it is not evicted until it is unpinned.
+     *
+     * @param uuid  UUID of the entry to pin.
+     */
+    public synchronized void pin(String uuid) {
+        pinned.add(uuid);
+    }
+
+    /**
+     * Method unpins the entry with the passed UUID. Afterwards, entries are evicted if the cache
+     * exceeds its limits.
+     *
+     * @param uuid  UUID of the entry to unpin.
+     */
+    public synchronized void unpin(String uuid) {
+        if (pinned.remove(uuid)) {
+            evictIfNecessary(null);
+        }
+    }
+
+    /**
+     * Method returns a copy of the UUIDs of all cached entries.
+     *
+     * @return  UUIDs of all cached entries.
+     */
+    public synchronized Set<String> keySet() {
+        return new HashSet<>(entries.keySet());
+    }
+
+    /**
+     * Method returns a copy of all cached entries.
+     *
+     * @return  All cached entries.
+     */
+    public synchronized Collection<EntryExtended> values() {
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * Method returns the number of cached entries.
+     *
+     * @return  Number of cached entries.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Method returns the approximate number of bytes which the cached entries occupy.
+     *
+     * @return  Weight of all cached entries.
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+
+    /**
+     * Method evicts the least recently used entries until the cache no longer exceeds its limits.
+     * Pinned entries and the entry with the passed UUID are skipped.
+     *
+     * @param protectedUuid UUID of the entry which must not be evicted. Pass {@code null} if the most
+     *                      recently used entry shall be protected.
+     */
+    private void evictIfNecessary(String protectedUuid) {
+        if (entries.size() <= maxEntries && weight <= maxWeight) {
+            return;
+        }
+        if (protectedUuid == null) {
+            //The most recently used entry is the last entry in access-order:
+            for (String uuid : entries.keySet()) {
+                protectedUuid = uuid;
+            }
+        }
+        Iterator<Map.Entry<String, EntryExtended>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext() && (entries.size() > maxEntries || weight > maxWeight)) {
+            Map.Entry<String, EntryExtended> cached = iterator.next();
+            String uuid = cached.getKey();
+            if (pinned.contains(uuid) || uuid.equals(protectedUuid)) {
+                continue;
+            }
+            iterator.remove();
+            Long entryWeight = weights.remove(uuid);
+            if (entryWeight != null) {
+                weight -= entryWeight;
+            }
+            if (listener != null) {
+                listener.onEntryEvicted(cached.getValue());
+            }
+        }
+    }
+
+
+    /**
+     * Method calculates the approximate number of bytes which the passed entry occupies in memory.
+     *
+     * @param entry Entry whose weight shall be calculated.
+     * @return      Weight of the entry.
+     */
+    private static long calculateWeight(EntryExtended entry) {
+        long entryWeight = ENTRY_OVERHEAD;
+        for (Detail detail : entry.getDetails()) {
+            entryWeight += DETAIL_OVERHEAD;
+            if (detail.getName() != null) {
+                entryWeight += 2L * detail.getName().length();
+            }
+            if (detail.getContent() != null) {
+                entryWeight += 2L * detail.getContent().length();
+            }
+        }
+        return entryWeight;
+    }
+
+}
@@ -0,0 +1,50 @@
+package de.passwordvault.model.entry;
+
+
+/**
+ * Interface models a listener which is informed about fine-grained changes to the sorted list of
+ * abbreviated entries which is returned by {@link EntryManager#getData()}. All positions refer to
+ * the list after the respective change was applied.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public interface EntryChangeListener {
+
+    /**
+     * Method is called whenever an entry was inserted into the list.
+     *
+     * @param position  Position at which the entry was inserted.
+     */
+    void onEntryInserted(int position);
+
+    /**
+     * Method is called whenever an entry was removed from the list.
+     *
+     * @param position  Position from which the entry was removed.
+     */
+    void onEntryRemoved(int position);
+
+    /**
+     * Method is called whenever an entry was moved to another position within the list, since its
+     * sorting criteria changed.
+     *
+     * @param fromPosition  Position at which the entry was located before.
+     * @param toPosition    Position at which the entry is located now.
+     */
+    void onEntryMoved(int fromPosition, int toPosition);
+
+    /**
+     * Method is called whenever the contents of an entry changed.
+     *
+     * @param position  Position of the changed entry.
+     */
+    void onEntryChanged(int position);
+
+    /**
+     * Method is called whenever the entire list changed (e.g. because entries were loaded or the
+     * sorting changed), so that no fine-grained changes are available.
+     */
+    void onEntriesReset();
+
+}
@@ -11,7 +11,7 @@ import de.passwordvault.model.storage.csv.CsvConfiguration;
  * Class models an extended entry which contains all available information about an account-entry.
  *
  * @author  Christian-2003
- * @version 3.6.0
+ * @version 3.7.4
  */
 public class EntryExtended extends EntryAbbreviated implements Storable {
 
@@ -39,14 +39,19 @@ public class EntryExtended extends EntryAbbreviated implements Storable {
 
     /**
      * Constructor instantiates a new Entry and copies the attributes of the passed Entry to this
-     * instance.
+     * instance. The details are copied as well, so that wiping (see {@link #wipe()}) or changing the
+     * details of either entry does not affect the other entry.
      *
      * @param entry                 Entry whose values shall be copied to this instance.
      * @throws NullPointerException The passed entry is {@code null}.
      */
     public EntryExtended(EntryExtended entry) throws NullPointerException {
         super(entry);
-        setDetails(entry.getDetails());
+        ArrayList<Detail> copiedDetails = new ArrayList<>(entry.getDetails().size());
+        for (Detail detail : entry.getDetails()) {
+            copiedDetails.add(new Detail(detail));
+        }
+        setDetails(copiedDetails);
         setModified(entry.isModified());
     }
 
@@ -104,6 +109,17 @@ public class EntryExtended extends EntryAbbreviated implements Storable {
         this.modified = modified;
     }
 
+    /**
+     * Method wipes the contents of all details of the entry and removes the details afterwards. This
+     * is used to drop sensitive data once the entry is no longer needed in memory.
+     */
+    public void wipe() {
+        for (Detail detail : details) {
+            detail.setContent("");
+        }
+        details.clear();
+    }
+
     /**
      * Method returns an {@linkplain ArrayList} of visible {@linkplain Detail} instances that are
      * handled by this Entry. The returned list contains all details whose {@linkplain Detail#isVisible()}
@@ -242,14 +258,26 @@ public class EntryExtended extends EntryAbbreviated implements Storable {
     @Override
     public String toStorable() {
         StringBuilder builder = new StringBuilder();
+        appendStorable(builder);
+        return builder.toString();
+    }
+
+    /**
+     * Method appends the string-representation of this instance (as generated by
+     * {@link #toStorable()}) to the passed builder.
+     *
+     * @param builder               Builder to which to append the string-representation.
+     * @throws NullPointerException The passed builder is {@code null}.
+     */
+    @Override
+    public void appendStorable(StringBuilder builder) throws NullPointerException {
         //Put any information that is no detail above the '######'!
         builder.append("######");
         builder.append(CsvConfiguration.ROW_DIVIDER);
         for (Detail detail : details) {
-            builder.append(detail.toStorable());
+            detail.appendStorable(builder);
             builder.append(CsvConfiguration.ROW_DIVIDER);
         }
-        return builder.toString();
     }
 
     /**
@@ -1,16 +1,20 @@
 package de.passwordvault.model.entry;
 
+import android.util.Log;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import de.passwordvault.model.CachableManager;
 import de.passwordvault.model.Observable;
 import de.passwordvault.model.Observer;
 import de.passwordvault.model.PersistableManager;
+import de.passwordvault.model.search.SearchIndex;
 import de.passwordvault.model.storage.app.StorageException;
 import de.passwordvault.model.storage.app.StorageManager;
 import de.passwordvault.model.storage.encryption.EncryptionException;
 import de.passwordvault.model.storage.settings.Config;
+import de.passwordvault.service.autofill.AutofillHotSet;
 import de.passwordvault.service.autofill.caching.ContentCache;
 import de.passwordvault.service.autofill.caching.InvalidationCache;
 import de.passwordvault.service.autofill.caching.InvalidationCacheItem;
@@ -22,10 +26,21 @@ import de.passwordvault.service.autofill.caching.InvalidationCacheItem;
  * retrieved through {@link #getInstance()}.
  *
  * @author  Christian-2003
- * @version 3.6.0
+ * @version 3.7.4
  */
 public class EntryManager implements CachableManager<EntryExtended>, Observable<ArrayList<EntryAbbreviated>>, PersistableManager {
 
+    /**
+     * Field stores the number of entries that are passed to the callback of
+     * {@link #load(StorageManager.FirstPageCallback)} before all entries are loaded.
+     */
+    private static final int FIRST_PAGE_SIZE = 32;
+
+    /**
+     * Field stores the tag used for debugging messages.
+     */
+    private static final String TAG = "EntryManager";
+
     /**
      * Field stores the singleton-instance of the entry manager.
      */
@@ -37,20 +52,30 @@ public class EntryManager implements CachableManager<EntryExtended>, Observable<
      */
     private final ArrayList<Observer<ArrayList<EntryAbbreviated>>> observers;
 
+    /**
+     * Attribute stores all registered listeners which are informed about fine-grained changes to the
+     * {@link #abbreviatedEntriesArrayListCache}.
+     */
+    private final ArrayList<EntryChangeListener> changeListeners;
+
     /**
      * Attribute stores all abbreviated entries that are available within the application.
      */
     private HashMap<String, EntryAbbreviated> abbreviatedEntries;
 
     /**
-     * Attribute stores all extended entries that have been loaded from storage since starting the
-     * application.
+     * Attribute stores the extended entries that have been loaded from storage most recently. Entries
+     * which were changed are pinned within the cache until they are saved. The cache only contains
+     * copies which are never handed out by {@link #get(String, boolean)}, so that evicted entries can
+     * be wiped.
      */
-    private final HashMap<String, EntryExtended> extendedEntryCache;
+    private final EntryCache extendedEntryCache;
 
     /**
      * Attribute stores the cached array list of abbreviated entries as they are requested by
-     * observers.
+     * observers. The list is kept sorted with the
+     * {@link #abbreviatedEntriesArrayListCacheSortingAlgorithm} while entries are added, replaced or
+     * removed, so that it only needs to be regenerated after loading entries or changing the sorting.
      */
     private final ArrayList<EntryAbbreviated> abbreviatedEntriesArrayListCache;
 
@@ -72,17 +97,46 @@ public class EntryManager implements CachableManager<EntryExtended>, Observable<
     private final StorageManager storageManager;
 
     /**
-     * Attribute stores whether changes were made to the entries that require saving them to
-     * persistent storage.
+     * Attribute stores whether changes were made to the abbreviated entries that require saving them
+     * to persistent storage.
+     */
+    private boolean abbreviatedEntriesChanged;
+
+    /**
+     * Attribute indicates whether the most recent attempt to load the abbreviated entries failed. In
+     * this case, the abbreviated entries are not saved, since saving would remove all entries from
+     * storage that could not be loaded.
+     */
+    private boolean abbreviatedEntriesLoadFailed;
+
+    /**
+     * Attribute stores the UUIDs of all extended entries that were changed since they were saved to
+     * persistent storage the last time.
+     */
+    private final HashSet<String> changedExtendedEntries;
+
+    /**
+     * Attribute stores the number of records that were written during the last save.
      */
-    private boolean changesMade;
+    private long lastSaveRecordsWritten;
+
+    /**
+     * Attribute stores the number of bytes that were written during the last save.
+     */
+    private long lastSaveBytesWritten;
 
     /**
      * Attribute stores whether changes were made to abbreviated entries since the last time the
-     * {@link #abbreviatedEntriesArrayListCache} was generated.
+     * {@link #abbreviatedEntriesArrayListCache} was retrieved through {@link #getData()}.
      */
     private boolean changesMadeSinceCachedAbbreviatedList;
 
+    /**
+     * Attribute indicates whether the {@link #abbreviatedEntriesArrayListCache} needs to be
+     * regenerated from all abbreviated entries, since it cannot be updated incrementally.
+     */
+    private boolean abbreviatedEntriesArrayListCacheInvalid;
+
 
     /**
      * Constructor instantiates a new entry manager which manages all available entries. Previously
@@ -90,14 +144,20 @@ public class EntryManager implements CachableManager<EntryExtended>, Observable<
      */
     private EntryManager() {
         observers = new ArrayList<>();
+        changeListeners = new ArrayList<>();
         abbreviatedEntries = new HashMap<>();
-        extendedEntryCache = new HashMap<>();
+        extendedEntryCache = new EntryCache(Config.getInstance().entryCacheMaxEntries.get(), Config.getInstance().entryCacheMaxWeight.get(), EntryExtended::wipe);
         abbreviatedEntriesArrayListCache = new ArrayList<>();
         mostRecentlyEditedEntriesCache = new ArrayList<>();
         abbreviatedEntriesArrayListCacheSortingAlgorithm = null;
         storageManager = new StorageManager();
-        changesMade = true;
+        abbreviatedEntriesChanged = false;
+        abbreviatedEntriesLoadFailed = false;
+        changedExtendedEntries = new HashSet<>();
+        lastSaveRecordsWritten = 0;
+        lastSaveBytesWritten = 0;
         changesMadeSinceCachedAbbreviatedList = true;
+        abbreviatedEntriesArrayListCacheInvalid = true;
     }
 
 
@@ -120,7 +180,8 @@ public class EntryManager implements CachableManager<EntryExtended>, Observable<
     public void clearCache() {
         extendedEntryCache.clear();
         abbreviatedEntries.clear();
-        changesMadeSinceCachedAbbreviatedList = true;
+        invalidateAbbreviatedEntriesArrayListCache();
+        SearchIndex.getInstance().invalidate();
     }
 
     /**
@@ -143,10 +204,13 @@ public class EntryManager implements CachableManager<EntryExtended>, Observable<
      */
     @Override
     public void add(EntryExtended item) throws NullPointerException {
-        extendedEntryCache.put(item.getUuid(), item);
-        abbreviatedEntries.put(item.getUuid(), new EntryAbbreviated(item));
-        changesMade = true;
-        changesMadeSinceCachedAbbreviatedList = true;
+        extendedEntryCache.pin(item.getUuid());
+        extendedEntryCache.put(item.getUuid(), new EntryExtended(item));
+        AutofillHotSet.getInstance().invalidate(item);
+        putAbbreviatedEntry(item.getUuid(), new EntryAbbreviated(item));
+        abbreviatedEntriesChanged = true;
+        changedExtendedEntries.add(item.getUuid());
+        SearchIndex.getInstance().update(item);
         notifyObservers();
     }
 
@@ -166,8 +230,10 @@ public class EntryManager implements CachableManager<EntryExtended>, Observable<
         catch (EncryptionException e) {
             //Ignore...
         }
-        changesMade = true;
-        changesMadeSinceCachedAbbreviatedList = true;
+        abbreviatedEntriesChanged = false;
+        changedExtendedEntries.clear();
+        invalidateAbbreviatedEntriesArrayListCache();
+        SearchIndex.getInstance().invalidate();
         notifyObservers();
     }
 
@@ -212,7 +278,8 @@ public class EntryManager implements CachableManager<EntryExtended>, Observable<
     /**
      * Method returns the item of the specified UUID. The loaded item is cached when {@code true} is
      * passed as second argument. If {@code false} is passed, the item will not be cached.
-     * If no item with the specified UUID exists, {@code null} is returned.
+     * If no item with the specified UUID exists, {@code null} is returned. The returned item is never
+     * the instance within the cache, so changes must be applied through {@link #set(EntryExtended, String)}.
      *
      * @param uuid                  UUID of the item to return.
      * @param cache                 Defines whether the item to be loaded shall be added to a cache.
@@ -220,10 +287,10 @@ public class EntryManager implements CachableManager<EntryExtended>, Observable<
      * @throws NullPointerException The passed UUID is {@code null}.
      */
     public EntryExtended get(String uuid, boolean cache) throws NullPointerException {
-        if (extendedEntryCache.containsKey(uuid)) {
-            return extendedEntryCache.get(uuid);
+        EntryExtended entry = extendedEntryCache.get(uuid);
+        if (entry != null) {
+            return new EntryExtended(entry);
         }
-        EntryExtended entry;
         try {
             EntryAbbreviated abbreviated = abbreviatedEntries.get(uuid);
             if (abbreviated == null) {
@@ -238,7 +305,7 @@ public class EntryManager implements CachableManager<EntryExtended>, Observable<
             return null;
         }
         if (cache) {
-            extendedEntryCache.put(entry.getUuid(), entry);
+            extendedEntryCache.put(entry.getUuid(), new EntryExtended(entry));
         }
         return entry;
     }
@@ -262,16 +329,15 @@ public class EntryManager implements CachableManager<EntryExtended>, Observable<
      */
     @Override
     public boolean remove(EntryExtended item) throws NullPointerException {
-        EntryAbbreviated removedAbbreviated = abbreviatedEntries.remove(item.getUuid());
-        if (removedAbbreviated == null) {
+        if (!removeAbbreviatedEntry(item.getUuid())) {
             return false;
         }
-        EntryExtended removedExtended = extendedEntryCache.remove(item.getUuid());
-        if (removedExtended == null) {
-            storageManager.deleteExtendedEntry(item.getUuid());
-        }
-        changesMade = true;
-        changesMadeSinceCachedAbbreviatedList = true;
+        extendedEntryCache.remove(item.getUuid());
+        AutofillHotSet.getInstance().invalidate(item.getUuid());
+        storageManager.deleteExtendedEntry(item.getUuid());
+        abbreviatedEntriesChanged = true;
+        changedExtendedEntries.remove(item.getUuid());
+        SearchIndex.getInstance().remove(item.getUuid());
         notifyObservers();
         return true;
     }
@@ -286,11 +352,13 @@ public class EntryManager implements CachableManager<EntryExtended>, Observable<
      */
     @Override
     public EntryExtended remove(String uuid) throws NullPointerException {
-        abbreviatedEntries.remove(uuid);
+        removeAbbreviatedEntry(uuid);
         extendedEntryCache.remove(uuid);
+        AutofillHotSet.getInstance().invalidate(uuid);
         storageManager.deleteExtendedEntry(uuid);
-        changesMade = true;
-        changesMadeSinceCachedAbbreviatedList = true;
+        abbreviatedEntriesChanged = true;
+        changedExtendedEntries.remove(uuid);
+        SearchIndex.getInstance().remove(uuid);
         notifyObservers();
         return null;
     }
@@ -304,10 +372,17 @@ public class EntryManager implements CachableManager<EntryExtended>, Observable<
      */
     @Override
     public void set(EntryExtended item, String uuid) throws NullPointerException {
-        abbreviatedEntries.put(uuid, new EntryAbbreviated(item));
-        extendedEntryCache.put(uuid, item);
-        changesMade = true;
-        changesMadeSinceCachedAbbreviatedList = true;
+        EntryAbbreviated abbreviated = new EntryAbbreviated(item);
+        EntryAbbreviated previous = putAbbreviatedEntry(uuid, abbreviated);
+        if (previous == null || !previous.toStorable().equals(abbreviated.toStorable())) {
+            abbreviatedEntriesChanged = true;
+        }
+        extendedEntryCache.pin(uuid);
+        extendedEntryCache.put(uuid, new EntryExtended(item));
+        AutofillHotSet.getInstance().invalidate(uuid);
+        AutofillHotSet.getInstance().invalidate(item);
+        changedExtendedEntries.add(uuid);
+        SearchIndex.getInstance().update(item);
         notifyObservers();
     }
 
@@ -346,9 +421,10 @@ public class EntryManager implements CachableManager<EntryExtended>, Observable<
      */
     @Override
     public ArrayList<EntryAbbreviated> getData() {
-        if (changesMadeSinceCachedAbbreviatedList) {
-            generateCacheAfterChangesMade();
+        if (abbreviatedEntriesArrayListCacheInvalid) {
+            generateAbbreviatedEntriesArrayListCache();
         }
+        changesMadeSinceCachedAbbreviatedList = false;
         return abbreviatedEntriesArrayListCache;
     }
 
@@ -387,12 +463,39 @@ public class EntryManager implements CachableManager<EntryExtended>, Observable<
      */
     @Override
     public void load() throws StorageException {
+        load(null);
+    }
+
+    /**
+     * Method loads previously saved items into the manager. While the items are loaded, the first
+     * items under the current sorting are passed to the specified callback, so that they can be
+     * displayed before loading is finished. These items are not yet available through the manager.
+     * If loading fails, the abbreviated entries cannot be saved until they are loaded successfully.
+     *
+     * @param callback          Callback to invoke with the first items. Pass {@code null} if no
+     *                          callback shall be invoked.
+     * @throws StorageException The data could not be loaded.
+     */
+    public void load(StorageManager.FirstPageCallback callback) throws StorageException {
         try {
-            abbreviatedEntries = storageManager.loadAbbreviatedEntries();
-            changesMade = true;
-            changesMadeSinceCachedAbbreviatedList = true;
+            if (callback == null) {
+                abbreviatedEntries = storageManager.loadAbbreviatedEntries();
+            }
+            else {
+                abbreviatedEntries = storageManager.loadAbbreviatedEntries(FIRST_PAGE_SIZE, abbreviatedEntriesArrayListCacheSortingAlgorithm, callback);
+            }
+            abbreviatedEntriesLoadFailed = false;
+            abbreviatedEntriesChanged = false;
+            for (String uuid : changedExtendedEntries) {
+                extendedEntryCache.unpin(uuid);
+            }
+            changedExtendedEntries.clear();
+            extendedEntryCache.setLimits(Config.getInstance().entryCacheMaxEntries.get(), Config.getInstance().entryCacheMaxWeight.get());
+            invalidateAbbreviatedEntriesArrayListCache();
+            SearchIndex.getInstance().invalidate();
         }
         catch (Exception e) {
+            abbreviatedEntriesLoadFailed = true;
             throw new StorageException(e.getMessage());
         }
     }
@@ -408,7 +511,8 @@ public class EntryManager implements CachableManager<EntryExtended>, Observable<
     }
 
     /**
-     * Method saves the managed items into persistent storage.
+     * Method saves the managed items into persistent storage. Only items that were changed since
+     * they were saved the last time are written, unless saving is forced.
      *
      * @param force             Indicates whether the managed items shall be saved, even if no
      *                          changes were made to the managed items.
@@ -416,42 +520,99 @@ public class EntryManager implements CachableManager<EntryExtended>, Observable<
      */
     @Override
     public void save(boolean force) throws StorageException {
-        if (!changesMade && !force) {
+        if (!force && !abbreviatedEntriesChanged && changedExtendedEntries.isEmpty()) {
             return;
         }
+        long recordsWritten = storageManager.getRecordsWritten();
+        long bytesWritten = storageManager.getBytesWritten();
         try {
-            storageManager.saveAbbreviatedEntries(abbreviatedEntries.values());
-        }
-        catch (Exception e) {
-            throw new StorageException(e.getMessage());
-        }
-        boolean invalidationCacheModified = false;
-        for (EntryExtended entry : extendedEntryCache.values()) {
+            if (force || abbreviatedEntriesChanged) {
+                if (abbreviatedEntriesLoadFailed) {
+                    throw new StorageException("Entries were not loaded completely");
+                }
+                try {
+                    storageManager.saveAbbreviatedEntries(abbreviatedEntries.values());
+                    abbreviatedEntriesChanged = false;
+                    //Entries may have been added to or removed from packages within the hot set:
+                    AutofillHotSet.getInstance().clear();
+                }
+                catch (Exception e) {
+                    throw new StorageException(e.getMessage());
+                }
+            }
+            ArrayList<String> uuids = new ArrayList<>(force ? extendedEntryCache.keySet() : changedExtendedEntries);
+            boolean invalidationCacheModified = false;
             try {
-                storageManager.saveExtendedEntry(entry);
-                if (entry.isModified()) {
-                    //Invalidate cache if item is modified:
-                    if (ContentCache.getInstance().getItem(entry.getUuid()) != null) {
-                        InvalidationCache.getInstance().putItem(new InvalidationCacheItem(entry.getUuid()));
-                        invalidationCacheModified = true;
+                for (String uuid : uuids) {
+                    EntryExtended entry = extendedEntryCache.get(uuid);
+                    if (entry == null) {
+                        changedExtendedEntries.remove(uuid);
+                        continue;
                     }
+                    storageManager.saveExtendedEntry(entry);
+                    if (changedExtendedEntries.remove(uuid) || entry.isModified()) {
+                        //Invalidate cache if item is modified:
+                        if (ContentCache.getInstance().getItem(uuid) != null) {
+                            InvalidationCache.getInstance().putItem(new InvalidationCacheItem(uuid));
+                            invalidationCacheModified = true;
+                        }
+                    }
+                    //Entry is saved and can be evicted from now on:
+                    extendedEntryCache.unpin(uuid);
                 }
             }
             catch (Exception e) {
+                throw new StorageException(e.getMessage());
+            }
+            finally {
                 if (invalidationCacheModified) {
                     InvalidationCache.getInstance().save();
                 }
-                throw new StorageException(e.getMessage());
             }
         }
-        if (invalidationCacheModified) {
-            InvalidationCache.getInstance().save();
+        finally {
+            lastSaveRecordsWritten = storageManager.getRecordsWritten() - recordsWritten;
+            lastSaveBytesWritten = storageManager.getBytesWritten() - bytesWritten;
+            Log.d(TAG, "Saved " + lastSaveRecordsWritten + " records (" + lastSaveBytesWritten + " bytes)");
         }
     }
 
 
     /**
-     * Method returns a collection containing all cached extended entries.
+     * Method informs the manager that abbreviated entries (e.g. their tags) were changed directly,
+     * without replacing the entries through {@link #set(EntryExtended, String)}. The abbreviated
+     * entries will be written with the next save.
+     */
+    public void notifyAbbreviatedEntriesChanged() {
+        abbreviatedEntriesChanged = true;
+    }
+
+
+    /**
+     * Method returns the number of records that were written to persistent storage during the last
+     * save. Records whose content was unchanged are not written.
+     *
+     * @return  Number of records written during the last save.
+     */
+    public long getLastSaveRecordsWritten() {
+        return lastSaveRecordsWritten;
+    }
+
+    /**
+     * Method returns the number of bytes that were written to persistent storage during the last
+     * save.
+     *
+     * @return  Number of bytes written during the last save.
+     */
+    public long getLastSaveBytesWritten() {
+        return lastSaveBytesWritten;
+    }
+
+
+    /**
+     * Method returns a collection containing all cached extended entries. The returned entries are
+     * the instances within the cache, which are wiped when they are evicted. Therefore, they must not
+     * be kept.
      *
      * @return  Collection containing all extended entries.
      */
@@ -466,8 +627,8 @@ public class EntryManager implements CachableManager<EntryExtended>, Observable<
      * @return  List of the most recently edited entries.
      */
     public ArrayList<EntryAbbreviated> getMostRecentlyEditedEntries() {
-        if (changesMadeSinceCachedAbbreviatedList) {
-            generateCacheAfterChangesMade();
+        if (abbreviatedEntriesArrayListCacheInvalid) {
+            generateAbbreviatedEntriesArrayListCache();
         }
         return mostRecentlyEditedEntriesCache;
     }
@@ -483,7 +644,7 @@ public class EntryManager implements CachableManager<EntryExtended>, Observable<
             return;
         }
         abbreviatedEntriesArrayListCacheSortingAlgorithm = new LexicographicComparator(reverseSorted);
-        changesMadeSinceCachedAbbreviatedList = true;
+        invalidateAbbreviatedEntriesArrayListCache();
         notifyObservers();
     }
 
@@ -499,7 +660,7 @@ public class EntryManager implements CachableManager<EntryExtended>, Observable<
             return;
         }
         abbreviatedEntriesArrayListCacheSortingAlgorithm = new TimeComparator(reverseSorted);
-        changesMadeSinceCachedAbbreviatedList = true;
+        invalidateAbbreviatedEntriesArrayListCache();
         notifyObservers();
     }
 
@@ -512,7 +673,7 @@ public class EntryManager implements CachableManager<EntryExtended>, Observable<
             return;
         }
         abbreviatedEntriesArrayListCacheSortingAlgorithm = null;
-        changesMadeSinceCachedAbbreviatedList = true;
+        invalidateAbbreviatedEntriesArrayListCache();
         notifyObservers();
     }
 
@@ -528,12 +689,191 @@ public class EntryManager implements CachableManager<EntryExtended>, Observable<
 
 
     /**
-     * Method regenerates all caches after changes were made to the dataset, which is indicated
-     * through the flag {@link #changesMadeSinceCachedAbbreviatedList}.
+     * Method registers the passed listener, which is informed about fine-grained changes to the list
+     * of abbreviated entries returned by {@link #getData()}.
+     *
+     * @param listener              Listener to register.
+     * @throws NullPointerException The passed listener is {@code null}.
      */
-    private void generateCacheAfterChangesMade() {
-        generateAbbreviatedEntriesArrayListCache();
-        changesMadeSinceCachedAbbreviatedList = false;
+    public void addChangeListener(EntryChangeListener listener) throws NullPointerException {
+        if (listener == null) {
+            throw new NullPointerException();
+        }
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Method removes the passed listener, so that it is no longer informed about changes.
+     *
+     * @param listener              Listener to remove.
+     * @return                      Whether the listener was removed.
+     * @throws NullPointerException The passed listener is {@code null}.
+     */
+    public boolean removeChangeListener(EntryChangeListener listener) throws NullPointerException {
+        if (listener == null) {
+            throw new NullPointerException();
+        }
+        return changeListeners.remove(listener);
+    }
+
+
+    /**
+     * Method adds the passed abbreviated entry to the managed abbreviated entries, replacing any
+     * previous entry with the same UUID. The {@link #abbreviatedEntriesArrayListCache} is updated
+     * through a binary search instead of being sorted again, and all change listeners are informed.
+     *
+     * @param uuid  UUID of the abbreviated entry.
+     * @param entry Abbreviated entry to add.
+     * @return      Abbreviated entry which was replaced or {@code null} if no entry was replaced.
+     */
+    private EntryAbbreviated putAbbreviatedEntry(String uuid, EntryAbbreviated entry) {
+        EntryAbbreviated previous = abbreviatedEntries.put(uuid, entry);
+        changesMadeSinceCachedAbbreviatedList = true;
+        if (abbreviatedEntriesArrayListCacheInvalid) {
+            notifyEntriesReset();
+            return previous;
+        }
+        int fromPosition = previous != null ? indexOfAbbreviatedEntry(previous) : -1;
+        if (fromPosition != -1) {
+            abbreviatedEntriesArrayListCache.remove(fromPosition);
+        }
+        int toPosition;
+        if (abbreviatedEntriesArrayListCacheSortingAlgorithm == null) {
+            //Replaced entries keep their position if no sorting is applied:
+            toPosition = fromPosition != -1 ? fromPosition : abbreviatedEntriesArrayListCache.size();
+        }
+        else {
+            toPosition = findInsertionIndex(entry);
+        }
+        abbreviatedEntriesArrayListCache.add(toPosition, entry);
+        for (EntryChangeListener listener : new ArrayList<>(changeListeners)) {
+            if (fromPosition == -1) {
+                listener.onEntryInserted(toPosition);
+                continue;
+            }
+            if (fromPosition != toPosition) {
+                listener.onEntryMoved(fromPosition, toPosition);
+            }
+            listener.onEntryChanged(toPosition);
+        }
+        return previous;
+    }
+
+    /**
+     * Method removes the abbreviated entry with the passed UUID from the managed abbreviated entries.
+     * The entry is removed from the {@link #abbreviatedEntriesArrayListCache} without sorting it
+     * again, and all change listeners are informed.
+     *
+     * @param uuid  UUID of the abbreviated entry to remove.
+     * @return      Whether an abbreviated entry was removed.
+     */
+    private boolean removeAbbreviatedEntry(String uuid) {
+        EntryAbbreviated removed = abbreviatedEntries.remove(uuid);
+        if (removed == null) {
+            return false;
+        }
+        changesMadeSinceCachedAbbreviatedList = true;
+        if (abbreviatedEntriesArrayListCacheInvalid) {
+            notifyEntriesReset();
+            return true;
+        }
+        int position = indexOfAbbreviatedEntry(removed);
+        if (position != -1) {
+            abbreviatedEntriesArrayListCache.remove(position);
+            for (EntryChangeListener listener : new ArrayList<>(changeListeners)) {
+                listener.onEntryRemoved(position);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method returns the position of the passed abbreviated entry (compared by identity) within the
+     * {@link #abbreviatedEntriesArrayListCache}. If the list is sorted, the entry is located through
+     * a binary search. If the entry is not contained, {@code -1} is returned.
+     *
+     * @param entry Abbreviated entry whose position shall be returned.
+     * @return      Position of the entry.
+     */
+    private int indexOfAbbreviatedEntry(EntryAbbreviated entry) {
+        GenericComparator<EntryAbbreviated> comparator = abbreviatedEntriesArrayListCacheSortingAlgorithm;
+        if (comparator != null) {
+            int low = 0;
+            int high = abbreviatedEntriesArrayListCache.size() - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int comparison = comparator.compare(abbreviatedEntriesArrayListCache.get(middle), entry);
+                if (comparison < 0) {
+                    low = middle + 1;
+                }
+                else if (comparison > 0) {
+                    high = middle - 1;
+                }
+                else {
+                    //Search all entries which are considered equal by the comparator:
+                    for (int i = middle; i >= 0 && comparator.compare(abbreviatedEntriesArrayListCache.get(i), entry) == 0; i--) {
+                        if (abbreviatedEntriesArrayListCache.get(i) == entry) {
+                            return i;
+                        }
+                    }
+                    for (int i = middle + 1; i < abbreviatedEntriesArrayListCache.size() && comparator.compare(abbreviatedEntriesArrayListCache.get(i), entry) == 0; i++) {
+                        if (abbreviatedEntriesArrayListCache.get(i) == entry) {
+                            return i;
+                        }
+                    }
+                    break;
+                }
+            }
+        }
+        //Entry is not sorted correctly (e.g. because it was changed directly) or list is not sorted:
+        for (int i = 0; i < abbreviatedEntriesArrayListCache.size(); i++) {
+            if (abbreviatedEntriesArrayListCache.get(i) == entry) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Method returns the position at which the passed abbreviated entry needs to be inserted into the
+     * sorted {@link #abbreviatedEntriesArrayListCache}. The entry is inserted after all entries which
+     * are considered equal by the comparator.
+     *
+     * @param entry Abbreviated entry to insert.
+     * @return      Position at which to insert the entry.
+     */
+    private int findInsertionIndex(EntryAbbreviated entry) {
+        int low = 0;
+        int high = abbreviatedEntriesArrayListCache.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (abbreviatedEntriesArrayListCacheSortingAlgorithm.compare(abbreviatedEntriesArrayListCache.get(middle), entry) <= 0) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Method marks the {@link #abbreviatedEntriesArrayListCache} to be regenerated with the next call
+     * to {@link #getData()} and informs all change listeners.
+     */
+    private void invalidateAbbreviatedEntriesArrayListCache() {
+        changesMadeSinceCachedAbbreviatedList = true;
+        abbreviatedEntriesArrayListCacheInvalid = true;
+        notifyEntriesReset();
+    }
+
+    /**
+     * Method informs all change listeners that the entire list of abbreviated entries changed.
+     */
+    private void notifyEntriesReset() {
+        for (EntryChangeListener listener : new ArrayList<>(changeListeners)) {
+            listener.onEntriesReset();
+        }
     }
 
     /**
@@ -545,6 +885,7 @@ public class EntryManager implements CachableManager<EntryExtended>, Observable<
         if (abbreviatedEntriesArrayListCacheSortingAlgorithm != null) {
             abbreviatedEntriesArrayListCache.sort(abbreviatedEntriesArrayListCacheSortingAlgorithm);
         }
+        abbreviatedEntriesArrayListCacheInvalid = false;
     }
 
 }
@@ -2,14 +2,14 @@ package de.passwordvault.model.packages;
 
 import java.util.ArrayList;
 import de.passwordvault.model.storage.csv.CsvBuilder;
-import de.passwordvault.model.storage.csv.CsvParser;
+import de.passwordvault.model.storage.csv.CsvCursor;
 
 
 /**
  * Class models a collection which can store {@link Package}-instances.
  *
  * @author  Christian-2003
- * @version 3.5.0
+ * @version 3.7.4
  */
 public class PackageCollection extends ArrayList<Package> {
 
@@ -42,14 +42,14 @@ public class PackageCollection extends ArrayList<Package> {
      * @param csv                   CSV to be converted into this collection.
      * @throws NullPointerException The passed CSV is {@code null}.
      */
-    public PackageCollection(String csv) throws NullPointerException {
+    public PackageCollection(CharSequence csv) throws NullPointerException {
         super();
         if (csv == null) {
             throw new NullPointerException();
         }
-        CsvParser parser = new CsvParser(csv);
-        ArrayList<String> packageNames = parser.parseCsv();
-        for (String packageName : packageNames) {
+        CsvCursor cursor = new CsvCursor(csv);
+        while (cursor.hasNext()) {
+            String packageName = cursor.nextString();
             if (packageName == null || packageName.isEmpty()) {
                 continue;
             }
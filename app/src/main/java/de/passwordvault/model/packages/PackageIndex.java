@@ -0,0 +1,148 @@
+package de.passwordvault.model.packages;
+
+import android.util.Log;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import de.passwordvault.model.entry.EntryAbbreviated;
+import de.passwordvault.model.storage.app.StorageException;
+import de.passwordvault.model.storage.app.StorageManager;
+
+
+/**
+ * Class implements a reverse index which maps package names to the UUIDs of the entries that are
+ * assigned to the packages. The index is persisted (encrypted) through the {@link StorageManager}
+ * whenever the abbreviated entries are saved, and is kept in memory once it has been loaded, so that
+ * the entries of a package can be found without loading all entries. The class is implemented using
+ * singleton-pattern. The singleton-instance can be retrieved through {@link #getInstance()}.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class PackageIndex {
+
+    /**
+     * Field stores the tag used for debugging messages.
+     */
+    private static final String TAG = "PackageIndex";
+
+
+    /**
+     * Field stores the singleton-instance of the package index.
+     */
+    private static PackageIndex singleton;
+
+
+    /**
+     * Attribute stores the UUIDs of the entries mapped to the package names, or {@code null} if the
+     * index has not been loaded yet.
+     */
+    private HashMap<String, String[]> index;
+
+
+    /**
+     * Constructor instantiates a new package index.
+     */
+    private PackageIndex() {
+        index = null;
+    }
+
+
+    /**
+     * Static method returns the {@link #singleton}-instance of the package index.
+     *
+     * @return  Singleton-instance of the package index.
+     */
+    public static synchronized PackageIndex getInstance() {
+        if (singleton == null) {
+            singleton = new PackageIndex();
+        }
+        return singleton;
+    }
+
+
+    /**
+     * Method returns the UUIDs of the entries which are assigned to the package with the passed name.
+     * The index is loaded from storage on first access.
+     *
+     * @param packageName           Name of the package.
+     * @return                      UUIDs of the entries assigned to the package.
+     * @throws NullPointerException The passed package name is {@code null}.
+     */
+    public synchronized String[] getEntryUuids(String packageName) throws NullPointerException {
+        if (packageName == null) {
+            throw new NullPointerException();
+        }
+        if (!load()) {
+            return new String[0];
+        }
+        String[] uuids = index.get(packageName);
+        return uuids != null ? uuids : new String[0];
+    }
+
+
+    /**
+     * Method loads the index from storage, if it has not been loaded yet.
+     *
+     * @return  Whether the index is loaded.
+     */
+    public synchronized boolean load() {
+        if (index == null) {
+            try {
+                index = new StorageManager().loadPackageIndex();
+            }
+            catch (StorageException e) {
+                Log.w(TAG, "Could not load package index: " + e.getMessage());
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Method replaces the index in memory with the passed index. This is invoked by the
+     * {@link StorageManager} after the index has been saved.
+     *
+     * @param index                 New index.
+     * @throws NullPointerException The passed index is {@code null}.
+     */
+    public synchronized void setIndex(HashMap<String, String[]> index) throws NullPointerException {
+        if (index == null) {
+            throw new NullPointerException();
+        }
+        this.index = index;
+    }
+
+
+    /**
+     * Static method creates the index for the passed entries.
+     *
+     * @param entries               Entries for which to create the index.
+     * @return                      Index mapping package names to UUIDs of entries.
+     * @throws NullPointerException The passed entries are {@code null}.
+     */
+    public static HashMap<String, String[]> create(Collection<EntryAbbreviated> entries) throws NullPointerException {
+        if (entries == null) {
+            throw new NullPointerException();
+        }
+        HashMap<String, LinkedHashSet<String>> uuids = new HashMap<>();
+        for (EntryAbbreviated entry : entries) {
+            for (Package p : entry.getPackages()) {
+                LinkedHashSet<String> packageUuids = uuids.get(p.getPackageName());
+                if (packageUuids == null) {
+                    packageUuids = new LinkedHashSet<>();
+                    uuids.put(p.getPackageName(), packageUuids);
+                }
+                packageUuids.add(entry.getUuid());
+            }
+        }
+        HashMap<String, String[]> index = new HashMap<>();
+        for (Map.Entry<String, LinkedHashSet<String>> packageUuids : uuids.entrySet()) {
+            index.put(packageUuids.getKey(), packageUuids.getValue().toArray(new String[0]));
+        }
+        return index;
+    }
+
+}
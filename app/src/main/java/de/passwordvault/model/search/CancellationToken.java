@@ -0,0 +1,44 @@
+package de.passwordvault.model.search;
+
+
+/**
+ * Class models a token through which a running search can be cancelled. The token is passed to
+ * {@link SearchHandler#search(String, CancellationToken, SearchHandler.SearchCallback)}, which stops
+ * searching as soon as the token is cancelled.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class CancellationToken {
+
+    /**
+     * Attribute indicates whether the token is cancelled.
+     */
+    private volatile boolean cancelled;
+
+
+    /**
+     * Constructor instantiates a new token which is not cancelled.
+     */
+    public CancellationToken() {
+        cancelled = false;
+    }
+
+
+    /**
+     * Method cancels the token.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Method returns whether the token is cancelled.
+     *
+     * @return  Whether the token is cancelled.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+}
@@ -0,0 +1,131 @@
+package de.passwordvault.model.search;
+
+
+/**
+ * Class implements typo-tolerant matching of search queries. A query matches a text if it is within
+ * a bounded edit distance of a prefix of the text or of a prefix of any word within the text. The
+ * edit distance counts insertions, deletions, substitutions and transpositions of adjacent
+ * characters. All texts passed to this class must be lowercase.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class FuzzyMatcher {
+
+    /**
+     * Field stores the minimum length of a query for which typos are tolerated. Shorter queries would
+     * match almost every text.
+     */
+    public static final int MIN_QUERY_LENGTH = 5;
+
+    /**
+     * Field stores the maximum length of a query for which typos are tolerated.
+     */
+    public static final int MAX_QUERY_LENGTH = 24;
+
+    /**
+     * Field stores the minimum length of a query for which two typos are tolerated.
+     */
+    private static final int MIN_QUERY_LENGTH_TWO_TYPOS = 9;
+
+
+    /**
+     * Static method returns the maximum number of typos which are tolerated for a query of the
+     * passed length. If the query is too short or too long to be matched with typos, {@code 0} is
+     * returned.
+     *
+     * @param queryLength   Length of the query.
+     * @return              Maximum edit distance for the query.
+     */
+    public static int getMaxDistance(int queryLength) {
+        if (queryLength < MIN_QUERY_LENGTH || queryLength > MAX_QUERY_LENGTH) {
+            return 0;
+        }
+        return queryLength < MIN_QUERY_LENGTH_TWO_TYPOS ? 1 : 2;
+    }
+
+    /**
+     * Static method returns whether the passed query is within the passed edit distance of a prefix
+     * of the passed text or of a prefix of any word within the text.
+     *
+     * @param query                 Lowercase query to match.
+     * @param text                  Lowercase text to match against.
+     * @param maxDistance           Maximum edit distance.
+     * @return                      Whether the query matches the text.
+     * @throws NullPointerException The passed query or text is {@code null}.
+     */
+    public static boolean matches(String query, String text, int maxDistance) throws NullPointerException {
+        if (query == null || text == null) {
+            throw new NullPointerException();
+        }
+        for (int start = 0; start < text.length(); start++) {
+            if (isWordStart(text, start) && getPrefixDistance(query, text, start, maxDistance) <= maxDistance) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Static method returns the smallest edit distance between the passed query and any prefix of
+     * the passed text starting at the passed offset. The computation stops early once the distance
+     * exceeds the passed maximum, in which case {@code maxDistance + 1} is returned.
+     *
+     * @param query         Lowercase query.
+     * @param text          Lowercase text.
+     * @param offset        Offset within the text at which the prefixes start.
+     * @param maxDistance   Maximum edit distance of interest.
+     * @return              Edit distance, or {@code maxDistance + 1} if it exceeds the maximum.
+     */
+    public static int getPrefixDistance(String query, String text, int offset, int maxDistance) {
+        int queryLength = query.length();
+        //Prefixes which are longer than the query plus the maximum distance cannot match:
+        int textLength = Math.min(text.length() - offset, queryLength + maxDistance);
+        int[] beforePrevious = new int[textLength + 1];
+        int[] previous = new int[textLength + 1];
+        int[] current = new int[textLength + 1];
+        for (int j = 0; j <= textLength; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= queryLength; i++) {
+            current[0] = i;
+            int rowMinimum = i;
+            char queryChar = query.charAt(i - 1);
+            for (int j = 1; j <= textLength; j++) {
+                char textChar = text.charAt(offset + j - 1);
+                int distance = previous[j - 1] + (queryChar == textChar ? 0 : 1);
+                distance = Math.min(distance, previous[j] + 1);
+                distance = Math.min(distance, current[j - 1] + 1);
+                if (i > 1 && j > 1 && queryChar == text.charAt(offset + j - 2) && query.charAt(i - 2) == textChar) {
+                    distance = Math.min(distance, beforePrevious[j - 2] + 1);
+                }
+                current[j] = distance;
+                rowMinimum = Math.min(rowMinimum, distance);
+            }
+            if (rowMinimum > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        int distance = maxDistance + 1;
+        for (int j = 0; j <= textLength; j++) {
+            distance = Math.min(distance, previous[j]);
+        }
+        return distance;
+    }
+
+    /**
+     * Static method returns whether a word starts at the passed index of the passed text.
+     *
+     * @param text  Text to test.
+     * @param index Index within the text.
+     * @return      Whether a word starts at the index.
+     */
+    public static boolean isWordStart(String text, int index) {
+        return Character.isLetterOrDigit(text.charAt(index)) && (index == 0 || !Character.isLetterOrDigit(text.charAt(index - 1)));
+    }
+
+}
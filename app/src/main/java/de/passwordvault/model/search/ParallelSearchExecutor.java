@@ -0,0 +1,390 @@
+package de.passwordvault.model.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import de.passwordvault.model.entry.EntryAbbreviated;
+import de.passwordvault.model.storage.settings.Config;
+
+
+/**
+ * Class implements an executor which processes entries in parallel, e.g. to load, decrypt and
+ * search them. The entries are partitioned into chunks, which are recursively split into tasks of a
+ * {@link ForkJoinPool}, so that idle threads can steal work from busy threads. Every task collects
+ * its results in its own buffer, and the buffers are merged in the order of the entries, so that the
+ * results are identical to processing the entries sequentially. The number of threads is configured
+ * through {@link Config#searchParallelism}. If the parallelism changes, the pool of the previous
+ * instance is only shut down once no entries are processed through it anymore. If an entry cannot be
+ * processed, the remaining tasks are cancelled and the failure is reported through a
+ * {@link SearchException}. The class uses singleton-pattern, and the instance can be retrieved
+ * through {@link #getInstance()}.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class ParallelSearchExecutor {
+
+    /**
+     * Interface models a processor which is invoked for every entry. The processor may be invoked
+     * concurrently by multiple threads.
+     *
+     * @param <T>   Type of the results.
+     */
+    public interface EntryProcessor<T> {
+
+        /**
+         * Method processes the passed entry.
+         *
+         * @param entry Entry to process.
+         * @return      Result for the entry, or {@code null} if the entry has no result.
+         */
+        T process(EntryAbbreviated entry);
+
+    }
+
+
+    /**
+     * Interface models a consumer which receives the results of consecutive chunks of entries. The
+     * consumer is always invoked by the thread which started processing, one chunk after another and
+     * in the order of the entries.
+     *
+     * @param <T>   Type of the results.
+     */
+    public interface ResultConsumer<T> {
+
+        /**
+         * Method is called whenever the results of the next chunk of entries are available.
+         *
+         * @param results   Results of the chunk in the order of the entries.
+         */
+        void consume(ArrayList<T> results);
+
+    }
+
+
+    /**
+     * Field stores the number of entries within a chunk. The results of a chunk are passed to the
+     * {@link ResultConsumer} at once.
+     */
+    private static final int CHUNK_SIZE = 128;
+
+    /**
+     * Field stores the maximum number of entries which are processed by a task without splitting
+     * the task further.
+     */
+    private static final int LEAF_SIZE = 16;
+
+    /**
+     * Field stores the singleton-instance of the executor.
+     */
+    private static ParallelSearchExecutor singleton;
+
+
+    /**
+     * Attribute stores the number of threads which process entries in parallel.
+     */
+    private final int parallelism;
+
+    /**
+     * Attribute stores the pool which executes the tasks. This is {@code null} if entries are
+     * processed sequentially.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Attribute stores the number of invocations of {@link #process(List, EntryProcessor, CancellationToken, ResultConsumer)}
+     * which currently use the {@link #pool}.
+     */
+    private int activeProcesses;
+
+    /**
+     * Attribute indicates whether the executor was replaced by an executor with a different
+     * parallelism, so that the {@link #pool} is shut down once it is no longer used.
+     */
+    private boolean retired;
+
+
+    /**
+     * Constructor instantiates a new executor with the passed parallelism. Outside of this package,
+     * the executor is accessed through {@link #getInstance()}.
+     *
+     * @param parallelism   Number of threads which process entries in parallel.
+     */
+    ParallelSearchExecutor(int parallelism) {
+        this.parallelism = parallelism;
+        pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        activeProcesses = 0;
+        retired = false;
+    }
+
+
+    /**
+     * Static method returns the singleton-instance of the executor. If the configured parallelism
+     * changed since the instance was created, a new instance is created, and the previous instance
+     * is retired (see {@link #retire()}).
+     *
+     * @return  Singleton-instance of the executor.
+     */
+    public static synchronized ParallelSearchExecutor getInstance() {
+        int parallelism = Config.getInstance().searchParallelism.get();
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        if (singleton == null || singleton.parallelism != parallelism) {
+            if (singleton != null) {
+                singleton.retire();
+            }
+            singleton = new ParallelSearchExecutor(parallelism);
+        }
+        return singleton;
+    }
+
+
+    /**
+     * Method returns the number of threads which process entries in parallel.
+     *
+     * @return  Parallelism of the executor.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Method processes the passed entries with the passed processor. The results of consecutive
+     * chunks of entries are passed to the consumer in the order of the entries. Processing stops as
+     * soon as the passed token is cancelled. If the processor throws an exception for any entry,
+     * processing stops as well, and the exception is reported through a {@link SearchException}
+     * once no task accesses the entries anymore. If the executor is retired and its pool is shut
+     * down, the entries are processed sequentially.
+     *
+     * @param entries               Entries to process.
+     * @param processor             Processor to invoke for every entry.
+     * @param token                 Token through which processing can be cancelled. Pass {@code null}
+     *                              if processing shall not be cancellable.
+     * @param consumer              Consumer to receive the results.
+     * @param <T>                   Type of the results.
+     * @return                      Whether all entries were processed, i.e. processing was not cancelled.
+     * @throws NullPointerException The passed entries, processor or consumer are {@code null}.
+     * @throws SearchException      The processor threw an exception for an entry.
+     */
+    public <T> boolean process(List<EntryAbbreviated> entries, EntryProcessor<T> processor, CancellationToken token, ResultConsumer<T> consumer) throws NullPointerException, SearchException {
+        if (entries == null || processor == null || consumer == null) {
+            throw new NullPointerException();
+        }
+        ForkJoinPool activePool = entries.size() > LEAF_SIZE ? acquirePool() : null;
+        if (activePool == null) {
+            for (int from = 0; from < entries.size(); from += CHUNK_SIZE) {
+                ArrayList<T> results;
+                try {
+                    results = processRange(entries, from, Math.min(entries.size(), from + CHUNK_SIZE), processor, token);
+                }
+                catch (RuntimeException e) {
+                    throw new SearchException("Could not process entry: " + e.getMessage(), e);
+                }
+                if (isCancelled(token)) {
+                    return false;
+                }
+                consumer.consume(results);
+            }
+            return !isCancelled(token);
+        }
+
+        ArrayList<ProcessTask<T>> tasks = new ArrayList<>();
+        try {
+            for (int from = 0; from < entries.size(); from += CHUNK_SIZE) {
+                ProcessTask<T> task = new ProcessTask<>(entries, from, Math.min(entries.size(), from + CHUNK_SIZE), processor, token);
+                activePool.execute(task);
+                tasks.add(task);
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                ArrayList<T> results;
+                try {
+                    results = tasks.get(i).join();
+                }
+                catch (RuntimeException e) {
+                    cancelTasks(tasks, i + 1);
+                    throw new SearchException("Could not process entry: " + e.getMessage(), e);
+                }
+                if (isCancelled(token)) {
+                    cancelTasks(tasks, i + 1);
+                    return false;
+                }
+                consumer.consume(results);
+            }
+            return !isCancelled(token);
+        }
+        finally {
+            releasePool();
+        }
+    }
+
+
+    /**
+     * Method returns the {@link #pool} and registers the calling process, so that the pool is not
+     * shut down while it is used. If entries are processed sequentially or the pool is already shut
+     * down, {@code null} is returned and nothing is registered. Every returned pool must be
+     * released through {@link #releasePool()}.
+     *
+     * @return  Pool with which to process entries, or {@code null}.
+     */
+    private synchronized ForkJoinPool acquirePool() {
+        if (pool == null || pool.isShutdown()) {
+            return null;
+        }
+        activeProcesses++;
+        return pool;
+    }
+
+    /**
+     * Method releases the {@link #pool} after processing. If the executor is retired and the pool is
+     * no longer used, the pool is shut down.
+     */
+    private synchronized void releasePool() {
+        activeProcesses--;
+        if (retired && activeProcesses == 0) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Method retires the executor after it was replaced by an executor with a different parallelism.
+     * The {@link #pool} is shut down as soon as it is no longer used by any process.
+     */
+    private synchronized void retire() {
+        retired = true;
+        if (pool != null && activeProcesses == 0) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Method cancels the passed tasks, starting with the task at the passed index, and waits until
+     * tasks which are already running are finished, so that the processor is no longer invoked once
+     * processing has stopped.
+     *
+     * @param tasks Tasks to cancel.
+     * @param from  Index of the first task to cancel.
+     * @param <T>   Type of the results.
+     */
+    private static <T> void cancelTasks(ArrayList<ProcessTask<T>> tasks, int from) {
+        for (int i = from; i < tasks.size(); i++) {
+            tasks.get(i).cancel(false);
+        }
+        for (int i = from; i < tasks.size(); i++) {
+            //Results and exceptions of remaining tasks are discarded:
+            tasks.get(i).quietlyJoin();
+        }
+    }
+
+
+    /**
+     * Method processes the entries within the passed range sequentially.
+     *
+     * @param entries   Entries to process.
+     * @param from      Index of the first entry to process (inclusive).
+     * @param to        Index of the last entry to process (exclusive).
+     * @param processor Processor to invoke for every entry.
+     * @param token     Token through which processing can be cancelled.
+     * @param <T>       Type of the results.
+     * @return          Results of the processed entries.
+     */
+    private static <T> ArrayList<T> processRange(List<EntryAbbreviated> entries, int from, int to, EntryProcessor<T> processor, CancellationToken token) {
+        ArrayList<T> results = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            if (isCancelled(token)) {
+                break;
+            }
+            T result = processor.process(entries.get(i));
+            if (result != null) {
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Method returns whether the passed token is cancelled.
+     *
+     * @param token Token to test, may be {@code null}.
+     * @return      Whether the token is cancelled.
+     */
+    private static boolean isCancelled(CancellationToken token) {
+        return token != null && token.isCancelled();
+    }
+
+
+    /**
+     * Class models a task which processes a range of entries. If the range is too large, the task is
+     * split into two subtasks, one of which can be stolen by another thread.
+     *
+     * @param <T>   Type of the results.
+     */
+    private static class ProcessTask<T> extends RecursiveTask<ArrayList<T>> {
+
+        /**
+         * Attribute stores the entries to process.
+         */
+        private final List<EntryAbbreviated> entries;
+
+        /**
+         * Attribute stores the index of the first entry to process (inclusive).
+         */
+        private final int from;
+
+        /**
+         * Attribute stores the index of the last entry to process (exclusive).
+         */
+        private final int to;
+
+        /**
+         * Attribute stores the processor to invoke for every entry.
+         */
+        private final EntryProcessor<T> processor;
+
+        /**
+         * Attribute stores the token through which processing can be cancelled.
+         */
+        private final CancellationToken token;
+
+
+        /**
+         * Constructor instantiates a new task for the passed range of entries.
+         *
+         * @param entries   Entries to process.
+         * @param from      Index of the first entry to process (inclusive).
+         * @param to        Index of the last entry to process (exclusive).
+         * @param processor Processor to invoke for every entry.
+         * @param token     Token through which processing can be cancelled.
+         */
+        private ProcessTask(List<EntryAbbreviated> entries, int from, int to, EntryProcessor<T> processor, CancellationToken token) {
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+            this.processor = processor;
+            this.token = token;
+        }
+
+
+        /**
+         * Method processes the range of entries, splitting it if necessary.
+         *
+         * @return  Results of the processed entries in the order of the entries.
+         */
+        @Override
+        protected ArrayList<T> compute() {
+            if (to - from <= LEAF_SIZE || ParallelSearchExecutor.isCancelled(token)) {
+                return processRange(entries, from, to, processor, token);
+            }
+            int middle = (from + to) >>> 1;
+            ProcessTask<T> left = new ProcessTask<>(entries, from, middle, processor, token);
+            left.fork();
+            ArrayList<T> rightResults = new ProcessTask<>(entries, middle, to, processor, token).compute();
+            ArrayList<T> results = left.join();
+            results.addAll(rightResults);
+            return results;
+        }
+
+    }
+
+}
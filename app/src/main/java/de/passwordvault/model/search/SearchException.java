@@ -0,0 +1,23 @@
+package de.passwordvault.model.search;
+
+
+/**
+ * Class models an {@linkplain Exception} which can be thrown when entries cannot be processed while
+ * searching or building the search index.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class SearchException extends Exception {
+
+    /**
+     * Constructor instantiates a new SearchException with the passed message and cause.
+     *
+     * @param message   Message to be delivered alongside the exception.
+     * @param cause     Exception which caused this exception.
+     */
+    public SearchException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -1,11 +1,13 @@
 package de.passwordvault.model.search;
 
-import androidx.annotation.NonNull;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
 import de.passwordvault.model.detail.Detail;
 import de.passwordvault.model.entry.EntryAbbreviated;
 import de.passwordvault.model.entry.EntryExtended;
 import de.passwordvault.model.entry.EntryManager;
+import de.passwordvault.model.storage.settings.Config;
 import de.passwordvault.model.tags.Tag;
 
 
@@ -15,79 +17,377 @@ import de.passwordvault.model.tags.Tag;
  * The generated list of search results contains instances of {@link SearchResultEntry}.
  * If details match the search query, the list contains instances of {@link SearchResultDetail}
  * immediately after the instance of {@link SearchResultEntry} of which the detail is a member.
+ * Entries are matched against the {@link SearchIndex}, so that only entries with matching details
+ * need to be loaded from storage. If a query contains the previously searched query, only the
+ * entries that matched the previous query are searched again. The entries are searched in parallel
+ * through the {@link ParallelSearchExecutor}.
+ * If fuzzy search is enabled through {@link Config#fuzzySearch}, entries which do not match the query
+ * exactly are also found if their name, tags or detail names match the query with typos. Such
+ * entries are ranked with {@link SearchResult#PRIORITY_FUZZY_MATCH}.
  *
  * @author  Christian-2003
- * @version 3.7.1
+ * @version 3.7.4
  */
 public class SearchHandler {
 
     /**
-     * Attribute stores the list of search results.
+     * Interface models a callback which receives the results of a search while the search is running.
      */
-    @NonNull
-    private final ArrayList<SearchResult> searchResults;
+    public interface SearchCallback {
+
+        /**
+         * Method is called whenever new search results were found. The results are passed in the
+         * order in which the entries are sorted, and not according to their priority. Detail search
+         * results are always passed alongside the entry search result to which they belong.
+         *
+         * @param results   Search results which were found.
+         */
+        void onResultsFound(ArrayList<SearchResult> results);
+
+        /**
+         * Method is called once the search has finished. This is not called if the search was
+         * cancelled.
+         *
+         * @param results   All search results, ordered according to their priority.
+         */
+        void onSearchFinished(ArrayList<SearchResult> results);
+
+        /**
+         * Method is called if the search failed, since an entry could not be searched. Results which
+         * were passed to {@link #onResultsFound(ArrayList)} before remain valid. This is called
+         * instead of {@link #onSearchFinished(ArrayList)}.
+         */
+        void onSearchFailed();
+
+    }
+
+
+    /**
+     * Field stores the minimum number of search results which are passed to
+     * {@link SearchCallback#onResultsFound(ArrayList)} at once.
+     */
+    private static final int STREAM_BATCH_SIZE = 32;
+
 
     /**
      * Attribute stores the search query.
      */
     private String query;
 
+    /**
+     * Attribute caches for every tag name whether it matches the current query, since the same tags
+     * are used by many entries. The cache is accessed by all threads searching entries.
+     */
+    private final ConcurrentHashMap<String, Boolean> tagMatches;
+
+    /**
+     * Attribute caches for every tag name whether it matches the current query with typos.
+     */
+    private final ConcurrentHashMap<String, Boolean> fuzzyTagMatches;
+
+    /**
+     * Attribute stores the maximum number of typos with which the current query may match. This is
+     * {@code 0} if the current query is not matched with typos.
+     */
+    private int fuzzyDistance;
+
+    /**
+     * Attribute stores the UUIDs of all entries whose name or detail names match the current query
+     * with typos.
+     */
+    private HashSet<String> fuzzyCandidates;
+
+    /**
+     * Attribute stores the lowercase query of the last search that was finished. This is {@code null}
+     * if no search was finished.
+     */
+    private String previousQuery;
+
+    /**
+     * Attribute stores the UUIDs of all entries that matched the {@link #previousQuery}.
+     */
+    private HashSet<String> previousMatchingEntries;
+
+    /**
+     * Attribute stores the version of the {@link SearchIndex} with which the {@link #previousQuery}
+     * was searched. The previous results can only be refined if the index was not changed since.
+     */
+    private long previousIndexVersion;
+
+    /**
+     * Attribute stores the maximum number of typos with which the {@link #previousQuery} was matched.
+     */
+    private int previousFuzzyDistance;
+
 
     /**
      * Constructor instantiates a new search handler.
      */
     public SearchHandler() {
-        searchResults = new ArrayList<>();
+        tagMatches = new ConcurrentHashMap<>();
+        fuzzyTagMatches = new ConcurrentHashMap<>();
+        fuzzyDistance = 0;
+        fuzzyCandidates = new HashSet<>();
+        previousQuery = null;
+        previousMatchingEntries = new HashSet<>();
+        previousIndexVersion = -1;
+        previousFuzzyDistance = 0;
     }
 
 
     /**
-     * Method searches all entries and details for the specified query.
+     * Method searches all entries and details for the specified query. If the {@link SearchIndex}
+     * is not built yet, it is built first.
      *
      * @param query Query for which to search.
      * @return      List of search results.
      */
     public ArrayList<SearchResult> search(String query) {
+        return search(query, null, null);
+    }
+
+    /**
+     * Method searches all entries and details for the specified query. If the {@link SearchIndex}
+     * is not built yet, it is built first. If the query contains the query of the previous search,
+     * only the entries that matched the previous query are searched. Results are passed to the
+     * specified callback while searching. The search stops as soon as the passed token is cancelled.
+     * The method must not be called concurrently.
+     *
+     * @param query     Query for which to search.
+     * @param token     Token through which the search can be cancelled. Pass {@code null} if the
+     *                  search shall not be cancellable.
+     * @param callback  Callback to receive the results while searching. Pass {@code null} if no
+     *                  callback shall be invoked.
+     * @return          List of search results, or {@code null} if the search was cancelled or
+     *                  failed.
+     */
+    public ArrayList<SearchResult> search(String query, CancellationToken token, SearchCallback callback) {
         this.query = query.toLowerCase();
-        searchResults.clear();
+        tagMatches.clear();
+        fuzzyTagMatches.clear();
+        fuzzyDistance = Config.getInstance().fuzzySearch.get() ? FuzzyMatcher.getMaxDistance(this.query.length()) : 0;
 
+        SearchIndex index = SearchIndex.getInstance();
+        try {
+            while (!index.build()) {
+                //Entries were changed while building the index, therefore the index is built again.
+            }
+        }
+        catch (SearchException e) {
+            if (callback != null) {
+                callback.onSearchFailed();
+            }
+            return null;
+        }
+        long indexVersion = index.getVersion();
+        HashSet<String> candidates = index.findCandidates(this.query);
+        fuzzyCandidates = fuzzyDistance > 0 ? index.findFuzzyCandidates(this.query, fuzzyDistance) : new HashSet<>();
+        HashSet<String> scope = null;
+        if (canRefinePreviousSearch(indexVersion)) {
+            //Every entry matching the query must have matched the previous query:
+            scope = previousMatchingEntries;
+        }
+        ArrayList<EntryAbbreviated> entries = new ArrayList<>();
         for (EntryAbbreviated entryAbbreviated : EntryManager.getInstance().getData()) {
-            boolean entryAdded = addEntryToSearchResults(entryAbbreviated);
-            EntryExtended entryExtended = EntryManager.getInstance().get(entryAbbreviated.getUuid(), false);
-            if (entryExtended != null) {
-                for (Detail detail : entryExtended.getDetails()) {
-                    boolean detailAdded = addDetailToSearchResults(detail, entryAbbreviated, entryAdded);
-                    if (detailAdded) {
-                        entryAdded = true;
+            if (scope == null || scope.contains(entryAbbreviated.getUuid())) {
+                entries.add(entryAbbreviated);
+            }
+        }
+        HashSet<String> matchingEntries = new HashSet<>();
+        ArrayList<SearchResultGroup> groups = new ArrayList<>();
+        ArrayList<SearchResult> batch = new ArrayList<>();
+
+        boolean finished;
+        try {
+            finished = ParallelSearchExecutor.getInstance().process(entries, entry -> searchEntry(entry, index, candidates), token, chunkGroups -> {
+                for (SearchResultGroup group : chunkGroups) {
+                    groups.add(group);
+                    matchingEntries.add(group.getEntryResult().getEntry().getUuid());
+                    if (callback != null) {
+                        group.appendTo(batch);
                     }
                 }
+                if (callback != null && batch.size() >= STREAM_BATCH_SIZE) {
+                    callback.onResultsFound(new ArrayList<>(batch));
+                    batch.clear();
+                }
+            });
+        }
+        catch (SearchException e) {
+            if (callback != null) {
+                callback.onSearchFailed();
             }
+            return null;
+        }
+        if (!finished) {
+            return null;
+        }
+        if (callback != null && !batch.isEmpty()) {
+            callback.onResultsFound(batch);
         }
 
-        reorderAccordingToPriority(searchResults);
+        ArrayList<SearchResult> searchResults = new ArrayList<>();
+        for (SearchResultGroup group : rankByPriority(groups)) {
+            group.appendTo(searchResults);
+        }
+        previousQuery = this.query;
+        previousMatchingEntries = matchingEntries;
+        previousIndexVersion = indexVersion;
+        previousFuzzyDistance = fuzzyDistance;
+        if (callback != null) {
+            callback.onSearchFinished(searchResults);
+        }
 
         return searchResults;
     }
 
 
     /**
-     * Method adds the specified entry to the list of search results if it matches the query.
+     * Method returns whether the current query can only match entries which matched the previous
+     * query, so that the previous search can be refined. Exact matches of a query are always matches
+     * of every query it contains. Matches with typos are only preserved if the query starts with the
+     * previous query and the same number of typos is tolerated.
+     *
+     * @param indexVersion  Version of the {@link SearchIndex} with which the current query is searched.
+     * @return              Whether the previous search can be refined.
+     */
+    private boolean canRefinePreviousSearch(long indexVersion) {
+        if (previousQuery == null || previousIndexVersion != indexVersion) {
+            return false;
+        }
+        if (fuzzyDistance == 0) {
+            return query.contains(previousQuery);
+        }
+        return fuzzyDistance == previousFuzzyDistance && query.startsWith(previousQuery);
+    }
+
+
+    /**
+     * Method searches the passed entry and its details and returns the group of search results for
+     * the entry. If neither the entry nor its details match the query, {@code null} is returned.
+     *
+     * @param entryAbbreviated  Entry to search.
+     * @param index             Index to use for searching.
+     * @param candidates        UUIDs of the entries whose indexed texts can match the query.
+     * @return                  Group of search results for the entry.
+     */
+    private SearchResultGroup searchEntry(EntryAbbreviated entryAbbreviated, SearchIndex index, HashSet<String> candidates) {
+        SearchIndex.IndexedEntry indexedEntry = null;
+        if (candidates.contains(entryAbbreviated.getUuid())) {
+            indexedEntry = index.get(entryAbbreviated.getUuid());
+        }
+        SearchResultGroup group = null;
+        SearchResultEntry entryResult = createEntrySearchResult(entryAbbreviated, indexedEntry);
+        if (entryResult != null) {
+            group = new SearchResultGroup(entryResult);
+        }
+        if (indexedEntry == null) {
+            return group;
+        }
+        EntryExtended entryExtended = null;
+        for (SearchIndex.IndexedDetail indexedDetail : indexedEntry.details) {
+            int priority = getDetailPriority(indexedDetail);
+            if (priority == 0) {
+                continue;
+            }
+            if (entryExtended == null) {
+                //Only load entries from storage whose details match the query:
+                entryExtended = EntryManager.getInstance().get(entryAbbreviated.getUuid(), false);
+                if (entryExtended == null) {
+                    return group;
+                }
+            }
+            Detail detail = entryExtended.get(indexedDetail.uuid);
+            if (detail != null) {
+                if (group == null) {
+                    //Entry itself does not match, therefore it is ranked with the priority of the detail:
+                    group = new SearchResultGroup(new SearchResultEntry(entryAbbreviated, priority));
+                }
+                group.addDetailResult(new SearchResultDetail(detail, entryAbbreviated));
+            }
+        }
+        if (group == null && fuzzyDistance > 0) {
+            return searchEntryFuzzy(entryAbbreviated, index);
+        }
+        return group;
+    }
+
+
+    /**
+     * Method searches the name, tags and detail names of the passed entry for the query with typos
+     * and returns the group of search results for the entry. If neither matches, {@code null} is
+     * returned.
      *
-     * @param entry Entry to add to the search results if it matches the query.
-     * @return      Whether the entry was added to the search results.
+     * @param entryAbbreviated  Entry to search.
+     * @param index             Index to use for searching.
+     * @return                  Group of search results for the entry.
      */
-    private boolean addEntryToSearchResults(EntryAbbreviated entry) {
+    private SearchResultGroup searchEntryFuzzy(EntryAbbreviated entryAbbreviated, SearchIndex index) {
+        SearchIndex.IndexedEntry indexedEntry = null;
+        if (fuzzyCandidates.contains(entryAbbreviated.getUuid())) {
+            indexedEntry = index.get(entryAbbreviated.getUuid());
+        }
+        SearchResultGroup group = null;
+        ArrayList<Tag> matchingTags = new ArrayList<>();
+        for (Tag tag : entryAbbreviated.getTags()) {
+            if (tagMatchesFuzzy(tag)) {
+                matchingTags.add(tag);
+            }
+        }
+        if (!matchingTags.isEmpty() || (indexedEntry != null && FuzzyMatcher.matches(query, indexedEntry.name, fuzzyDistance))) {
+            SearchResultEntry entryResult = new SearchResultEntry(entryAbbreviated, SearchResult.PRIORITY_FUZZY_MATCH);
+            for (Tag tag : matchingTags) {
+                entryResult.addMatchingTag(tag);
+            }
+            group = new SearchResultGroup(entryResult);
+        }
+        if (indexedEntry == null) {
+            return group;
+        }
+        EntryExtended entryExtended = null;
+        for (SearchIndex.IndexedDetail indexedDetail : indexedEntry.details) {
+            if (!FuzzyMatcher.matches(query, indexedDetail.name, fuzzyDistance)) {
+                continue;
+            }
+            if (entryExtended == null) {
+                entryExtended = EntryManager.getInstance().get(entryAbbreviated.getUuid(), false);
+                if (entryExtended == null) {
+                    return group;
+                }
+            }
+            Detail detail = entryExtended.get(indexedDetail.uuid);
+            if (detail != null) {
+                if (group == null) {
+                    group = new SearchResultGroup(new SearchResultEntry(entryAbbreviated, SearchResult.PRIORITY_FUZZY_MATCH));
+                }
+                group.addDetailResult(new SearchResultDetail(detail, entryAbbreviated));
+            }
+        }
+        return group;
+    }
+
+
+    /**
+     * Method creates the search result for the specified entry if it matches the query. If the entry
+     * does not match the query, {@code null} is returned.
+     *
+     * @param entry         Entry for which to create the search result.
+     * @param indexedEntry  Indexed texts of the entry, or {@code null} if the index determined that
+     *                      the texts cannot match the query.
+     * @return              Search result for the entry.
+     */
+    private SearchResultEntry createEntrySearchResult(EntryAbbreviated entry, SearchIndex.IndexedEntry indexedEntry) {
         SearchResultEntry searchResult = null;
         int priority = 0;
         ArrayList<Tag> matchingTags = new ArrayList<>();
-        if (entry.getName().toLowerCase().contains(query)) {
+        if (indexedEntry != null && indexedEntry.name.contains(query)) {
             priority += SearchResult.PRIORITY_MATCHING_ENTRY_NAME;
         }
-        if (entry.getDescription().toLowerCase().contains(query)) {
+        if (indexedEntry != null && indexedEntry.description.contains(query)) {
             priority += SearchResult.PRIORITY_MATCHING_ENTRY_DESCRIPTION;
         }
         for (Tag tag : entry.getTags()) {
-            if (tag.getName().toLowerCase().contains(query)) {
+            if (tagMatches(tag)) {
                 if (matchingTags.isEmpty()) {
                     priority += SearchResult.PRIORITY_MATCHING_ENTRY_TAG;
                 }
@@ -100,113 +400,91 @@ public class SearchHandler {
                 searchResult.addMatchingTag(tag);
             }
         }
-        if (searchResult != null) {
-            searchResults.add(searchResult);
+        return searchResult;
+    }
+
+
+    /**
+     * Method returns whether the name of the passed tag matches the query. Tags are not indexed,
+     * since they can be renamed or deleted without changing the entries through the
+     * {@link EntryManager}.
+     *
+     * @param tag   Tag to test.
+     * @return      Whether the tag matches the query.
+     */
+    private boolean tagMatches(Tag tag) {
+        Boolean matches = tagMatches.get(tag.getName());
+        if (matches == null) {
+            matches = tag.getName().toLowerCase().contains(query);
+            tagMatches.put(tag.getName(), matches);
+        }
+        return matches;
+    }
+
+
+    /**
+     * Method returns whether the name of the passed tag matches the query with typos.
+     *
+     * @param tag   Tag to test.
+     * @return      Whether the tag matches the query with typos.
+     */
+    private boolean tagMatchesFuzzy(Tag tag) {
+        Boolean matches = fuzzyTagMatches.get(tag.getName());
+        if (matches == null) {
+            matches = FuzzyMatcher.matches(query, tag.getName().toLowerCase(), fuzzyDistance);
+            fuzzyTagMatches.put(tag.getName(), matches);
         }
-        return searchResult != null;
+        return matches;
     }
 
 
     /**
-     * Method adds the specified detail to the list of search results, if it matches the query.
+     * Method returns the priority with which the passed indexed detail matches the query. If the
+     * detail does not match, {@code 0} is returned.
      *
-     * @param detail                Detail to add to the search results if it matches the query.
-     * @param entry                 Entry of which the detail is a member.
-     * @param entryAddedBeforehand  Whether the passed entry was added to the search results before
-     *                              this method is called.
-     * @return                      Whether the detail is added to the search results.
-     */
-    private boolean addDetailToSearchResults(Detail detail, EntryAbbreviated entry, boolean entryAddedBeforehand) {
-        SearchResultDetail searchResult = null;
+     * @param detail    Indexed texts of the detail.
+     * @return          Priority of the detail.
+     */
+    private int getDetailPriority(SearchIndex.IndexedDetail detail) {
         int priority = 0;
-        if (detail.getName().toLowerCase().contains(query)) {
+        if (detail.name.contains(query)) {
             priority += SearchResult.PRIORITY_MATCHING_DETAIL_NAME;
         }
-        if (!detail.isObfuscated() && detail.getContent().toLowerCase().contains(query)) {
+        if (detail.content != null && detail.content.contains(query)) {
             priority += SearchResult.PRIORITY_MATCHING_DETAIL_CONTENT;
         }
-        if (priority != 0) {
-            searchResult = new SearchResultDetail(detail, entry);
-        }
-
-        if (searchResult != null) {
-            if (!entryAddedBeforehand) {
-                searchResults.add(new SearchResultEntry(entry, priority));
-            }
-            searchResults.add(searchResult);
-        }
-        return searchResult != null;
+        return priority;
     }
 
 
     /**
-     * Method uses a quicksort algorithm to reorder the passed list of search results based on their
-     * priority. Afterwards, search results with a high priority will be placed at the beginning of
-     * the list while search results with a low priority are placed at the end.
+     * Method ranks the passed groups of search results by their priority through a counting sort.
+     * Groups with a high priority are placed at the beginning, while groups with a low priority are
+     * placed at the end. The sort is stable, so that groups with the same priority remain in the
+     * order in which the entries are sorted. Since priorities are small sums of constants, the groups
+     * are ranked in linear time.
      *
-     * @param list  List to sort.
+     * @param groups    Groups to rank.
+     * @return          Ranked groups.
      */
-    private void reorderAccordingToPriority(@NonNull ArrayList<SearchResult> list) {
-        if (list.isEmpty()) {
-            return;
+    static SearchResultGroup[] rankByPriority(ArrayList<SearchResultGroup> groups) {
+        int maxPriority = 0;
+        for (SearchResultGroup group : groups) {
+            maxPriority = Math.max(maxPriority, group.getPriority());
         }
-        ArrayList<SearchResult> leftBlocks = new ArrayList<>();
-        ArrayList<SearchResult> rightBlocks = new ArrayList<>();
-        ArrayList<SearchResult> pivotBlocks = new ArrayList<>();
-
-        //Determine pivot blocks:
-        pivotBlocks.add(list.get(0));
-        for (int i = 1; i < list.size(); i++) {
-            if (list.get(i) instanceof SearchResultDetail) {
-                pivotBlocks.add(list.get(i));
-            }
-            else {
-                break;
-            }
+        //Bucket 0 contains the groups with the highest priority:
+        int[] bucketStarts = new int[maxPriority + 2];
+        for (SearchResultGroup group : groups) {
+            bucketStarts[maxPriority - group.getPriority() + 1]++;
         }
-        int pivotPriority = pivotBlocks.get(0).getPriority();
-
-        //Divide list into left or right:
-        for (int i = pivotBlocks.size(); i < list.size(); i++) {
-            //Insert first item of current block (entry search result) into left or right:
-            SearchResult searchResult = list.get(i);
-            boolean left;
-            if (searchResult.getPriority() > pivotPriority) {
-                left = true;
-                leftBlocks.add(searchResult);
-            }
-            else {
-                left = false;
-                rightBlocks.add(searchResult);
-            }
-
-            //Insert other items of block (detail search results) into left or right:
-            if (++i < list.size()) {
-                searchResult = list.get(i);
-                while (searchResult instanceof SearchResultDetail) {
-                    if (left) {
-                        leftBlocks.add(searchResult);
-                    }
-                    else {
-                        rightBlocks.add(searchResult);
-                    }
-                    if (++i < list.size()) {
-                        searchResult = list.get(i);
-                    }
-                    else {
-                        break;
-                    }
-                }
-                i--;
-            }
+        for (int i = 1; i < bucketStarts.length; i++) {
+            bucketStarts[i] += bucketStarts[i - 1];
         }
-
-        reorderAccordingToPriority(leftBlocks);
-        reorderAccordingToPriority(rightBlocks);
-        list.clear();
-        list.addAll(leftBlocks);
-        list.addAll(pivotBlocks);
-        list.addAll(rightBlocks);
+        SearchResultGroup[] ranked = new SearchResultGroup[groups.size()];
+        for (SearchResultGroup group : groups) {
+            ranked[bucketStarts[maxPriority - group.getPriority()]++] = group;
+        }
+        return ranked;
     }
 
 }
@@ -0,0 +1,645 @@
+package de.passwordvault.model.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import de.passwordvault.model.detail.Detail;
+import de.passwordvault.model.entry.EntryExtended;
+import de.passwordvault.model.entry.EntryManager;
+
+
+/**
+ * Class implements an in-memory inverted index, which maps every trigram (i.e. three consecutive
+ * characters) of the lowercase names, descriptions, detail names and non-obfuscated detail contents
+ * of all entries to the entries containing the trigram. This allows to determine the entries that
+ * can contain a query (as substring or prefix) without decrypting any entry from storage.
+ * Additionally, the index stores a vocabulary of the names of all entries and details, which allows
+ * to find entries whose names match a query with typos (see {@link FuzzyMatcher}).
+ * The index is built once through {@link #build()} and kept up to date by the
+ * {@link EntryManager}. The class uses singleton-pattern, and the instance can be retrieved through
+ * {@link #getInstance()}.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class SearchIndex {
+
+    /**
+     * Field stores the number of characters of which an n-gram consists.
+     */
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * Field stores the maximum length of a fuzzy term. Longer texts are truncated, since queries that
+     * are matched with typos are limited in length anyways.
+     */
+    private static final int MAX_FUZZY_TERM_LENGTH = FuzzyMatcher.MAX_QUERY_LENGTH + 8;
+
+    /**
+     * Field stores the character with which fuzzy terms are padded at the beginning, so that their
+     * first characters are part of as many trigrams as the other characters.
+     */
+    private static final char FUZZY_PADDING = '\u0000';
+
+    /**
+     * Field stores the singleton-instance of the search index.
+     */
+    private static SearchIndex singleton;
+
+
+    /**
+     * Attribute stores the indexed documents, where the index within the list is the document ID.
+     * Removed documents are replaced with {@code null} until the index is compacted.
+     */
+    private ArrayList<IndexedEntry> documents;
+
+    /**
+     * Attribute maps the UUIDs of all indexed entries to their document ID.
+     */
+    private HashMap<String, Integer> documentIds;
+
+    /**
+     * Attribute maps every trigram to the IDs of all documents containing the trigram. The IDs
+     * within every posting list are sorted in ascending order.
+     */
+    private HashMap<Long, PostingList> postings;
+
+    /**
+     * Attribute maps the texts of all fuzzy terms to the fuzzy terms. A fuzzy term is the lowercase
+     * name of an entry or detail starting at any word within the name.
+     */
+    private HashMap<String, FuzzyTerm> fuzzyTerms;
+
+    /**
+     * Attribute maps every trigram of the padded fuzzy terms to the fuzzy terms containing the trigram.
+     */
+    private HashMap<Long, ArrayList<FuzzyTerm>> fuzzyPostings;
+
+    /**
+     * Attribute stores the number of removed documents which are still referenced by the posting
+     * lists.
+     */
+    private int removedDocuments;
+
+    /**
+     * Attribute indicates whether the index is built.
+     */
+    private boolean built;
+
+    /**
+     * Attribute stores a counter which is incremented with every change to the index. This is used to
+     * discard an index that was built while entries were changed.
+     */
+    private long version;
+
+
+    /**
+     * Constructor instantiates a new search index which is not built.
+     */
+    private SearchIndex() {
+        documents = new ArrayList<>();
+        documentIds = new HashMap<>();
+        postings = new HashMap<>();
+        fuzzyTerms = new HashMap<>();
+        fuzzyPostings = new HashMap<>();
+        removedDocuments = 0;
+        built = false;
+        version = 0;
+    }
+
+
+    /**
+     * Static method returns the singleton-instance of the search index.
+     *
+     * @return  Singleton-instance of the search index.
+     */
+    public static synchronized SearchIndex getInstance() {
+        if (singleton == null) {
+            singleton = new SearchIndex();
+        }
+        return singleton;
+    }
+
+
+    /**
+     * Method returns whether the index is built.
+     *
+     * @return  Whether the index is built.
+     */
+    public synchronized boolean isBuilt() {
+        return built;
+    }
+
+    /**
+     * Method returns the version of the index, which changes whenever an entry is changed or the
+     * index is invalidated.
+     *
+     * @return  Version of the index.
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Method builds the index from all entries of the {@link EntryManager}. Every entry is loaded
+     * (and decrypted) from storage once, in parallel through the {@link ParallelSearchExecutor}. The
+     * entries are loaded without holding the lock of the
+     * index, so that the index can still be updated in the meantime. If entries are changed while
+     * the index is built, the built index is discarded. If an entry cannot be loaded, the index is
+     * not built.
+     *
+     * @return                  Whether the index was built.
+     * @throws SearchException  An entry could not be loaded.
+     */
+    public boolean build() throws SearchException {
+        long startVersion;
+        synchronized (this) {
+            if (built) {
+                return true;
+            }
+            startVersion = version;
+        }
+        ArrayList<IndexedEntry> loadedDocuments = new ArrayList<>();
+        ParallelSearchExecutor.getInstance().process(new ArrayList<>(EntryManager.getInstance().getData()), abbreviated -> {
+            EntryExtended entry = EntryManager.getInstance().get(abbreviated.getUuid(), false);
+            return entry != null ? new IndexedEntry(entry) : null;
+        }, null, loadedDocuments::addAll);
+        synchronized (this) {
+            if (version != startVersion) {
+                return false;
+            }
+            install(loadedDocuments);
+            built = true;
+            return true;
+        }
+    }
+
+    /**
+     * Method discards the index. It needs to be built again through {@link #build()}.
+     */
+    public synchronized void invalidate() {
+        documents = new ArrayList<>();
+        documentIds = new HashMap<>();
+        postings = new HashMap<>();
+        fuzzyTerms = new HashMap<>();
+        fuzzyPostings = new HashMap<>();
+        removedDocuments = 0;
+        built = false;
+        version++;
+    }
+
+    /**
+     * Method adds the passed entry to the index, replacing any previously indexed version of the
+     * entry. If the index is not built, nothing happens.
+     *
+     * @param entry                 Entry to index.
+     * @throws NullPointerException The passed entry is {@code null}.
+     */
+    public synchronized void update(EntryExtended entry) throws NullPointerException {
+        if (entry == null) {
+            throw new NullPointerException();
+        }
+        version++;
+        if (!built) {
+            return;
+        }
+        removeDocument(entry.getUuid());
+        addDocument(new IndexedEntry(entry));
+        compactIfNecessary();
+    }
+
+    /**
+     * Method removes the entry with the passed UUID from the index. If the index is not built,
+     * nothing happens.
+     *
+     * @param uuid  UUID of the entry to remove.
+     */
+    public synchronized void remove(String uuid) {
+        version++;
+        if (!built) {
+            return;
+        }
+        removeDocument(uuid);
+        compactIfNecessary();
+    }
+
+    /**
+     * Method returns the indexed entry with the passed UUID. If no entry is indexed for the UUID,
+     * {@code null} is returned.
+     *
+     * @param uuid  UUID of the indexed entry to return.
+     * @return      Indexed entry.
+     */
+    public synchronized IndexedEntry get(String uuid) {
+        Integer documentId = documentIds.get(uuid);
+        if (documentId == null) {
+            return null;
+        }
+        return documents.get(documentId);
+    }
+
+    /**
+     * Method returns the UUIDs of all entries whose indexed texts contain all trigrams of the passed
+     * lowercase query. Since the trigrams are not checked for their order, the candidates must be
+     * verified by the caller. If the query is shorter than a trigram, all indexed entries are
+     * returned.
+     *
+     * @param lowercaseQuery        Lowercase query for which to find candidates.
+     * @return                      UUIDs of all candidates.
+     * @throws NullPointerException The passed query is {@code null}.
+     */
+    public synchronized HashSet<String> findCandidates(String lowercaseQuery) throws NullPointerException {
+        HashSet<String> candidates = new HashSet<>();
+        if (lowercaseQuery.length() < GRAM_LENGTH) {
+            for (IndexedEntry document : documents) {
+                if (document != null) {
+                    candidates.add(document.uuid);
+                }
+            }
+            return candidates;
+        }
+        HashSet<Long> queryGrams = new HashSet<>();
+        addGrams(lowercaseQuery, queryGrams);
+        PostingList[] lists = new PostingList[queryGrams.size()];
+        int i = 0;
+        for (Long gram : queryGrams) {
+            PostingList list = postings.get(gram);
+            if (list == null) {
+                return candidates;
+            }
+            lists[i++] = list;
+        }
+        //Intersect shortest lists first to keep intermediate results small:
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        int[] result = Arrays.copyOf(lists[0].values, lists[0].size);
+        int resultSize = result.length;
+        for (i = 1; i < lists.length && resultSize > 0; i++) {
+            resultSize = intersect(result, resultSize, lists[i]);
+        }
+        for (i = 0; i < resultSize; i++) {
+            IndexedEntry document = documents.get(result[i]);
+            if (document != null) {
+                candidates.add(document.uuid);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Method returns the UUIDs of all entries whose name or detail names match the passed lowercase
+     * query with at most the passed number of typos (see {@link FuzzyMatcher}). Since every typo can
+     * only change up to four trigrams (in case of a transposition), only the fuzzy terms which share
+     * enough trigrams with the query need to be compared with the query. If the query is too short
+     * for this filter, all fuzzy terms are compared with the query.
+     *
+     * @param lowercaseQuery        Lowercase query for which to find candidates.
+     * @param maxDistance           Maximum number of typos.
+     * @return                      UUIDs of all entries that match the query with typos.
+     * @throws NullPointerException The passed query is {@code null}.
+     */
+    public synchronized HashSet<String> findFuzzyCandidates(String lowercaseQuery, int maxDistance) throws NullPointerException {
+        HashSet<Long> queryGrams = new HashSet<>();
+        addGrams(padFuzzyTerm(lowercaseQuery), queryGrams);
+        int minSharedGrams = queryGrams.size() - (GRAM_LENGTH + 1) * maxDistance;
+        Collection<FuzzyTerm> terms = fuzzyTerms.values();
+        if (minSharedGrams > 0) {
+            HashMap<FuzzyTerm, Integer> sharedGrams = new HashMap<>();
+            for (Long gram : queryGrams) {
+                ArrayList<FuzzyTerm> gramTerms = fuzzyPostings.get(gram);
+                if (gramTerms != null) {
+                    for (FuzzyTerm term : gramTerms) {
+                        sharedGrams.merge(term, 1, Integer::sum);
+                    }
+                }
+            }
+            terms = new ArrayList<>();
+            for (HashMap.Entry<FuzzyTerm, Integer> shared : sharedGrams.entrySet()) {
+                if (shared.getValue() >= minSharedGrams) {
+                    terms.add(shared.getKey());
+                }
+            }
+        }
+        HashSet<String> candidates = new HashSet<>();
+        for (FuzzyTerm term : terms) {
+            if (FuzzyMatcher.getPrefixDistance(lowercaseQuery, term.text, 0, maxDistance) > maxDistance) {
+                continue;
+            }
+            for (int i = 0; i < term.documents.size; i++) {
+                IndexedEntry document = documents.get(term.documents.values[i]);
+                if (document != null) {
+                    candidates.add(document.uuid);
+                }
+            }
+        }
+        return candidates;
+    }
+
+
+    /**
+     * Method replaces the contents of the index with the passed documents.
+     *
+     * @param newDocuments  Documents with which to fill the index.
+     */
+    private void install(ArrayList<IndexedEntry> newDocuments) {
+        documents = new ArrayList<>(newDocuments.size());
+        documentIds = new HashMap<>();
+        postings = new HashMap<>();
+        fuzzyTerms = new HashMap<>();
+        fuzzyPostings = new HashMap<>();
+        removedDocuments = 0;
+        for (IndexedEntry document : newDocuments) {
+            addDocument(document);
+        }
+    }
+
+    /**
+     * Method adds the passed document to the index.
+     *
+     * @param document  Document to add.
+     */
+    private void addDocument(IndexedEntry document) {
+        int documentId = documents.size();
+        documents.add(document);
+        documentIds.put(document.uuid, documentId);
+        HashSet<Long> grams = new HashSet<>();
+        addGrams(document.name, grams);
+        addGrams(document.description, grams);
+        for (IndexedDetail detail : document.details) {
+            addGrams(detail.name, grams);
+            if (detail.content != null) {
+                addGrams(detail.content, grams);
+            }
+        }
+        for (Long gram : grams) {
+            PostingList list = postings.get(gram);
+            if (list == null) {
+                list = new PostingList();
+                postings.put(gram, list);
+            }
+            //Document IDs are increasing, therefore the list remains sorted:
+            list.add(documentId);
+        }
+        addFuzzyTerms(document.name, documentId);
+        for (IndexedDetail detail : document.details) {
+            addFuzzyTerms(detail.name, documentId);
+        }
+    }
+
+    /**
+     * Method adds the fuzzy terms of the passed lowercase name to the index. Every word within the
+     * name starts a new fuzzy term, which reaches until the end of the name.
+     *
+     * @param name          Lowercase name whose fuzzy terms shall be added.
+     * @param documentId    ID of the document to which the name belongs.
+     */
+    private void addFuzzyTerms(String name, int documentId) {
+        for (int start = 0; start < name.length(); start++) {
+            if (!FuzzyMatcher.isWordStart(name, start)) {
+                continue;
+            }
+            String text = name.substring(start, Math.min(name.length(), start + MAX_FUZZY_TERM_LENGTH));
+            FuzzyTerm term = fuzzyTerms.get(text);
+            if (term == null) {
+                term = new FuzzyTerm(text);
+                fuzzyTerms.put(text, term);
+                HashSet<Long> grams = new HashSet<>();
+                addGrams(padFuzzyTerm(text), grams);
+                for (Long gram : grams) {
+                    ArrayList<FuzzyTerm> terms = fuzzyPostings.get(gram);
+                    if (terms == null) {
+                        terms = new ArrayList<>();
+                        fuzzyPostings.put(gram, terms);
+                    }
+                    terms.add(term);
+                }
+            }
+            //Document IDs are increasing, therefore the document was added to the term last if at all:
+            if (term.documents.size == 0 || term.documents.values[term.documents.size - 1] != documentId) {
+                term.documents.add(documentId);
+            }
+        }
+    }
+
+    /**
+     * Method removes the document with the passed UUID from the index. The document ID remains in the
+     * posting lists until the index is compacted.
+     *
+     * @param uuid  UUID of the document to remove.
+     */
+    private void removeDocument(String uuid) {
+        Integer documentId = documentIds.remove(uuid);
+        if (documentId != null) {
+            documents.set(documentId, null);
+            removedDocuments++;
+        }
+    }
+
+    /**
+     * Method rebuilds the posting lists from the indexed documents if more than half of the
+     * referenced documents were removed. The documents do not need to be loaded from storage again.
+     */
+    private void compactIfNecessary() {
+        if (removedDocuments <= documents.size() / 2) {
+            return;
+        }
+        ArrayList<IndexedEntry> remainingDocuments = new ArrayList<>(documents.size() - removedDocuments);
+        for (IndexedEntry document : documents) {
+            if (document != null) {
+                remainingDocuments.add(document);
+            }
+        }
+        install(remainingDocuments);
+    }
+
+
+    /**
+     * Method adds all trigrams of the passed text to the passed set.
+     *
+     * @param text  Text whose trigrams shall be added.
+     * @param grams Set to which to add the trigrams.
+     */
+    private static void addGrams(String text, HashSet<Long> grams) {
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(((long)text.charAt(i) << 32) | ((long)text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+    }
+
+    /**
+     * Method pads the passed fuzzy term (or query) at the beginning, so that its trigrams can only be
+     * shared with texts starting with the same characters.
+     *
+     * @param text  Text to pad.
+     * @return      Padded text.
+     */
+    private static String padFuzzyTerm(String text) {
+        return "" + FUZZY_PADDING + FUZZY_PADDING + text;
+    }
+
+    /**
+     * Method intersects the passed sorted document IDs with the passed posting list. The result is
+     * stored in the passed array.
+     *
+     * @param ids   Sorted document IDs which are intersected in place.
+     * @param size  Number of valid document IDs within the passed array.
+     * @param list  Posting list with which to intersect.
+     * @return      Number of document IDs after the intersection.
+     */
+    private static int intersect(int[] ids, int size, PostingList list) {
+        int resultSize = 0;
+        int j = 0;
+        for (int i = 0; i < size && j < list.size; i++) {
+            while (j < list.size && list.values[j] < ids[i]) {
+                j++;
+            }
+            if (j < list.size && list.values[j] == ids[i]) {
+                ids[resultSize++] = ids[i];
+            }
+        }
+        return resultSize;
+    }
+
+
+    /**
+     * Class models a growable list of document IDs.
+     */
+    private static class PostingList {
+
+        /**
+         * Attribute stores the document IDs.
+         */
+        private int[] values = new int[4];
+
+        /**
+         * Attribute stores the number of document IDs within the list.
+         */
+        private int size = 0;
+
+
+        /**
+         * Method appends the passed document ID to the list.
+         *
+         * @param value Document ID to append.
+         */
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+    }
+
+
+    /**
+     * Class models a fuzzy term, which is a lowercase name starting at one of its words, alongside
+     * the documents containing the term.
+     */
+    private static class FuzzyTerm {
+
+        /**
+         * Attribute stores the text of the term.
+         */
+        private final String text;
+
+        /**
+         * Attribute stores the sorted IDs of all documents containing the term.
+         */
+        private final PostingList documents;
+
+
+        /**
+         * Constructor instantiates a new fuzzy term which is not contained in any document.
+         *
+         * @param text  Text of the term.
+         */
+        private FuzzyTerm(String text) {
+            this.text = text;
+            documents = new PostingList();
+        }
+
+    }
+
+
+    /**
+     * Class models the searchable texts of an entry, which are stored in lowercase. Contents of
+     * obfuscated details are not stored, since they are not searchable.
+     */
+    public static class IndexedEntry {
+
+        /**
+         * Attribute stores the UUID of the entry.
+         */
+        final String uuid;
+
+        /**
+         * Attribute stores the lowercase name of the entry.
+         */
+        final String name;
+
+        /**
+         * Attribute stores the lowercase description of the entry.
+         */
+        final String description;
+
+        /**
+         * Attribute stores the searchable texts of all details of the entry in the order of the details.
+         */
+        final ArrayList<IndexedDetail> details;
+
+
+        /**
+         * Constructor instantiates a new indexed entry from the passed entry.
+         *
+         * @param entry Entry whose searchable texts shall be stored.
+         */
+        private IndexedEntry(EntryExtended entry) {
+            uuid = entry.getUuid();
+            name = entry.getName().toLowerCase();
+            description = entry.getDescription().toLowerCase();
+            details = new ArrayList<>(entry.getDetails().size());
+            for (Detail detail : entry.getDetails()) {
+                details.add(new IndexedDetail(detail));
+            }
+        }
+
+    }
+
+
+    /**
+     * Class models the searchable texts of a detail, which are stored in lowercase.
+     */
+    public static class IndexedDetail {
+
+        /**
+         * Attribute stores the UUID of the detail.
+         */
+        final String uuid;
+
+        /**
+         * Attribute stores the lowercase name of the detail.
+         */
+        final String name;
+
+        /**
+         * Attribute stores the lowercase content of the detail, or {@code null} if the detail is
+         * obfuscated.
+         */
+        final String content;
+
+
+        /**
+         * Constructor instantiates a new indexed detail from the passed detail.
+         *
+         * @param detail    Detail whose searchable texts shall be stored.
+         */
+        private IndexedDetail(Detail detail) {
+            uuid = detail.getUuid();
+            name = detail.getName().toLowerCase();
+            content = detail.isObfuscated() ? null : detail.getContent().toLowerCase();
+        }
+
+    }
+
+}
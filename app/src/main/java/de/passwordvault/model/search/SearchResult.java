@@ -5,7 +5,7 @@ package de.passwordvault.model.search;
  * Class models a search result. All search results must extend this class.
  *
  * @author  Christian-2003
- * @version 3.7.1
+ * @version 3.7.4
  */
 public class SearchResult {
 
@@ -44,6 +44,13 @@ public class SearchResult {
      */
     public static final int PRIORITY_MATCHING_DETAIL_CONTENT = 5;
 
+    /**
+     * Field stores the priority to use when the entry name, an entry tag or a detail name matches the
+     * query only with typos. This is lower than all other priorities, so that approximate matches are
+     * always ranked below exact matches.
+     */
+    public static final int PRIORITY_FUZZY_MATCH = 1;
+
 
     /**
      * Attribute stores the type of the search result.
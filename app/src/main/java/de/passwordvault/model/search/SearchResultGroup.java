@@ -0,0 +1,90 @@
+package de.passwordvault.model.search;
+
+import androidx.annotation.NonNull;
+import java.util.ArrayList;
+
+
+/**
+ * Class models a group of search results, which consists of the search result for an entry and the
+ * search results for all matching details of the entry. Groups are ranked as a whole, so that the
+ * detail search results always remain immediately after the search result of their entry.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class SearchResultGroup {
+
+    /**
+     * Attribute stores the search result for the entry.
+     */
+    @NonNull
+    private final SearchResultEntry entryResult;
+
+    /**
+     * Attribute stores the search results for the matching details of the entry.
+     */
+    @NonNull
+    private final ArrayList<SearchResultDetail> detailResults;
+
+
+    /**
+     * Constructor instantiates a new group for the passed search result of an entry.
+     *
+     * @param entryResult   Search result for the entry.
+     */
+    public SearchResultGroup(@NonNull SearchResultEntry entryResult) {
+        this.entryResult = entryResult;
+        detailResults = new ArrayList<>();
+    }
+
+
+    /**
+     * Method returns the search result for the entry.
+     *
+     * @return  Search result for the entry.
+     */
+    @NonNull
+    public SearchResultEntry getEntryResult() {
+        return entryResult;
+    }
+
+    /**
+     * Method returns the search results for the matching details of the entry.
+     *
+     * @return  Search results for the details.
+     */
+    @NonNull
+    public ArrayList<SearchResultDetail> getDetailResults() {
+        return detailResults;
+    }
+
+    /**
+     * Method adds the passed search result for a detail to the group.
+     *
+     * @param detailResult  Search result for a detail of the entry.
+     */
+    public void addDetailResult(@NonNull SearchResultDetail detailResult) {
+        detailResults.add(detailResult);
+    }
+
+    /**
+     * Method returns the priority of the group, which is the priority of the entry search result.
+     *
+     * @return  Priority of the group.
+     */
+    public int getPriority() {
+        return entryResult.getPriority();
+    }
+
+    /**
+     * Method appends all search results of the group to the passed list. The search result for the
+     * entry is appended first, followed by the search results for the details.
+     *
+     * @param results   List to which to append the search results.
+     */
+    public void appendTo(@NonNull ArrayList<SearchResult> results) {
+        results.add(entryResult);
+        results.addAll(detailResults);
+    }
+
+}
@@ -6,7 +6,7 @@ package de.passwordvault.model.storage.app;
  * be stored.
  *
  * @author  Christian-2003
- * @version 3.3.0
+ * @version 3.7.4
  */
 public interface Storable {
 
@@ -19,6 +19,18 @@ public interface Storable {
      */
     String toStorable();
 
+    /**
+     * Method appends the string-representation of this instance (as generated by
+     * {@link #toStorable()}) to the passed builder. This allows to serialize multiple instances into
+     * a single buffer without creating intermediate strings.
+     *
+     * @param builder               Builder to which to append the string-representation.
+     * @throws NullPointerException The passed builder is {@code null}.
+     */
+    default void appendStorable(StringBuilder builder) throws NullPointerException {
+        builder.append(toStorable());
+    }
+
     /**
      * Method creates the instance from it's passed string-representation. The passed string - which
      * is a storable's string-representation - must be generated by {@link #toStorable()} beforehand.
@@ -1,6 +1,9 @@
 package de.passwordvault.model.storage.app;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import de.passwordvault.App;
 import de.passwordvault.model.detail.DetailBackupDTO;
@@ -16,7 +19,7 @@ import de.passwordvault.model.storage.file.EncryptedFileReader;
  * storage and the data will be loaded in the app as if the app started normally.
  *
  * @author  Christian-2003
- * @version 3.3.0
+ * @version 3.7.4
  */
 public class StorageConverter {
 
@@ -108,33 +111,30 @@ public class StorageConverter {
      * @throws ConverterException   Something went wrong.
      */
     private void readEntries() throws ConverterException {
-        String fileContent;
-        try {
-            fileContent = reader.read(FILE_ENTRIES);
-        }
-        catch (Exception e) {
-            throw new ConverterException("Cannot read file: " + e.getMessage());
-        }
-        if (fileContent == null) {
-            throw new ConverterException("Cannot read entries-file");
-        }
-        String[] lines = fileContent.split("\n");
+        int lines = 0;
         int corruptedEntries = 0;
-        for (String s : lines) {
-            EntryAbbreviated entry = new EntryAbbreviated();
-            try {
-                entry.fromStorable(s);
-            }
-            catch (Exception e) {
-                //Entry corrupt
-                corruptedEntries++;
-                continue;
+        try (BufferedReader lineReader = openLineReader(FILE_ENTRIES)) {
+            String line = lineReader.readLine();
+            while (line != null) {
+                lines++;
+                EntryAbbreviated entry = new EntryAbbreviated();
+                try {
+                    entry.fromStorable(line);
+                    entries.add(entry);
+                }
+                catch (Exception e) {
+                    //Entry corrupt
+                    corruptedEntries++;
+                }
+                line = lineReader.readLine();
             }
-            entries.add(entry);
         }
-        if (corruptedEntries >= lines.length * 0.5 && lines.length > 4) {
+        catch (IOException e) {
+            throw new ConverterException("Cannot read file: " + e.getMessage());
+        }
+        if (corruptedEntries >= lines * 0.5 && lines > 4) {
             //More than half of the entries were corrupted:
-            throw new ConverterException("A large portion of accounts (" + corruptedEntries + "/" + lines.length + ") was corrupted");
+            throw new ConverterException("A large portion of accounts (" + corruptedEntries + "/" + lines + ") was corrupted");
         }
     }
 
@@ -144,34 +144,51 @@ public class StorageConverter {
      * @throws ConverterException   Something went wrong.
      */
     private void readDetails() throws ConverterException {
-        String fileContent;
-        try {
-            fileContent = reader.read(FILE_DETAILS);
+        int lines = 0;
+        int corruptedDetails = 0;
+        try (BufferedReader lineReader = openLineReader(FILE_DETAILS)) {
+            String line = lineReader.readLine();
+            while (line != null) {
+                lines++;
+                try {
+                    details.add(new DetailBackupDTO(line));
+                }
+                catch (Exception e) {
+                    //Detail corrupt
+                    corruptedDetails++;
+                }
+                line = lineReader.readLine();
+            }
         }
-        catch (Exception e) {
+        catch (IOException e) {
             throw new ConverterException("Cannot read file: " + e.getMessage());
         }
-        if (fileContent == null) {
-            throw new ConverterException("Cannot read details-file");
+        if (corruptedDetails >= lines * 0.5 && lines > 4) {
+            //More than half of the entries were corrupted:
+            throw new ConverterException("A large portion of account information (" + corruptedDetails + "/" + lines + ") was corrupted");
         }
-        String[] lines = fileContent.split("\n");
-        int corruptedDetails = 0;
-        for (String s : lines) {
-            DetailBackupDTO detail;
-            try {
-                detail = new DetailBackupDTO(s);
-            }
-            catch (Exception e) {
-                //Entry corrupt
-                corruptedDetails++;
-                continue;
-            }
-            details.add(detail);
+    }
+
+    /**
+     * Method opens a reader which reads the passed file line by line, so that the file is not held
+     * in memory.
+     *
+     * @param filename              Name of the file to read.
+     * @return                      Reader for the file.
+     * @throws ConverterException   The file does not exist or cannot be decrypted.
+     */
+    private BufferedReader openLineReader(String filename) throws ConverterException {
+        Reader fileReader;
+        try {
+            fileReader = reader.openReader(filename);
         }
-        if (corruptedDetails >= lines.length * 0.5 && lines.length > 4) {
-            //More than half of the entries were corrupted:
-            throw new ConverterException("A large portion of account information (" + corruptedDetails + "/" + lines.length + ") was corrupted");
+        catch (Exception e) {
+            throw new ConverterException("Cannot read file: " + e.getMessage());
+        }
+        if (fileReader == null) {
+            throw new ConverterException("Cannot read file " + filename);
         }
+        return new BufferedReader(fileReader);
     }
 
 
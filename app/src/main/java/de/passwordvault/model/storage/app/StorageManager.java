@@ -1,62 +1,96 @@
 package de.passwordvault.model.storage.app;
 
-import java.io.File;
+import android.util.Log;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import de.passwordvault.App;
 import de.passwordvault.model.entry.EntryAbbreviated;
 import de.passwordvault.model.entry.EntryExtended;
-import de.passwordvault.model.storage.csv.CsvConfiguration;
+import de.passwordvault.model.packages.PackageIndex;
 import de.passwordvault.model.storage.encryption.EncryptionException;
-import de.passwordvault.model.storage.file.EncryptedFileReader;
-import de.passwordvault.model.storage.file.EncryptedFileWriter;
-import de.passwordvault.service.autofill.caching.ContentCache;
-import de.passwordvault.service.autofill.caching.InvalidationCache;
-import de.passwordvault.service.autofill.caching.InvalidationCacheItem;
-import de.passwordvault.service.autofill.caching.MappingCache;
+import de.passwordvault.model.storage.vault.VaultStore;
 
 
 /**
- * Class implements the storage manager (v2) that is being used since version 3.3.0 to store
- * the managed entries. All data that is stored through this manager is being encrypted.
+ * Class implements the storage manager (v3) that is being used since version 3.7.4 to store
+ * the managed entries. All data is stored within the {@link VaultStore}, which encrypts every
+ * record individually. Data that was stored through the previous storage manager (v2) is converted
+ * through {@link VaultConverter} when entries are loaded for the first time, which happens on a
+ * background thread, so that a large conversion never blocks the main thread.
  *
  * @author  Christian-2003
- * @version 3.6.0
+ * @version 3.7.4
  */
 public class StorageManager {
 
     /**
-     * Field stores the name of the file in which the list of abbreviated entries is stored.
+     * Interface can be implemented to be informed about the first abbreviated entries that are loaded
+     * through {@link #loadAbbreviatedEntries(int, Comparator, FirstPageCallback)}, before the loaded
+     * entries are returned. The callback is invoked on the loading thread, up to two times: Once with
+     * a provisional page as soon as enough entries are parsed, and once with the final page after all
+     * entries are parsed.
      */
-    private static final String ABBREVIATED_ENTRIES_FILE = "entries_list.csv";
+    public interface FirstPageCallback {
+
+        /**
+         * Method is called once the first abbreviated entries have been selected. If the method is
+         * called a second time, the passed page replaces the previous page.
+         *
+         * @param firstPage Sorted list of the first abbreviated entries.
+         */
+        void onFirstPageLoaded(ArrayList<EntryAbbreviated> firstPage);
+
+    }
+
+    /**
+     * Field stores the tag used for debugging messages.
+     */
+    private static final String TAG = "StorageManager";
 
     /**
-     * Field stores the generic name of the file in which extended entries are stored. To get the
-     * 'real' name for a file, replace "{id}" within this string with the ID of the entry.
+     * Field stores the number of records that are parsed by a single task when loading the
+     * abbreviated entries in parallel.
      */
-    private static final String EXTENDED_ENTRIES_FILE = "entries/entry_{id}.csv";
+    private static final int PARSING_BATCH_SIZE = 64;
 
+    /**
+     * Field stores the maximum number of threads (including the calling thread) which parse the
+     * abbreviated entries in parallel.
+     */
+    private static final int PARSING_THREADS = 4;
 
     /**
-     * Attribute stores the writer that can write to encrypted storage.
+     * Field stores the key of the package index record which marks the package index as created.
+     * Package names are never empty, so the key cannot collide with a package.
      */
-    private final EncryptedFileWriter fileWriter;
+    private static final String PACKAGE_INDEX_MARKER = "";
 
     /**
-     * Attribute stores the reader that can read from encrypted storage.
+     * Field stores the character which separates the UUIDs within a package index record.
      */
-    private final EncryptedFileReader fileReader;
+    private static final char PACKAGE_INDEX_SEPARATOR = ',';
 
+    /**
+     * Attribute stores the store to which all entries are written.
+     */
+    private final VaultStore store;
 
     /**
      * Constructor instantiates a new storage manager.
      */
     public StorageManager() {
-        fileWriter = new EncryptedFileWriter();
-        fileReader = new EncryptedFileReader();
+        store = VaultStore.getInstance();
     }
 
-
     /**
      * Method loads all abbreviated entries from storage and returns them as hashmap.
      *
@@ -64,34 +98,112 @@ public class StorageManager {
      * @throws EncryptionException  The data could be decrypted.
      */
     public HashMap<String, EntryAbbreviated> loadAbbreviatedEntries() throws EncryptionException {
-        String fileContent = fileReader.read(ABBREVIATED_ENTRIES_FILE);
-        if (fileContent == null) {
-            return new HashMap<>();
+        return loadAbbreviatedEntries(0, null, null);
+    }
+
+    /**
+     * Method loads all abbreviated entries from storage and returns them as hashmap. The entries are
+     * decrypted and parsed in batches by the calling thread, and in parallel by threads of
+     * {@link App#getExecutor()}. Since the calling thread parses batches as well, loading finishes
+     * even if all threads of the executor are busy (e.g. if this method is called from the executor).
+     * As soon as the number of parsed entries reaches the passed page size, the first of these
+     * entries under the passed comparator are passed to the callback as a provisional page, so that
+     * they can be displayed while the remaining entries are parsed. Once all entries are parsed, the
+     * first entries of all entries are passed to the callback again, before the hashmap is returned.
+     * If any batch cannot be parsed, loading fails, so that no incomplete set of entries is returned
+     * (which would remove the missing entries from storage once the entries are saved).
+     *
+     * @param firstPageSize         Number of entries to pass to the callback.
+     * @param comparator            Comparator with which the entries are sorted. Pass {@code null} if
+     *                              the entries are not sorted.
+     * @param callback              Callback to invoke with the first entries. Pass {@code null} if
+     *                              no callback shall be invoked.
+     * @return                      Hash map of all abbreviated entries.
+     * @throws EncryptionException  The data could be decrypted.
+     */
+    public HashMap<String, EntryAbbreviated> loadAbbreviatedEntries(int firstPageSize, Comparator<EntryAbbreviated> comparator, FirstPageCallback callback) throws EncryptionException {
+        VaultConverter.convertIfNecessary(store);
+        ArrayList<VaultStore.EncryptedRecord> records;
+        try {
+            records = store.readEncrypted(VaultStore.TYPE_ABBREVIATED_ENTRY);
         }
-        String[] lines = fileContent.split("\n");
-        HashMap<String, EntryAbbreviated> entries = new HashMap<>();
-        for (String s : lines) {
-            if (s.isEmpty()) {
-                continue;
-            }
-            EntryAbbreviated entry = new EntryAbbreviated();
-            try {
-                entry.fromStorable(s);
-            }
-            catch (StorageException e) {
-                //Line is corrupt...
-                continue;
+        catch (StorageException e) {
+            throw new EncryptionException(e.getMessage());
+        }
+        //Only entries with an extended version are loaded:
+        HashSet<String> extendedEntries = new HashSet<>(store.keys(VaultStore.TYPE_EXTENDED_ENTRY));
+        ArrayList<VaultStore.EncryptedRecord> validRecords = new ArrayList<>(records.size());
+        for (VaultStore.EncryptedRecord record : records) {
+            if (extendedEntries.contains(record.getKey())) {
+                validRecords.add(record);
             }
-            if (existsExtendedEntry(entry)) {
-                entries.put(entry.getUuid(), entry);
+        }
+
+        //Parse entries in parallel:
+        ParsingJob job = new ParsingJob(validRecords);
+        for (int i = 1; i < Math.min(job.getNumberOfBatches(), PARSING_THREADS); i++) {
+            App.getExecutor().execute(job);
+        }
+        boolean provisionalPagePublished = false;
+        while (job.parseNextBatch()) {
+            if (callback != null && !provisionalPagePublished && job.getNumberOfParsedEntries() >= firstPageSize && !job.isFinished()) {
+                callback.onFirstPageLoaded(selectFirstPage(job.getParsedEntries(), firstPageSize, comparator));
+                provisionalPagePublished = true;
             }
         }
+        try {
+            job.awaitFinished();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EncryptionException("Loading was interrupted");
+        }
+        if (job.getFailure() != null) {
+            Log.w(TAG, "Could not parse entries: " + job.getFailure().getMessage());
+            throw new EncryptionException("Could not parse entries: " + job.getFailure().getMessage());
+        }
+
+        HashMap<String, EntryAbbreviated> entries = new HashMap<>();
+        for (EntryAbbreviated entry : job.getParsedEntries()) {
+            entries.put(entry.getUuid(), entry);
+        }
+        if (callback != null) {
+            callback.onFirstPageLoaded(selectFirstPage(entries.values(), firstPageSize, comparator));
+        }
         return entries;
     }
 
+    /**
+     * Method loads the abbreviated entry with the passed UUID. If no abbreviated entry exists, or if
+     * no extended version of the entry exists, {@code null} is returned.
+     *
+     * @param uuid                  UUID of the entry to load.
+     * @return                      Abbreviated entry.
+     * @throws NullPointerException The passed UUID is {@code null}.
+     * @throws EncryptionException  The entry could not be decrypted.
+     * @throws StorageException     The decrypted record could not be converted into an entry.
+     */
+    public EntryAbbreviated loadAbbreviatedEntry(String uuid) throws NullPointerException, EncryptionException, StorageException {
+        if (uuid == null) {
+            throw new NullPointerException();
+        }
+        VaultConverter.convertIfNecessary(store);
+        if (!store.contains(VaultStore.TYPE_EXTENDED_ENTRY, uuid)) {
+            return null;
+        }
+        String content = store.read(VaultStore.TYPE_ABBREVIATED_ENTRY, uuid);
+        if (content == null) {
+            return null;
+        }
+        EntryAbbreviated entry = new EntryAbbreviated();
+        entry.fromStorable(content);
+        return entry;
+    }
 
     /**
-     * Method saves the passed collection of abbreviated entries to persistent storage.
+     * Method saves the passed collection of abbreviated entries to persistent storage. Abbreviated
+     * entries that are not contained in the passed collection are removed from storage. The
+     * {@link PackageIndex} is updated as well.
      *
      * @param entries               Collection of entries to be saved.
      * @throws NullPointerException The passed collection is {@code null}.
@@ -101,14 +213,84 @@ public class StorageManager {
         if (entries == null) {
             throw new NullPointerException();
         }
+        HashMap<String, String> records = new HashMap<>();
         StringBuilder builder = new StringBuilder();
         for (EntryAbbreviated entry : entries) {
-            builder.append(entry.toStorable());
-            builder.append(CsvConfiguration.ROW_DIVIDER);
+            builder.setLength(0);
+            entry.appendStorable(builder);
+            records.put(entry.getUuid(), builder.toString());
+        }
+        try {
+            store.writeAll(VaultStore.TYPE_ABBREVIATED_ENTRY, records, true);
+            savePackageIndex(PackageIndex.create(entries));
+        }
+        catch (StorageException e) {
+            throw new EncryptionException(e.getMessage());
         }
-        fileWriter.write(ABBREVIATED_ENTRIES_FILE, builder.toString());
     }
 
+    /**
+     * Method loads the package index, which maps package names to the UUIDs of the entries assigned
+     * to the packages. If the package index has not been created yet (e.g. since the entries were
+     * saved by a previous version), it is created from the abbreviated entries and saved.
+     *
+     * @return                  Package index.
+     * @throws StorageException The package index could not be loaded.
+     */
+    public HashMap<String, String[]> loadPackageIndex() throws StorageException {
+        VaultConverter.convertIfNecessary(store);
+        if (!store.contains(VaultStore.TYPE_PACKAGE_INDEX, PACKAGE_INDEX_MARKER)) {
+            try {
+                HashMap<String, String[]> index = PackageIndex.create(loadAbbreviatedEntries().values());
+                savePackageIndex(index);
+                return index;
+            }
+            catch (EncryptionException e) {
+                throw new StorageException(e.getMessage());
+            }
+        }
+        ArrayList<VaultStore.EncryptedRecord> records = store.readEncrypted(VaultStore.TYPE_PACKAGE_INDEX);
+        HashMap<String, String[]> index = new HashMap<>();
+        for (VaultStore.EncryptedRecord record : records) {
+            if (record.getKey().equals(PACKAGE_INDEX_MARKER)) {
+                continue;
+            }
+            try {
+                index.put(record.getKey(), store.decrypt(record).split(String.valueOf(PACKAGE_INDEX_SEPARATOR)));
+            }
+            catch (EncryptionException e) {
+                //Record is corrupt...
+                Log.w(TAG, "Could not decrypt package index: " + e.getMessage());
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Method saves the passed package index and replaces the {@link PackageIndex} in memory.
+     * Unchanged packages are not written again.
+     *
+     * @param index                 Package index to save.
+     * @throws EncryptionException  The data could not be encrypted.
+     * @throws StorageException     The data could not be written.
+     */
+    private void savePackageIndex(HashMap<String, String[]> index) throws EncryptionException, StorageException {
+        HashMap<String, String> records = new HashMap<>();
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, String[]> packageUuids : index.entrySet()) {
+            builder.setLength(0);
+            for (String uuid : packageUuids.getValue()) {
+                if (builder.length() > 0) {
+                    builder.append(PACKAGE_INDEX_SEPARATOR);
+                }
+                builder.append(uuid);
+            }
+            records.put(packageUuids.getKey(), builder.toString());
+        }
+        records.put(PACKAGE_INDEX_MARKER, "");
+        store.writeAll(VaultStore.TYPE_PACKAGE_INDEX, records, true);
+        PackageIndex.getInstance().setIndex(index);
+    }
 
     /**
      * Method loads the extended entry of the specified abbreviated version. If no extended version
@@ -118,30 +300,21 @@ public class StorageManager {
      * @return                      Extended entry loaded from persistent storage.
      * @throws NullPointerException The passed UUID is {@code null}.
      * @throws EncryptionException  The entry could not be decrypted.
-     * @throws StorageException     The decrypted file could not be converted into an entry.
+     * @throws StorageException     The decrypted record could not be converted into an entry.
      */
     public EntryExtended loadExtendedEntry(EntryAbbreviated abbreviated) throws NullPointerException, EncryptionException, StorageException {
         if (abbreviated.getUuid() == null) {
             throw new NullPointerException();
         }
-        String fileName = getFileName(abbreviated.getUuid());
-        File file = new File(App.getContext().getFilesDir(), fileName);
-        if (!file.exists()) {
+        String content = store.read(VaultStore.TYPE_EXTENDED_ENTRY, abbreviated.getUuid());
+        if (content == null) {
             return null;
         }
-        try {
-            String content = fileReader.read(fileName);
-            EntryExtended created = new EntryExtended(abbreviated);
-            created.fromStorable(content);
-            return created;
-        }
-        catch (Exception e) {
-            e.printStackTrace();
-            throw e;
-        }
+        EntryExtended created = new EntryExtended(abbreviated);
+        created.fromStorable(content);
+        return created;
     }
 
-
     /**
      * Method saves the extended entry to permanent storage. Only the extended parts (i.e. the details)
      * of the extended entry is saved!
@@ -154,23 +327,94 @@ public class StorageManager {
         if (entry == null) {
             throw new NullPointerException();
         }
-        fileWriter.write(getFileName(entry.getUuid()), entry.toStorable());
-        File file = new File(App.getContext().getFilesDir(), getFileName(entry.getUuid()));
+        try {
+            store.write(VaultStore.TYPE_EXTENDED_ENTRY, entry.getUuid(), entry.toStorable());
+        }
+        catch (StorageException e) {
+            throw new EncryptionException(e.getMessage());
+        }
     }
 
-
     /**
-     * Method deletes the extended entry of the passed UUID from the filesystem.
+     * Method deletes the extended entry of the passed UUID from storage.
      *
-     * @param uuid                  UUID of the extended entry whose file to delete.
-     * @return                      Whether the file was deleted successfully.
+     * @param uuid                  UUID of the extended entry to delete.
+     * @return                      Whether the entry was deleted successfully.
      * @throws NullPointerException The passed UUID is {@code null}.
      */
     public boolean deleteExtendedEntry(String uuid) throws NullPointerException {
-        File file = new File(App.getContext().getFilesDir(), getFileName(uuid));
-        return file.delete();
+        //Cached analysis results contain the passwords of the entry and must be deleted as well. The
+        //entry is deleted first, so that concurrently saved analysis results are no longer written:
+        boolean deleted = store.delete(VaultStore.TYPE_EXTENDED_ENTRY, uuid);
+        store.delete(VaultStore.TYPE_PASSWORD_ANALYSIS, uuid);
+        return deleted;
     }
 
+    /**
+     * Method loads the cached password analysis results of all entries. The returned map maps the
+     * UUID of an entry to the cached results of the entry. Results that cannot be decrypted are
+     * skipped.
+     *
+     * @return                  Map of entry UUIDs and cached analysis results.
+     * @throws StorageException The cached results could not be read.
+     */
+    public HashMap<String, String> loadPasswordAnalyses() throws StorageException {
+        ArrayList<VaultStore.EncryptedRecord> records = store.readEncrypted(VaultStore.TYPE_PASSWORD_ANALYSIS);
+        HashMap<String, String> analyses = new HashMap<>();
+        for (VaultStore.EncryptedRecord record : records) {
+            try {
+                analyses.put(record.getKey(), store.decrypt(record));
+            }
+            catch (EncryptionException e) {
+                //Record is corrupt...
+                Log.w(TAG, "Could not decrypt cached password analysis: " + e.getMessage());
+            }
+        }
+        return analyses;
+    }
+
+    /**
+     * Method saves the passed cached password analysis results. Results of entries that are not
+     * contained in the passed map are removed from storage. Results of entries which were deleted
+     * (e.g. while the analysis was running) are not saved, since they contain the passwords of the
+     * deleted entries. Whether an entry exists is checked atomically with writing its result.
+     * Unchanged results are not written again.
+     *
+     * @param analyses              Map of entry UUIDs and cached analysis results.
+     * @throws NullPointerException The passed map is {@code null}.
+     * @throws EncryptionException  The data could not be encrypted.
+     */
+    public void savePasswordAnalyses(Map<String, String> analyses) throws NullPointerException, EncryptionException {
+        if (analyses == null) {
+            throw new NullPointerException();
+        }
+        try {
+            store.writeAllOwned(VaultStore.TYPE_PASSWORD_ANALYSIS, analyses, VaultStore.TYPE_EXTENDED_ENTRY, true);
+        }
+        catch (StorageException e) {
+            throw new EncryptionException(e.getMessage());
+        }
+    }
+
+    /**
+     * Method returns the number of bytes that have been written to storage since the app was
+     * started.
+     *
+     * @return  Number of bytes written.
+     */
+    public long getBytesWritten() {
+        return store.getBytesWritten();
+    }
+
+    /**
+     * Method returns the number of records (including deletions) that have been written to storage
+     * since the app was started.
+     *
+     * @return  Number of records written.
+     */
+    public long getRecordsWritten() {
+        return store.getFramesWritten();
+    }
 
     /**
      * Method tests whether an extended entry exists for the specified abbreviated entry.
@@ -184,28 +428,237 @@ public class StorageManager {
         if (entry == null) {
             throw new NullPointerException();
         }
-        File file = new File(App.getContext().getFilesDir(), getFileName(entry.getUuid()));
-        try {
-            return file.exists();
+        return store.contains(VaultStore.TYPE_EXTENDED_ENTRY, entry.getUuid());
+    }
+
+    /**
+     * Method selects the first entries (up to the passed page size) of the list of the passed
+     * entries sorted with the passed comparator, without sorting all entries. Entries which are equal
+     * under the comparator retain their order, as they would with a stable sort of all entries.
+     *
+     * @param entries       Entries from which to select the first entries.
+     * @param pageSize      Maximum number of entries to select.
+     * @param comparator    Comparator with which the entries are sorted. Pass {@code null} if the
+     *                      entries are not sorted.
+     * @return              Sorted list of the first entries.
+     */
+    private static ArrayList<EntryAbbreviated> selectFirstPage(Collection<EntryAbbreviated> entries, int pageSize, Comparator<EntryAbbreviated> comparator) {
+        ArrayList<EntryAbbreviated> firstPage = new ArrayList<>(Math.max(pageSize, 0) + 1);
+        if (pageSize <= 0) {
+            return firstPage;
         }
-        catch (SecurityException e) {
-            return false;
+        for (EntryAbbreviated entry : entries) {
+            if (comparator == null) {
+                if (firstPage.size() == pageSize) {
+                    break;
+                }
+                firstPage.add(entry);
+                continue;
+            }
+            if (firstPage.size() == pageSize && comparator.compare(entry, firstPage.get(pageSize - 1)) >= 0) {
+                continue;
+            }
+            //Insert after all equal entries:
+            int low = 0;
+            int high = firstPage.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (comparator.compare(firstPage.get(middle), entry) <= 0) {
+                    low = middle + 1;
+                }
+                else {
+                    high = middle;
+                }
+            }
+            firstPage.add(low, entry);
+            if (firstPage.size() > pageSize) {
+                firstPage.remove(pageSize);
+            }
         }
+        return firstPage;
     }
 
-
     /**
-     * Method returns the name of the file in which the extended entry of the passed UUID is stored.
+     * Method decrypts and parses the passed records into abbreviated entries. Records that cannot
+     * be decrypted or parsed are skipped.
      *
-     * @param uuid                  UUID of the extended entry whose file name should be returned.
-     * @return                      Name of the file in which the specified extended entry is stored.
-     * @throws NullPointerException The passed UUID is {@code null}.
+     * @param records   Records to parse.
+     * @return          List of parsed entries.
      */
-    private String getFileName(String uuid) throws NullPointerException {
-        if (uuid == null) {
-            throw new NullPointerException();
+    private ArrayList<EntryAbbreviated> parseAbbreviatedEntries(List<VaultStore.EncryptedRecord> records) {
+        ArrayList<EntryAbbreviated> entries = new ArrayList<>(records.size());
+        for (VaultStore.EncryptedRecord record : records) {
+            EntryAbbreviated entry = new EntryAbbreviated();
+            try {
+                entry.fromStorable(store.decrypt(record));
+            }
+            catch (EncryptionException | StorageException e) {
+                //Record is corrupt...
+                continue;
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+
+
+    /**
+     * Class models the job which parses the abbreviated entries in batches. The job can be run by
+     * multiple threads at once, each of which claims the next batch that is not parsed yet.
+     */
+    private class ParsingJob implements Runnable {
+
+        /**
+         * Attribute stores the records to parse.
+         */
+        private final List<VaultStore.EncryptedRecord> records;
+
+        /**
+         * Attribute stores the number of batches.
+         */
+        private final int numberOfBatches;
+
+        /**
+         * Attribute stores the index of the next batch which is not claimed by a thread yet.
+         */
+        private final AtomicInteger nextBatch;
+
+        /**
+         * Attribute stores the parsed batches in the order in which they were finished.
+         */
+        private final ConcurrentLinkedQueue<ArrayList<EntryAbbreviated>> parsedBatches;
+
+        /**
+         * Attribute stores the number of parsed entries.
+         */
+        private final AtomicInteger numberOfParsedEntries;
+
+        /**
+         * Attribute stores the first exception with which a batch could not be parsed.
+         */
+        private final AtomicReference<RuntimeException> failure;
+
+        /**
+         * Attribute counts down the batches which are not finished yet.
+         */
+        private final CountDownLatch remainingBatches;
+
+
+        /**
+         * Constructor instantiates a new job which parses the passed records.
+         *
+         * @param records   Records to parse.
+         */
+        public ParsingJob(List<VaultStore.EncryptedRecord> records) {
+            this.records = records;
+            numberOfBatches = (records.size() + PARSING_BATCH_SIZE - 1) / PARSING_BATCH_SIZE;
+            nextBatch = new AtomicInteger(0);
+            parsedBatches = new ConcurrentLinkedQueue<>();
+            numberOfParsedEntries = new AtomicInteger(0);
+            failure = new AtomicReference<>(null);
+            remainingBatches = new CountDownLatch(numberOfBatches);
+        }
+
+
+        /**
+         * Method returns the number of batches.
+         *
+         * @return  Number of batches.
+         */
+        public int getNumberOfBatches() {
+            return numberOfBatches;
+        }
+
+        /**
+         * Method returns the number of entries which are parsed so far.
+         *
+         * @return  Number of parsed entries.
+         */
+        public int getNumberOfParsedEntries() {
+            return numberOfParsedEntries.get();
+        }
+
+        /**
+         * Method returns the entries which are parsed so far.
+         *
+         * @return  Parsed entries.
+         */
+        public ArrayList<EntryAbbreviated> getParsedEntries() {
+            ArrayList<EntryAbbreviated> entries = new ArrayList<>(numberOfParsedEntries.get());
+            for (ArrayList<EntryAbbreviated> batch : parsedBatches) {
+                entries.addAll(batch);
+            }
+            return entries;
+        }
+
+        /**
+         * Method returns the exception with which a batch could not be parsed. If all batches were
+         * parsed, {@code null} is returned.
+         *
+         * @return  Exception with which a batch could not be parsed.
+         */
+        public RuntimeException getFailure() {
+            return failure.get();
+        }
+
+        /**
+         * Method returns whether all batches are finished.
+         *
+         * @return  Whether all batches are finished.
+         */
+        public boolean isFinished() {
+            return remainingBatches.getCount() == 0;
+        }
+
+        /**
+         * Method blocks until all batches are finished. Since batches are only claimed by running
+         * threads, this never waits for a thread which is not started yet.
+         *
+         * @throws InterruptedException The calling thread was interrupted.
+         */
+        public void awaitFinished() throws InterruptedException {
+            remainingBatches.await();
+        }
+
+
+        /**
+         * Method claims and parses the next batch.
+         *
+         * @return  Whether a batch was parsed. If {@code false} is returned, all batches are claimed.
+         */
+        public boolean parseNextBatch() {
+            int batch = nextBatch.getAndIncrement();
+            if (batch >= numberOfBatches) {
+                return false;
+            }
+            try {
+                if (failure.get() == null) {
+                    int start = batch * PARSING_BATCH_SIZE;
+                    ArrayList<EntryAbbreviated> entries = parseAbbreviatedEntries(records.subList(start, Math.min(start + PARSING_BATCH_SIZE, records.size())));
+                    parsedBatches.add(entries);
+                    numberOfParsedEntries.addAndGet(entries.size());
+                }
+            }
+            catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+            }
+            finally {
+                remainingBatches.countDown();
+            }
+            return true;
         }
-        return EXTENDED_ENTRIES_FILE.replace("{id}", uuid);
+
+        /**
+         * Method parses batches until all batches are claimed.
+         */
+        @Override
+        public void run() {
+            while (parseNextBatch()) {
+                //Continue with next batch...
+            }
+        }
+
     }
 
 }
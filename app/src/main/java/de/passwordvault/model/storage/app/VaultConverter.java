@@ -0,0 +1,209 @@
+package de.passwordvault.model.storage.app;
+
+import android.util.Log;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import de.passwordvault.App;
+import de.passwordvault.model.storage.csv.CsvParser;
+import de.passwordvault.model.storage.encryption.EncryptionException;
+import de.passwordvault.model.storage.file.EncryptedFileReader;
+import de.passwordvault.model.storage.vault.VaultStore;
+
+
+/**
+ * Class models a converter which can convert the stored data from before version 3.7.4 (i.e. one
+ * encrypted file per entry) to the {@link VaultStore}. The records are copied without being parsed,
+ * so that no information is lost during conversion. The previous files are read as streams through
+ * the {@link EncryptedFileReader}. After conversion, the previous files are deleted.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class VaultConverter {
+
+    /**
+     * Field stores the tag used for debugging messages.
+     */
+    private static final String TAG = "VaultConverter";
+
+    /**
+     * Field stores the name of the file in which the list of abbreviated entries was stored.
+     */
+    private static final String FILE_ABBREVIATED_ENTRIES = "entries_list.csv";
+
+    /**
+     * Field stores the directory in which the extended entries were stored.
+     */
+    private static final String DIRECTORY_EXTENDED_ENTRIES = "entries";
+
+    /**
+     * Field stores the generic name of the file in which an extended entry was stored. To get the
+     * 'real' name for a file, replace "{id}" within this string with the ID of the entry.
+     */
+    private static final String FILE_EXTENDED_ENTRY = DIRECTORY_EXTENDED_ENTRIES + "/entry_{id}.csv";
+
+    /**
+     * Field indicates whether it has been checked during the lifetime of the process whether a
+     * conversion is required.
+     */
+    private static boolean checked = false;
+
+
+    /**
+     * Attribute stores the store into which the data is converted.
+     */
+    private final VaultStore store;
+
+    /**
+     * Attribute stores the file reader used for reading the unconverted files.
+     */
+    private final EncryptedFileReader reader;
+
+
+    /**
+     * Constructor instantiates a new converter.
+     *
+     * @param store                 Store into which the data shall be converted.
+     * @throws NullPointerException The passed store is {@code null}.
+     */
+    public VaultConverter(VaultStore store) throws NullPointerException {
+        if (store == null) {
+            throw new NullPointerException();
+        }
+        this.store = store;
+        reader = new EncryptedFileReader();
+    }
+
+
+    /**
+     * Static method converts the data into the passed store if data of the previous format exists.
+     * This is only checked once during the lifetime of the process. If the conversion fails, the
+     * previous files are kept, so that the conversion is retried on the next start.
+     *
+     * @param store Store into which the data shall be converted.
+     */
+    public static synchronized void convertIfNecessary(VaultStore store) {
+        if (checked) {
+            return;
+        }
+        checked = true;
+        if (!isConversionRequired()) {
+            return;
+        }
+        try {
+            new VaultConverter(store).convert();
+        }
+        catch (ConverterException e) {
+            Log.w(TAG, "Could not convert data: " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * Static method tests whether data of the previous format exists.
+     *
+     * @return  Whether a conversion is required.
+     */
+    public static boolean isConversionRequired() {
+        return new File(App.getContext().getFilesDir(), FILE_ABBREVIATED_ENTRIES).exists();
+    }
+
+
+    /**
+     * Method converts the data. When the method finishes (without throwing an exception), no previous
+     * data is left on the device's storage and all data is stored within the {@link VaultStore}.
+     * Records that already exist within the store are not overwritten.
+     *
+     * @throws ConverterException   The data could not be converted.
+     */
+    public void convert() throws ConverterException {
+        //Read abbreviated entries line by line, so that the file is not held in memory:
+        HashMap<String, String> abbreviatedEntries = new HashMap<>();
+        HashMap<String, String> extendedEntries = new HashMap<>();
+        try (Reader fileReader = reader.openReader(FILE_ABBREVIATED_ENTRIES)) {
+            if (fileReader == null) {
+                throw new ConverterException("Cannot read abbreviated entries");
+            }
+            BufferedReader lineReader = new BufferedReader(fileReader);
+            String line = lineReader.readLine();
+            while (line != null) {
+                convertAbbreviatedEntry(line, abbreviatedEntries, extendedEntries);
+                line = lineReader.readLine();
+            }
+        }
+        catch (IOException | EncryptionException e) {
+            throw new ConverterException("Cannot read file: " + e.getMessage());
+        }
+
+        //Write converted data:
+        try {
+            store.writeAll(VaultStore.TYPE_EXTENDED_ENTRY, extendedEntries, false);
+            store.writeAll(VaultStore.TYPE_ABBREVIATED_ENTRY, abbreviatedEntries, false);
+        }
+        catch (Exception e) {
+            throw new ConverterException("Could not save converted data: " + e.getMessage());
+        }
+
+        //Delete old files if everything worked:
+        File directory = new File(App.getContext().getFilesDir(), DIRECTORY_EXTENDED_ENTRIES);
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!file.delete()) {
+                    Log.w(TAG, "Could not delete unconverted file " + file.getName());
+                }
+            }
+        }
+        if (directory.exists() && !directory.delete()) {
+            Log.w(TAG, "Could not delete unconverted directory");
+        }
+        File abbreviatedEntriesFile = new File(App.getContext().getFilesDir(), FILE_ABBREVIATED_ENTRIES);
+        if (abbreviatedEntriesFile.exists() && !abbreviatedEntriesFile.delete()) {
+            throw new ConverterException("Could not delete unconverted files");
+        }
+        Log.d(TAG, "Converted " + extendedEntries.size() + " entries");
+    }
+
+
+    /**
+     * Method reads the extended entry for the passed line of the abbreviated entries and adds both to
+     * the passed maps. If the line is corrupt, the entry already exists within the store or the
+     * extended entry cannot be read, the entry is skipped.
+     *
+     * @param line                  Line of the abbreviated entries.
+     * @param abbreviatedEntries    Map to which to add the abbreviated entry.
+     * @param extendedEntries       Map to which to add the extended entry.
+     */
+    private void convertAbbreviatedEntry(String line, HashMap<String, String> abbreviatedEntries, HashMap<String, String> extendedEntries) {
+        if (line.isEmpty()) {
+            return;
+        }
+        ArrayList<String> cells = new CsvParser(line).parseCsv();
+        if (cells.isEmpty() || cells.get(0) == null) {
+            //Line is corrupt...
+            return;
+        }
+        String uuid = cells.get(0);
+        if (store.contains(VaultStore.TYPE_ABBREVIATED_ENTRY, uuid)) {
+            return;
+        }
+        String extendedEntry;
+        try {
+            extendedEntry = reader.read(FILE_EXTENDED_ENTRY.replace("{id}", uuid));
+        }
+        catch (Exception e) {
+            extendedEntry = null;
+        }
+        if (extendedEntry == null) {
+            //Entry was not loaded by the previous storage manager either:
+            return;
+        }
+        abbreviatedEntries.put(uuid, line);
+        extendedEntries.put(uuid, extendedEntry);
+    }
+
+}
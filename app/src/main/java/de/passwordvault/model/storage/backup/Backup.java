@@ -8,10 +8,11 @@ import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
-import java.io.FileDescriptor;
-import java.io.FileInputStream;
+import java.io.BufferedInputStream;
 import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -29,6 +30,7 @@ import de.passwordvault.model.storage.app.StorageException;
 import de.passwordvault.model.storage.csv.CsvConfiguration;
 import de.passwordvault.model.storage.encryption.AES;
 import de.passwordvault.model.storage.encryption.EncryptionException;
+import de.passwordvault.model.storage.file.EncryptedInputStream;
 import de.passwordvault.model.storage.settings.Config;
 import de.passwordvault.model.storage.settings.NoBackup;
 import de.passwordvault.model.storage.settings.items.GenericItem;
@@ -36,10 +38,13 @@ import de.passwordvault.model.tags.TagManager;
 
 
 /**
- * Class implements a backup that can be restored.
+ * Class implements a backup that can be restored. Backups which are encrypted with a password can
+ * either be encrypted as a whole (see {@link EncryptedInputStream}) or field by field (in which case
+ * the backup contains a checksum). Backups which are encrypted as a whole can only be read once the
+ * password is known, so that their metadata is not available before.
  *
  * @author  Christian-2003
- * @version 3.6.0
+ * @version 3.7.4
  */
 public class Backup {
 
@@ -242,9 +247,22 @@ public class Backup {
     private RestoreConfig config;
 
     /**
-     * Attribute stores the XML document which contains the backup.
+     * Attribute indicates whether the backup file is encrypted as a whole. If so, the
+     * {@link #xmlDocument} is only available once the backup is unlocked with the correct seed.
      */
-    private final Document xmlDocument;
+    private final boolean containerEncrypted;
+
+    /**
+     * Attribute stores the seed with which the backup was unlocked. This is {@code null} if the
+     * backup is not encrypted as a whole or not unlocked yet.
+     */
+    private String containerKeySeed;
+
+    /**
+     * Attribute stores the XML document which contains the backup. This is {@code null} while the
+     * backup is locked.
+     */
+    private Document xmlDocument;
 
 
     /**
@@ -266,8 +284,19 @@ public class Backup {
         filename = getFilename(path == null ? "" : path);
         metadata = null;
         encryptionChecksum = null;
-        xmlDocument = getXmlDocument();
-        readMetadata();
+        containerKeySeed = null;
+        containerEncrypted = isContainerEncrypted();
+        if (containerEncrypted) {
+            //Only backups of the latest version are encrypted as a whole. All other metadata is
+            //available once the backup is unlocked:
+            xmlDocument = null;
+            metadata = new HashMap<>();
+            metadata.put(BACKUP_VERSION, XmlConfiguration.VERSION_2.getValue());
+        }
+        else {
+            xmlDocument = getXmlDocument(null);
+            readMetadata();
+        }
     }
 
 
@@ -287,12 +316,26 @@ public class Backup {
      * @return  Whether the backup is encrypted.
      */
     public boolean isEncrypted() {
+        if (containerEncrypted) {
+            return true;
+        }
         if (metadata == null) {
             readMetadata();
         }
         return encryptionChecksum != null;
     }
 
+    /**
+     * Method returns whether the backup is locked, i.e. it is encrypted as a whole and was not
+     * unlocked with {@link #isEncryptionSeedValid(String)} yet. The metadata of a locked backup is
+     * not available, except for the {@link #BACKUP_VERSION}.
+     *
+     * @return  Whether the backup is locked.
+     */
+    public boolean isLocked() {
+        return xmlDocument == null;
+    }
+
     /**
      * Method returns the metadata with the specified key. If the metadata was not already read, this
      * will automatically load metadata (which might take some time). If no metadata with the specified
@@ -316,12 +359,17 @@ public class Backup {
     /**
      * Method checks whether the passed encryption seed is correct. If the metadata (and thus the
      * checksum) is not already available, it is read automatically (which might take some time).
+     * If the backup is encrypted as a whole, it is decrypted with the passed seed, which unlocks
+     * the backup if the seed is correct.
      *
      * @param encryptionSeed        Seed to be tested.
      * @return                      Whether the passed encryption seed is correct.
      * @throws EncryptionException  The checksum could not be decrypted.
      */
     public boolean isEncryptionSeedValid(String encryptionSeed) throws EncryptionException {
+        if (containerEncrypted) {
+            return unlock(encryptionSeed);
+        }
         if (metadata == null) {
             readMetadata();
         }
@@ -351,6 +399,13 @@ public class Backup {
     public void restoreBackup(RestoreConfig config) throws NullPointerException, BackupException, EncryptionException {
         this.config = config != null ? config : new RestoreConfig();
 
+        if (containerEncrypted && !unlock(this.config.getEncryptionKeySeed())) {
+            if (this.config.getEncryptionKeySeed() == null) {
+                throw new NullPointerException("Backup to restore is encrypted, but no seed is provided.");
+            }
+            throw new BackupException("Backup cannot be decrypted with the provided seed");
+        }
+
         String version = getMetadata(BACKUP_VERSION);
         if (version == null || version.equals(XmlConfiguration.VERSION_1.getValue())) {
             //Need to use old backup restorer:
@@ -367,7 +422,8 @@ public class Backup {
             return;
         }
 
-        if (isEncrypted()) {
+        if (encryptionChecksum != null) {
+            //Data is encrypted field by field:
             if (this.config.getEncryptionKeySeed() == null) {
                 throw new NullPointerException("Backup to restore is encrypted, but no seed is provided.");
             }
@@ -774,13 +830,56 @@ public class Backup {
 
 
     /**
-     * Method returns the XML document of the {@link #uri}.
+     * Method unlocks the backup, which is encrypted as a whole, with the passed seed. If the backup
+     * is already unlocked, the method only tests whether the passed seed was used to unlock it.
      *
-     * @return                  XML document of the URI.
-     * @throws BackupException  The XML document cannot be retrieved.
-     * @throws XmlException     Some error regarding the XML structure occurred.
+     * @param encryptionSeed    Seed with which to decrypt the backup.
+     * @return                  Whether the backup is unlocked with the passed seed.
+     */
+    private boolean unlock(String encryptionSeed) {
+        if (encryptionSeed == null) {
+            return false;
+        }
+        if (xmlDocument != null) {
+            return encryptionSeed.equals(containerKeySeed);
+        }
+        try {
+            xmlDocument = getXmlDocument(new AES(encryptionSeed));
+        }
+        catch (BackupException | XmlException e) {
+            //Wrong seed or manipulated backup:
+            return false;
+        }
+        containerKeySeed = encryptionSeed;
+        metadata = null;
+        readMetadata();
+        return true;
+    }
+
+
+    /**
+     * Method tests whether the backup file is encrypted as a whole.
+     *
+     * @return                  Whether the backup file is encrypted as a whole.
+     * @throws BackupException  The backup file cannot be read.
+     */
+    private boolean isContainerEncrypted() throws BackupException {
+        try (InputStream inputStream = openInputStream()) {
+            return EncryptedInputStream.hasHeader(inputStream);
+        }
+        catch (IOException e) {
+            throw new BackupException(e.getMessage());
+        }
+    }
+
+
+    /**
+     * Method opens a buffered stream for the {@link #uri}. Closing the stream also closes the file.
+     *
+     * @return                  Stream for the backup file.
+     * @throws BackupException  The backup file cannot be opened.
      */
-    private Document getXmlDocument() throws BackupException, XmlException {
+    private InputStream openInputStream() throws BackupException {
         ParcelFileDescriptor pfd;
         try {
             pfd = App.getContext().getContentResolver().openFileDescriptor(uri, "r");
@@ -791,18 +890,48 @@ public class Backup {
         if (pfd == null) {
             throw new BackupException("No parcel file descriptor available");
         }
-        FileDescriptor fileDescriptor = pfd.getFileDescriptor();
-        if (fileDescriptor == null) {
+        if (pfd.getFileDescriptor() == null) {
             throw new BackupException("No file descriptor available");
         }
+        return new BufferedInputStream(new ParcelFileDescriptor.AutoCloseInputStream(pfd));
+    }
+
+
+    /**
+     * Method returns the XML document of the {@link #uri}. If the backup file is encrypted as a whole,
+     * it is decrypted with the passed cipher while it is parsed.
+     *
+     * @param containerCipher   Cipher with which to decrypt the backup file, or {@code null} if the
+     *                          backup file is not encrypted as a whole.
+     * @return                  XML document of the URI.
+     * @throws BackupException  The XML document cannot be retrieved.
+     * @throws XmlException     Some error regarding the XML structure occurred.
+     */
+    private Document getXmlDocument(AES containerCipher) throws BackupException, XmlException {
         Document xmlDocument;
-        try (FileInputStream inputStream = new FileInputStream(fileDescriptor)) {
+        try (InputStream fileStream = openInputStream()) {
+            InputStream inputStream = fileStream;
+            if (containerCipher != null) {
+                inputStream = new EncryptedInputStream(fileStream, containerCipher);
+            }
             DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
             factory.setNamespaceAware(false);
             factory.setValidating(false);
             DocumentBuilder builder = factory.newDocumentBuilder();
-            xmlDocument = builder.parse(inputStream);
-            pfd.close();
+            //The parser must not close the stream, since the remaining content is read afterwards:
+            xmlDocument = builder.parse(new FilterInputStream(inputStream) {
+                @Override
+                public void close() {
+                    //Stream is closed afterwards...
+                }
+            });
+            if (containerCipher != null) {
+                //Reading to the end of the stream detects truncated backup files:
+                byte[] buffer = new byte[1024];
+                while (inputStream.read(buffer) != -1) {
+                    //Ignore remaining content...
+                }
+            }
         }
         catch (SAXException | ParserConfigurationException e) {
             throw new XmlException(e.getMessage());
@@ -5,8 +5,8 @@ import android.os.ParcelFileDescriptor;
 import androidx.documentfile.provider.DocumentFile;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import java.io.FileDescriptor;
-import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.util.Calendar;
 import javax.xml.parsers.DocumentBuilder;
@@ -14,6 +14,7 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
@@ -26,8 +27,10 @@ import de.passwordvault.model.detail.DetailBackupDTO;
 import de.passwordvault.model.entry.EntryAbbreviated;
 import de.passwordvault.model.entry.EntryExtended;
 import de.passwordvault.model.entry.EntryManager;
+import de.passwordvault.model.storage.app.Storable;
 import de.passwordvault.model.storage.csv.CsvConfiguration;
 import de.passwordvault.model.storage.encryption.EncryptionException;
+import de.passwordvault.model.storage.file.EncryptedOutputStream;
 import de.passwordvault.model.storage.settings.Config;
 import de.passwordvault.model.storage.settings.NoBackup;
 import de.passwordvault.model.storage.settings.items.GenericItem;
@@ -35,10 +38,12 @@ import de.passwordvault.model.tags.TagManager;
 
 
 /**
- * Class implements the XML backup creator which can create XML backups of version 2.
+ * Class implements the XML backup creator which can create XML backups of version 2. Backups which
+ * are encrypted with a seed are encrypted as a whole while they are written (see
+ * {@link EncryptedOutputStream}), so that the XML document does not contain any encrypted fields.
  *
  * @author  Christian-2003
- * @version 3.6.0
+ * @version 3.7.4
  */
 public class BackupCreator extends XmlBackupConfiguration {
 
@@ -148,7 +153,7 @@ public class BackupCreator extends XmlBackupConfiguration {
     /**
      * Constructor instantiates a new XML backup creator to create a backup at the specified URI.
      * If the passed {@code encryptionSeed} is not {@code null}, the seed will be used to generate
-     * a key with which to encrypt the backup. Otherwise, the backup is not encrypted.
+     * a key with which to encrypt the backup as a whole. Otherwise, the backup is not encrypted.
      * This constructor is intended to be used when creating backups manually.
      *
      * @param directory             URI of the directory, in which to create the backup file.
@@ -209,11 +214,20 @@ public class BackupCreator extends XmlBackupConfiguration {
             if (xml == null) {
                 throw new BackupException("Invalid ParcelFileDescriptor for backup");
             }
-            FileDescriptor fs = xml.getFileDescriptor();
 
-            StreamResult result = new StreamResult(new FileOutputStream(fs));
-            transformer.transform(source, result);
-            xml.close();
+            try (OutputStream outputStream = new ParcelFileDescriptor.AutoCloseOutputStream(xml)) {
+                if (isContainerEncrypted()) {
+                    writeEncrypted(transformer, source, outputStream);
+                }
+                else {
+                    transformer.transform(source, new StreamResult(outputStream));
+                }
+            }
+            catch (IOException | TransformerException e) {
+                //Do not leave an incomplete backup behind:
+                file.delete();
+                throw e;
+            }
         }
         catch (Exception e) {
             throw new BackupException(e.getMessage());
@@ -221,6 +235,44 @@ public class BackupCreator extends XmlBackupConfiguration {
     }
 
 
+    /**
+     * Method encrypts the XML document as a whole while it is written to the passed stream. If the
+     * document cannot be written completely, the encrypted stream is aborted, so that the incomplete
+     * backup cannot be decrypted.
+     *
+     * @param transformer           Transformer with which to write the XML document.
+     * @param source                Source of the XML document.
+     * @param outputStream          Stream to the backup file.
+     * @throws IOException          The backup file could not be written.
+     * @throws TransformerException The XML document could not be written.
+     */
+    private void writeEncrypted(Transformer transformer, DOMSource source, OutputStream outputStream) throws IOException, TransformerException {
+        EncryptedOutputStream encryptedStream = new EncryptedOutputStream(outputStream, encryptionAlgorithm);
+        boolean completed = false;
+        try {
+            transformer.transform(source, new StreamResult(encryptedStream));
+            completed = true;
+        }
+        finally {
+            if (!completed) {
+                encryptedStream.abort();
+            }
+        }
+        encryptedStream.close();
+    }
+
+
+    /**
+     * Method returns whether the backup is encrypted as a whole with the {@link #encryptionKeySeed}.
+     * This applies to all backups which are created manually with a seed.
+     *
+     * @return  Whether the backup is encrypted as a whole.
+     */
+    private boolean isContainerEncrypted() {
+        return encryptionAlgorithm != null && !autoCreated && encryptionKeySeed != null;
+    }
+
+
     /**
      * Method generates the root element for the XML.
      *
@@ -290,10 +342,7 @@ public class BackupCreator extends XmlBackupConfiguration {
     private Element createDataElement() throws EncryptionException {
         Element dataElement = xmlDocument.createElement(XmlConfiguration.TAG_DATA.getValue());
 
-        if (encryptionAlgorithm != null && !autoCreated && encryptionKeySeed != null) {
-            String encryptedSeed = encryptIfNecessary(encryptionKeySeed);
-            dataElement.setAttribute(XmlConfiguration.ATTRIBUTE_CHECKSUM.getValue(), encryptedSeed);
-        }
+        //Backups encrypted with a seed are encrypted as a whole, so that no checksum is required.
 
         Element tagsElement = createTagsElement();
         dataElement.appendChild(tagsElement);
@@ -320,8 +369,8 @@ public class BackupCreator extends XmlBackupConfiguration {
 
         StringBuilder builder = new StringBuilder();
         for (EntryAbbreviated entry : EntryManager.getInstance().getData()) {
-            builder.append(encryptIfNecessary(entry.toStorable()));
-            builder.append("" + CsvConfiguration.ROW_DIVIDER);
+            appendEncryptedIfNecessary(builder, entry);
+            builder.append(CsvConfiguration.ROW_DIVIDER);
         }
         if (builder.length() > 0) {
             //Remove last line break.
@@ -351,8 +400,8 @@ public class BackupCreator extends XmlBackupConfiguration {
             }
             for (Detail detail : extended.getDetails()) {
                 DetailBackupDTO detailDto = new DetailBackupDTO(detail, extended.getUuid());
-                builder.append(encryptIfNecessary(detailDto.toStorable()));
-                builder.append("" + CsvConfiguration.ROW_DIVIDER);
+                appendEncryptedIfNecessary(builder, detailDto);
+                builder.append(CsvConfiguration.ROW_DIVIDER);
             }
         }
         if (builder.length() > 0) {
@@ -428,8 +477,8 @@ public class BackupCreator extends XmlBackupConfiguration {
             if (!gate.isEditable()) {
                 continue;
             }
-            builder.append(gate.toStorable());
-            builder.append("" + CsvConfiguration.ROW_DIVIDER);
+            gate.appendStorable(builder);
+            builder.append(CsvConfiguration.ROW_DIVIDER);
         }
         if (builder.length() > 1) {
             builder.deleteCharAt(builder.length() - 1);
@@ -458,18 +507,37 @@ public class BackupCreator extends XmlBackupConfiguration {
 
 
     /**
-     * Method encrypts the passed string if possible. If the backup should not be encrypted, the method
-     * returns the passed argument unchanged.
+     * Method encrypts the passed string if possible. If the backup should not be encrypted, or if it
+     * is encrypted as a whole, the method returns the passed argument unchanged.
      *
      * @param s                     String to encrypt.
      * @return                      Encrypted string.
      * @throws EncryptionException  The passed argument could not be encrypted.
      */
     private String encryptIfNecessary(String s) throws EncryptionException {
-        if (encryptionAlgorithm != null) {
+        if (encryptionAlgorithm != null && !isContainerEncrypted()) {
             return encryptionAlgorithm.encrypt(s);
         }
         return s;
     }
 
+    /**
+     * Method appends the string-representation of the passed storable to the passed builder. If
+     * an encryption algorithm is set and the backup is not encrypted as a whole, the
+     * string-representation is encrypted before it is appended.
+     * Otherwise, the storable is serialized directly into the builder.
+     *
+     * @param builder               Builder to which to append.
+     * @param storable              Storable to append.
+     * @throws EncryptionException  The storable could not be encrypted.
+     */
+    private void appendEncryptedIfNecessary(StringBuilder builder, Storable storable) throws EncryptionException {
+        if (encryptionAlgorithm != null && !isContainerEncrypted()) {
+            builder.append(encryptionAlgorithm.encrypt(storable.toStorable()));
+        }
+        else {
+            storable.appendStorable(builder);
+        }
+    }
+
 }
@@ -4,10 +4,11 @@ import androidx.annotation.NonNull;
 
 
 /**
- * Class models a builder which can build CSV.
+ * Class models a builder which can build CSV. The CSV can either be built into a new buffer, or be
+ * appended to an existing buffer which is shared by multiple builders.
  *
  * @author  Christian-2003
- * @version 3.3.0
+ * @version 3.7.4
  */
 public class CsvBuilder extends CsvConfiguration {
 
@@ -21,15 +22,27 @@ public class CsvBuilder extends CsvConfiguration {
      */
     private boolean containsContent;
 
-
     /**
      * Constructor instantiates a new {@link CsvBuilder}-instance.
      */
     public CsvBuilder() {
-        csv = new StringBuilder();
-        containsContent = false;
+        this(new StringBuilder());
     }
 
+    /**
+     * Constructor instantiates a new {@link CsvBuilder}-instance which appends the generated CSV to
+     * the passed buffer. The content that is already contained within the buffer is not changed.
+     *
+     * @param csv                   Buffer to which the CSV shall be appended.
+     * @throws NullPointerException The passed buffer is {@code null}.
+     */
+    public CsvBuilder(StringBuilder csv) throws NullPointerException {
+        if (csv == null) {
+            throw new NullPointerException();
+        }
+        this.csv = csv;
+        containsContent = false;
+    }
 
     /**
      * Method appends the passed argument to the generated CSV.
@@ -145,41 +158,34 @@ public class CsvBuilder extends CsvConfiguration {
         if (containsContent) {
             csv.append(COLUMN_DIVIDER);
         }
+        containsContent = true;
         if (arg == null) {
             csv.append('\0');
-            containsContent = true;
             return;
         }
-        boolean containsSpecialCharacters = false;
-        StringBuilder string = new StringBuilder(); //I'm funny I know...
-        for (int i = 0; i < arg.length(); i++) {
+        int firstSpecialCharacter = indexOfSpecialCharacter(arg);
+        if (firstSpecialCharacter == -1) {
+            //Value can be copied without escaping:
+            csv.append(arg);
+            return;
+        }
+        csv.append(STRING_SEPARATOR);
+        csv.append(arg, 0, firstSpecialCharacter);
+        for (int i = firstSpecialCharacter; i < arg.length(); i++) {
             char currentChar = arg.charAt(i);
             switch (currentChar) {
                 case STRING_SEPARATOR:
-                    string.append("\\"); //Escape string separator for CSV structure.
-                    string.append(currentChar);
-                    containsSpecialCharacters = true;
-                    break;
-                case COLUMN_DIVIDER:
-                    string.append(currentChar);
-                    containsSpecialCharacters = true;
+                    csv.append('\\'); //Escape string separator for CSV structure.
+                    csv.append(currentChar);
                     break;
                 case ROW_DIVIDER:
-                    string.append("\\n"); //Escape row divider.
-                    containsSpecialCharacters = true;
+                    csv.append("\\n"); //Escape row divider.
                     break;
                 default:
-                    string.append(currentChar);
+                    csv.append(currentChar);
             }
         }
-        if (containsSpecialCharacters) {
-            csv.append(STRING_SEPARATOR);
-        }
-        csv.append(string);
-        if (containsSpecialCharacters) {
-            csv.append(STRING_SEPARATOR);
-        }
-        containsContent = true;
+        csv.append(STRING_SEPARATOR);
     }
 
     /**
@@ -201,7 +207,6 @@ public class CsvBuilder extends CsvConfiguration {
         }
     }
 
-
     /**
      * Method appends a line feed to the generated CSV.
      */
@@ -210,9 +215,9 @@ public class CsvBuilder extends CsvConfiguration {
         containsContent = false;
     }
 
-
     /**
-     * Method converts the generated CSV into a string.
+     * Method converts the generated CSV into a string. If the builder appends to a shared buffer,
+     * the entire content of the buffer is returned.
      *
      * @return  Generated CSV.
      */
@@ -222,4 +227,22 @@ public class CsvBuilder extends CsvConfiguration {
         return csv.toString();
     }
 
+    /**
+     * Method returns the index of the first character within the passed string which requires the
+     * string to be enclosed by {@link #STRING_SEPARATOR}s. If no such character exists, {@code -1} is
+     * returned.
+     *
+     * @param s String to be tested.
+     * @return  Index of the first special character.
+     */
+    private static int indexOfSpecialCharacter(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char currentChar = s.charAt(i);
+            if (currentChar == STRING_SEPARATOR || currentChar == COLUMN_DIVIDER || currentChar == ROW_DIVIDER) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
 }
@@ -0,0 +1,391 @@
+package de.passwordvault.model.storage.csv;
+
+import androidx.annotation.NonNull;
+
+
+/**
+ * Class implements a cursor which can read CSV (that was generated through {@link CsvBuilder}) cell
+ * by cell. Unlike {@link CsvParser}, the cursor does not create a list of all cells. Cells can be
+ * read through typed accessors (e.g. {@link #nextLong()}), which parse the cell directly from the
+ * CSV without creating intermediate strings. Cells containing escaped characters are unescaped into
+ * a scratch buffer, which is reused for all cells.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class CsvCursor extends CsvConfiguration {
+
+    /**
+     * Attribute stores the CSV which is read.
+     */
+    private CharSequence csv;
+
+    /**
+     * Attribute stores the index of the first character of the next cell.
+     */
+    private int position;
+
+    /**
+     * Attribute stores the index after the last character of the CSV that is read.
+     */
+    private int end;
+
+    /**
+     * Attribute stores the index of the first character of the current cell within the CSV. This is
+     * only used if {@link #escaped} is {@code false}.
+     */
+    private int cellStart;
+
+    /**
+     * Attribute stores the index after the last character of the current cell within the CSV. This is
+     * only used if {@link #escaped} is {@code false}.
+     */
+    private int cellEnd;
+
+    /**
+     * Attribute indicates whether the current cell contains escaped characters. In this case, the
+     * unescaped cell is stored in the {@link #scratch}-buffer.
+     */
+    private boolean escaped;
+
+    /**
+     * Attribute stores the buffer into which cells with escaped characters are unescaped. The buffer
+     * is created lazily and reused for all cells.
+     */
+    private StringBuilder scratch;
+
+    /**
+     * Attribute stores the view which is returned by {@link #nextCharSequence()}.
+     */
+    private final Cell cell;
+
+
+    /**
+     * Constructor instantiates a new cursor which reads the passed CSV.
+     *
+     * @param csv                   CSV to read.
+     * @throws NullPointerException The passed CSV is {@code null}.
+     */
+    public CsvCursor(CharSequence csv) throws NullPointerException {
+        cell = new Cell();
+        reset(csv);
+    }
+
+
+    /**
+     * Method resets the cursor so that it reads the passed CSV. This allows to reuse the cursor (and
+     * its buffers) for multiple rows.
+     *
+     * @param csv                   CSV to read.
+     * @throws NullPointerException The passed CSV is {@code null}.
+     */
+    public void reset(CharSequence csv) throws NullPointerException {
+        if (csv == null) {
+            throw new NullPointerException("Null is invalid CSV");
+        }
+        this.csv = csv;
+        position = 0;
+        end = csv.length();
+        cellStart = 0;
+        cellEnd = 0;
+        escaped = false;
+    }
+
+
+    /**
+     * Method returns whether another cell can be read.
+     *
+     * @return  Whether another cell is available.
+     */
+    public boolean hasNext() {
+        return position < end;
+    }
+
+
+    /**
+     * Method skips the next cell.
+     *
+     * @throws IllegalStateException No further cell is available.
+     */
+    public void skip() throws IllegalStateException {
+        advance();
+    }
+
+    /**
+     * Method reads the next cell as string. If the cell represents {@code null}, {@code null} is
+     * returned.
+     *
+     * @return                          Content of the next cell.
+     * @throws IllegalStateException    No further cell is available.
+     */
+    public String nextString() throws IllegalStateException {
+        advance();
+        if (isNull()) {
+            return null;
+        }
+        if (escaped) {
+            return scratch.toString();
+        }
+        return csv.subSequence(cellStart, cellEnd).toString();
+    }
+
+    /**
+     * Method reads the next cell without copying it. If the cell represents {@code null},
+     * {@code null} is returned. The returned character sequence is only valid until the cursor is
+     * moved or reset, and must be converted into a string if it shall be stored.
+     *
+     * @return                          Content of the next cell.
+     * @throws IllegalStateException    No further cell is available.
+     */
+    public CharSequence nextCharSequence() throws IllegalStateException {
+        advance();
+        if (isNull()) {
+            return null;
+        }
+        return cell;
+    }
+
+    /**
+     * Method reads the next cell as long.
+     *
+     * @return                          Value of the next cell.
+     * @throws IllegalStateException    No further cell is available.
+     * @throws NumberFormatException    The cell does not contain a valid long.
+     */
+    public long nextLong() throws IllegalStateException, NumberFormatException {
+        advance();
+        int length = cellLength();
+        if (length == 0 || isNull()) {
+            throw new NumberFormatException("Cell contains no number");
+        }
+        int i = 0;
+        boolean negative = false;
+        char first = cellCharAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+            if (length == 1) {
+                throw new NumberFormatException("Cell contains no number");
+            }
+        }
+        //Accumulate negatively to be able to represent Long.MIN_VALUE:
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplicationLimit = limit / 10;
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = Character.digit(cellCharAt(i), 10);
+            if (digit < 0 || result < multiplicationLimit) {
+                throw new NumberFormatException("Cell contains no valid number");
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw new NumberFormatException("Cell contains no valid number");
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Method reads the next cell as integer.
+     *
+     * @return                          Value of the next cell.
+     * @throws IllegalStateException    No further cell is available.
+     * @throws NumberFormatException    The cell does not contain a valid integer.
+     */
+    public int nextInt() throws IllegalStateException, NumberFormatException {
+        long value = nextLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Cell contains no valid integer");
+        }
+        return (int)value;
+    }
+
+    /**
+     * Method reads the next cell as boolean. Just like {@link Boolean#parseBoolean(String)}, the
+     * cell is {@code true} if it contains "true" (ignoring case), and {@code false} otherwise.
+     *
+     * @return                          Value of the next cell.
+     * @throws IllegalStateException    No further cell is available.
+     */
+    public boolean nextBoolean() throws IllegalStateException {
+        advance();
+        String value = "true";
+        if (cellLength() != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.toLowerCase(cellCharAt(i)) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Method moves the cursor to the next cell. The cell is parsed identically to
+     * {@link CsvParser#parseCsv()}.
+     *
+     * @throws IllegalStateException    No further cell is available.
+     */
+    private void advance() throws IllegalStateException {
+        if (position >= end) {
+            throw new IllegalStateException("No further cell available");
+        }
+        escaped = false;
+        boolean containsSpecialCharacters = false;
+        if (csv.charAt(position) == STRING_SEPARATOR) {
+            containsSpecialCharacters = true;
+            position++;
+        }
+        cellStart = position;
+        for (int i = position; i < end; i++) {
+            char currentChar = csv.charAt(i);
+            switch (currentChar) {
+                case STRING_SEPARATOR:
+                case COLUMN_DIVIDER:
+                case ROW_DIVIDER:
+                    if (containsSpecialCharacters && currentChar != STRING_SEPARATOR) {
+                        if (escaped) {
+                            scratch.append(currentChar);
+                        }
+                    }
+                    else {
+                        cellEnd = i;
+                        //Add (i + 2) to index if the current char is string separator, since
+                        //character after string separator must always be a column divider:
+                        position = currentChar == STRING_SEPARATOR ? i + 2 : i + 1;
+                        return;
+                    }
+                    break;
+                case '\\':
+                    if (end - 1 > i + 1) {
+                        char escapedChar = csv.charAt(i + 1);
+                        if (escapedChar == 'n' || escapedChar == STRING_SEPARATOR) {
+                            if (!escaped) {
+                                startEscaping(i);
+                            }
+                            scratch.append(escapedChar == 'n' ? ROW_DIVIDER : STRING_SEPARATOR);
+                            i++;
+                            break;
+                        }
+                    }
+                    if (escaped) {
+                        scratch.append(currentChar);
+                    }
+                    break;
+                default:
+                    if (escaped) {
+                        scratch.append(currentChar);
+                    }
+            }
+        }
+        //Parsed the last column in the last row:
+        cellEnd = end;
+        position = end;
+    }
+
+    /**
+     * Method copies the characters of the current cell (up to the passed index) into the
+     * {@link #scratch}-buffer, so that unescaped characters can be appended.
+     *
+     * @param index Index (exclusive) up to which to copy the cell.
+     */
+    private void startEscaping(int index) {
+        if (scratch == null) {
+            scratch = new StringBuilder();
+        }
+        scratch.setLength(0);
+        scratch.append(csv, cellStart, index);
+        escaped = true;
+    }
+
+    /**
+     * Method returns the length of the current cell.
+     *
+     * @return  Length of the current cell.
+     */
+    private int cellLength() {
+        return escaped ? scratch.length() : cellEnd - cellStart;
+    }
+
+    /**
+     * Method returns the character at the passed index of the current cell.
+     *
+     * @param index Index of the character within the current cell.
+     * @return      Character at the index.
+     */
+    private char cellCharAt(int index) {
+        return escaped ? scratch.charAt(index) : csv.charAt(cellStart + index);
+    }
+
+    /**
+     * Method returns whether the current cell represents {@code null}.
+     *
+     * @return  Whether the current cell is {@code null}.
+     */
+    private boolean isNull() {
+        return cellLength() == 1 && cellCharAt(0) == '\0';
+    }
+
+
+    /**
+     * Class models the view on the current cell that is returned by {@link #nextCharSequence()}.
+     */
+    private class Cell implements CharSequence {
+
+        /**
+         * Method returns the length of the current cell.
+         *
+         * @return  Length of the current cell.
+         */
+        @Override
+        public int length() {
+            return cellLength();
+        }
+
+        /**
+         * Method returns the character at the passed index of the current cell.
+         *
+         * @param index Index of the character.
+         * @return      Character at the index.
+         */
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= cellLength()) {
+                throw new IndexOutOfBoundsException();
+            }
+            return cellCharAt(index);
+        }
+
+        /**
+         * Method returns the passed range of the current cell.
+         *
+         * @param start Index of the first character.
+         * @param end   Index after the last character.
+         * @return      Range of the current cell.
+         */
+        @NonNull
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        /**
+         * Method returns the current cell as string.
+         *
+         * @return  Current cell.
+         */
+        @NonNull
+        @Override
+        public String toString() {
+            if (escaped) {
+                return scratch.toString();
+            }
+            return csv.subSequence(cellStart, cellEnd).toString();
+        }
+
+    }
+
+}
@@ -5,9 +5,11 @@ import java.util.ArrayList;
 
 /**
  * Class implements a parser which can parse CSV (that was generated through {@link CsvBuilder}).
+ * The parser converts the CSV into a list of strings. If the cells shall be converted into other
+ * types, {@link CsvCursor} should be used instead.
  *
  * @author  Christian-2003
- * @version 3.7.1
+ * @version 3.7.4
  */
 public class CsvParser extends CsvConfiguration {
 
@@ -17,14 +19,9 @@ public class CsvParser extends CsvConfiguration {
     private final ArrayList<String> columns;
 
     /**
-     * Attribute stores the CSV which shall be parsed.
+     * Attribute stores the cursor which is used to read the CSV.
      */
-    private final String csv;
-
-    /**
-     * Attribute stores the current index within the parsed CSV.
-     */
-    private int currentIndex;
+    private final CsvCursor cursor;
 
 
     /**
@@ -37,9 +34,8 @@ public class CsvParser extends CsvConfiguration {
         if (csv == null) {
             throw new NullPointerException("Null is invalid CSV");
         }
-        this.csv = csv;
+        cursor = new CsvCursor(csv);
         columns = new ArrayList<>();
-        currentIndex = 0;
     }
 
 
@@ -50,76 +46,10 @@ public class CsvParser extends CsvConfiguration {
      */
     public ArrayList<String> parseCsv() {
         columns.clear();
-        while (currentIndex < csv.length()) {
-            next();
+        while (cursor.hasNext()) {
+            columns.add(cursor.nextString());
         }
         return columns;
     }
 
-
-    /**
-     * Method parses the next column of the passed CSV and appends the parsed value to
-     * {@link #columns}.
-     */
-    private void next() {
-        boolean containsSpecialCharacters = false;
-        if (csv.charAt(currentIndex) == STRING_SEPARATOR) {
-            containsSpecialCharacters = true;
-            currentIndex++;
-        }
-        StringBuilder column = new StringBuilder();
-        for (int i = currentIndex; i < csv.length(); i++) {
-            char currentChar = csv.charAt(i);
-            switch (currentChar) {
-                case STRING_SEPARATOR:
-                case COLUMN_DIVIDER:
-                case ROW_DIVIDER:
-                    if (containsSpecialCharacters && currentChar != STRING_SEPARATOR) {
-                        column.append(currentChar);
-                    }
-                    else {
-                        if (column.toString().equals("\0")) {
-                            columns.add(null);
-                        }
-                        else {
-                            columns.add(column.toString());
-                        }
-                        //Add (i + 2) to index if the current char is string separator, since
-                        //character after string separator must always be a column divider:
-                        currentIndex = currentChar == STRING_SEPARATOR ? i + 2 : i + 1;
-                        return;
-                    }
-                    break;
-                case '\\':
-                    if (csv.length() - 1 > i + 1) {
-                        char escapedChar = csv.charAt(++i);
-                        if (escapedChar == 'n') {
-                            column.append(ROW_DIVIDER);
-                        }
-                        else if (escapedChar == STRING_SEPARATOR) {
-                            column.append(STRING_SEPARATOR);
-                        }
-                        else {
-                            column.append(currentChar);
-                            i--;
-                        }
-                    }
-                    else {
-                        column.append(currentChar);
-                    }
-                    break;
-                default:
-                    column.append(currentChar);
-            }
-        }
-        //Parsed the last column in the last row:
-        currentIndex = csv.length();
-        if (column.toString().equals("\0")) {
-            columns.add(null);
-        }
-        else {
-            columns.add(column.toString());
-        }
-    }
-
 }
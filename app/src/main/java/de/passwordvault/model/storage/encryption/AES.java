@@ -5,6 +5,7 @@ import android.security.keystore.KeyProperties;
 import android.util.Log;
 
 import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
 import java.security.KeyStore;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -22,7 +23,7 @@ import javax.crypto.spec.SecretKeySpec;
  * This class can be used to encrypt and decrypt messages using the AES algorithm.
  *
  * @author  Christian-2003
- * @version 3.2.0
+ * @version 3.7.4
  */
 public class AES {
 
@@ -37,11 +38,50 @@ public class AES {
      */
     private static final String KEY_ALIAS = "secret_key";
 
+    /**
+     * Constant stores the length (in bytes) of the IV that is prepended to every encrypted message.
+     */
+    private static final int IV_LENGTH = 12;
+
+    /**
+     * Constant stores the transformation used for encryption and decryption.
+     */
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+
+    /**
+     * Field stores the {@linkplain SecretKey} that was retrieved from the {@linkplain KeyStore}. The
+     * key is retrieved once per process and shared by all instances, since loading the KeyStore is
+     * expensive. This is {@code null} if the key has not been retrieved yet or was invalidated
+     * through {@link #invalidateKeyCache()}.
+     */
+    private static volatile SecretKey keyStoreKey = null;
+
+    /**
+     * Field stores a {@linkplain Cipher} per thread which is used with the key from the
+     * {@linkplain KeyStore}. Ciphers are re-initialized for every operation, therefore they can be
+     * reused by the same thread. Ciphers for KeyStore-keys and seeded keys are kept apart, since a
+     * cipher is bound to the provider of the key with which it was initialized first.
+     */
+    private static final ThreadLocal<Cipher> keyStoreCiphers = new ThreadLocal<>();
 
     /**
-     * Attribute stores a key that was generated from a seed (provided by the user). If this key
-     * is provided ({@code userProvidedKey != null}), this key shall be used for encryption and
-     * decryption instead of the keys that are retrieved from the {@linkplain KeyStore}.
+     * Field stores a {@linkplain Cipher} per thread which is used with keys that are generated from
+     * a seed.
+     */
+    private static final ThreadLocal<Cipher> seededCiphers = new ThreadLocal<>();
+
+    /**
+     * Field stores the source of randomness used to generate the IVs.
+     */
+    private static final SecureRandom random = new SecureRandom();
+
+
+    /**
+     * Attribute stores a key that was generated from a seed (provided by the user) or passed
+     * directly. If this key is provided ({@code userProvidedKey != null}), this key shall be used
+     * for encryption and decryption instead of the keys that are retrieved from the
+     * {@linkplain KeyStore}. Such keys are used in software, without accessing the KeyStore.
      */
     private final SecretKey userProvidedKey;
 
@@ -80,7 +120,38 @@ public class AES {
             return;
         }
         byte[] hash = md.digest(seed.getBytes(StandardCharsets.UTF_8));
-        userProvidedKey = new SecretKeySpec(hash, 0, 16, "AES/GCM/NoPadding");
+        userProvidedKey = new SecretKeySpec(hash, 0, 16, "AES");
+    }
+
+    /**
+     * Constructor instantiates a new {@link AES}-instance which can encrypt and decrypt provided
+     * data with the passed key. The key is used in software, so that encrypting and decrypting does
+     * not access the KeyStore.
+     *
+     * @param key                       Key of 16, 24 or 32 bytes.
+     * @throws NullPointerException     The passed key is {@code null}.
+     * @throws IllegalArgumentException The passed key has an invalid length.
+     */
+    public AES(byte[] key) throws NullPointerException, IllegalArgumentException {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        if (key.length != 16 && key.length != 24 && key.length != 32) {
+            throw new IllegalArgumentException("Invalid key length: " + key.length);
+        }
+        userProvidedKey = new SecretKeySpec(key, "AES");
+    }
+
+
+    /**
+     * Method invalidates the {@linkplain SecretKey} that is cached from the {@linkplain KeyStore}
+     * and the cipher of the calling thread. The key will be retrieved again with the next
+     * encryption or decryption. This should be called whenever the key within the KeyStore might
+     * have changed.
+     */
+    public static synchronized void invalidateKeyCache() {
+        keyStoreKey = null;
+        keyStoreCiphers.remove();
     }
 
 
@@ -94,27 +165,39 @@ public class AES {
      * @throws EncryptionException  The plain text could not be encrypted.
      */
     public String encrypt(String plainText) throws EncryptionException {
-        try {
-            KeyStore keyStore = KeyStore.getInstance(PROVIDER);
-            keyStore.load(null);
+        byte[] encrypted = encrypt(plainText.getBytes(StandardCharsets.UTF_8), null);
+        return Base64.getEncoder().encodeToString(encrypted);
+    }
 
-            if (!keyStore.containsAlias(KEY_ALIAS)) {
-                KeyGenerator keyGenerator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_AES, PROVIDER);
-                KeyGenParameterSpec spec = new KeyGenParameterSpec.Builder(KEY_ALIAS, KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT).setBlockModes(KeyProperties.BLOCK_MODE_GCM).setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_NONE).build();
-                keyGenerator.init(spec);
-                keyGenerator.generateKey();
+    /**
+     * Method encrypts the passed plain bytes with the AES algorithm. The returned array contains the
+     * IV, followed by the cipher text and authentication tag. If associated data is passed, it is
+     * authenticated (but not encrypted) alongside the plain bytes and must be passed again when
+     * decrypting.
+     *
+     * @param plainBytes            Plain bytes that shall be encrypted.
+     * @param associatedData        Additional data to authenticate, or {@code null}.
+     * @return                      IV followed by the encrypted bytes.
+     * @throws EncryptionException  The plain bytes could not be encrypted.
+     */
+    public byte[] encrypt(byte[] plainBytes, byte[] associatedData) throws EncryptionException {
+        try {
+            Cipher cipher = getCipher();
+            cipher.init(Cipher.ENCRYPT_MODE, getKey(true), random);
+            if (associatedData != null) {
+                cipher.updateAAD(associatedData);
             }
 
-            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
-            cipher.init(Cipher.ENCRYPT_MODE, getKey(), new SecureRandom());
-
-            byte[] data = cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8));
+            byte[] data = cipher.doFinal(plainBytes);
             byte[] iv = cipher.getIV();
             byte[] encrypted = new byte[iv.length + data.length];
             System.arraycopy(iv, 0, encrypted, 0, iv.length);
             System.arraycopy(data, 0, encrypted, iv.length, data.length);
-
-            return Base64.getEncoder().encodeToString(encrypted);
+            return encrypted;
+        }
+        catch (InvalidKeyException e) {
+            invalidateKeyCacheIfNecessary();
+            throw new EncryptionException(e.getMessage());
         }
         catch (Exception e) {
             throw new EncryptionException(e.getMessage());
@@ -132,17 +215,43 @@ public class AES {
      * @throws EncryptionException  The encrypted text could not be decrypted.
      */
     public String decrypt(String encryptedText) throws EncryptionException {
+        byte[] encryptedBytes;
         try {
-            byte[] encryptedBytes = Base64.getDecoder().decode(encryptedText);
-            byte[] iv = new byte[12];
-            System.arraycopy(encryptedBytes, 0, iv, 0, iv.length);
-
-            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
-            cipher.init(Cipher.DECRYPT_MODE, getKey(), new GCMParameterSpec(128, iv));
-
-            byte[] decryptedBytes = cipher.doFinal(encryptedBytes, iv.length, encryptedBytes.length - iv.length);
+            encryptedBytes = Base64.getDecoder().decode(encryptedText);
+        }
+        catch (Exception e) {
+            Log.d("EFR", "Encryption: " + e.getMessage());
+            throw new EncryptionException(e.getMessage());
+        }
+        byte[] decryptedBytes = decrypt(encryptedBytes, 0, encryptedBytes.length, null);
+        return new String(decryptedBytes, StandardCharsets.UTF_8);
+    }
 
-            return new String(decryptedBytes, StandardCharsets.UTF_8);
+    /**
+     * Method decrypts the specified range of encrypted bytes with the AES algorithm. The range must
+     * have been generated through {@link #encrypt(byte[], byte[])}, i.e. it starts with the IV. The
+     * associated data must be identical to the data passed when encrypting.
+     *
+     * @param encryptedBytes        Array containing the encrypted bytes.
+     * @param offset                Offset at which the encrypted bytes start.
+     * @param length                Number of encrypted bytes (including the IV).
+     * @param associatedData        Additional data to authenticate, or {@code null}.
+     * @return                      Decrypted bytes.
+     * @throws EncryptionException  The encrypted bytes could not be decrypted.
+     */
+    public byte[] decrypt(byte[] encryptedBytes, int offset, int length, byte[] associatedData) throws EncryptionException {
+        try {
+            Cipher cipher = getCipher();
+            cipher.init(Cipher.DECRYPT_MODE, getKey(false), new GCMParameterSpec(128, encryptedBytes, offset, IV_LENGTH));
+            if (associatedData != null) {
+                cipher.updateAAD(associatedData);
+            }
+            return cipher.doFinal(encryptedBytes, offset + IV_LENGTH, length - IV_LENGTH);
+        }
+        catch (InvalidKeyException e) {
+            invalidateKeyCacheIfNecessary();
+            Log.d("EFR", "Encryption: " + e.getMessage());
+            throw new EncryptionException(e.getMessage());
         }
         catch (Exception e) {
             Log.d("EFR", "Encryption: " + e.getMessage());
@@ -153,21 +262,85 @@ public class AES {
 
     /**
      * Method returns the {@linkplain SecretKey} that shall be used for encryption and decryption.
-     * This is either the {@link #userProvidedKey} or a key retrieved from the {@linkplain KeyStore}.
+     * This is either the {@link #userProvidedKey} or the key retrieved from the {@linkplain KeyStore}.
+     * The key from the KeyStore is only retrieved once and cached afterwards.
      *
-     * @return                      Secret key retrieved that shall be used for encryption / decryption.
+     * @param generate              Whether to generate a new key within the KeyStore if no key exists.
+     * @return                      Secret key that shall be used for encryption / decryption.
      * @throws EncryptionException  The key could not be retrieved from the KeyStore.
      */
-    private SecretKey getKey() throws EncryptionException {
+    private SecretKey getKey(boolean generate) throws EncryptionException {
         if (userProvidedKey != null) {
             //Use key that was generated through a seed for encryption / decryption:
             return userProvidedKey;
         }
+        SecretKey key = keyStoreKey;
+        if (key != null) {
+            return key;
+        }
+        synchronized (AES.class) {
+            if (keyStoreKey == null) {
+                keyStoreKey = loadKeyStoreKey(generate);
+            }
+            return keyStoreKey;
+        }
+    }
+
+    /**
+     * Method returns the {@linkplain Cipher} of the current thread which can be used with the key
+     * of this instance. If the thread has no cipher yet, a new one is created.
+     *
+     * @return              Cipher for the current thread.
+     * @throws Exception    The cipher could not be created.
+     */
+    private Cipher getCipher() throws Exception {
+        ThreadLocal<Cipher> ciphers = userProvidedKey != null ? seededCiphers : keyStoreCiphers;
+        Cipher cipher = ciphers.get();
+        if (cipher == null) {
+            cipher = Cipher.getInstance(TRANSFORMATION);
+            ciphers.set(cipher);
+        }
+        return cipher;
+    }
+
+    /**
+     * Method invalidates the cached key if this instance uses the key from the
+     * {@linkplain KeyStore}. This is called if the key was rejected by a cipher, e.g. because it was
+     * invalidated by the system.
+     */
+    private void invalidateKeyCacheIfNecessary() {
+        if (userProvidedKey == null) {
+            invalidateKeyCache();
+        }
+    }
+
+    /**
+     * Method retrieves the {@linkplain SecretKey} from the {@linkplain KeyStore}. If no key exists
+     * and the generate-flag is set, a new key is generated.
+     *
+     * @param generate              Whether to generate a new key if no key exists.
+     * @return                      Key retrieved from the KeyStore.
+     * @throws EncryptionException  The KeyStore could not be accessed or no key exists.
+     */
+    private static SecretKey loadKeyStoreKey(boolean generate) throws EncryptionException {
         try {
             KeyStore keyStore = KeyStore.getInstance(PROVIDER);
             keyStore.load(null);
+
+            if (!keyStore.containsAlias(KEY_ALIAS)) {
+                if (!generate) {
+                    throw new EncryptionException("No key available");
+                }
+                KeyGenerator keyGenerator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_AES, PROVIDER);
+                KeyGenParameterSpec spec = new KeyGenParameterSpec.Builder(KEY_ALIAS, KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT).setBlockModes(KeyProperties.BLOCK_MODE_GCM).setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_NONE).build();
+                keyGenerator.init(spec);
+                return keyGenerator.generateKey();
+            }
             return (SecretKey) keyStore.getKey(KEY_ALIAS, null);
         }
+        catch (EncryptionException e) {
+            throw e;
+        }
         catch (Exception e) {
             throw new EncryptionException(e.getMessage());
         }
@@ -1,18 +1,30 @@
 package de.passwordvault.model.storage.file;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
 import de.passwordvault.App;
 import de.passwordvault.model.storage.encryption.AES;
 import de.passwordvault.model.storage.encryption.EncryptionException;
 
 
 /**
- * Class models a FileReader which can read an encrypted file.
+ * Class models a FileReader which can read an encrypted file. Files are decrypted as a stream (see
+ * {@link EncryptedInputStream}), so that only a single chunk of the content is held in memory.
+ * Files of the previous format (i.e. a single Base64-encoded cipher text) can still be read. Since
+ * their cipher text can only be authenticated as a whole, they are decrypted in memory.
  *
  * @author  Christian-2003
- * @version 3.6.0
+ * @version 3.7.4
  */
 public class EncryptedFileReader {
 
@@ -25,33 +37,147 @@ public class EncryptedFileReader {
      * @throws EncryptionException      The file could not be read due to encryption issues.
      */
     public String read(String filename) throws NullPointerException, EncryptionException {
+        try (Reader reader = openReader(filename)) {
+            if (reader == null) {
+                //File does not exist:
+                return null;
+            }
+            StringBuilder content = new StringBuilder();
+            char[] buffer = new char[8192];
+            int count = reader.read(buffer);
+            while (count != -1) {
+                content.append(buffer, 0, count);
+                count = reader.read(buffer);
+            }
+            return content.toString();
+        }
+        catch (IOException | EncryptionException e) {
+            return null;
+        }
+    }
+
+
+    /**
+     * Method opens a reader for the decrypted content of the specified file. If the file does not
+     * exist, {@code null} is returned. The returned reader must be closed by the caller. Reading
+     * from the reader fails with an {@link IOException} if the file was truncated or manipulated.
+     *
+     * @param filename                  Name of the file to be read.
+     * @return                          Reader for the decrypted content of the file.
+     * @throws NullPointerException     The specified file name is {@code null}.
+     * @throws EncryptionException      The file could not be opened due to encryption issues.
+     */
+    public Reader openReader(String filename) throws NullPointerException, EncryptionException {
+        InputStream in = openInputStream(filename);
+        if (in == null) {
+            return null;
+        }
+        return new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+
+
+    /**
+     * Method opens a stream for the decrypted content of the specified file. If the file does not
+     * exist, {@code null} is returned. The returned stream must be closed by the caller. Reading
+     * from the stream fails with an {@link IOException} if the file was truncated or manipulated.
+     *
+     * @param filename                  Name of the file to be read.
+     * @return                          Stream for the decrypted content of the file.
+     * @throws NullPointerException     The specified file name is {@code null}.
+     * @throws EncryptionException      The file could not be opened due to encryption issues.
+     */
+    public InputStream openInputStream(String filename) throws NullPointerException, EncryptionException {
         if (filename == null || filename.isEmpty()) {
             throw new NullPointerException("Null is invalid filename");
         }
+        return openInputStream(new File(App.getContext().getFilesDir(), filename), new AES());
+    }
 
-        //Setup AES encryption:
-        AES aes = new AES();
 
-        //Read file:
-        File file = new File(App.getContext().getFilesDir(), filename);
+    /**
+     * Static method opens a stream for the decrypted content of the passed file. If the file does
+     * not exist, {@code null} is returned.
+     *
+     * @param file                  File to be read.
+     * @param aes                   AES-instance to use for decryption.
+     * @return                      Stream for the decrypted content of the file.
+     * @throws EncryptionException  The file could not be opened due to encryption issues.
+     */
+    public static InputStream openInputStream(File file, AES aes) throws EncryptionException {
         if (!file.exists()) {
             //File does not exist:
             return null;
         }
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            StringBuilder content = new StringBuilder();
-            String line = reader.readLine();
-            while (line != null) {
-                content.append(line);
-                line = reader.readLine();
+        InputStream in = null;
+        try {
+            in = new BufferedInputStream(new FileInputStream(file));
+            if (EncryptedInputStream.hasHeader(in)) {
+                return new EncryptedInputStream(in, aes);
             }
-            //I do not remember why I created this redundant variable, but I remember that the app
-            //crashes when the generated result is returned directly...
-            String decrypted = aes.decrypt(content.toString());
-            return decrypted;
+            //File uses the previous format:
+            byte[] decrypted = readLegacy(in, aes);
+            return new ByteArrayInputStream(decrypted);
         }
-        catch (Exception e) {
-            return null;
+        catch (IOException e) {
+            closeQuietly(in);
+            throw new EncryptionException(e.getMessage());
+        }
+        catch (EncryptionException e) {
+            closeQuietly(in);
+            throw e;
+        }
+    }
+
+
+    /**
+     * Static method reads and decrypts the content of the passed stream, which must be of the
+     * previous format (i.e. a single Base64-encoded cipher text, which may be split into multiple
+     * lines). The Base64-encoding is decoded while reading, so that only the cipher text and the
+     * decrypted content are held in memory. The stream is closed afterwards.
+     *
+     * @param in                    Stream from which to read.
+     * @param aes                   AES-instance to use for decryption.
+     * @return                      Decrypted content.
+     * @throws IOException          The stream could not be read.
+     * @throws EncryptionException  The content could not be decrypted.
+     */
+    private static byte[] readLegacy(InputStream in, AES aes) throws IOException, EncryptionException {
+        ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+        //The MIME decoder ignores the line breaks:
+        try (InputStream decoder = Base64.getMimeDecoder().wrap(in)) {
+            byte[] buffer = new byte[8192];
+            int count = decoder.read(buffer);
+            while (count != -1) {
+                encrypted.write(buffer, 0, count);
+                count = decoder.read(buffer);
+            }
+        }
+        catch (IllegalArgumentException e) {
+            throw new EncryptionException("Invalid Base64: " + e.getMessage());
+        }
+        byte[] encryptedBytes = encrypted.toByteArray();
+        try {
+            return aes.decrypt(encryptedBytes, 0, encryptedBytes.length, null);
+        }
+        finally {
+            Arrays.fill(encryptedBytes, (byte)0);
+        }
+    }
+
+    /**
+     * Static method closes the passed stream and ignores any exceptions.
+     *
+     * @param in    Stream to close. This may be {@code null}.
+     */
+    private static void closeQuietly(InputStream in) {
+        if (in == null) {
+            return;
+        }
+        try {
+            in.close();
+        }
+        catch (IOException e) {
+            //Ignore...
         }
     }
 
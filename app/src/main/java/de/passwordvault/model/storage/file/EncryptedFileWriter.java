@@ -3,60 +3,324 @@ package de.passwordvault.model.storage.file;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import de.passwordvault.App;
 import de.passwordvault.model.storage.encryption.AES;
 import de.passwordvault.model.storage.encryption.EncryptionException;
 
 
 /**
- * Class models a FileWriter which can write to an encrypted file.
+ * Class models a FileWriter which can write to an encrypted file. Files are encrypted as a stream
+ * (see {@link EncryptedOutputStream}), so that the content does not need to be held in memory. The
+ * encrypted content is written to a temporary file, which replaces the file once it is complete and
+ * synced. Therefore, the file is never left empty or corrupt if encryption or writing fails.
  *
  * @author  Christian-2003
- * @version 3.6.0
+ * @version 3.7.4
  */
 public class EncryptedFileWriter {
 
+    /**
+     * Interface models a callback which writes the content of a file to the passed writer.
+     */
+    public interface ContentWriter {
+
+        /**
+         * Method writes the content of the file to the passed writer. The writer must not be closed.
+         *
+         * @param writer        Writer to which to write the content.
+         * @throws IOException  The content could not be written.
+         */
+        void write(Writer writer) throws IOException;
+
+    }
+
+
+    /**
+     * Field stores the suffix of the temporary file which is written before replacing a file.
+     */
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+
     /**
      * Method writes the content to the specified file.
      *
      * @param filename                  Name of the file to be written to.
      * @param content                   Content to write to the file.
-     * @throws NullPointerException     The specified file name is {@code null}.
+     * @return                          Whether the file was written.
+     * @throws NullPointerException     The specified file name or content is {@code null}.
      * @throws EncryptionException      The file could not be written to due to encryption issues.
      */
     public boolean write(String filename, String content) throws NullPointerException, EncryptionException {
+        if (content == null) {
+            throw new NullPointerException("Null is invalid content");
+        }
+        return write(filename, writer -> writer.write(content));
+    }
+
+    /**
+     * Method writes the content which is generated by the passed callback to the specified file. The
+     * content is encrypted while it is generated. The file is only replaced if the callback finishes
+     * without throwing an exception.
+     *
+     * @param filename                  Name of the file to be written to.
+     * @param contentWriter             Callback which writes the content of the file.
+     * @return                          Whether the file was written.
+     * @throws NullPointerException     The specified file name or callback is {@code null}.
+     * @throws EncryptionException      The file could not be written to due to encryption issues.
+     */
+    public boolean write(String filename, ContentWriter contentWriter) throws NullPointerException, EncryptionException {
+        if (contentWriter == null) {
+            throw new NullPointerException("Null is invalid content writer");
+        }
+        EncryptedOutputStream out = openOutputStream(filename);
+        if (out == null) {
+            //Could not create new file:
+            return false;
+        }
+        boolean completed = false;
+        try {
+            //The writer is not closed, since this would replace the file even if writing failed:
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            contentWriter.write(writer);
+            writer.flush();
+            completed = true;
+        }
+        catch (IOException e) {
+            //Could not write to file:
+            return false;
+        }
+        finally {
+            if (!completed) {
+                abortQuietly(out);
+            }
+        }
+        try {
+            out.close();
+        }
+        catch (IOException e) {
+            //Could not replace file:
+            return false;
+        }
+        return true;
+    }
+
+
+    /**
+     * Method opens a stream for the specified file. All data that is written to the stream is
+     * encrypted before it is written to a temporary file. Once the stream is closed, the temporary
+     * file replaces the file. If the content cannot be completed, the stream must be closed through
+     * {@link EncryptedOutputStream#abort()}, which keeps the previous file. If the file cannot be
+     * created, {@code null} is returned.
+     *
+     * @param filename                  Name of the file to be written to.
+     * @return                          Stream for the file.
+     * @throws NullPointerException     The specified file name is {@code null}.
+     * @throws EncryptionException      The file could not be opened due to encryption issues.
+     */
+    public EncryptedOutputStream openOutputStream(String filename) throws NullPointerException, EncryptionException {
         if (filename == null || filename.isEmpty()) {
             throw new NullPointerException("Null is invalid filename");
         }
+        return openOutputStream(new File(App.getContext().getFilesDir(), filename), new AES());
+    }
 
-        //Setup AES encryption:
-        AES aes = new AES();
-
-        content = aes.encrypt(content);
 
-        //Write file:
-        File file = new File(App.getContext().getFilesDir(), filename);
-        if (!file.exists()) {
-            try {
-                File parentDir = file.getParentFile();
-                if (!parentDir.exists()) {
-                    parentDir.mkdirs();
+    /**
+     * Static method opens a stream for the passed file, which replaces the file once the stream is
+     * closed. If the file cannot be created, {@code null} is returned.
+     *
+     * @param file                  File to be written to.
+     * @param aes                   AES-instance to use for encryption.
+     * @return                      Stream for the file.
+     * @throws EncryptionException  The file could not be opened due to encryption issues.
+     */
+    public static EncryptedOutputStream openOutputStream(File file, AES aes) throws EncryptionException {
+        File tempFile = new File(file.getPath() + TEMP_FILE_SUFFIX);
+        try {
+            File parentDir = file.getParentFile();
+            if (parentDir != null && !parentDir.exists()) {
+                parentDir.mkdirs();
+            }
+        }
+        catch (SecurityException e) {
+            //Could not create directory:
+            return null;
+        }
+        ReplacingOutputStream replacingStream;
+        try {
+            replacingStream = new ReplacingOutputStream(file, tempFile);
+        }
+        catch (IOException | SecurityException e) {
+            //Could not create new file:
+            return null;
+        }
+        try {
+            return new EncryptedOutputStream(replacingStream, aes) {
+                @Override
+                public void abort() throws IOException {
+                    replacingStream.discard();
+                    super.abort();
                 }
-                file.createNewFile();
+            };
+        }
+        catch (IOException e) {
+            replacingStream.discard();
+            try {
+                replacingStream.close();
             }
-            catch (IOException | SecurityException e) {
-                //Could not create new file:
-                return false;
+            catch (IOException ignored) {
+                //Ignore...
             }
+            throw new EncryptionException(e.getMessage());
         }
-        try (FileOutputStream fos = new FileOutputStream(file)) {
-            fos.write(content.getBytes());
+    }
+
+
+    /**
+     * Static method aborts the passed stream and ignores any exceptions.
+     *
+     * @param out   Stream to abort.
+     */
+    private static void abortQuietly(EncryptedOutputStream out) {
+        try {
+            out.abort();
         }
         catch (IOException e) {
-            //Could not write to file:
-            return false;
+            //Ignore...
         }
-        return true;
+    }
+
+
+    /**
+     * Class models a stream which writes to a temporary file. Once the stream is closed, the
+     * temporary file is synced and replaces the target file. If the stream is discarded, the
+     * temporary file is deleted instead.
+     */
+    private static class ReplacingOutputStream extends OutputStream {
+
+        /**
+         * Attribute stores the file which is replaced.
+         */
+        private final File file;
+
+        /**
+         * Attribute stores the temporary file which is written.
+         */
+        private final File tempFile;
+
+        /**
+         * Attribute stores the stream to the {@link #tempFile}.
+         */
+        private final FileOutputStream out;
+
+        /**
+         * Attribute indicates whether the written data shall be discarded when the stream is closed.
+         */
+        private boolean discarded;
+
+        /**
+         * Attribute indicates whether the stream is closed.
+         */
+        private boolean closed;
+
+
+        /**
+         * Constructor instantiates a new stream which replaces the passed file with the passed
+         * temporary file.
+         *
+         * @param file          File to replace.
+         * @param tempFile      Temporary file to write.
+         * @throws IOException  The temporary file could not be created.
+         */
+        public ReplacingOutputStream(File file, File tempFile) throws IOException {
+            this.file = file;
+            this.tempFile = tempFile;
+            out = new FileOutputStream(tempFile);
+            discarded = false;
+            closed = false;
+        }
+
+
+        /**
+         * Method writes the passed byte to the temporary file.
+         *
+         * @param b             Byte to write.
+         * @throws IOException  The byte could not be written.
+         */
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+        }
+
+        /**
+         * Method writes the specified range of the passed array to the temporary file.
+         *
+         * @param b             Array containing the bytes to write.
+         * @param off           Offset of the first byte to write.
+         * @param len           Number of bytes to write.
+         * @throws IOException  The bytes could not be written.
+         */
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        /**
+         * Method marks the written data as discarded, so that the temporary file is deleted instead
+         * of replacing the file when the stream is closed.
+         */
+        public void discard() {
+            discarded = true;
+        }
+
+        /**
+         * Method closes the stream. Unless the stream was discarded, the temporary file is synced
+         * and replaces the file.
+         *
+         * @throws IOException  The file could not be replaced.
+         */
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (discarded) {
+                try {
+                    out.close();
+                }
+                finally {
+                    tempFile.delete();
+                }
+                return;
+            }
+            try {
+                out.flush();
+                out.getFD().sync();
+                out.close();
+            }
+            catch (IOException e) {
+                //Could not write to file:
+                try {
+                    out.close();
+                }
+                catch (IOException ignored) {
+                    //Ignore...
+                }
+                tempFile.delete();
+                throw e;
+            }
+            if (!tempFile.renameTo(file)) {
+                //Could not replace file:
+                tempFile.delete();
+                throw new IOException("Could not replace file");
+            }
+        }
+
     }
 
 }
@@ -0,0 +1,244 @@
+package de.passwordvault.model.storage.file;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import de.passwordvault.model.storage.encryption.AES;
+import de.passwordvault.model.storage.encryption.EncryptionException;
+
+
+/**
+ * Class models an input stream which decrypts data that was written through an
+ * {@link EncryptedOutputStream}. Chunks are decrypted on demand, so that only a single chunk of
+ * plain data is kept in memory at any time. If the stream was truncated or manipulated, reading
+ * from it fails with an {@link IOException}.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class EncryptedInputStream extends InputStream {
+
+    /**
+     * Field stores the number of bytes that are added to every chunk through encryption (i.e. the
+     * IV and the authentication tag).
+     */
+    private static final int CHUNK_OVERHEAD = 12 + 16;
+
+
+    /**
+     * Attribute stores the stream from which the encrypted data is read.
+     */
+    private final DataInputStream in;
+
+    /**
+     * Attribute stores the AES-instance used for decryption.
+     */
+    private final AES aes;
+
+    /**
+     * Attribute stores the maximum number of plain bytes per chunk.
+     */
+    private final int chunkSize;
+
+    /**
+     * Attribute stores the plain bytes of the current chunk.
+     */
+    private byte[] buffer;
+
+    /**
+     * Attribute stores the position of the next byte to read within the {@link #buffer}.
+     */
+    private int position;
+
+    /**
+     * Attribute stores the index of the next chunk to read.
+     */
+    private long chunkIndex;
+
+    /**
+     * Attribute indicates whether the last chunk has been read.
+     */
+    private boolean finished;
+
+
+    /**
+     * Constructor instantiates a new stream which decrypts the data of the passed stream with the
+     * passed AES-instance. The header is read immediately.
+     *
+     * @param in                    Stream from which to read the encrypted data.
+     * @param aes                   AES-instance to use for decryption.
+     * @throws NullPointerException The passed stream or AES-instance is {@code null}.
+     * @throws IOException          The header could not be read or is invalid.
+     */
+    public EncryptedInputStream(InputStream in, AES aes) throws NullPointerException, IOException {
+        if (in == null || aes == null) {
+            throw new NullPointerException();
+        }
+        this.in = new DataInputStream(in);
+        this.aes = aes;
+        byte[] magic = new byte[EncryptedOutputStream.MAGIC.length];
+        this.in.readFully(magic);
+        if (!Arrays.equals(magic, EncryptedOutputStream.MAGIC)) {
+            throw new IOException("Invalid header");
+        }
+        if (this.in.readByte() != EncryptedOutputStream.VERSION) {
+            throw new IOException("Unsupported version");
+        }
+        chunkSize = this.in.readInt();
+        if (chunkSize <= 0) {
+            throw new IOException("Invalid chunk size");
+        }
+        buffer = new byte[0];
+        position = 0;
+        chunkIndex = 0;
+        finished = false;
+    }
+
+
+    /**
+     * Method tests whether the passed stream starts with the header of the encrypted format. The
+     * stream must support marking, and its position is not changed by this method.
+     *
+     * @param in                    Stream to test.
+     * @return                      Whether the stream starts with the header.
+     * @throws NullPointerException The passed stream is {@code null}.
+     * @throws IOException          The stream could not be read.
+     */
+    public static boolean hasHeader(InputStream in) throws NullPointerException, IOException {
+        if (in == null) {
+            throw new NullPointerException();
+        }
+        byte[] magic = new byte[EncryptedOutputStream.MAGIC.length];
+        in.mark(magic.length);
+        int read = 0;
+        try {
+            while (read < magic.length) {
+                int count = in.read(magic, read, magic.length - read);
+                if (count == -1) {
+                    return false;
+                }
+                read += count;
+            }
+        }
+        finally {
+            in.reset();
+        }
+        return Arrays.equals(magic, EncryptedOutputStream.MAGIC);
+    }
+
+
+    /**
+     * Method reads the next byte from the stream.
+     *
+     * @return              Next byte, or {@code -1} if the end of the stream is reached.
+     * @throws IOException  The next chunk could not be read or decrypted.
+     */
+    @Override
+    public int read() throws IOException {
+        if (!fillBuffer()) {
+            return -1;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    /**
+     * Method reads up to the specified number of bytes into the passed array.
+     *
+     * @param b             Array into which to read the bytes.
+     * @param off           Offset at which to start storing bytes.
+     * @param len           Maximum number of bytes to read.
+     * @return              Number of bytes read, or {@code -1} if the end of the stream is reached.
+     * @throws IOException  The next chunk could not be read or decrypted.
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (!fillBuffer()) {
+            return -1;
+        }
+        int count = Math.min(len, buffer.length - position);
+        System.arraycopy(buffer, position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    /**
+     * Method returns the number of bytes that can be read without decrypting another chunk.
+     *
+     * @return  Number of available bytes.
+     */
+    @Override
+    public int available() {
+        return buffer.length - position;
+    }
+
+    /**
+     * Method closes the underlying stream.
+     *
+     * @throws IOException  The stream could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        Arrays.fill(buffer, (byte)0);
+        in.close();
+    }
+
+
+    /**
+     * Method decrypts chunks until the {@link #buffer} contains unread bytes or the last chunk has
+     * been read.
+     *
+     * @return              Whether unread bytes are available.
+     * @throws IOException  The next chunk could not be read or decrypted.
+     */
+    private boolean fillBuffer() throws IOException {
+        while (position == buffer.length) {
+            if (finished) {
+                return false;
+            }
+            readChunk();
+        }
+        return true;
+    }
+
+    /**
+     * Method reads and decrypts the next chunk into the {@link #buffer}.
+     *
+     * @throws IOException  The chunk could not be read or decrypted.
+     */
+    private void readChunk() throws IOException {
+        byte flags;
+        int length;
+        byte[] encrypted;
+        try {
+            flags = in.readByte();
+            length = in.readInt();
+            if (length < CHUNK_OVERHEAD || length > chunkSize + CHUNK_OVERHEAD) {
+                throw new IOException("Invalid chunk length");
+            }
+            encrypted = new byte[length];
+            in.readFully(encrypted);
+        }
+        catch (EOFException e) {
+            throw new IOException("Stream truncated", e);
+        }
+        try {
+            Arrays.fill(buffer, (byte)0);
+            buffer = aes.decrypt(encrypted, 0, length, EncryptedOutputStream.generateAssociatedData(chunkIndex, flags));
+        }
+        catch (EncryptionException e) {
+            throw new IOException("Could not decrypt chunk: " + e.getMessage(), e);
+        }
+        position = 0;
+        chunkIndex++;
+        finished = (flags & EncryptedOutputStream.FLAG_LAST_CHUNK) != 0;
+    }
+
+}
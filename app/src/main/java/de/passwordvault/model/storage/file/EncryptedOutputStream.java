@@ -0,0 +1,286 @@
+package de.passwordvault.model.storage.file;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import de.passwordvault.model.storage.encryption.AES;
+import de.passwordvault.model.storage.encryption.EncryptionException;
+
+
+/**
+ * Class models an output stream which encrypts all written data in chunks before passing it to the
+ * underlying stream. Only a single chunk of plain data is kept in memory at any time.<br/>
+ * The written data is of the following format:<br/>
+ * ---------<br/>
+ * <code>
+ *     &lt;magic (4 bytes)&gt;&lt;version (1 byte)&gt;&lt;chunk size (4 bytes)&gt;<br/>
+ *     &lt;flags (1 byte)&gt;&lt;length (4 bytes)&gt;&lt;iv + cipher text&gt;<br/>
+ *     &lt;flags (1 byte)&gt;&lt;length (4 bytes)&gt;&lt;iv + cipher text&gt;<br/>
+ *     ...<br/>
+ * </code>
+ * ---------<br/>
+ * The index of every chunk and its flags are authenticated as associated data, so that chunks can
+ * neither be reordered nor removed. The last chunk is marked through {@link #FLAG_LAST_CHUNK}, so
+ * that a truncated stream can be detected. The last chunk is only written when the stream is closed.
+ * If the content cannot be completed, the stream must be closed through {@link #abort()} instead,
+ * so that the written data is never read as complete.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class EncryptedOutputStream extends OutputStream {
+
+    /**
+     * Field stores the magic bytes with which every encrypted stream starts. The first byte is no
+     * valid Base64-character, so that the format can be distinguished from the previous format.
+     */
+    static final byte[] MAGIC = {(byte)0x89, 'P', 'V', 'E'};
+
+    /**
+     * Field stores the version of the format.
+     */
+    static final byte VERSION = 1;
+
+    /**
+     * Field stores the flag that marks the last chunk of a stream.
+     */
+    static final byte FLAG_LAST_CHUNK = 0x01;
+
+    /**
+     * Field stores the default number of plain bytes within a chunk.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+
+    /**
+     * Attribute stores the stream to which the encrypted data is written.
+     */
+    private final DataOutputStream out;
+
+    /**
+     * Attribute stores the AES-instance used for encryption.
+     */
+    private final AES aes;
+
+    /**
+     * Attribute stores the plain bytes of the current chunk.
+     */
+    private final byte[] buffer;
+
+    /**
+     * Attribute stores the number of plain bytes within the {@link #buffer}.
+     */
+    private int position;
+
+    /**
+     * Attribute stores the index of the current chunk.
+     */
+    private long chunkIndex;
+
+    /**
+     * Attribute indicates whether the stream is closed.
+     */
+    private boolean closed;
+
+    /**
+     * Attribute indicates whether writing a chunk failed. In this case, the stream can only be
+     * aborted.
+     */
+    private boolean failed;
+
+
+    /**
+     * Constructor instantiates a new stream which writes data that is encrypted with the passed
+     * AES-instance to the passed stream. The header is written immediately.
+     *
+     * @param out                   Stream to which to write the encrypted data.
+     * @param aes                   AES-instance to use for encryption.
+     * @throws NullPointerException The passed stream or AES-instance is {@code null}.
+     * @throws IOException          The header could not be written.
+     */
+    public EncryptedOutputStream(OutputStream out, AES aes) throws NullPointerException, IOException {
+        this(out, aes, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructor instantiates a new stream which writes data that is encrypted with the passed
+     * AES-instance to the passed stream. The header is written immediately.
+     *
+     * @param out                       Stream to which to write the encrypted data.
+     * @param aes                       AES-instance to use for encryption.
+     * @param chunkSize                 Number of plain bytes per chunk.
+     * @throws NullPointerException     The passed stream or AES-instance is {@code null}.
+     * @throws IllegalArgumentException The passed chunk size is not positive.
+     * @throws IOException              The header could not be written.
+     */
+    public EncryptedOutputStream(OutputStream out, AES aes, int chunkSize) throws NullPointerException, IllegalArgumentException, IOException {
+        if (out == null || aes == null) {
+            throw new NullPointerException();
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.out = new DataOutputStream(out);
+        this.aes = aes;
+        buffer = new byte[chunkSize];
+        position = 0;
+        chunkIndex = 0;
+        closed = false;
+        failed = false;
+        this.out.write(MAGIC);
+        this.out.writeByte(VERSION);
+        this.out.writeInt(chunkSize);
+    }
+
+
+    /**
+     * Method writes the passed byte to the stream.
+     *
+     * @param b             Byte to write.
+     * @throws IOException  The byte could not be written.
+     */
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (position == buffer.length) {
+            writeChunk(false);
+        }
+        buffer[position++] = (byte)b;
+    }
+
+    /**
+     * Method writes the specified range of the passed array to the stream.
+     *
+     * @param b             Array containing the bytes to write.
+     * @param off           Offset of the first byte to write.
+     * @param len           Number of bytes to write.
+     * @throws IOException  The bytes could not be written.
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            if (position == buffer.length) {
+                writeChunk(false);
+            }
+            int count = Math.min(len, buffer.length - position);
+            System.arraycopy(b, off, buffer, position, count);
+            position += count;
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * Method flushes the underlying stream. Data of the current chunk is not written until the chunk
+     * is full or the stream is closed.
+     *
+     * @throws IOException  The stream could not be flushed.
+     */
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Method writes the last chunk and closes the underlying stream. If a previous chunk could not
+     * be written, the stream is aborted instead.
+     *
+     * @throws IOException  The last chunk could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        if (failed) {
+            abort();
+            throw new IOException("Stream is incomplete");
+        }
+        try {
+            writeChunk(true);
+            out.flush();
+        }
+        catch (IOException e) {
+            abort();
+            throw e;
+        }
+        closed = true;
+        Arrays.fill(buffer, (byte)0);
+        out.close();
+    }
+
+    /**
+     * Method closes the underlying stream without writing the last chunk, so that the written data
+     * is detected as truncated when it is read. This must be called instead of {@link #close()} if
+     * the content cannot be completed.
+     *
+     * @throws IOException  The underlying stream could not be closed.
+     */
+    public void abort() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        Arrays.fill(buffer, (byte)0);
+        out.close();
+    }
+
+
+    /**
+     * Method encrypts the current chunk and writes it to the underlying stream.
+     *
+     * @param last          Whether the chunk is the last chunk of the stream.
+     * @throws IOException  The chunk could not be encrypted or written.
+     */
+    private void writeChunk(boolean last) throws IOException {
+        //The stream cannot be continued if a chunk is only partially written:
+        failed = true;
+        byte flags = last ? FLAG_LAST_CHUNK : 0;
+        byte[] encrypted;
+        try {
+            encrypted = aes.encrypt(Arrays.copyOf(buffer, position), generateAssociatedData(chunkIndex, flags));
+        }
+        catch (EncryptionException e) {
+            throw new IOException("Could not encrypt chunk: " + e.getMessage(), e);
+        }
+        out.writeByte(flags);
+        out.writeInt(encrypted.length);
+        out.write(encrypted);
+        position = 0;
+        chunkIndex++;
+        failed = false;
+    }
+
+    /**
+     * Method throws an exception if the stream is closed or writing a previous chunk failed.
+     *
+     * @throws IOException  The stream is closed or incomplete.
+     */
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (failed) {
+            throw new IOException("Stream is incomplete");
+        }
+    }
+
+
+    /**
+     * Method generates the associated data which is authenticated alongside a chunk.
+     *
+     * @param chunkIndex    Index of the chunk.
+     * @param flags         Flags of the chunk.
+     * @return              Associated data for the chunk.
+     */
+    static byte[] generateAssociatedData(long chunkIndex, byte flags) {
+        return ByteBuffer.allocate(Long.BYTES + 1).putLong(chunkIndex).put(flags).array();
+    }
+
+}
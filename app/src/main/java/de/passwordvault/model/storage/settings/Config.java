@@ -20,7 +20,7 @@ import de.passwordvault.model.storage.settings.items.SwipeActionItem;
  * Class implements the configuration for the app.
  *
  * @author  Christian-2003
- * @version 3.7.2
+ * @version 3.7.4
  */
 public class Config implements ConfigSettingContract {
 
@@ -70,6 +70,42 @@ public class Config implements ConfigSettingContract {
      */
     public final BooleanItem openResourcesInBrowser = new BooleanItem(this, "open_resources_in_browser", false);
 
+    /**
+     * Setting indicates the maximum number of extended entries which are kept in memory after they
+     * were loaded from storage.
+     */
+    public final IntItem entryCacheMaxEntries = new IntItem(this, "entry_cache_max_entries", 64);
+
+    /**
+     * Setting indicates the maximum approximate number of bytes which the extended entries that are
+     * kept in memory may occupy.
+     */
+    public final LongItem entryCacheMaxWeight = new LongItem(this, "entry_cache_max_weight", 512 * 1024L);
+
+    /**
+     * Setting indicates whether the search also finds entries whose names, tags or detail names
+     * match the query with typos.
+     */
+    public final BooleanItem fuzzySearch = new BooleanItem(this, "fuzzy_search", true);
+
+    /**
+     * Setting indicates the number of threads with which entries are searched in parallel. If this
+     * is 0 or less, the number of available processors is used.
+     */
+    public final IntItem searchParallelism = new IntItem(this, "search_parallelism", 0);
+
+    /**
+     * Setting indicates the number of workers with which passwords are analyzed in parallel. If this
+     * is 0 or less, the number of available processors is used.
+     */
+    public final IntItem analysisParallelism = new IntItem(this, "analysis_parallelism", 0);
+
+    /**
+     * Setting indicates whether the password security analysis estimates the number of guesses
+     * needed to guess a password, instead of counting the passed quality gates.
+     */
+    public final BooleanItem entropyStrengthEstimation = new BooleanItem(this, "entropy_strength_estimation", false);
+
 
     /**
      * Attribute stores the singleton instance for the config.
@@ -125,7 +161,7 @@ public class Config implements ConfigSettingContract {
      *
      * @return  Singleton instance for the config.
      */
-    public static Config getInstance() {
+    public static synchronized Config getInstance() {
         if (singleton == null) {
             singleton = new Config();
         }
@@ -0,0 +1,1172 @@
+package de.passwordvault.model.storage.vault;
+
+import android.util.Log;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.BufferedInputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import de.passwordvault.App;
+import de.passwordvault.model.storage.app.StorageException;
+import de.passwordvault.model.storage.encryption.AES;
+import de.passwordvault.model.storage.encryption.EncryptionException;
+
+
+/**
+ * Class implements the vault store, which persists all records of the app within a single,
+ * segmented, append-only log. Every record is stored as an individually encrypted AES-GCM frame.
+ * An in-memory index maps the key of every record to the location of its most recent frame, so
+ * that loading a record requires a single seek. Dead frames (i.e. overwritten or deleted records)
+ * are removed through compaction in the background.
+ * The store is implemented using singleton-pattern, since multiple storage managers (e.g. of the
+ * app and the autofill service) must share the same index. The singleton-instance can be retrieved
+ * through {@link #getInstance()}.<br/>
+ * Every segment is of the following format:<br/>
+ * ---------<br/>
+ * <code>
+ *     &lt;magic (4 bytes)&gt;&lt;version (1 byte)&gt;<br/>
+ *     &lt;frame length (4 bytes)&gt;&lt;type (1 byte)&gt;&lt;key length (2 bytes)&gt;&lt;key&gt;&lt;iv + cipher text&gt;<br/>
+ *     &lt;frame length (4 bytes)&gt;&lt;type (1 byte)&gt;&lt;key length (2 bytes)&gt;&lt;key&gt;&lt;iv + cipher text&gt;<br/>
+ *     ...<br/>
+ * </code>
+ * ---------<br/>
+ * The type and key of a frame are stored in plain text (as were the previous file names), but are
+ * authenticated as associated data of the encrypted content.<br/>
+ * After a compaction, a checkpoint file stores the ID of the first segment that was written by the
+ * compaction. Segments with lower IDs are obsolete and are ignored (and deleted) when the index is
+ * built, so that deleted records cannot reappear if an obsolete segment could not be deleted.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class VaultStore {
+
+    /**
+     * Field stores the record type for abbreviated entries.
+     */
+    public static final byte TYPE_ABBREVIATED_ENTRY = 1;
+
+    /**
+     * Field stores the record type for extended entries.
+     */
+    public static final byte TYPE_EXTENDED_ENTRY = 2;
+
+    /**
+     * Field stores the record type for cached password analysis results of an entry.
+     */
+    public static final byte TYPE_PASSWORD_ANALYSIS = 3;
+
+    /**
+     * Field stores the record type for the UUIDs of the entries which are associated with a package.
+     */
+    public static final byte TYPE_PACKAGE_INDEX = 4;
+
+    /**
+     * Field stores the tag used for debugging messages.
+     */
+    private static final String TAG = "VaultStore";
+
+    /**
+     * Field stores the directory in which the segments are stored.
+     */
+    private static final String DIRECTORY = "vault";
+
+    /**
+     * Field stores the generic name of a segment file. To get the 'real' name for a segment,
+     * replace "{id}" within this string with the ID of the segment.
+     */
+    private static final String SEGMENT_FILE = "segment_{id}.log";
+
+    /**
+     * Field stores the name of the checkpoint file.
+     */
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    /**
+     * Field stores the suffix of the temporary file which is written before replacing the checkpoint.
+     */
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    /**
+     * Field stores the magic bytes with which every segment starts.
+     */
+    private static final byte[] MAGIC = {'P', 'V', 'L', 'G'};
+
+    /**
+     * Field stores the magic bytes with which the checkpoint starts.
+     */
+    private static final byte[] CHECKPOINT_MAGIC = {'P', 'V', 'C', 'P'};
+
+    /**
+     * Field stores the version of the segment format.
+     */
+    private static final byte VERSION = 1;
+
+    /**
+     * Field stores the length of the segment header.
+     */
+    private static final int SEGMENT_HEADER_LENGTH = MAGIC.length + 1;
+
+    /**
+     * Field stores the size (in bytes) after which a new segment is started.
+     */
+    private static final long MAX_SEGMENT_SIZE = 1024 * 1024;
+
+    /**
+     * Field stores the maximum length of a single frame. Larger lengths indicate a corrupted segment.
+     */
+    private static final int MAX_FRAME_LENGTH = 16 * 1024 * 1024;
+
+    /**
+     * Field stores the flag which is added to the type of a frame that deletes a record.
+     */
+    private static final byte FLAG_DELETED = (byte)0x80;
+
+    /**
+     * Field stores the number of dead bytes after which compaction is considered.
+     */
+    private static final long COMPACTION_MIN_DEAD_BYTES = 256 * 1024;
+
+    /**
+     * Field stores the singleton-instance of the vault store.
+     */
+    private static VaultStore singleton;
+
+
+    /**
+     * Attribute stores the directory in which the segments are stored.
+     */
+    private final File directory;
+
+    /**
+     * Attribute stores the index of the store. The index maps the type of a record (as index of the
+     * array) and the key of a record to the location of the most recent frame of the record.
+     */
+    private final HashMap<String, RecordPointer>[] index;
+
+    /**
+     * Attribute stores the IDs of all segments in ascending order. The last segment is the active
+     * segment to which new frames are appended.
+     */
+    private final ArrayList<Integer> segments;
+
+    /**
+     * Attribute stores the ID for the next segment that is created.
+     */
+    private int nextSegment;
+
+    /**
+     * Attribute indicates whether the last segment must not be appended to (e.g. because its header
+     * is invalid). In this case, a new segment is started with the next append.
+     */
+    private boolean activeSegmentSealed;
+
+    /**
+     * Attribute stores the readers for the segments, which are opened lazily.
+     */
+    private final HashMap<Integer, RandomAccessFile> readers;
+
+    /**
+     * Attribute stores the AES cipher used to encrypt and decrypt frames.
+     */
+    private final AES aes;
+
+    /**
+     * Attribute stores the total number of bytes of all segments.
+     */
+    private long totalBytes;
+
+    /**
+     * Attribute stores the number of bytes of all frames that are referenced by the {@link #index}.
+     */
+    private long liveBytes;
+
+    /**
+     * Attribute indicates whether a compaction is scheduled or running.
+     */
+    private boolean compactionScheduled;
+
+    /**
+     * Attribute stores the number of bytes that have been appended to the store (excluding
+     * compaction) since the store was instantiated.
+     */
+    private long bytesWritten;
+
+    /**
+     * Attribute stores the number of frames that have been appended to the store (excluding
+     * compaction) since the store was instantiated.
+     */
+    private long framesWritten;
+
+
+    /**
+     * Constructor instantiates a new vault store and builds the index from the segments on the
+     * filesystem.
+     */
+    private VaultStore() {
+        this(new File(App.getContext().getFilesDir(), DIRECTORY), new AES());
+    }
+
+    /**
+     * Constructor instantiates a new vault store for the segments within the passed directory, which
+     * are encrypted with the passed AES cipher, and builds the index.
+     *
+     * @param directory             Directory in which the segments are stored.
+     * @param aes                   AES cipher used to encrypt and decrypt frames.
+     * @throws NullPointerException The passed directory or cipher is {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    VaultStore(File directory, AES aes) throws NullPointerException {
+        if (directory == null || aes == null) {
+            throw new NullPointerException();
+        }
+        this.directory = directory;
+        index = new HashMap[TYPE_PACKAGE_INDEX + 1];
+        for (int i = 0; i < index.length; i++) {
+            index[i] = new HashMap<>();
+        }
+        segments = new ArrayList<>();
+        nextSegment = 0;
+        activeSegmentSealed = false;
+        readers = new HashMap<>();
+        this.aes = aes;
+        totalBytes = 0;
+        liveBytes = 0;
+        compactionScheduled = false;
+        bytesWritten = 0;
+        framesWritten = 0;
+        buildIndex();
+    }
+
+
+    /**
+     * Static method returns the singleton-instance of the vault store. The index is built when the
+     * singleton-instance is accessed for the first time.
+     *
+     * @return  Singleton-instance of the vault store.
+     */
+    public static synchronized VaultStore getInstance() {
+        if (singleton == null) {
+            singleton = new VaultStore();
+        }
+        return singleton;
+    }
+
+
+    /**
+     * Method tests whether a record of the passed type and key exists.
+     *
+     * @param type                  Type of the record.
+     * @param key                   Key of the record.
+     * @return                      Whether the record exists.
+     * @throws NullPointerException The passed key is {@code null}.
+     */
+    public synchronized boolean contains(byte type, String key) throws NullPointerException {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        return index[type].containsKey(key);
+    }
+
+
+    /**
+     * Method returns the keys of all records of the passed type.
+     *
+     * @param type  Type of the records whose keys to return.
+     * @return      List of keys.
+     */
+    public synchronized ArrayList<String> keys(byte type) {
+        return new ArrayList<>(index[type].keySet());
+    }
+
+
+    /**
+     * Method returns whether the store does not contain any records.
+     *
+     * @return  Whether the store is empty.
+     */
+    public synchronized boolean isEmpty() {
+        for (HashMap<String, RecordPointer> records : index) {
+            if (!records.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Method returns the number of bytes that have been written to the store since the app was
+     * started. Bytes written through compaction are not included.
+     *
+     * @return  Number of bytes written.
+     */
+    public synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Method returns the number of frames (i.e. records and deletions) that have been written to the
+     * store since the app was started. Frames written through compaction are not included.
+     *
+     * @return  Number of frames written.
+     */
+    public synchronized long getFramesWritten() {
+        return framesWritten;
+    }
+
+
+    /**
+     * Method reads and decrypts the content of the record of the passed type and key. If no record
+     * exists, {@code null} is returned.
+     *
+     * @param type                  Type of the record.
+     * @param key                   Key of the record.
+     * @return                      Decrypted content of the record.
+     * @throws NullPointerException The passed key is {@code null}.
+     * @throws EncryptionException  The record could not be decrypted.
+     * @throws StorageException     The record could not be read.
+     */
+    public String read(byte type, String key) throws NullPointerException, EncryptionException, StorageException {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        EncryptedRecord record;
+        synchronized (this) {
+            RecordPointer pointer = index[type].get(key);
+            if (pointer == null) {
+                return null;
+            }
+            record = readRecord(type, key, pointer);
+        }
+        return decrypt(record);
+    }
+
+
+    /**
+     * Method reads all records of the passed type without decrypting them. The frames are read in
+     * the order in which they are stored on the filesystem, so that the segments are read
+     * sequentially. The returned records can be decrypted (in parallel) through
+     * {@link #decrypt(EncryptedRecord)}.
+     *
+     * @param type              Type of the records to read.
+     * @return                  List of encrypted records.
+     * @throws StorageException The records could not be read.
+     */
+    public synchronized ArrayList<EncryptedRecord> readEncrypted(byte type) throws StorageException {
+        ArrayList<Map.Entry<String, RecordPointer>> pointers = new ArrayList<>(index[type].entrySet());
+        pointers.sort((a, b) -> {
+            if (a.getValue().segment != b.getValue().segment) {
+                return Integer.compare(a.getValue().segment, b.getValue().segment);
+            }
+            return Long.compare(a.getValue().offset, b.getValue().offset);
+        });
+        ArrayList<EncryptedRecord> records = new ArrayList<>(pointers.size());
+        for (Map.Entry<String, RecordPointer> pointer : pointers) {
+            records.add(readRecord(type, pointer.getKey(), pointer.getValue()));
+        }
+        return records;
+    }
+
+
+    /**
+     * Method decrypts the content of the passed record. This method may be called concurrently by
+     * multiple threads.
+     *
+     * @param record                Record to decrypt.
+     * @return                      Decrypted content of the record.
+     * @throws NullPointerException The passed record is {@code null}.
+     * @throws EncryptionException  The record could not be decrypted.
+     */
+    public String decrypt(EncryptedRecord record) throws NullPointerException, EncryptionException {
+        if (record == null) {
+            throw new NullPointerException();
+        }
+        byte[] associatedData = generateAssociatedData(record.type, record.key);
+        int contentOffset = Integer.BYTES + associatedData.length + Short.BYTES;
+        byte[] content = aes.decrypt(record.frame, contentOffset, record.frame.length - contentOffset, associatedData);
+        byte[] digest = digest(content);
+        synchronized (this) {
+            record.pointer.digest = digest;
+        }
+        return new String(content, StandardCharsets.UTF_8);
+    }
+
+
+    /**
+     * Method writes the passed content to the record of the passed type and key. If the record
+     * already exists with identical content, nothing is written.
+     *
+     * @param type                  Type of the record.
+     * @param key                   Key of the record.
+     * @param content               Content for the record.
+     * @throws NullPointerException The passed key or content is {@code null}.
+     * @throws EncryptionException  The content could not be encrypted.
+     * @throws StorageException     The record could not be written.
+     */
+    public void write(byte type, String key, String content) throws NullPointerException, EncryptionException, StorageException {
+        if (key == null || content == null) {
+            throw new NullPointerException();
+        }
+        HashMap<String, String> records = new HashMap<>();
+        records.put(key, content);
+        writeAll(type, records, false);
+    }
+
+
+    /**
+     * Method writes all passed records of the passed type within a single batch. Records whose
+     * content is identical to the stored content are skipped. If {@code replace} is {@code true},
+     * all records of the passed type that are not contained in the passed map are deleted.
+     *
+     * @param type                  Type of the records.
+     * @param records               Map of keys and contents of the records to write.
+     * @param replace               Whether records that are not passed shall be deleted.
+     * @throws NullPointerException The passed map is {@code null}.
+     * @throws EncryptionException  Some content could not be encrypted.
+     * @throws StorageException     The records could not be written.
+     */
+    public synchronized void writeAll(byte type, Map<String, String> records, boolean replace) throws NullPointerException, EncryptionException, StorageException {
+        if (records == null) {
+            throw new NullPointerException();
+        }
+        ArrayList<byte[]> frames = new ArrayList<>();
+        ArrayList<String> keys = new ArrayList<>();
+        ArrayList<byte[]> digests = new ArrayList<>();
+        for (Map.Entry<String, String> record : records.entrySet()) {
+            byte[] content = record.getValue().getBytes(StandardCharsets.UTF_8);
+            byte[] digest = digest(content);
+            RecordPointer pointer = index[type].get(record.getKey());
+            if (pointer != null && pointer.digest != null && MessageDigest.isEqual(pointer.digest, digest)) {
+                //Record is unchanged:
+                continue;
+            }
+            byte[] associatedData = generateAssociatedData(type, record.getKey());
+            frames.add(generateFrame(associatedData, aes.encrypt(content, associatedData)));
+            keys.add(record.getKey());
+            digests.add(digest);
+        }
+        if (replace) {
+            for (String key : index[type].keySet()) {
+                if (!records.containsKey(key)) {
+                    frames.add(generateFrame(generateAssociatedData((byte)(type | FLAG_DELETED), key), new byte[0]));
+                    keys.add(key);
+                    digests.add(null);
+                }
+            }
+        }
+        if (frames.isEmpty()) {
+            return;
+        }
+
+        long[] offsets = append(frames);
+
+        int segment = segments.get(segments.size() - 1);
+        for (int i = 0; i < frames.size(); i++) {
+            if (digests.get(i) == null) {
+                removeFromIndex(type, keys.get(i));
+            }
+            else {
+                RecordPointer pointer = new RecordPointer(segment, offsets[i], frames.get(i).length);
+                pointer.digest = digests.get(i);
+                putIntoIndex(type, keys.get(i), pointer);
+            }
+        }
+        scheduleCompactionIfNecessary();
+    }
+
+
+    /**
+     * Method writes all passed records of the passed type within a single batch, like
+     * {@link #writeAll(byte, Map, boolean)}, but only if a record of the passed owner type with the
+     * same key exists. The existence of the owning records is checked while holding the lock of the
+     * store, so that a record cannot be written after its owning record was deleted concurrently.
+     *
+     * @param type                  Type of the records.
+     * @param records               Map of keys and contents of the records to write.
+     * @param ownerType             Type of the records which must exist for the records to be written.
+     * @param replace               Whether records that are not written shall be deleted.
+     * @throws NullPointerException The passed map is {@code null}.
+     * @throws EncryptionException  Some content could not be encrypted.
+     * @throws StorageException     The records could not be written.
+     */
+    public synchronized void writeAllOwned(byte type, Map<String, String> records, byte ownerType, boolean replace) throws NullPointerException, EncryptionException, StorageException {
+        if (records == null) {
+            throw new NullPointerException();
+        }
+        HashMap<String, String> ownedRecords = new HashMap<>();
+        for (Map.Entry<String, String> record : records.entrySet()) {
+            if (index[ownerType].containsKey(record.getKey())) {
+                ownedRecords.put(record.getKey(), record.getValue());
+            }
+        }
+        writeAll(type, ownedRecords, replace);
+    }
+
+
+    /**
+     * Method deletes the record of the passed type and key.
+     *
+     * @param type                  Type of the record.
+     * @param key                   Key of the record.
+     * @return                      Whether the record existed and was deleted.
+     * @throws NullPointerException The passed key is {@code null}.
+     */
+    public synchronized boolean delete(byte type, String key) throws NullPointerException {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        if (!index[type].containsKey(key)) {
+            return false;
+        }
+        ArrayList<byte[]> frames = new ArrayList<>();
+        frames.add(generateFrame(generateAssociatedData((byte)(type | FLAG_DELETED), key), new byte[0]));
+        try {
+            append(frames);
+        }
+        catch (StorageException e) {
+            Log.w(TAG, "Could not delete record: " + e.getMessage());
+            return false;
+        }
+        removeFromIndex(type, key);
+        scheduleCompactionIfNecessary();
+        return true;
+    }
+
+
+    /**
+     * Method compacts the store. All frames that are referenced by the index are copied into new
+     * segments, afterwards a checkpoint marks all old segments as obsolete before they are deleted.
+     * Frames are copied as they are, i.e. without decrypting them.
+     *
+     * @throws StorageException The store could not be compacted. The store remains usable.
+     */
+    public synchronized void compact() throws StorageException {
+        if (segments.isEmpty()) {
+            return;
+        }
+        ArrayList<Integer> oldSegments = new ArrayList<>(segments);
+        int firstSegment = nextSegment;
+
+        //Sort all live frames by location to read the old segments sequentially:
+        ArrayList<RecordPointer> pointers = new ArrayList<>();
+        for (HashMap<String, RecordPointer> records : index) {
+            pointers.addAll(records.values());
+        }
+        Collections.sort(pointers, (a, b) -> a.segment != b.segment ? Integer.compare(a.segment, b.segment) : Long.compare(a.offset, b.offset));
+
+        ArrayList<Integer> newSegments = new ArrayList<>();
+        HashMap<RecordPointer, RecordPointer> relocated = new HashMap<>();
+        FileOutputStream output = null;
+        long position = 0;
+        try {
+            for (RecordPointer pointer : pointers) {
+                if (output == null || position + pointer.length > MAX_SEGMENT_SIZE) {
+                    closeAndSync(output);
+                    newSegments.add(nextSegment);
+                    output = new FileOutputStream(getSegmentFile(nextSegment++));
+                    output.write(generateSegmentHeader());
+                    position = SEGMENT_HEADER_LENGTH;
+                }
+                byte[] frame = new byte[pointer.length];
+                RandomAccessFile reader = getReader(pointer.segment);
+                reader.seek(pointer.offset);
+                reader.readFully(frame);
+                output.write(frame);
+                RecordPointer copy = new RecordPointer(newSegments.get(newSegments.size() - 1), position, pointer.length);
+                copy.digest = pointer.digest;
+                relocated.put(pointer, copy);
+                position += pointer.length;
+            }
+            closeAndSync(output);
+            output = null;
+            //Old segments are obsolete from now on:
+            writeCheckpoint(firstSegment);
+        }
+        catch (IOException e) {
+            //Remove partially written segments, old segments are still valid:
+            try {
+                closeAndSync(output);
+            }
+            catch (IOException ignored) {
+                //Ignore...
+            }
+            for (int segment : newSegments) {
+                getSegmentFile(segment).delete();
+            }
+            throw new StorageException("Could not compact vault: " + e.getMessage());
+        }
+
+        //Update index:
+        for (HashMap<String, RecordPointer> records : index) {
+            for (Map.Entry<String, RecordPointer> record : records.entrySet()) {
+                record.setValue(relocated.get(record.getValue()));
+            }
+        }
+        segments.clear();
+        segments.addAll(newSegments);
+        activeSegmentSealed = false;
+
+        //Delete old segments, which are ignored by the checkpoint if they cannot be deleted:
+        for (int segment : oldSegments) {
+            closeReader(segment);
+            if (!getSegmentFile(segment).delete()) {
+                Log.w(TAG, "Could not delete obsolete segment " + segment);
+            }
+        }
+        totalBytes = 0;
+        for (int segment : segments) {
+            totalBytes += getSegmentFile(segment).length();
+        }
+        liveBytes = 0;
+        for (RecordPointer pointer : relocated.values()) {
+            liveBytes += pointer.length;
+        }
+    }
+
+
+    /**
+     * Method schedules a compaction on the executor of the app if the number of dead bytes exceeds
+     * the number of live bytes.
+     */
+    private void scheduleCompactionIfNecessary() {
+        long deadBytes = totalBytes - liveBytes;
+        if (compactionScheduled || deadBytes < COMPACTION_MIN_DEAD_BYTES || deadBytes < liveBytes) {
+            return;
+        }
+        compactionScheduled = true;
+        App.getExecutor().execute(() -> {
+            synchronized (this) {
+                try {
+                    compact();
+                }
+                catch (StorageException e) {
+                    Log.w(TAG, e.getMessage());
+                }
+                compactionScheduled = false;
+            }
+        });
+    }
+
+
+    /**
+     * Method appends the passed frames to the active segment and synchronizes the segment with the
+     * filesystem. If the active segment exceeds {@link #MAX_SEGMENT_SIZE}, a new segment is started
+     * beforehand.
+     *
+     * @param frames            Frames to append.
+     * @return                  Offsets at which the frames were appended.
+     * @throws StorageException The frames could not be appended.
+     */
+    private long[] append(ArrayList<byte[]> frames) throws StorageException {
+        try {
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IOException("Cannot create directory");
+            }
+            if (segments.isEmpty() || activeSegmentSealed || getSegmentFile(segments.get(segments.size() - 1)).length() >= MAX_SEGMENT_SIZE) {
+                int segment = nextSegment++;
+                try (FileOutputStream output = new FileOutputStream(getSegmentFile(segment))) {
+                    output.write(generateSegmentHeader());
+                }
+                segments.add(segment);
+                activeSegmentSealed = false;
+                totalBytes += SEGMENT_HEADER_LENGTH;
+            }
+            File file = getSegmentFile(segments.get(segments.size() - 1));
+            long position = file.length();
+            long[] offsets = new long[frames.size()];
+            FileOutputStream output = new FileOutputStream(file, true);
+            try {
+                for (int i = 0; i < frames.size(); i++) {
+                    output.write(frames.get(i));
+                    offsets[i] = position;
+                    position += frames.get(i).length;
+                    totalBytes += frames.get(i).length;
+                    bytesWritten += frames.get(i).length;
+                }
+            }
+            finally {
+                closeAndSync(output);
+            }
+            framesWritten += frames.size();
+            return offsets;
+        }
+        catch (IOException e) {
+            throw new StorageException("Could not write to vault: " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * Method builds the index by scanning the headers of all frames of all segments. The content of
+     * the frames is not decrypted. Segments which are obsolete according to the checkpoint are
+     * deleted. A truncated frame at the end of the active segment (e.g. caused by a crash while
+     * writing) is removed. If the active segment cannot be repaired, a new segment is started with
+     * the next append.
+     */
+    private void buildIndex() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        int checkpoint = readCheckpoint();
+        nextSegment = checkpoint;
+        for (File file : files) {
+            String name = file.getName();
+            int prefix = SEGMENT_FILE.indexOf("{id}");
+            int suffix = SEGMENT_FILE.length() - prefix - "{id}".length();
+            if (name.length() <= prefix + suffix || !name.startsWith(SEGMENT_FILE.substring(0, prefix)) || !name.endsWith(SEGMENT_FILE.substring(prefix + "{id}".length()))) {
+                continue;
+            }
+            int segment;
+            try {
+                segment = Integer.parseInt(name.substring(prefix, name.length() - suffix));
+            }
+            catch (NumberFormatException e) {
+                //Ignore unknown files...
+                continue;
+            }
+            nextSegment = Math.max(nextSegment, segment + 1);
+            if (segment < checkpoint) {
+                //Segment was compacted, but could not be deleted:
+                if (!file.delete()) {
+                    Log.w(TAG, "Could not delete obsolete segment " + segment);
+                }
+                continue;
+            }
+            segments.add(segment);
+        }
+        Collections.sort(segments);
+
+        for (int i = 0; i < segments.size(); i++) {
+            int segment = segments.get(i);
+            long validLength = scanSegment(segment);
+            if (validLength < getSegmentFile(segment).length() && i == segments.size() - 1) {
+                if (validLength < SEGMENT_HEADER_LENGTH) {
+                    //Frames appended to the segment would be unreadable:
+                    Log.w(TAG, "Segment " + segment + " has an invalid header, starting a new segment");
+                    activeSegmentSealed = true;
+                }
+                else {
+                    Log.w(TAG, "Truncating corrupted tail of segment " + segment);
+                    try (RandomAccessFile file = new RandomAccessFile(getSegmentFile(segment), "rw")) {
+                        file.setLength(validLength);
+                    }
+                    catch (IOException e) {
+                        Log.w(TAG, "Could not truncate segment, starting a new segment: " + e.getMessage());
+                        activeSegmentSealed = true;
+                    }
+                }
+            }
+            totalBytes += getSegmentFile(segment).length();
+        }
+    }
+
+
+    /**
+     * Method reads the ID of the first segment that is not obsolete from the checkpoint. If no
+     * checkpoint exists, {@code 0} is returned.
+     *
+     * @return  ID of the first segment that is not obsolete.
+     */
+    private int readCheckpoint() {
+        File file = new File(directory, CHECKPOINT_FILE);
+        if (!file.exists()) {
+            return 0;
+        }
+        try (DataInputStream input = new DataInputStream(new FileInputStream(file))) {
+            byte[] magic = new byte[CHECKPOINT_MAGIC.length];
+            input.readFully(magic);
+            if (!Arrays.equals(magic, CHECKPOINT_MAGIC) || input.readByte() != VERSION) {
+                Log.w(TAG, "Checkpoint is invalid");
+                return 0;
+            }
+            return Math.max(input.readInt(), 0);
+        }
+        catch (IOException e) {
+            Log.w(TAG, "Could not read checkpoint: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Method writes the passed ID of the first segment that is not obsolete to the checkpoint. The
+     * checkpoint is replaced atomically by writing a temporary file which is renamed afterwards.
+     *
+     * @param firstSegment  ID of the first segment that is not obsolete.
+     * @throws IOException  The checkpoint could not be written.
+     */
+    private void writeCheckpoint(int firstSegment) throws IOException {
+        File file = new File(directory, CHECKPOINT_FILE);
+        File tempFile = new File(directory, CHECKPOINT_FILE + TEMP_FILE_SUFFIX);
+        ByteBuffer checkpoint = ByteBuffer.allocate(CHECKPOINT_MAGIC.length + 1 + Integer.BYTES);
+        checkpoint.put(CHECKPOINT_MAGIC);
+        checkpoint.put(VERSION);
+        checkpoint.putInt(firstSegment);
+        FileOutputStream output = new FileOutputStream(tempFile);
+        try {
+            output.write(checkpoint.array());
+        }
+        finally {
+            closeAndSync(output);
+        }
+        if (!tempFile.renameTo(file)) {
+            tempFile.delete();
+            throw new IOException("Cannot replace checkpoint");
+        }
+    }
+
+
+    /**
+     * Method scans the frame headers of the passed segment and updates the index accordingly.
+     *
+     * @param segment   ID of the segment to scan.
+     * @return          Number of bytes of the segment that contain valid frames.
+     */
+    private long scanSegment(int segment) {
+        File file = getSegmentFile(segment);
+        long position = 0;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            byte[] magic = new byte[MAGIC.length];
+            input.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC) || input.readByte() != VERSION) {
+                Log.w(TAG, "Segment " + segment + " has an invalid header");
+                return 0;
+            }
+            position = SEGMENT_HEADER_LENGTH;
+            long length = file.length();
+            while (position < length) {
+                int frameLength = input.readInt();
+                if (frameLength < Short.BYTES + 1 || frameLength > MAX_FRAME_LENGTH || position + Integer.BYTES + frameLength > length) {
+                    break;
+                }
+                byte type = input.readByte();
+                int keyLength = input.readUnsignedShort();
+                if (keyLength > frameLength - Short.BYTES - 1) {
+                    break;
+                }
+                byte[] key = new byte[keyLength];
+                input.readFully(key);
+                int contentLength = frameLength - 1 - Short.BYTES - keyLength;
+                if (input.skipBytes(contentLength) != contentLength) {
+                    break;
+                }
+
+                byte baseType = (byte)(type & ~FLAG_DELETED);
+                if (baseType <= 0 || baseType >= index.length) {
+                    //Unknown record type:
+                    position += Integer.BYTES + frameLength;
+                    continue;
+                }
+                String keyString = new String(key, StandardCharsets.UTF_8);
+                if ((type & FLAG_DELETED) != 0) {
+                    removeFromIndex(baseType, keyString);
+                }
+                else {
+                    putIntoIndex(baseType, keyString, new RecordPointer(segment, position, Integer.BYTES + frameLength));
+                }
+                position += Integer.BYTES + frameLength;
+            }
+        }
+        catch (EOFException e) {
+            //Truncated frame, return position of last valid frame.
+        }
+        catch (IOException e) {
+            Log.w(TAG, "Could not scan segment " + segment + ": " + e.getMessage());
+        }
+        return position;
+    }
+
+
+    /**
+     * Method adds the passed pointer to the index and updates the number of live bytes.
+     *
+     * @param type      Type of the record.
+     * @param key       Key of the record.
+     * @param pointer   Pointer to the frame of the record.
+     */
+    private void putIntoIndex(byte type, String key, RecordPointer pointer) {
+        RecordPointer previous = index[type].put(key, pointer);
+        if (previous != null) {
+            liveBytes -= previous.length;
+        }
+        liveBytes += pointer.length;
+    }
+
+    /**
+     * Method removes the record of the passed type and key from the index and updates the number
+     * of live bytes.
+     *
+     * @param type  Type of the record.
+     * @param key   Key of the record.
+     */
+    private void removeFromIndex(byte type, String key) {
+        RecordPointer previous = index[type].remove(key);
+        if (previous != null) {
+            liveBytes -= previous.length;
+        }
+    }
+
+
+    /**
+     * Method reads the frame of the passed record pointer.
+     *
+     * @param type              Type of the record.
+     * @param key               Key of the record.
+     * @param pointer           Pointer to the frame of the record.
+     * @return                  Encrypted record.
+     * @throws StorageException The frame could not be read.
+     */
+    private EncryptedRecord readRecord(byte type, String key, RecordPointer pointer) throws StorageException {
+        byte[] frame = new byte[pointer.length];
+        try {
+            RandomAccessFile reader = getReader(pointer.segment);
+            reader.seek(pointer.offset);
+            reader.readFully(frame);
+        }
+        catch (IOException e) {
+            throw new StorageException("Could not read record: " + e.getMessage());
+        }
+        return new EncryptedRecord(type, key, frame, pointer);
+    }
+
+
+    /**
+     * Method returns the reader for the passed segment. The reader is opened if necessary.
+     *
+     * @param segment       ID of the segment.
+     * @return              Reader for the segment.
+     * @throws IOException  The segment could not be opened.
+     */
+    private RandomAccessFile getReader(int segment) throws IOException {
+        RandomAccessFile reader = readers.get(segment);
+        if (reader == null) {
+            reader = new RandomAccessFile(getSegmentFile(segment), "r");
+            readers.put(segment, reader);
+        }
+        return reader;
+    }
+
+    /**
+     * Method closes the reader of the passed segment, if it is opened.
+     *
+     * @param segment   ID of the segment.
+     */
+    private void closeReader(int segment) {
+        RandomAccessFile reader = readers.remove(segment);
+        if (reader != null) {
+            try {
+                reader.close();
+            }
+            catch (IOException e) {
+                //Ignore...
+            }
+        }
+    }
+
+
+    /**
+     * Method returns the file of the passed segment.
+     *
+     * @param segment   ID of the segment.
+     * @return          File of the segment.
+     */
+    private File getSegmentFile(int segment) {
+        return new File(directory, SEGMENT_FILE.replace("{id}", Integer.toString(segment)));
+    }
+
+
+    /**
+     * Method generates the header with which every segment starts.
+     *
+     * @return  Segment header.
+     */
+    private static byte[] generateSegmentHeader() {
+        byte[] header = new byte[SEGMENT_HEADER_LENGTH];
+        System.arraycopy(MAGIC, 0, header, 0, MAGIC.length);
+        header[MAGIC.length] = VERSION;
+        return header;
+    }
+
+    /**
+     * Method generates the associated data for a frame, which consists of the type of the frame
+     * followed by the UTF-8 encoded key.
+     *
+     * @param type  Type of the frame.
+     * @param key   Key of the record.
+     * @return      Associated data.
+     */
+    private static byte[] generateAssociatedData(byte type, String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] associatedData = new byte[keyBytes.length + 1];
+        associatedData[0] = type;
+        System.arraycopy(keyBytes, 0, associatedData, 1, keyBytes.length);
+        return associatedData;
+    }
+
+    /**
+     * Method generates a frame from the passed associated data (i.e. type and key) and encrypted
+     * content.
+     *
+     * @param associatedData    Associated data generated through {@link #generateAssociatedData(byte, String)}.
+     * @param content           Encrypted content.
+     * @return                  Generated frame.
+     */
+    private static byte[] generateFrame(byte[] associatedData, byte[] content) {
+        int keyLength = associatedData.length - 1;
+        int frameLength = 1 + Short.BYTES + keyLength + content.length;
+        ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + frameLength);
+        frame.putInt(frameLength);
+        frame.put(associatedData[0]);
+        frame.putShort((short)keyLength);
+        frame.put(associatedData, 1, keyLength);
+        frame.put(content);
+        return frame.array();
+    }
+
+    /**
+     * Method generates a digest of the passed content, which is used to detect unchanged records.
+     * If no digest can be generated, {@code null} is returned.
+     *
+     * @param content   Content whose digest to generate.
+     * @return          Digest of the content.
+     */
+    private static byte[] digest(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        }
+        catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Method flushes the passed output stream to the filesystem and closes it.
+     *
+     * @param output        Output stream to close. Pass {@code null} to do nothing.
+     * @throws IOException  The stream could not be synchronized or closed.
+     */
+    private static void closeAndSync(FileOutputStream output) throws IOException {
+        if (output == null) {
+            return;
+        }
+        try {
+            output.flush();
+            output.getFD().sync();
+        }
+        finally {
+            output.close();
+        }
+    }
+
+
+    /**
+     * Class models a record whose frame has been read from the filesystem, but not yet decrypted.
+     */
+    public static class EncryptedRecord {
+
+        /**
+         * Attribute stores the type of the record.
+         */
+        private final byte type;
+
+        /**
+         * Attribute stores the key of the record.
+         */
+        private final String key;
+
+        /**
+         * Attribute stores the frame of the record.
+         */
+        private final byte[] frame;
+
+        /**
+         * Attribute stores the pointer to the frame within the index.
+         */
+        private final RecordPointer pointer;
+
+
+        /**
+         * Constructor instantiates a new encrypted record.
+         *
+         * @param type      Type of the record.
+         * @param key       Key of the record.
+         * @param frame     Frame of the record.
+         * @param pointer   Pointer to the frame within the index.
+         */
+        private EncryptedRecord(byte type, String key, byte[] frame, RecordPointer pointer) {
+            this.type = type;
+            this.key = key;
+            this.frame = frame;
+            this.pointer = pointer;
+        }
+
+
+        /**
+         * Method returns the key of the record.
+         *
+         * @return  Key of the record.
+         */
+        public String getKey() {
+            return key;
+        }
+
+    }
+
+
+    /**
+     * Class models a pointer to the most recent frame of a record.
+     */
+    private static class RecordPointer {
+
+        /**
+         * Attribute stores the ID of the segment containing the frame.
+         */
+        private final int segment;
+
+        /**
+         * Attribute stores the offset of the frame within the segment.
+         */
+        private final long offset;
+
+        /**
+         * Attribute stores the length of the frame (including the frame length).
+         */
+        private final int length;
+
+        /**
+         * Attribute stores the digest of the decrypted content of the frame. This is {@code null}
+         * until the content is read or written for the first time.
+         */
+        private byte[] digest;
+
+
+        /**
+         * Constructor instantiates a new record pointer.
+         *
+         * @param segment   ID of the segment containing the frame.
+         * @param offset    Offset of the frame within the segment.
+         * @param length    Length of the frame.
+         */
+        private RecordPointer(int segment, long offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            digest = null;
+        }
+
+    }
+
+}
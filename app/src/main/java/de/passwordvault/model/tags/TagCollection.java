@@ -2,14 +2,14 @@ package de.passwordvault.model.tags;
 
 import java.util.ArrayList;
 import de.passwordvault.model.storage.csv.CsvBuilder;
-import de.passwordvault.model.storage.csv.CsvParser;
+import de.passwordvault.model.storage.csv.CsvCursor;
 
 
 /**
  * Class models a tag collection which contains any number of {@link Tag}-instances.
  *
  * @author  Christian-2003
- * @version 3.3.0
+ * @version 3.7.4
  */
 public class TagCollection extends ArrayList<Tag> {
 
@@ -41,14 +41,14 @@ public class TagCollection extends ArrayList<Tag> {
      * @param csv                   CSV to be converted into this collection.
      * @throws NullPointerException The passed CSV is {@code null}.
      */
-    public TagCollection(String csv) throws NullPointerException {
+    public TagCollection(CharSequence csv) throws NullPointerException {
         super();
         if (csv == null) {
             throw new NullPointerException();
         }
-        CsvParser parser = new CsvParser(csv);
-        ArrayList<String> tagUuids = parser.parseCsv();
-        for (String uuid : tagUuids) {
+        CsvCursor cursor = new CsvCursor(csv);
+        while (cursor.hasNext()) {
+            String uuid = cursor.nextString();
             if (uuid == null || uuid.isEmpty()) {
                 continue;
             }
@@ -22,7 +22,7 @@ import de.passwordvault.model.storage.csv.CsvParser;
  * shared preferences. Tags must be saved manually through {@link #save()}.
  *
  * @author  Christian-2003
- * @version 3.5.4
+ * @version 3.7.4
  */
 public class TagManager extends GenericManager<Tag> implements PersistableManager {
 
@@ -186,6 +186,7 @@ public class TagManager extends GenericManager<Tag> implements PersistableManage
             for (EntryExtended entry : EntryManager.getInstance().getExtendedEntryCache()) {
                 entry.getTags().removeIf(tag -> tag.equals(deleteTag));
             }
+            EntryManager.getInstance().notifyAbbreviatedEntriesChanged();
         });
         deleteThread.start();
     }
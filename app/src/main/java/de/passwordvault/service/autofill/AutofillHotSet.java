@@ -0,0 +1,278 @@
+package de.passwordvault.service.autofill;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import de.passwordvault.model.entry.EntryAbbreviated;
+import de.passwordvault.model.packages.Package;
+import de.passwordvault.service.autofill.caching.ContentCache;
+import de.passwordvault.service.autofill.caching.ContentCacheItem;
+import de.passwordvault.service.autofill.caching.InvalidationCache;
+import de.passwordvault.service.autofill.caching.MappingCache;
+import de.passwordvault.service.autofill.caching.MappingCacheItem;
+import de.passwordvault.service.autofill.caching.UsageCache;
+
+
+/**
+ * Class implements the hot set of the autofill service, which keeps the decrypted user data of the
+ * {@link #MAX_PACKAGES} most frequently filled packages in memory, so that fill requests for these
+ * packages are answered without accessing any cache or the storage. The number of fills per package
+ * is stored within the {@link UsageCache}. The user data of a package is kept for at most
+ * {@link #TIME_TO_LIVE} milliseconds after it has been decrypted, and is never written to the
+ * filesystem. User data of packages whose entries were invalidated, changed or removed is discarded
+ * (see {@link #invalidate(String)} and {@link #invalidate(EntryAbbreviated)}). The class is
+ * implemented using singleton-pattern. The singleton-instance can be retrieved through
+ * {@link #getInstance()}.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class AutofillHotSet {
+
+    /**
+     * Field stores the maximum number of packages within the hot set.
+     */
+    public static final int MAX_PACKAGES = 8;
+
+    /**
+     * Field stores the time in milliseconds for which the user data of a package is kept.
+     */
+    public static final long TIME_TO_LIVE = 5 * 60 * 1000;
+
+
+    /**
+     * Class models a package within the hot set.
+     */
+    private static class HotPackage {
+
+        /**
+         * Attribute stores the decrypted user data of the package.
+         */
+        private final ArrayList<UserData> userData;
+
+        /**
+         * Attribute stores the time (see {@link System#nanoTime()}) at which the package expires.
+         */
+        private final long expiresAt;
+
+
+        /**
+         * Constructor instantiates a new package for the hot set, which expires after
+         * {@link #TIME_TO_LIVE} milliseconds.
+         *
+         * @param userData  Decrypted user data of the package.
+         */
+        private HotPackage(ArrayList<UserData> userData) {
+            this.userData = userData;
+            expiresAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIME_TO_LIVE);
+        }
+
+
+        /**
+         * Method returns whether the package is expired at the passed time.
+         *
+         * @param now   Current time (see {@link System#nanoTime()}).
+         * @return      Whether the package is expired.
+         */
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+
+    }
+
+
+    /**
+     * Field stores the singleton-instance of the hot set.
+     */
+    private static AutofillHotSet singleton;
+
+
+    /**
+     * Attribute stores the packages of the hot set, mapped to their package names.
+     */
+    private final LinkedHashMap<String, HotPackage> packages;
+
+
+    /**
+     * Constructor instantiates a new hot set.
+     */
+    private AutofillHotSet() {
+        packages = new LinkedHashMap<>();
+    }
+
+
+    /**
+     * Static method returns the {@link #singleton}-instance of the hot set.
+     *
+     * @return  Singleton-instance of the hot set.
+     */
+    public static synchronized AutofillHotSet getInstance() {
+        if (singleton == null) {
+            singleton = new AutofillHotSet();
+        }
+        return singleton;
+    }
+
+
+    /**
+     * Method returns the user data for the package with the passed name from the hot set. If the
+     * package is not within the hot set, is expired, or one of its entries was invalidated,
+     * {@code null} is returned.
+     *
+     * @param packageName           Name of the package whose user data to return.
+     * @return                      User data for the package.
+     * @throws NullPointerException The passed package name is {@code null}.
+     */
+    public synchronized ArrayList<UserData> getUserData(String packageName) throws NullPointerException {
+        if (packageName == null) {
+            throw new NullPointerException();
+        }
+        removeExpiredPackages();
+        HotPackage hotPackage = packages.get(packageName);
+        if (hotPackage == null) {
+            return null;
+        }
+        for (UserData data : hotPackage.userData) {
+            if (InvalidationCache.getInstance().getItem(data.getEntryUuid()) != null) {
+                packages.remove(packageName);
+                return null;
+            }
+        }
+        return new ArrayList<>(hotPackage.userData);
+    }
+
+
+    /**
+     * Method records that the passed user data has been filled in for the package with the passed
+     * name. This must only be called for fill responses which actually contain datasets. If the
+     * package is one of the {@link #MAX_PACKAGES} most frequently filled packages, the user data is
+     * added to the hot set.
+     *
+     * @param packageName           Name of the package that was filled.
+     * @param userData              User data that was filled in.
+     * @throws NullPointerException The passed package name or user data is {@code null}.
+     */
+    public void recordFill(String packageName, ArrayList<UserData> userData) throws NullPointerException {
+        if (packageName == null || userData == null) {
+            throw new NullPointerException();
+        }
+        if (userData.isEmpty()) {
+            return;
+        }
+        UsageCache.getInstance().incrementFills(packageName);
+        UsageCache.getInstance().save();
+        ArrayList<String> mostFrequentPackages = UsageCache.getInstance().getMostFrequentPackages(MAX_PACKAGES);
+        synchronized (this) {
+            removeExpiredPackages();
+            packages.keySet().retainAll(mostFrequentPackages);
+            if (mostFrequentPackages.contains(packageName) && !packages.containsKey(packageName)) {
+                packages.put(packageName, new HotPackage(new ArrayList<>(userData)));
+            }
+        }
+    }
+
+
+    /**
+     * Method removes all packages from the hot set whose user data contains the entry with the passed
+     * UUID. This is called whenever an entry is removed, so that its credentials are not filled in
+     * anymore.
+     *
+     * @param entryUuid             UUID of the entry that was removed.
+     * @throws NullPointerException The passed UUID is {@code null}.
+     */
+    public synchronized void invalidate(String entryUuid) throws NullPointerException {
+        if (entryUuid == null) {
+            throw new NullPointerException();
+        }
+        Iterator<HotPackage> iterator = packages.values().iterator();
+        while (iterator.hasNext()) {
+            for (UserData data : iterator.next().userData) {
+                if (entryUuid.equals(data.getEntryUuid())) {
+                    iterator.remove();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Method removes all packages from the hot set whose user data contains the passed entry, as well
+     * as all packages to which the passed entry is assigned. This is called whenever an entry is added
+     * or changed, so that no outdated credentials are filled in.
+     *
+     * @param entry                 Entry that was added or changed.
+     * @throws NullPointerException The passed entry is {@code null}.
+     */
+    public synchronized void invalidate(EntryAbbreviated entry) throws NullPointerException {
+        invalidate(entry.getUuid());
+        if (entry.getPackages() != null) {
+            for (Package p : entry.getPackages()) {
+                packages.remove(p.getPackageName());
+            }
+        }
+    }
+
+
+    /**
+     * Method adds the user data of the most frequently filled packages to the hot set. The credentials
+     * of all entries are decrypted from the {@link ContentCache}. Packages for which any entry is
+     * invalidated or not cached are skipped, since their user data must be fetched from the storage.
+     */
+    public void warmUp() {
+        for (String packageName : UsageCache.getInstance().getMostFrequentPackages(MAX_PACKAGES)) {
+            synchronized (this) {
+                if (packages.containsKey(packageName)) {
+                    continue;
+                }
+            }
+            MappingCacheItem mappingCacheItem = (MappingCacheItem)MappingCache.getInstance().getItem(packageName);
+            if (mappingCacheItem == null) {
+                continue;
+            }
+            String[] uuids = mappingCacheItem.getUuids();
+            ArrayList<String> validUuids = new ArrayList<>(uuids.length);
+            for (String uuid : uuids) {
+                if (InvalidationCache.getInstance().getItem(uuid) == null) {
+                    validUuids.add(uuid);
+                }
+            }
+            HashMap<String, ContentCacheItem> contentCacheItems = ContentCache.getInstance().getDecryptedItems(validUuids);
+            if (contentCacheItems.size() != uuids.length) {
+                continue;
+            }
+            ArrayList<UserData> userData = new ArrayList<>(uuids.length);
+            for (String uuid : uuids) {
+                ContentCacheItem contentCacheItem = contentCacheItems.get(uuid);
+                userData.add(new UserData(contentCacheItem.getEntryName(), contentCacheItem.getIdentifier(), contentCacheItem.getUsername(), contentCacheItem.getPassword()));
+            }
+            synchronized (this) {
+                packages.put(packageName, new HotPackage(userData));
+            }
+        }
+    }
+
+
+    /**
+     * Method removes all packages from the hot set.
+     */
+    public synchronized void clear() {
+        packages.clear();
+    }
+
+
+    /**
+     * Method removes all expired packages from the hot set.
+     */
+    private void removeExpiredPackages() {
+        long now = System.nanoTime();
+        Iterator<HotPackage> iterator = packages.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isExpired(now)) {
+                iterator.remove();
+            }
+        }
+    }
+
+}
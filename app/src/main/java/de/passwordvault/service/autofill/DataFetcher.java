@@ -1,20 +1,21 @@
 package de.passwordvault.service.autofill;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import de.passwordvault.model.detail.Detail;
 import de.passwordvault.model.detail.DetailType;
 import de.passwordvault.model.entry.EntryAbbreviated;
 import de.passwordvault.model.entry.EntryExtended;
-import de.passwordvault.model.packages.Package;
+import de.passwordvault.model.packages.PackageIndex;
 import de.passwordvault.model.storage.app.StorageManager;
 
 
 /**
- * Class models a data fetcher which can fetch user data from the internal storage.
+ * Class models a data fetcher which can fetch user data from the internal storage. The entries of a
+ * package are found through the {@link PackageIndex}, so that only the entries which are assigned
+ * to the package are loaded and decrypted.
  *
  * @author  Christian-2003
- * @version 3.5.0
+ * @version 3.7.4
  */
 public class DataFetcher {
 
@@ -23,23 +24,12 @@ public class DataFetcher {
      */
     private final StorageManager manager;
 
-    /**
-     * Attribute stores the entries that were loaded from storage.
-     */
-    private HashMap<String, EntryAbbreviated> entries;
-
 
     /**
-     * Constructor instantiates a new data fetcher and automatically loads the abbreviated entries.
+     * Constructor instantiates a new data fetcher.
      */
     public DataFetcher() {
         manager = new StorageManager();
-        try {
-            entries = manager.loadAbbreviatedEntries();
-        }
-        catch (Exception e) {
-            entries = new HashMap<>();
-        }
     }
 
 
@@ -51,19 +41,10 @@ public class DataFetcher {
      */
     public ArrayList<UserData> fetchUserDataForPackage(String packageName) {
         ArrayList<UserData> fetchedData = new ArrayList<>();
-        for (EntryAbbreviated abbreviated : entries.values()) {
-            for (Package p : abbreviated.getPackages()) {
-                if (p.getPackageName().equals(packageName)) {
-                    //Found entry:
-                    EntryExtended extended;
-                    try {
-                        extended = manager.loadExtendedEntry(abbreviated);
-                        fetchedData.add(generateUserDataForEntry(extended));
-                    }
-                    catch (Exception e) {
-                        //Ignore...
-                    }
-                }
+        for (String uuid : PackageIndex.getInstance().getEntryUuids(packageName)) {
+            UserData data = fetchUserDataForUuid(uuid);
+            if (data != null) {
+                fetchedData.add(data);
             }
         }
         return fetchedData;
@@ -81,16 +62,18 @@ public class DataFetcher {
         if (uuid == null) {
             throw new NullPointerException();
         }
-        if (entries.containsKey(uuid)) {
-            EntryExtended extended;
-            try {
-                extended = manager.loadExtendedEntry(entries.get(uuid));
-                return generateUserDataForEntry(extended);
-            }
-            catch (Exception e) {
-                //Ignore...
+        try {
+            EntryAbbreviated abbreviated = manager.loadAbbreviatedEntry(uuid);
+            if (abbreviated != null) {
+                EntryExtended extended = manager.loadExtendedEntry(abbreviated);
+                if (extended != null) {
+                    return generateUserDataForEntry(extended);
+                }
             }
         }
+        catch (Exception e) {
+            //Ignore...
+        }
         return null;
     }
 
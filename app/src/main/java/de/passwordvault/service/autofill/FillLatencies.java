@@ -0,0 +1,124 @@
+package de.passwordvault.service.autofill;
+
+import java.util.Arrays;
+
+
+/**
+ * Class records the latencies of the most recent fill requests, so that their percentiles can be
+ * verified. The class is implemented using singleton-pattern. The singleton-instance can be
+ * retrieved through {@link #getInstance()}.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class FillLatencies {
+
+    /**
+     * Field stores the number of most recent latencies that are recorded.
+     */
+    private static final int CAPACITY = 256;
+
+
+    /**
+     * Field stores the singleton-instance of the latencies.
+     */
+    private static FillLatencies singleton;
+
+
+    /**
+     * Attribute stores the recorded latencies in nanoseconds as ring buffer.
+     */
+    private final long[] latencies;
+
+    /**
+     * Attribute stores the total number of recorded latencies.
+     */
+    private long count;
+
+
+    /**
+     * Constructor instantiates new latencies.
+     */
+    private FillLatencies() {
+        latencies = new long[CAPACITY];
+        count = 0;
+    }
+
+
+    /**
+     * Static method returns the {@link #singleton}-instance of the latencies.
+     *
+     * @return  Singleton-instance of the latencies.
+     */
+    public static synchronized FillLatencies getInstance() {
+        if (singleton == null) {
+            singleton = new FillLatencies();
+        }
+        return singleton;
+    }
+
+
+    /**
+     * Method records the passed latency of a fill request.
+     *
+     * @param nanos Latency in nanoseconds.
+     */
+    public synchronized void record(long nanos) {
+        latencies[(int)(count % CAPACITY)] = nanos;
+        count++;
+    }
+
+
+    /**
+     * Method returns the total number of recorded fill requests.
+     *
+     * @return  Number of recorded fill requests.
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Method returns the median latency of the most recent fill requests in nanoseconds. If no
+     * latency has been recorded, {@code 0} is returned.
+     *
+     * @return  Median latency in nanoseconds.
+     */
+    public long getP50() {
+        return getPercentile(50);
+    }
+
+    /**
+     * Method returns the 99th percentile of the latencies of the most recent fill requests in
+     * nanoseconds. If no latency has been recorded, {@code 0} is returned.
+     *
+     * @return  99th percentile of the latencies in nanoseconds.
+     */
+    public long getP99() {
+        return getPercentile(99);
+    }
+
+    /**
+     * Method returns the passed percentile of the latencies of the most recent fill requests in
+     * nanoseconds, using the nearest-rank method. If no latency has been recorded, {@code 0} is
+     * returned.
+     *
+     * @param percentile                Percentile between {@code 1} and {@code 100}.
+     * @return                          Percentile of the latencies in nanoseconds.
+     * @throws IllegalArgumentException The passed percentile is out of bounds.
+     */
+    public synchronized long getPercentile(int percentile) throws IllegalArgumentException {
+        if (percentile < 1 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile out of bounds: " + percentile);
+        }
+        int size = (int)Math.min(count, CAPACITY);
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(latencies, size);
+        Arrays.sort(sorted);
+        int rank = (int)Math.ceil(percentile / 100.0 * size);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+}
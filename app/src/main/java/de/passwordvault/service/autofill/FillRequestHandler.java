@@ -19,6 +19,7 @@ import android.view.autofill.AutofillId;
 import android.view.autofill.AutofillValue;
 import android.widget.RemoteViews;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import de.passwordvault.App;
 import de.passwordvault.R;
@@ -39,7 +40,7 @@ import de.passwordvault.view.authentication.activity_autofill_authentication.Aut
  * Class models a handler which can handle an autofill request to fill in some remote view.
  *
  * @author  Christian-2003
- * @version 3.5.4
+ * @version 3.7.4
  */
 public class FillRequestHandler {
 
@@ -87,81 +88,112 @@ public class FillRequestHandler {
 
         ParsedStructure parsedStructure = parseStructure(structure);
 
+        String packageName = parsedStructure.getPackageName();
         ArrayList<UserData> userData;
         if (Config.getInstance().useAutofillCaching.get()) {
             //Use caching:
-            MappingCacheItem mappingCacheItem = (MappingCacheItem)MappingCache.getInstance().getItem(parsedStructure.getPackageName());
-            if (mappingCacheItem == null) {
-                userData = fetcher.fetchUserDataForPackage(parsedStructure.getPackageName());
-                if (!userData.isEmpty()) {
-                    String[] uuids = new String[userData.size()];
-                    for (int i = 0; i < userData.size(); i++) {
-                        uuids[i] = userData.get(i).getEntryUuid();
-                    }
-                    MappingCache.getInstance().putItem(new MappingCacheItem(parsedStructure.getPackageName(), uuids));
-                    for (UserData item : userData) {
-                        ContentCache.getInstance().putItem(new ContentCacheItem(item.getEntryUuid(), item.getUsername(), item.getPassword(), item.getEntryName()));
-                    }
-                    MappingCache.getInstance().save();
-                    ContentCache.getInstance().save();
+            userData = AutofillHotSet.getInstance().getUserData(packageName);
+            if (userData == null) {
+                userData = fetchCachedUserData(packageName);
+            }
+        }
+        else {
+            //Do not use caching:
+            userData = fetcher.fetchUserDataForPackage(packageName);
+        }
+
+        try {
+            FillResponse response = generateBuildResponse(userData, parsedStructure);
+            callback.onSuccess(response);
+            if (Config.getInstance().useAutofillCaching.get() && containsDataset(userData)) {
+                //Only responses with datasets are recorded as fills:
+                AutofillHotSet.getInstance().recordFill(packageName, userData);
+            }
+        }
+        catch (Exception e) {
+            Log.d("FillRequest", "Request cancelled: " + e.getMessage());
+            callback.onFailure(e.getMessage());
+        }
+    }
+
+
+    /**
+     * Method fetches the user data for the package with the passed name through the autofill caches.
+     * Data which is not cached or invalidated is fetched from the storage, and the caches are updated
+     * accordingly.
+     *
+     * @param packageName   Name of the package for which to fetch the user data.
+     * @return              List of fetched user data.
+     */
+    private ArrayList<UserData> fetchCachedUserData(String packageName) {
+        ArrayList<UserData> userData;
+        MappingCacheItem mappingCacheItem = (MappingCacheItem)MappingCache.getInstance().getItem(packageName);
+        if (mappingCacheItem == null) {
+            userData = fetcher.fetchUserDataForPackage(packageName);
+            if (!userData.isEmpty()) {
+                String[] uuids = new String[userData.size()];
+                for (int i = 0; i < userData.size(); i++) {
+                    uuids[i] = userData.get(i).getEntryUuid();
                 }
+                MappingCache.getInstance().putItem(new MappingCacheItem(packageName, uuids));
+                for (UserData item : userData) {
+                    ContentCache.getInstance().putItem(new ContentCacheItem(item.getEntryUuid(), item.getUsername(), item.getPassword(), item.getEntryName()));
+                }
+                MappingCache.getInstance().save();
+                ContentCache.getInstance().save();
             }
-            else {
-                userData = new ArrayList<>();
-                String[] uuids = mappingCacheItem.getUuids();
-                for (String uuid : uuids) {
-                    InvalidationCacheItem invalidationCacheItem = (InvalidationCacheItem)InvalidationCache.getInstance().getItem(uuid);
-                    if (invalidationCacheItem == null) {
-                        ContentCacheItem contentCacheItem = (ContentCacheItem)ContentCache.getInstance().getItem(uuid);
-                        if (contentCacheItem == null) {
-                            UserData data = fetcher.fetchUserDataForUuid(uuid);
-                            if (data == null) {
-                                mappingCacheItem.removeUuid(uuid);
-                                MappingCache.getInstance().putItem(mappingCacheItem);
-                            }
-                            else {
-                                userData.add(data);
-                            }
-                            continue;
-                        }
-                        userData.add(new UserData(contentCacheItem.getEntryName(), contentCacheItem.getIdentifier(), contentCacheItem.getUsername(), contentCacheItem.getPassword()));
-                    }
-                    else {
+        }
+        else {
+            userData = new ArrayList<>();
+            String[] uuids = mappingCacheItem.getUuids();
+            //Decrypt the cached credentials of all valid entries in a single pass:
+            ArrayList<String> validUuids = new ArrayList<>(uuids.length);
+            for (String uuid : uuids) {
+                if (InvalidationCache.getInstance().getItem(uuid) == null) {
+                    validUuids.add(uuid);
+                }
+            }
+            HashMap<String, ContentCacheItem> contentCacheItems = ContentCache.getInstance().getDecryptedItems(validUuids);
+            for (String uuid : uuids) {
+                InvalidationCacheItem invalidationCacheItem = (InvalidationCacheItem)InvalidationCache.getInstance().getItem(uuid);
+                if (invalidationCacheItem == null) {
+                    ContentCacheItem contentCacheItem = contentCacheItems.get(uuid);
+                    if (contentCacheItem == null) {
                         UserData data = fetcher.fetchUserDataForUuid(uuid);
                         if (data == null) {
-                            ContentCache.getInstance().removeItem(uuid);
                             mappingCacheItem.removeUuid(uuid);
                             MappingCache.getInstance().putItem(mappingCacheItem);
                         }
                         else {
-                            ContentCacheItem contentCacheItem = (ContentCacheItem)ContentCache.getInstance().getItem(uuid);
-                            contentCacheItem.setCredentials(data.getUsername() == null ? "" : data.getUsername(), data.getPassword() == null ? "" : data.getPassword(), data.getEntryName());
-                            ContentCache.getInstance().putItem(contentCacheItem);
                             userData.add(data);
                         }
-                        InvalidationCache.getInstance().removeItem(uuid);
+                        continue;
                     }
+                    userData.add(new UserData(contentCacheItem.getEntryName(), contentCacheItem.getIdentifier(), contentCacheItem.getUsername(), contentCacheItem.getPassword()));
                 }
-                MappingCache.getInstance().save();
-                ContentCache.getInstance().save();
-                if (InvalidationCache.isLoaded()) {
-                    InvalidationCache.getInstance().save();
+                else {
+                    UserData data = fetcher.fetchUserDataForUuid(uuid);
+                    if (data == null) {
+                        ContentCache.getInstance().removeItem(uuid);
+                        mappingCacheItem.removeUuid(uuid);
+                        MappingCache.getInstance().putItem(mappingCacheItem);
+                    }
+                    else {
+                        ContentCacheItem contentCacheItem = (ContentCacheItem)ContentCache.getInstance().getItem(uuid);
+                        contentCacheItem.setCredentials(data.getUsername() == null ? "" : data.getUsername(), data.getPassword() == null ? "" : data.getPassword(), data.getEntryName());
+                        ContentCache.getInstance().putItem(contentCacheItem);
+                        userData.add(data);
+                    }
+                    InvalidationCache.getInstance().removeItem(uuid);
                 }
             }
+            MappingCache.getInstance().save();
+            ContentCache.getInstance().save();
+            if (InvalidationCache.isLoaded()) {
+                InvalidationCache.getInstance().save();
+            }
         }
-        else {
-            //Do not use caching:
-            userData = fetcher.fetchUserDataForPackage(parsedStructure.getPackageName());
-        }
-
-        try {
-            FillResponse response = generateBuildResponse(userData, parsedStructure);
-            callback.onSuccess(response);
-        }
-        catch (Exception e) {
-            Log.d("FillRequest", "Request cancelled: " + e.getMessage());
-            callback.onFailure(e.getMessage());
-        }
+        return userData;
     }
 
 
@@ -177,6 +209,23 @@ public class FillRequestHandler {
     }
 
 
+    /**
+     * Method returns whether any dataset is generated from the passed user data, that is, whether any
+     * of the user data contains a username or password.
+     *
+     * @param userData  User data to test.
+     * @return          Whether a dataset is generated from the user data.
+     */
+    private boolean containsDataset(ArrayList<UserData> userData) {
+        for (UserData data : userData) {
+            if (data.getUsername() != null || data.getPassword() != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
     /**
      * Method generates the fill response which is returned to the app that called this service.
      *
@@ -6,18 +6,76 @@ import android.service.autofill.FillCallback;
 import android.service.autofill.FillRequest;
 import android.service.autofill.SaveCallback;
 import android.service.autofill.SaveRequest;
+import android.util.Log;
 import androidx.annotation.NonNull;
+import de.passwordvault.model.packages.PackageIndex;
+import de.passwordvault.model.storage.settings.Config;
+import de.passwordvault.service.autofill.caching.ContentCache;
+import de.passwordvault.service.autofill.caching.InvalidationCache;
+import de.passwordvault.service.autofill.caching.MappingCache;
+import de.passwordvault.service.autofill.caching.UsageCache;
 
 
 /**
  * Class implements the autofill service for Password Vault. All autofill requests (fill / save) are
- * routed through this class by the operating system.
+ * routed through this class by the operating system. When the service is connected, the data
+ * required to carry out fill requests is loaded in the background, so that the first fill request
+ * does not need to load it. The latencies of the fill requests are recorded in {@link FillLatencies}.
  *
  * @author  Christian-2003
- * @version 3.5.4
+ * @version 3.7.4
  */
 public class PasswordVaultAutofillService extends AutofillService {
 
+    /**
+     * Field stores the tag used for debugging messages.
+     */
+    private static final String TAG = "AutofillService";
+
+
+    /**
+     * Attribute stores the handler which carries out all fill requests of the service.
+     */
+    private FillRequestHandler fillRequestHandler;
+
+
+    /**
+     * Method is called when the operating system connects to the service. The package index, the
+     * autofill caches and the hot set are loaded in the background.
+     */
+    @Override
+    public void onConnected() {
+        super.onConnected();
+        Thread warmUpThread = new Thread(() -> {
+            try {
+                PackageIndex.getInstance().load();
+                if (Config.getInstance().useAutofillCaching.get()) {
+                    MappingCache.getInstance();
+                    ContentCache.getInstance();
+                    InvalidationCache.getInstance();
+                    UsageCache.getInstance();
+                    AutofillHotSet.getInstance().warmUp();
+                }
+            }
+            catch (Exception e) {
+                Log.w(TAG, "Could not warm up autofill service: " + e.getMessage());
+            }
+        });
+        warmUpThread.start();
+    }
+
+
+    /**
+     * Method is called when the operating system disconnects from the service. The hot set is
+     * cleared.
+     */
+    @Override
+    public void onDisconnected() {
+        AutofillHotSet.getInstance().clear();
+        super.onDisconnected();
+    }
+
+
     /**
      * Method is called whenever the operating system requests the password vault autofill service
      * to fill out a view.
@@ -28,8 +86,12 @@ public class PasswordVaultAutofillService extends AutofillService {
      */
     @Override
     public void onFillRequest(@NonNull FillRequest request, @NonNull CancellationSignal cancelSignal, @NonNull FillCallback callback) {
-        FillRequestHandler handler = new FillRequestHandler(this);
-        handler.onFillRequest(request, cancelSignal, callback);
+        long start = System.nanoTime();
+        if (fillRequestHandler == null) {
+            fillRequestHandler = new FillRequestHandler(this);
+        }
+        fillRequestHandler.onFillRequest(request, cancelSignal, callback);
+        FillLatencies.getInstance().record(System.nanoTime() - start);
     }
 
 
@@ -2,32 +2,88 @@ package de.passwordvault.service.autofill.caching;
 
 import android.util.Log;
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import de.passwordvault.App;
 
 
 /**
- * Class models a cache. Specific types of caches must extend this class.
+ * Class models a cache. Specific types of caches must extend this class. The items of the cache are
+ * indexed by their identifiers, so that they can be looked up in constant time.
+ * Caches are stored in a binary format, which consists of {@link #MAGIC_NUMBER}, the number of items
+ * and the string representations (see {@link CacheItem#toString()}) of all items, encoded in UTF-8
+ * and prefixed with their lengths in bytes. Cache files are memory-mapped while being read. Cache
+ * files of the previous format, which stores one string representation per line, can still be read
+ * and are converted when the cache is saved the next time.
+ * Caches are saved write-behind: {@link #save()} only schedules the cache to be written by a single
+ * background writer, so that callers never wait for the filesystem. Successive saves are coalesced
+ * into a single write while the cache is waiting for the writer. Cache files are replaced atomically,
+ * by writing a temporary file which is renamed afterwards. The items are only collected while the
+ * cache is locked, and encoded by the writer afterwards, so that the cache is not locked while the
+ * items are encrypted. All methods are thread-safe.
  *
  * @author  Christian-2003
- * @version 3.6.0
+ * @version 3.7.4
  */
 public abstract class Cache {
 
+    /**
+     * Interface can be implemented to be informed when a cache file has been deleted through
+     * {@link #deleteCache(String, DeletionCallback)}.
+     */
+    public interface DeletionCallback {
+
+        /**
+         * Method is called by the background writer once the cache file has been deleted.
+         *
+         * @param success   Whether the cache file was deleted successfully.
+         */
+        void onCacheDeleted(boolean success);
+
+    }
+
+
     /**
      * Field stores the tag used for debugging messages.
      */
     protected static final String TAG = "Cache";
 
+    /**
+     * Field stores the magic number with which cache files of the binary format start. The first
+     * byte is {@code 0}, which cannot occur within cache files of the line-based format.
+     */
+    private static final int MAGIC_NUMBER = 0x00505643;
 
     /**
-     * Attribute stores the cache items that were read from the cache.
+     * Field stores the suffix of the temporary file which is written before replacing a cache file.
      */
-    private ArrayList<CacheItem> cacheItems;
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    /**
+     * Field stores the single background writer which writes all caches.
+     */
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor();
+
+
+    /**
+     * Attribute stores the cache items that were read from the cache, mapped to their identifiers.
+     */
+    private final LinkedHashMap<String, CacheItem> cacheItems;
 
     /**
      * Attribute stores the filename of the cache.
@@ -39,6 +95,11 @@ public abstract class Cache {
      */
     private boolean changesMadeToDataset;
 
+    /**
+     * Attribute stores whether the cache is waiting to be written by the {@link #WRITER}.
+     */
+    private final AtomicBoolean writeScheduled;
+
 
     /**
      * Constructor instantiates a new cache.
@@ -51,8 +112,9 @@ public abstract class Cache {
             throw new NullPointerException();
         }
         this.filename = filename;
-        cacheItems = null;
+        cacheItems = new LinkedHashMap<>();
         changesMadeToDataset = false;
+        writeScheduled = new AtomicBoolean(false);
         readCache();
     }
 
@@ -65,17 +127,11 @@ public abstract class Cache {
      * @return                      Cache item with the passed identifier.
      * @throws NullPointerException The passed identifier is {@code null}.
      */
-    public CacheItem getItem(String identifier) throws NullPointerException {
+    public synchronized CacheItem getItem(String identifier) throws NullPointerException {
         if (identifier == null) {
             throw new NullPointerException();
         }
-        ArrayList<CacheItem> items;
-        for (CacheItem item : cacheItems) {
-            if (item.getIdentifier().equals(identifier)) {
-                return item;
-            }
-        }
-        return null;
+        return cacheItems.get(identifier);
     }
 
     /**
@@ -84,17 +140,11 @@ public abstract class Cache {
      * @param item                  Item to be added / changed.
      * @throws NullPointerException The passed item is {@code null}.
      */
-    public void putItem(CacheItem item) throws NullPointerException {
+    public synchronized void putItem(CacheItem item) throws NullPointerException {
         if (item == null) {
             throw new NullPointerException();
         }
-        int index = cacheItems.indexOf(item);
-        if (index == -1) {
-            cacheItems.add(item);
-        }
-        else {
-            cacheItems.set(index, item);
-        }
+        cacheItems.put(item.getIdentifier(), item);
         changesMadeToDataset = true;
     }
 
@@ -104,80 +154,141 @@ public abstract class Cache {
      * @param identifier            Identifier whose item to remove.
      * @throws NullPointerException The passed identifier is {@code null}.
      */
-    public void removeItem(String identifier) throws NullPointerException {
+    public synchronized void removeItem(String identifier) throws NullPointerException {
         if (identifier == null) {
             throw new NullPointerException();
         }
-        for (CacheItem item : cacheItems) {
-            if (item.getIdentifier().equals(identifier)) {
-                cacheItems.remove(item);
-                break;
-            }
+        if (cacheItems.remove(identifier) != null) {
+            changesMadeToDataset = true;
         }
-        changesMadeToDataset = true;
+    }
+
+    /**
+     * Method returns a snapshot of all items within the cache.
+     *
+     * @return  Items of the cache.
+     */
+    protected synchronized ArrayList<CacheItem> getItems() {
+        return new ArrayList<>(cacheItems.values());
     }
 
     /**
      * Method removes all items from the cache.
      */
-    public void removeAllItems() {
+    public synchronized void removeAllItems() {
         cacheItems.clear();
         changesMadeToDataset = true;
     }
 
 
     /**
-     * Method saves the cache to the filesystem. If no changes were made to the cache, nothing
-     * happens.
+     * Method schedules the cache to be saved to the filesystem by the background writer, and returns
+     * immediately. If no changes were made to the cache, nothing happens. If the cache is already
+     * waiting for the writer, the saves are coalesced.
      */
     public void save() {
-        Log.d(TAG, "Begin saving cache " + filename);
-        if (!changesMadeToDataset) {
-            Log.d(TAG, "Cancelled saving cache " + filename + ", since no changes were made");
-            return;
+        synchronized (this) {
+            if (!changesMadeToDataset) {
+                return;
+            }
         }
-
-        StringBuilder builder = new StringBuilder();
-        for (CacheItem item : cacheItems) {
-            Log.d(TAG, "Saving cache item '" + item.toString() + "'");
-            builder.append(item.toString());
-            builder.append(System.lineSeparator());
+        if (writeScheduled.compareAndSet(false, true)) {
+            WRITER.execute(this::write);
         }
+    }
 
-        File file = new File(App.getContext().getFilesDir(), filename);
-        if (!file.exists()) {
-            try {
-                File parent = file.getParentFile();
-                if (parent != null && !parent.exists()) {
-                    parent.mkdirs();
-                }
-                file.createNewFile();
-            }
-            catch (IOException | SecurityException e) {
-                //Could not create file
+
+    /**
+     * Method returns an instance of a subclass of {@link CacheItem} for the the specified line.
+     *
+     * @param s Line of the cache for which to generate the cache item.
+     * @return  Generated cache item.
+     */
+    protected abstract CacheItem generateCacheItem(String s);
+
+
+    /**
+     * Method writes the cache to the filesystem. The items are collected while the cache is locked,
+     * and encoded and written afterwards, so that the cache can be used while it is being written.
+     * This method is invoked by the {@link #WRITER}.
+     */
+    private void write() {
+        writeScheduled.set(false);
+        ArrayList<CacheItem> items;
+        synchronized (this) {
+            if (!changesMadeToDataset) {
                 return;
             }
+            items = new ArrayList<>(cacheItems.values());
+            changesMadeToDataset = false;
+        }
+        ArrayList<byte[]> encodedItems = new ArrayList<>(items.size());
+        byte[] content = encode(items, encodedItems);
+        int count = encodedItems.size();
+        if (count != items.size()) {
+            //Items which could not be encoded are written the next time the cache is saved:
+            synchronized (this) {
+                changesMadeToDataset = true;
+            }
         }
 
-        try (FileOutputStream os = new FileOutputStream(file)) {
-            os.write(builder.toString().getBytes());
+        File file = new File(App.getContext().getFilesDir(), filename);
+        File tempFile = new File(App.getContext().getFilesDir(), filename + TEMP_FILE_SUFFIX);
+        try {
+            File parent = file.getParentFile();
+            if (parent != null && !parent.exists()) {
+                parent.mkdirs();
+            }
+            try (FileOutputStream os = new FileOutputStream(tempFile)) {
+                os.write(content);
+                os.getFD().sync();
+            }
+            if (!tempFile.renameTo(file)) {
+                throw new IOException("Could not rename " + tempFile.getName());
+            }
         }
-        catch (IOException e) {
-            Log.w(TAG, "Could not save cache file: " + e.getMessage());
-            e.printStackTrace();
-            //Ignore...
+        catch (IOException | SecurityException e) {
+            Log.w(TAG, "Could not save cache file " + filename + ": " + e.getMessage());
+            synchronized (this) {
+                changesMadeToDataset = true;
+            }
+            return;
         }
-        Log.d(TAG, "Finished saving cache " + filename);
+        Log.d(TAG, "Saved " + count + " items to cache " + filename);
     }
 
 
     /**
-     * Method returns an instance of a subclass of {@link CacheItem} for the the specified line.
+     * Method encodes the passed items in the binary format. Items which are not writable (see
+     * {@link CacheItem#isWritable()}) are skipped. The cache does not need to be locked while
+     * invoking this method.
      *
-     * @param s Line of the cache for which to generate the cache item.
-     * @return  Generated cache item.
+     * @param items         Items to encode.
+     * @param encodedItems  List to which the encoded items are added.
+     * @return              Encoded cache file.
      */
-    protected abstract CacheItem generateCacheItem(String s);
+    private static byte[] encode(ArrayList<CacheItem> items, ArrayList<byte[]> encodedItems) {
+        for (CacheItem item : items) {
+            synchronized (item) {
+                if (item.isWritable()) {
+                    encodedItems.add(item.toString().getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream os = new DataOutputStream(bytes)) {
+            os.writeInt(MAGIC_NUMBER);
+            os.writeInt(encodedItems.size());
+            for (byte[] itemBytes : encodedItems) {
+                os.writeInt(itemBytes.length);
+                os.write(itemBytes);
+            }
+        }
+        catch (IOException e) {
+            //Cannot occur when writing to memory
+        }
+        return bytes.toByteArray();
+    }
 
 
     /**
@@ -210,12 +321,29 @@ public abstract class Cache {
             Log.d(TAG, "Cache file exists");
         }
 
-        cacheItems = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+        try (FileInputStream is = new FileInputStream(file); FileChannel channel = is.getChannel()) {
+            if (channel.size() >= 4) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.getInt(0) == MAGIC_NUMBER) {
+                    readBinaryCache(buffer);
+                    Log.d(TAG, "Finished reading cache " + filename);
+                    return;
+                }
+            }
+        }
+        catch (IOException e) {
+            //Ignore...
+            Log.w(TAG, "Error reading cache: " + e.getMessage());
+            e.printStackTrace();
+            return;
+        }
+
+        //Cache file of the line-based format:
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file)))) {
             String line = reader.readLine();
             while (line != null && !line.isEmpty()) {
-                cacheItems.add(generateCacheItem(line));
-                Log.d(TAG, "Read cache item '" + line + "'");
+                CacheItem item = generateCacheItem(line);
+                cacheItems.put(item.getIdentifier(), item);
                 line = reader.readLine();
             }
         }
@@ -224,27 +352,66 @@ public abstract class Cache {
             Log.w(TAG, "Error reading cache: " + e.getMessage());
             e.printStackTrace();
         }
+        //Convert the cache file into the binary format when saving the cache:
+        changesMadeToDataset = !cacheItems.isEmpty();
         Log.d(TAG, "Finished reading cache " + filename);
     }
 
 
     /**
-     * Method deletes the file of the cache whose name is passed as argument.
+     * Method reads the items from the passed buffer, which contains a cache file of the binary
+     * format. If the cache file is corrupt, all items up to the corrupt item are read.
      *
-     * @param filename  Name of the cache file to delete.
-     * @return          Whether the cache file was deleted successfully.
+     * @param buffer    Buffer containing the cache file.
      */
-    protected static boolean deleteCache(String filename) {
-        File file = new File(App.getContext().getFilesDir(), filename);
-        if (file.exists()) {
-            try {
-                return file.delete();
-            }
-            catch (SecurityException e) {
-                return false;
+    private void readBinaryCache(ByteBuffer buffer) {
+        try {
+            buffer.position(4);
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    Log.w(TAG, "Cache file " + filename + " is corrupt");
+                    return;
+                }
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                String s = new String(bytes, StandardCharsets.UTF_8);
+                CacheItem item = generateCacheItem(s);
+                cacheItems.put(item.getIdentifier(), item);
             }
         }
-        return true;
+        catch (BufferUnderflowException e) {
+            Log.w(TAG, "Cache file " + filename + " is corrupt");
+        }
+    }
+
+    /**
+     * Method deletes the file of the cache whose name is passed as argument. The file is deleted by
+     * the background writer after all pending writes have finished, and the passed callback is
+     * invoked by the background writer afterwards. This method returns immediately.
+     *
+     * @param filename              Name of the cache file to delete.
+     * @param callback              Callback invoked once the cache file has been deleted.
+     * @throws NullPointerException The passed callback is {@code null}.
+     */
+    protected static void deleteCache(String filename, DeletionCallback callback) throws NullPointerException {
+        if (callback == null) {
+            throw new NullPointerException();
+        }
+        WRITER.execute(() -> {
+            boolean success = true;
+            File file = new File(App.getContext().getFilesDir(), filename);
+            if (file.exists()) {
+                try {
+                    success = file.delete();
+                }
+                catch (SecurityException e) {
+                    success = false;
+                }
+            }
+            callback.onCacheDeleted(success);
+        });
     }
 
 }
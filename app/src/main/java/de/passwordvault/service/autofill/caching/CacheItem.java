@@ -12,9 +12,11 @@ import androidx.annotation.Nullable;
  *     &lt;identifier&gt;;&lt;content&gt;<br/>
  * </code>
  * ---------<br/>
+ * Changing the content and generating the string representation are synchronized, since caches are
+ * written by a background writer.
  *
  * @author  Christian-2003
- * @version 3.5.0
+ * @version 3.7.4
  */
 public abstract class CacheItem {
 
@@ -139,7 +141,7 @@ public abstract class CacheItem {
      */
     @NonNull
     @Override
-    public String toString() {
+    public synchronized String toString() {
         if (changesMadeToDataset) {
             //Despite the warning of the IDE, I would like to use this StringBuilder to create the
             //string with the correct capacity.
@@ -153,6 +155,17 @@ public abstract class CacheItem {
         return stringCache;
     }
 
+    /**
+     * Method returns whether the item can currently be written to the cache file. Items which cannot
+     * be written are skipped when the cache is written, and the cache remains changed, so that they
+     * are written the next time the cache is saved.
+     *
+     * @return  Whether the item can be written to the cache file.
+     */
+    public boolean isWritable() {
+        return true;
+    }
+
 
     /**
      * Method changes the content of the cache item.
@@ -160,7 +173,7 @@ public abstract class CacheItem {
      * @param content               New content.
      * @throws NullPointerException The passed content is {@code null}.
      */
-    protected void setContent(String content) throws NullPointerException {
+    protected synchronized void setContent(String content) throws NullPointerException {
         if (content == null) {
             throw new NullPointerException();
         }
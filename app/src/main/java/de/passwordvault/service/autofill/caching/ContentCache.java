@@ -1,5 +1,7 @@
 package de.passwordvault.service.autofill.caching;
 
+import java.util.Collection;
+import java.util.HashMap;
 
 /**
  * Class models the content cache which stores the username and password for an instance of
@@ -15,7 +17,7 @@ package de.passwordvault.service.autofill.caching;
  * ---------<br/>
  *
  * @author  Christian-2003
- * @version 3.5.3
+ * @version 3.7.4
  */
 public class ContentCache extends Cache {
 
@@ -43,7 +45,7 @@ public class ContentCache extends Cache {
      *
      * @return  Singleton-instance.
      */
-    public static ContentCache getInstance() {
+    public static synchronized ContentCache getInstance() {
         if (singleton == null) {
             singleton = new ContentCache();
         }
@@ -51,6 +53,31 @@ public class ContentCache extends Cache {
     }
 
 
+    /**
+     * Method returns the items with the passed identifiers, whose credentials are decrypted with a
+     * single KeyStore operation (see {@link ContentCacheItem#decryptAll(Collection)}). Identifiers
+     * for which no item exists are not contained in the returned map.
+     *
+     * @param identifiers           Identifiers of the items to return.
+     * @return                      Decrypted items mapped to their identifiers.
+     * @throws NullPointerException The passed identifiers are {@code null}.
+     */
+    public HashMap<String, ContentCacheItem> getDecryptedItems(Collection<String> identifiers) throws NullPointerException {
+        if (identifiers == null) {
+            throw new NullPointerException();
+        }
+        HashMap<String, ContentCacheItem> items = new HashMap<>();
+        for (String identifier : identifiers) {
+            ContentCacheItem item = (ContentCacheItem)getItem(identifier);
+            if (item != null) {
+                items.put(identifier, item);
+            }
+        }
+        ContentCacheItem.decryptAll(items.values());
+        return items;
+    }
+
+
     /**
      * Method returns an instance of {@link ContentCacheItem} for the the specified line.
      *
@@ -64,12 +91,13 @@ public class ContentCache extends Cache {
 
 
     /**
-     * Method permanently deletes the cache.
+     * Method permanently deletes the cache in the background and returns immediately.
      *
-     * @return  Whether the cache was deleted successfully.
+     * @param callback              Callback invoked once the cache has been deleted.
+     * @throws NullPointerException The passed callback is {@code null}.
      */
-    public static boolean deleteCache() {
-        return deleteCache(CACHE_NAME);
+    public static void deleteCache(DeletionCallback callback) throws NullPointerException {
+        deleteCache(CACHE_NAME, callback);
     }
 
 }
@@ -1,5 +1,9 @@
 package de.passwordvault.service.autofill.caching;
 
+import androidx.annotation.NonNull;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
 import de.passwordvault.model.storage.encryption.AES;
 import de.passwordvault.model.storage.encryption.EncryptionException;
 
@@ -13,12 +17,33 @@ import de.passwordvault.model.storage.encryption.EncryptionException;
  *     &nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;^^^^^^^^^^^^^^^^^^^^^ <- encrypted<br/>
  * </code>
  * ---------<br/>
+ * The credentials are encrypted in software with the data key of the {@link ContentCacheKey}, which
+ * is bound to the UUID of the item. Therefore, decrypting the credentials of multiple items through
+ * {@link #decryptAll(Collection)} only requires a single KeyStore operation to load the data key.
+ * Credentials of previous versions, which are encrypted with the key from the KeyStore directly,
+ * are still decrypted and encrypted with the data key when the cache is written the next time.
+ * The credentials are decrypted lazily. Changed credentials are not encrypted until the string
+ * representation is generated when the cache is written, so that multiple changes are encrypted
+ * only once.
  *
  * @author  Christian-2003
- * @version 3.5.0
+ * @version 3.7.4
  */
 public class ContentCacheItem extends CacheItem {
 
+    /**
+     * Field stores the prefix of credentials which are encrypted with the data key of the
+     * {@link ContentCacheKey}. The prefix cannot occur within Base64-encoded credentials of
+     * previous versions.
+     */
+    private static final String DATA_KEY_PREFIX = "k:";
+
+    /**
+     * Field stores the AES-instance with the key from the KeyStore, which is only used to decrypt
+     * credentials of previous versions.
+     */
+    private static final AES keyStoreAes = new AES();
+
     /**
      * Attribute stores the username of the cache item.
      */
@@ -34,6 +59,11 @@ public class ContentCacheItem extends CacheItem {
      */
     private String entryName;
 
+    /**
+     * Attribute stores whether the credentials were changed and need to be encrypted.
+     */
+    private boolean credentialsChanged;
+
 
     /**
      * Constructor instantiates a new cache item for the passed identifier and content.
@@ -46,6 +76,8 @@ public class ContentCacheItem extends CacheItem {
         super(identifier, content);
         username = null;
         password = null;
+        entryName = null;
+        credentialsChanged = false;
     }
 
     /**
@@ -60,6 +92,7 @@ public class ContentCacheItem extends CacheItem {
         username = null;
         password = null;
         entryName = null;
+        credentialsChanged = false;
     }
 
     /**
@@ -81,7 +114,37 @@ public class ContentCacheItem extends CacheItem {
         this.username = username == null ? "" : username;
         this.password = password == null ? "" : password;
         this.entryName = entryName;
-        encryptCredentials();
+        credentialsChanged = true;
+    }
+
+
+    /**
+     * Static method decrypts the credentials of all passed items. The data key is loaded once, after
+     * which all credentials are decrypted in software without accessing the KeyStore. Items whose
+     * credentials are already decrypted are skipped.
+     *
+     * @param items                 Items whose credentials to decrypt.
+     * @throws NullPointerException The passed items are {@code null}.
+     */
+    public static void decryptAll(Collection<ContentCacheItem> items) throws NullPointerException {
+        if (items == null) {
+            throw new NullPointerException();
+        }
+        AES dataKeyAes;
+        try {
+            dataKeyAes = ContentCacheKey.getInstance().getCipher(false);
+        }
+        catch (EncryptionException e) {
+            //No data key available, items can only be decrypted with the key from the KeyStore:
+            dataKeyAes = null;
+        }
+        for (ContentCacheItem item : items) {
+            synchronized (item) {
+                if (item.username == null || item.password == null || item.entryName == null) {
+                    item.parseCredentials(dataKeyAes);
+                }
+            }
+        }
     }
 
 
@@ -90,7 +153,7 @@ public class ContentCacheItem extends CacheItem {
      *
      * @return  Password of the item.
      */
-    public String getPassword() {
+    public synchronized String getPassword() {
         if (password == null) {
             parseCredentials();
         }
@@ -102,14 +165,19 @@ public class ContentCacheItem extends CacheItem {
      *
      * @return  Username of the item.
      */
-    public String getUsername() {
+    public synchronized String getUsername() {
         if (username == null) {
             parseCredentials();
         }
         return username;
     }
 
-    public String getEntryName() {
+    /**
+     * Method returns the name of the entry whose data is stored within this item.
+     *
+     * @return  Name of the entry.
+     */
+    public synchronized String getEntryName() {
         if (entryName == null) {
             parseCredentials();
         }
@@ -122,12 +190,15 @@ public class ContentCacheItem extends CacheItem {
      * @param username              New username for the cache item.
      * @throws NullPointerException The passed username is {@code null}.
      */
-    public void setUsername(String username) throws NullPointerException {
+    public synchronized void setUsername(String username) throws NullPointerException {
         if (username == null) {
             throw new NullPointerException();
         }
+        if (this.username == null || this.password == null || this.entryName == null) {
+            parseCredentials();
+        }
         this.username = username;
-        encryptCredentials();
+        credentialsChanged = true;
     }
 
     /**
@@ -136,12 +207,15 @@ public class ContentCacheItem extends CacheItem {
      * @param password              New password for the cache item.
      * @throws NullPointerException The passed password is {@code null}.
      */
-    public void setPassword(String password) throws NullPointerException {
+    public synchronized void setPassword(String password) throws NullPointerException {
         if (password == null) {
             throw new NullPointerException();
         }
+        if (this.username == null || this.password == null || this.entryName == null) {
+            parseCredentials();
+        }
         this.password = password;
-        encryptCredentials();
+        credentialsChanged = true;
     }
 
     /**
@@ -150,12 +224,15 @@ public class ContentCacheItem extends CacheItem {
      * @param entryName             New entry name for the cache item.
      * @throws NullPointerException The passed entry name is {@code null}.
      */
-    public void setEntryName(String entryName) throws NullPointerException {
+    public synchronized void setEntryName(String entryName) throws NullPointerException {
         if (entryName == null) {
             throw new NullPointerException();
         }
+        if (this.username == null || this.password == null || this.entryName == null) {
+            parseCredentials();
+        }
         this.entryName = entryName;
-        encryptCredentials();
+        credentialsChanged = true;
     }
 
     /**
@@ -167,24 +244,55 @@ public class ContentCacheItem extends CacheItem {
      * @param entryName             New entry name for the cache item.
      * @throws NullPointerException The passed username or password is {@code null}.
      */
-    public void setCredentials(String username, String password, String entryName) throws NullPointerException {
+    public synchronized void setCredentials(String username, String password, String entryName) throws NullPointerException {
         if (username == null || password == null || entryName == null) {
             throw new NullPointerException();
         }
         this.username = username;
         this.password = password;
         this.entryName = entryName;
-        encryptCredentials();
+        credentialsChanged = true;
+    }
+
+
+    /**
+     * Method encrypts changed credentials before generating the string representation of the item.
+     *
+     * @return  String representation of the cache item.
+     */
+    @NonNull
+    @Override
+    public synchronized String toString() {
+        if (credentialsChanged) {
+            encryptCredentials();
+        }
+        return super.toString();
+    }
+
+    /**
+     * Method encrypts changed credentials and returns whether the item can be written to the cache
+     * file. If the credentials could not be encrypted, the item cannot be written, since its content
+     * does not reflect its credentials.
+     *
+     * @return  Whether the item can be written to the cache file.
+     */
+    @Override
+    public synchronized boolean isWritable() {
+        return !credentialsChanged || encryptCredentials();
     }
 
 
     /**
      * Method encrypts the username and password and informs the superclass about the change in the
-     * content. If either username or password are {@code null}, the old value is used instead.
+     * content. If either username or password are {@code null}, the old value is used instead. If the
+     * credentials cannot be encrypted, the content remains unchanged and the credentials remain
+     * changed.
+     *
+     * @return  Whether the credentials were encrypted.
      */
-    public void encryptCredentials() {
+    public synchronized boolean encryptCredentials() {
         if (username == null && password == null && entryName == null) {
-            return;
+            return true;
         }
         if (username == null || password == null || entryName == null) {
             String oldUsername = username;
@@ -201,16 +309,19 @@ public class ContentCacheItem extends CacheItem {
                 entryName = oldEntryName;
             }
         }
-        AES aes = new AES();
         String decryptedCredentials = username + ',' + password + ',' + entryName;
         String encryptedCredentials = "";
         try {
-            encryptedCredentials = aes.encrypt(decryptedCredentials);
+            AES dataKeyAes = ContentCacheKey.getInstance().getCipher(true);
+            byte[] encryptedBytes = dataKeyAes.encrypt(decryptedCredentials.getBytes(StandardCharsets.UTF_8), getAssociatedData());
+            encryptedCredentials = DATA_KEY_PREFIX + Base64.getEncoder().encodeToString(encryptedBytes);
         }
         catch (EncryptionException e) {
-            return;
+            return false;
         }
         setContent(encryptedCredentials);
+        credentialsChanged = false;
+        return true;
     }
 
 
@@ -219,12 +330,44 @@ public class ContentCacheItem extends CacheItem {
      * Both attributes are not {@code null} after the method finishes!
      */
     private void parseCredentials() {
-        AES aes = new AES();
-        String decryptedCredentials = "";
+        AES dataKeyAes;
         try {
-            decryptedCredentials = aes.decrypt(getContent());
+            dataKeyAes = ContentCacheKey.getInstance().getCipher(false);
         }
         catch (EncryptionException e) {
+            dataKeyAes = null;
+        }
+        parseCredentials(dataKeyAes);
+    }
+
+    /**
+     * Method parses the credentials with the passed AES-instance, which uses the data key, and stores
+     * the result in {@link #username} and {@link #password}. Both attributes are not {@code null}
+     * after the method finishes! Credentials of previous versions are decrypted with the key from
+     * the KeyStore and marked as changed, so that they are encrypted with the data key when the
+     * cache is written the next time.
+     *
+     * @param dataKeyAes    AES-instance which uses the data key, or {@code null} if no data key is
+     *                      available.
+     */
+    private void parseCredentials(AES dataKeyAes) {
+        String content = getContent();
+        String decryptedCredentials = "";
+        boolean encryptedWithKeyStore = false;
+        try {
+            if (content.startsWith(DATA_KEY_PREFIX)) {
+                if (dataKeyAes == null) {
+                    throw new EncryptionException("No key available");
+                }
+                byte[] encryptedBytes = Base64.getDecoder().decode(content.substring(DATA_KEY_PREFIX.length()));
+                decryptedCredentials = new String(dataKeyAes.decrypt(encryptedBytes, 0, encryptedBytes.length, getAssociatedData()), StandardCharsets.UTF_8);
+            }
+            else if (!content.isEmpty()) {
+                decryptedCredentials = keyStoreAes.decrypt(content);
+                encryptedWithKeyStore = true;
+            }
+        }
+        catch (EncryptionException | IllegalArgumentException e) {
             //Ignore...
         }
         String[] parts = decryptedCredentials.split(",");
@@ -232,6 +375,9 @@ public class ContentCacheItem extends CacheItem {
             username = parts[0];
             password = parts[1];
             entryName = parts[2];
+            if (encryptedWithKeyStore) {
+                credentialsChanged = true;
+            }
         }
         else {
             username = "";
@@ -240,4 +386,15 @@ public class ContentCacheItem extends CacheItem {
         }
     }
 
+
+    /**
+     * Method returns the associated data with which the credentials are encrypted, so that the
+     * encrypted credentials cannot be moved to a different item.
+     *
+     * @return  Associated data of the item.
+     */
+    private byte[] getAssociatedData() {
+        return getIdentifier().getBytes(StandardCharsets.UTF_8);
+    }
+
 }
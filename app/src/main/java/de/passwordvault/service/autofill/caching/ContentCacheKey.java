@@ -0,0 +1,194 @@
+package de.passwordvault.service.autofill.caching;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import de.passwordvault.App;
+import de.passwordvault.model.storage.encryption.AES;
+import de.passwordvault.model.storage.encryption.EncryptionException;
+import de.passwordvault.model.storage.file.EncryptedFileReader;
+import de.passwordvault.model.storage.file.EncryptedFileWriter;
+import de.passwordvault.model.storage.file.EncryptedOutputStream;
+
+
+/**
+ * Class models the data key with which the credentials of the {@link ContentCache} are encrypted.
+ * The data key is a random key, which is stored in a file that is encrypted with the key from the
+ * KeyStore. The file is decrypted once per process. All credentials are then encrypted and decrypted
+ * with the data key in software, so that decrypting the credentials of multiple items only requires
+ * a single KeyStore operation. The class uses singleton-pattern.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class ContentCacheKey {
+
+    /**
+     * Field stores the name of the file which contains the encrypted data key.
+     */
+    private static final String KEY_FILE_NAME = "autofill/content.key";
+
+    /**
+     * Field stores the length of the data key in bytes.
+     */
+    private static final int KEY_LENGTH = 32;
+
+    /**
+     * Field stores the singleton-instance of the content cache key.
+     */
+    private static ContentCacheKey singleton;
+
+
+    /**
+     * Attribute stores the file which contains the encrypted data key.
+     */
+    private final File file;
+
+    /**
+     * Attribute stores the AES-instance with which the data key is encrypted.
+     */
+    private final AES keyEncryptionAlgorithm;
+
+    /**
+     * Attribute stores the AES-instance which uses the data key. This is {@code null} until the data
+     * key is loaded.
+     */
+    private AES cipher;
+
+
+    /**
+     * Constructor instantiates a new content cache key which is stored in the passed file.
+     *
+     * @param file                      File which contains the encrypted data key.
+     * @param keyEncryptionAlgorithm    AES-instance with which the data key is encrypted.
+     */
+    ContentCacheKey(File file, AES keyEncryptionAlgorithm) {
+        this.file = file;
+        this.keyEncryptionAlgorithm = keyEncryptionAlgorithm;
+        cipher = null;
+    }
+
+
+    /**
+     * Static method returns the singleton-instance of the content cache key.
+     *
+     * @return  Singleton-instance.
+     */
+    public static synchronized ContentCacheKey getInstance() {
+        if (singleton == null) {
+            singleton = new ContentCacheKey(new File(App.getContext().getFilesDir(), KEY_FILE_NAME), new AES());
+        }
+        return singleton;
+    }
+
+
+    /**
+     * Method returns the AES-instance which encrypts and decrypts with the data key. The data key is
+     * loaded from its file with the first invocation. If no data key exists yet and the generate-flag
+     * is set, a new data key is generated and saved.
+     *
+     * @param generate              Whether to generate a new data key if no data key exists.
+     * @return                      AES-instance which uses the data key.
+     * @throws EncryptionException  The data key could not be loaded or saved.
+     */
+    public synchronized AES getCipher(boolean generate) throws EncryptionException {
+        if (cipher != null) {
+            return cipher;
+        }
+        byte[] key = loadKey();
+        if (key == null) {
+            if (!generate) {
+                throw new EncryptionException("No key available");
+            }
+            key = new byte[KEY_LENGTH];
+            new SecureRandom().nextBytes(key);
+            saveKey(key);
+        }
+        try {
+            cipher = new AES(key);
+        }
+        catch (IllegalArgumentException e) {
+            throw new EncryptionException(e.getMessage());
+        }
+        finally {
+            Arrays.fill(key, (byte)0);
+        }
+        return cipher;
+    }
+
+
+    /**
+     * Method loads the data key from its file. If the file does not exist, {@code null} is returned.
+     *
+     * @return                      Data key.
+     * @throws EncryptionException  The file could not be read or decrypted.
+     */
+    private byte[] loadKey() throws EncryptionException {
+        try (Reader reader = openReader()) {
+            if (reader == null) {
+                return null;
+            }
+            String encodedKey = new BufferedReader(reader).readLine();
+            if (encodedKey == null) {
+                throw new EncryptionException("Key file is empty");
+            }
+            return Base64.getDecoder().decode(encodedKey);
+        }
+        catch (IOException | IllegalArgumentException e) {
+            throw new EncryptionException(e.getMessage());
+        }
+    }
+
+    /**
+     * Method opens a reader for the decrypted content of the key file. If the file does not exist,
+     * {@code null} is returned.
+     *
+     * @return                      Reader for the key file.
+     * @throws EncryptionException  The file could not be opened.
+     */
+    private Reader openReader() throws EncryptionException {
+        InputStream in = EncryptedFileReader.openInputStream(file, keyEncryptionAlgorithm);
+        if (in == null) {
+            return null;
+        }
+        return new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Method saves the passed data key to its file.
+     *
+     * @param key                   Data key to save.
+     * @throws EncryptionException  The file could not be written.
+     */
+    private void saveKey(byte[] key) throws EncryptionException {
+        EncryptedOutputStream out = EncryptedFileWriter.openOutputStream(file, keyEncryptionAlgorithm);
+        if (out == null) {
+            throw new EncryptionException("Cannot create key file");
+        }
+        try {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.US_ASCII);
+            writer.write(Base64.getEncoder().encodeToString(key));
+            writer.flush();
+            out.close();
+        }
+        catch (IOException e) {
+            try {
+                out.abort();
+            }
+            catch (IOException ignored) {
+                //Ignore...
+            }
+            throw new EncryptionException(e.getMessage());
+        }
+    }
+
+}
@@ -18,7 +18,7 @@ import de.passwordvault.App;
  * ---------<br/>
  *
  * @author  Christian-2003
- * @version 3.5.3
+ * @version 3.7.4
  */
 public class InvalidationCache extends Cache {
 
@@ -46,7 +46,7 @@ public class InvalidationCache extends Cache {
      *
      * @return  Singleton-instance.
      */
-    public static InvalidationCache getInstance() {
+    public static synchronized InvalidationCache getInstance() {
         if (singleton == null) {
             singleton = new InvalidationCache();
         }
@@ -58,7 +58,7 @@ public class InvalidationCache extends Cache {
      *
      * @return  Whether the invalidation cache is loaded.
      */
-    public static boolean isLoaded() {
+    public static synchronized boolean isLoaded() {
         return singleton != null;
     }
 
@@ -76,12 +76,13 @@ public class InvalidationCache extends Cache {
 
 
     /**
-     * Method permanently deletes the cache.
+     * Method permanently deletes the cache in the background and returns immediately.
      *
-     * @return  Whether the cache was deleted successfully.
+     * @param callback              Callback invoked once the cache has been deleted.
+     * @throws NullPointerException The passed callback is {@code null}.
      */
-    public static boolean deleteCache() {
-        return deleteCache(CACHE_NAME);
+    public static void deleteCache(DeletionCallback callback) throws NullPointerException {
+        deleteCache(CACHE_NAME, callback);
     }
 
 }
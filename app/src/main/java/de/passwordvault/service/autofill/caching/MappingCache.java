@@ -15,7 +15,7 @@ package de.passwordvault.service.autofill.caching;
  * ---------<br/>
  *
  * @author  Christian-2003
- * @version 3.5.3
+ * @version 3.7.4
  */
 public class MappingCache extends Cache {
 
@@ -43,7 +43,7 @@ public class MappingCache extends Cache {
      *
      * @return  Singleton-instance.
      */
-    public static MappingCache getInstance() {
+    public static synchronized MappingCache getInstance() {
         if (singleton == null) {
             singleton = new MappingCache();
         }
@@ -64,12 +64,13 @@ public class MappingCache extends Cache {
 
 
     /**
-     * Method permanently deletes the cache.
+     * Method permanently deletes the cache in the background and returns immediately.
      *
-     * @return  Whether the cache was deleted successfully.
+     * @param callback              Callback invoked once the cache has been deleted.
+     * @throws NullPointerException The passed callback is {@code null}.
      */
-    public static boolean deleteCache() {
-        return deleteCache(CACHE_NAME);
+    public static void deleteCache(DeletionCallback callback) throws NullPointerException {
+        deleteCache(CACHE_NAME, callback);
     }
 
 }
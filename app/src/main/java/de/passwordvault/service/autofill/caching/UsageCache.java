@@ -0,0 +1,117 @@
+package de.passwordvault.service.autofill.caching;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+
+/**
+ * Class models the usage cache which stores how often the data for a package name has been filled
+ * in. The usage cache is of the following format:<br/>
+ * ---------<br/>
+ * <code>
+ *     &lt;package_name1&gt;;&lt;number_of_fills1&gt;<br/>
+ *     &lt;package_name2&gt;;&lt;number_of_fills2&gt;<br/>
+ *     ...<br/>
+ * </code>
+ * ---------<br/>
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class UsageCache extends Cache {
+
+    /**
+     * Field stores the singleton-instance of the usage cache.
+     */
+    private static UsageCache singleton;
+
+    /**
+     * Field stores the name of the cache.
+     */
+    private static final String CACHE_NAME = "autofill/usage.cache";
+
+
+    /**
+     * Constructor instantiates a new usage cache.
+     */
+    private UsageCache() {
+        super(CACHE_NAME);
+    }
+
+
+    /**
+     * Method returns the singleton-instance of the usage cache.
+     *
+     * @return  Singleton-instance.
+     */
+    public static synchronized UsageCache getInstance() {
+        if (singleton == null) {
+            singleton = new UsageCache();
+        }
+        return singleton;
+    }
+
+
+    /**
+     * Method increments the number of fills for the package with the passed name and returns the
+     * new number of fills.
+     *
+     * @param packageName           Name of the package that was filled.
+     * @return                      Number of fills for the package.
+     * @throws NullPointerException The passed package name is {@code null}.
+     */
+    public synchronized int incrementFills(String packageName) throws NullPointerException {
+        UsageCacheItem item = (UsageCacheItem)getItem(packageName);
+        if (item == null) {
+            item = new UsageCacheItem(packageName, 0);
+        }
+        item.incrementFills();
+        putItem(item);
+        return item.getFills();
+    }
+
+
+    /**
+     * Method returns the names of the packages which were filled most frequently, in descending
+     * order of their number of fills.
+     *
+     * @param count Maximum number of package names to return.
+     * @return      Names of the most frequently filled packages.
+     */
+    public ArrayList<String> getMostFrequentPackages(int count) {
+        ArrayList<UsageCacheItem> items = new ArrayList<>();
+        for (CacheItem item : getItems()) {
+            items.add((UsageCacheItem)item);
+        }
+        Collections.sort(items, (a, b) -> Integer.compare(b.getFills(), a.getFills()));
+        ArrayList<String> packageNames = new ArrayList<>();
+        for (int i = 0; i < items.size() && i < count; i++) {
+            packageNames.add(items.get(i).getIdentifier());
+        }
+        return packageNames;
+    }
+
+
+    /**
+     * Method returns an instance of {@link UsageCacheItem} for the the specified line.
+     *
+     * @param s Line of the cache for which to generate the cache item.
+     * @return  Generated cache item.
+     */
+    @Override
+    protected CacheItem generateCacheItem(String s) {
+        return new UsageCacheItem(s);
+    }
+
+
+    /**
+     * Method permanently deletes the cache in the background and returns immediately.
+     *
+     * @param callback              Callback invoked once the cache has been deleted.
+     * @throws NullPointerException The passed callback is {@code null}.
+     */
+    public static void deleteCache(DeletionCallback callback) throws NullPointerException {
+        deleteCache(CACHE_NAME, callback);
+    }
+
+}
@@ -0,0 +1,87 @@
+package de.passwordvault.service.autofill.caching;
+
+
+/**
+ * Class models a cache item for the {@link UsageCache}. Items of the usage cache are of the
+ * following format:<br/>
+ * ---------<br/>
+ * <code>
+ *     &lt;package_name&gt;;&lt;number_of_fills&gt;<br/>
+ * </code>
+ * ---------<br/>
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class UsageCacheItem extends CacheItem {
+
+    /**
+     * Attribute stores the cached number of fills of the usage cache item.
+     */
+    private int fills;
+
+
+    /**
+     * Constructor instantiates a new cache item for the passed identifier and content.
+     *
+     * @param identifier            Identifier for the cache item.
+     * @param content               Content for the cache item.
+     * @throws NullPointerException The passed identifier or content is {@code null}.
+     */
+    public UsageCacheItem(String identifier, String content) throws NullPointerException {
+        super(identifier, content);
+        fills = -1;
+    }
+
+    /**
+     * Constructor instantiates a new cache item from the passed string representation. The passed
+     * string representation must be generated through {@link #toString()} beforehand.
+     *
+     * @param s                     String representation of the cache item.
+     * @throws NullPointerException The passed string representation is {@code null.}
+     */
+    public UsageCacheItem(String s) throws NullPointerException {
+        super(s);
+        fills = -1;
+    }
+
+    /**
+     * Constructor instantiates a new cache item from the passed package name and number of fills.
+     *
+     * @param identifier            Name of the package for the cache item.
+     * @param fills                 Number of fills for the package.
+     * @throws NullPointerException The passed identifier is {@code null}.
+     */
+    public UsageCacheItem(String identifier, int fills) throws NullPointerException {
+        super(identifier, Integer.toString(fills));
+        this.fills = fills;
+    }
+
+
+    /**
+     * Method returns the number of fills of the package. If the content of the item is corrupt,
+     * {@code 0} is returned.
+     *
+     * @return  Number of fills.
+     */
+    public synchronized int getFills() {
+        if (fills < 0) {
+            try {
+                fills = Math.max(0, Integer.parseInt(getContent()));
+            }
+            catch (NumberFormatException e) {
+                fills = 0;
+            }
+        }
+        return fills;
+    }
+
+    /**
+     * Method increments the number of fills of the package.
+     */
+    public synchronized void incrementFills() {
+        fills = getFills() == Integer.MAX_VALUE ? Integer.MAX_VALUE : getFills() + 1;
+        setContent(Integer.toString(fills));
+    }
+
+}
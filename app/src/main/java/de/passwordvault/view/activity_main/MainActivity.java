@@ -9,6 +9,7 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.os.Bundle;
+import android.os.Looper;
 import android.util.Log;
 import android.view.View;
 import android.widget.ProgressBar;
@@ -16,6 +17,7 @@ import android.widget.Toast;
 import de.passwordvault.R;
 import de.passwordvault.model.UpdateManager;
 import de.passwordvault.model.entry.EntryAbbreviated;
+import de.passwordvault.model.entry.EntryChangeListener;
 import de.passwordvault.model.entry.EntryManager;
 import de.passwordvault.model.rest.RestCallback;
 import de.passwordvault.model.rest.RestError;
@@ -31,9 +33,9 @@ import de.passwordvault.view.utils.components.PasswordVaultActivity;
  * Class implements the MainActivity for this application, displaying a list of all entries.
  *
  * @author  Christian-2003
- * @version 3.7.3
+ * @version 3.7.4
  */
-public class MainActivity extends PasswordVaultActivity<MainViewModel> implements UpdateManager.UpdateStatusChangedCallback, RestCallback {
+public class MainActivity extends PasswordVaultActivity<MainViewModel> implements UpdateManager.UpdateStatusChangedCallback, RestCallback, EntryChangeListener {
 
     /**
      * Attribute stores the adapter for the recycler view which displays the abbreviated entries.
@@ -77,23 +79,8 @@ public class MainActivity extends PasswordVaultActivity<MainViewModel> implement
     public MainActivity() {
         super(MainViewModel.class, R.layout.activity_main);
 
-        //Show entry:
-        entryLauncher = registerForActivityResult(new ActivityResultContracts.StartActivityForResult(), result -> {
-            if (adapter != null) {
-                int adapterPosition = viewModel.getOpenedEntryAdapterPosition();
-                if (adapterPosition >= MainRecyclerViewAdapter.OFFSET_ENTRIES && adapterPosition <= MainRecyclerViewAdapter.OFFSET_ENTRIES + adapter.getItemCount()) {
-                    if (result.getResultCode() == EntryActivity.RESULT_DELETED) {
-                        adapter.notifyItemRemoved(adapterPosition);
-                    }
-                    else if (result.getResultCode() == EntryActivity.RESULT_EDITED) {
-                        adapter.notifyDataSetChanged(); //Need to update entire adapter since data is sorted alphabetically
-                    }
-                }
-                else if (adapterPosition == -1 && result.getResultCode() == EntryActivity.RESULT_EDITED) {
-                    adapter.notifyDataSetChanged(); //Need to update entire adapter since data is sorted alphabetically
-                }
-            }
-        });
+        //Show entry (changes to the entries are passed to the adapter through the EntryChangeListener):
+        entryLauncher = registerForActivityResult(new ActivityResultContracts.StartActivityForResult(), result -> {});
 
         //Show settings:
         settingsLauncher = registerForActivityResult(new ActivityResultContracts.StartActivityForResult(), result -> {
@@ -202,6 +189,7 @@ public class MainActivity extends PasswordVaultActivity<MainViewModel> implement
         recyclerView.setVisibility(View.GONE);
         progressBar.setVisibility(View.VISIBLE);
         viewModel.loadAllEntries(this::onEntriesLoaded, false);
+        EntryManager.getInstance().addChangeListener(this);
 
         UpdateManager.getInstance(this, this);
 
@@ -209,6 +197,16 @@ public class MainActivity extends PasswordVaultActivity<MainViewModel> implement
     }
 
 
+    /**
+     * Method is called whenever the MainActivity is destroyed.
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        EntryManager.getInstance().removeChangeListener(this);
+    }
+
+
     /**
      * Method is called whenever the MainActivity is destroyed. This is usually done whenever the
      * application is closed.
@@ -233,6 +231,83 @@ public class MainActivity extends PasswordVaultActivity<MainViewModel> implement
     }
 
 
+    /**
+     * Method is called whenever an entry was inserted into the list of entries.
+     *
+     * @param position  Position at which the entry was inserted.
+     */
+    @Override
+    public void onEntryInserted(int position) {
+        if (canDispatchEntryChanges()) {
+            adapter.notifyItemInserted(MainRecyclerViewAdapter.OFFSET_ENTRIES + position);
+            if (EntryManager.getInstance().size() == 1) {
+                adapter.notifyItemChanged(MainRecyclerViewAdapter.POSITION_EMPTY_PLACEHOLDER);
+            }
+        }
+    }
+
+    /**
+     * Method is called whenever an entry was removed from the list of entries.
+     *
+     * @param position  Position from which the entry was removed.
+     */
+    @Override
+    public void onEntryRemoved(int position) {
+        if (canDispatchEntryChanges()) {
+            adapter.notifyItemRemoved(MainRecyclerViewAdapter.OFFSET_ENTRIES + position);
+            if (EntryManager.getInstance().isEmpty()) {
+                adapter.notifyItemChanged(MainRecyclerViewAdapter.POSITION_EMPTY_PLACEHOLDER);
+            }
+        }
+    }
+
+    /**
+     * Method is called whenever an entry was moved within the list of entries.
+     *
+     * @param fromPosition  Position at which the entry was located before.
+     * @param toPosition    Position at which the entry is located now.
+     */
+    @Override
+    public void onEntryMoved(int fromPosition, int toPosition) {
+        if (canDispatchEntryChanges()) {
+            adapter.notifyItemMoved(MainRecyclerViewAdapter.OFFSET_ENTRIES + fromPosition, MainRecyclerViewAdapter.OFFSET_ENTRIES + toPosition);
+        }
+    }
+
+    /**
+     * Method is called whenever an entry within the list of entries was changed.
+     *
+     * @param position  Position of the changed entry.
+     */
+    @Override
+    public void onEntryChanged(int position) {
+        if (canDispatchEntryChanges()) {
+            adapter.notifyItemChanged(MainRecyclerViewAdapter.OFFSET_ENTRIES + position);
+        }
+    }
+
+    /**
+     * Method is called whenever the entire list of entries changed.
+     */
+    @Override
+    public void onEntriesReset() {
+        if (canDispatchEntryChanges()) {
+            adapter.notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * Method returns whether changes to the entries can be passed to the adapter. This is only the
+     * case if all entries are loaded and the change was made on the main thread. Changes made on
+     * other threads (e.g. while restoring a backup) are applied once the respective activity returns.
+     *
+     * @return  Whether changes can be passed to the adapter.
+     */
+    private boolean canDispatchEntryChanges() {
+        return adapter != null && viewModel.isLoaded() && Looper.myLooper() == Looper.getMainLooper();
+    }
+
+
     /**
      * Method is called whenever an entry is clicked.
      *
@@ -270,16 +345,23 @@ public class MainActivity extends PasswordVaultActivity<MainViewModel> implement
 
 
     /**
-     * Method is called as callback once all entries are loaded and available to display.
+     * Method is called as callback once the first entries, and once more after all entries, are
+     * loaded and available to display. The adapter is created once and notified about the changed
+     * entries afterwards.
      */
     private void onEntriesLoaded() {
         runOnUiThread(() -> {
             progressBar.setVisibility(View.GONE);
             recyclerView.setVisibility(View.VISIBLE);
-            adapter = new MainRecyclerViewAdapter(this, viewModel);
-            adapter.setItemClickListener(this::onEntryClicked);
-            adapter.setUpdateClickListener(this::onUpdateClicked);
-            recyclerView.setAdapter(adapter);
+            if (adapter == null) {
+                adapter = new MainRecyclerViewAdapter(this, viewModel);
+                adapter.setItemClickListener(this::onEntryClicked);
+                adapter.setUpdateClickListener(this::onUpdateClicked);
+                recyclerView.setAdapter(adapter);
+            }
+            else {
+                adapter.notifyDataSetChanged();
+            }
         });
     }
 
@@ -1,15 +1,20 @@
 package de.passwordvault.view.activity_main;
 
+import android.os.Handler;
+import android.os.Looper;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.ViewModel;
 import java.util.ArrayList;
+import de.passwordvault.App;
 import de.passwordvault.model.entry.EntryAbbreviated;
 import de.passwordvault.model.entry.EntryManager;
 import de.passwordvault.model.rest.RestCallback;
 import de.passwordvault.model.rest.RestError;
 import de.passwordvault.model.rest.legal.LegalPageDto;
 import de.passwordvault.model.rest.legal.LegalRestClient;
+import de.passwordvault.model.search.SearchException;
+import de.passwordvault.model.search.SearchIndex;
 import de.passwordvault.model.storage.app.StorageException;
 
 
@@ -18,7 +23,7 @@ import de.passwordvault.model.storage.app.StorageException;
  * that shall be persistent throughout activity changes.
  *
  * @author  Christian-2003
- * @version 3.7.2
+ * @version 3.7.4
  */
 public class MainViewModel extends ViewModel {
 
@@ -49,14 +54,26 @@ public class MainViewModel extends ViewModel {
     private boolean updateAvailable;
 
     /**
-     * Attribute stores whether the entries have been loaded.
+     * Attribute stores whether the entries have been loaded. This is only changed on the main thread.
      */
-    private boolean loaded;
+    private volatile boolean loaded;
 
     /**
      * Attribute stores whether the entries are currently loading.
      */
-    private boolean loading;
+    private volatile boolean loading;
+
+    /**
+     * Attribute stores the first entries which are available while the entries are loading. This is
+     * {@code null} if no entries are available yet. This is only changed on the main thread.
+     */
+    @Nullable
+    private volatile ArrayList<EntryAbbreviated> firstPage;
+
+    /**
+     * Attribute stores the handler through which the loaded entries are published on the main thread.
+     */
+    private final Handler mainHandler;
 
     /**
      * Attribute stores the REST client used to fetch the privacy policy.
@@ -97,6 +114,8 @@ public class MainViewModel extends ViewModel {
         updateAvailable = false;
         loaded = false;
         loading = false;
+        firstPage = null;
+        mainHandler = new Handler(Looper.getMainLooper());
         privacyRestClient = new LegalRestClient(TAG_PRIVACY, "privacy");
         tosRestClient = new LegalRestClient(TAG_TOS, "tos");
         privacyError = null;
@@ -155,6 +174,15 @@ public class MainViewModel extends ViewModel {
         updateAvailable = true;
     }
 
+    /**
+     * Method returns whether all entries have been loaded.
+     *
+     * @return  Whether all entries have been loaded.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
     /**
      * Method indicates whether data has changed since last cache generation.
      *
@@ -240,9 +268,14 @@ public class MainViewModel extends ViewModel {
 
 
     /**
-     * Method loads the entries from storage.
+     * Method loads the entries from storage. The callback is invoked whenever a (provisional or
+     * refined) page of the first entries has been loaded, and once more after all entries have been
+     * loaded and sorted. Afterwards, the
+     * {@link SearchIndex} is built. The loaded entries are published on the main thread, where the
+     * callback is invoked afterwards, so that the entries returned by {@link #getAllEntries()} only
+     * change on the main thread.
      *
-     * @param callback  Callback to invoke after the entries are loaded.
+     * @param callback  Callback to invoke on the main thread after the entries are loaded.
      * @param force     Whether to force (re)load the entries after they were already loaded.
      */
     public void loadAllEntries(@Nullable Runnable callback, boolean force) {
@@ -250,20 +283,43 @@ public class MainViewModel extends ViewModel {
             if (!loaded || force) {
                 loading = true;
                 Thread thread = new Thread(() -> {
+                    EntryManager.getInstance().sortByName(false);
                     try {
-                        EntryManager.getInstance().load();
+                        EntryManager.getInstance().load(page -> {
+                            if (!page.isEmpty()) {
+                                mainHandler.post(() -> {
+                                    if (!loaded) {
+                                        firstPage = page;
+                                        if (callback != null) {
+                                            callback.run();
+                                        }
+                                    }
+                                });
+                            }
+                        });
                     }
                     catch (StorageException e) {
                         //We can ignore this exception and treat this case as if the user opens
                         //the app for the first time and has no data to load.
                     }
-                    EntryManager.getInstance().sortByName(false);
                     EntryManager.getInstance().getData(); //Sorts data
-                    loaded = true;
-                    loading = false;
-                    if (callback != null) {
-                        callback.run();
-                    }
+                    mainHandler.post(() -> {
+                        loaded = true;
+                        loading = false;
+                        firstPage = null;
+                        if (callback != null) {
+                            callback.run();
+                        }
+                    });
+                    //Build search index in the background, so that it is available for searches:
+                    App.getExecutor().execute(() -> {
+                        try {
+                            SearchIndex.getInstance().build();
+                        }
+                        catch (SearchException e) {
+                            //The index is built again with the next search.
+                        }
+                    });
                 });
                 thread.start();
                 return;
@@ -276,14 +332,15 @@ public class MainViewModel extends ViewModel {
 
 
     /**
-     * Method returns a list of all entries.
+     * Method returns a list of all entries. While the entries are loading, the first entries are
+     * returned.
      *
      * @return  List of all entries.
      */
     @Nullable
     public ArrayList<EntryAbbreviated> getAllEntries() {
         if (!loaded) {
-            return null;
+            return firstPage;
         }
         return EntryManager.getInstance().getData();
     }
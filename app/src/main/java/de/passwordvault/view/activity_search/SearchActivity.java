@@ -3,6 +3,8 @@ package de.passwordvault.view.activity_search;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
 import android.view.inputmethod.EditorInfo;
 import android.view.inputmethod.InputMethodManager;
@@ -24,9 +26,9 @@ import de.passwordvault.view.utils.components.PasswordVaultActivity;
  * Class implements the activity through which the user can search their entries.
  *
  * @author  Christian-2003
- * @version 3.7.2
+ * @version 3.7.4
  */
-public class SearchActivity extends PasswordVaultActivity<SearchViewModel> {
+public class SearchActivity extends PasswordVaultActivity<SearchViewModel> implements SearchViewModel.SearchListener {
 
     /**
      * Field stores the result code returned if some data was deleted.
@@ -72,7 +74,7 @@ public class SearchActivity extends PasswordVaultActivity<SearchViewModel> {
         super(SearchViewModel.class, R.layout.activity_search);
 
         entryLauncher = registerForActivityResult(new ActivityResultContracts.StartActivityForResult(), result -> {
-            if (result.getResultCode() == EntryActivity.RESULT_DELETED && viewModel.getSearchResults() != null) {
+            if (result.getResultCode() == EntryActivity.RESULT_DELETED && viewModel.isFinished() && viewModel.getSearchResults() != null) {
                 for (int i = viewModel.getLastOpenedPosition(); i >= viewModel.getFirstOpenedPosition(); i--) {
                     viewModel.getSearchResults().remove(i);
                 }
@@ -115,17 +117,89 @@ public class SearchActivity extends PasswordVaultActivity<SearchViewModel> {
             onSearchClicked();
             return true;
         });
+        queryInput.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                if (s.length() > 0) {
+                    viewModel.searchDelayed(s.toString());
+                }
+            }
+        });
         queryInput.requestFocus();
         inputMethodManager.showSoftInput(queryInput, 0);
 
         findViewById(R.id.button_clear).setOnClickListener(view -> onClearQueryClicked());
 
-        if (viewModel.isFinished()) {
+        viewModel.setSearchListener(this);
+        if (viewModel.isSearching()) {
+            onSearchStarted();
+        }
+        else if (viewModel.isFinished()) {
             onSearchFinished();
         }
     }
 
 
+    /**
+     * Method is called whenever the activity is destroyed.
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        viewModel.setSearchListener(null);
+    }
+
+
+    /**
+     * Method is called whenever the view model starts a new search.
+     */
+    @Override
+    public void onSearchStarted() {
+        progressBar.setVisibility(View.VISIBLE);
+        recyclerView.setVisibility(View.VISIBLE);
+        updateAdapter();
+    }
+
+    /**
+     * Method is called whenever the view model found search results while searching.
+     *
+     * @param position  Position of the first search result that was found.
+     * @param count     Number of search results that were found.
+     */
+    @Override
+    public void onResultsFound(int position, int count) {
+        if (adapter == null) {
+            updateAdapter();
+            return;
+        }
+        adapter.notifyItemRangeInserted(position + SearchRecyclerViewAdapter.OFFSET_SEARCH_RESULTS, count);
+        if (position == 0) {
+            //Hide placeholder:
+            adapter.notifyItemChanged(SearchRecyclerViewAdapter.POSITION_EMPTY_PLACEHOLDER);
+        }
+    }
+
+    /**
+     * Method is called whenever the view model has finished searching.
+     */
+    @Override
+    public void onSearchFinished() {
+        progressBar.setVisibility(View.GONE);
+        recyclerView.setVisibility(View.VISIBLE);
+        updateAdapter();
+    }
+
+
     /**
      * Method clears the entered search query (it does not remove search results or cancel any
      * ongoing searches).
@@ -141,26 +215,26 @@ public class SearchActivity extends PasswordVaultActivity<SearchViewModel> {
      * action button on the keyboard.
      */
     private void onSearchClicked() {
-        progressBar.setVisibility(View.VISIBLE);
-        recyclerView.setVisibility(View.GONE);
         String query = queryInput.getText().toString();
-        viewModel.search(this::onSearchFinished, query, true);
+        viewModel.search(query, true);
         queryInput.clearFocus();
         inputMethodManager.hideSoftInputFromWindow(queryInput.getWindowToken(), 0);
     }
 
 
     /**
-     * Method is called whenever the view model has finished searching.
+     * Method creates the adapter if it does not exist yet, and informs it that all search results
+     * changed otherwise.
      */
-    private void onSearchFinished() {
-        runOnUiThread(() -> {
-            progressBar.setVisibility(View.GONE);
-            recyclerView.setVisibility(View.VISIBLE);
+    private void updateAdapter() {
+        if (adapter == null) {
             adapter = new SearchRecyclerViewAdapter(this, viewModel);
             adapter.setSearchResultClicked(this::onSearchResultClicked);
             recyclerView.setAdapter(adapter);
-        });
+        }
+        else {
+            adapter.notifyDataSetChanged();
+        }
     }
 
 
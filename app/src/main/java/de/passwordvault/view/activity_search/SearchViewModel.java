@@ -1,6 +1,8 @@
 package de.passwordvault.view.activity_search;
 
 import android.graphics.Color;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Spannable;
 import android.text.SpannableString;
 import android.text.style.BackgroundColorSpan;
@@ -9,18 +11,59 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.ViewModel;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import de.passwordvault.model.search.CancellationToken;
 import de.passwordvault.model.search.SearchHandler;
 import de.passwordvault.model.search.SearchResult;
 
 
 /**
- * Class implements the view model for the {@link SearchActivity}.
+ * Class implements the view model for the {@link SearchActivity}. Searches are run one after
+ * another on a background thread. Starting a new search cancels the running search, and queries that
+ * are entered while typing are debounced, so that only the last query is searched.
  *
  * @author  Christian-2003
- * @version 3.7.1
+ * @version 3.7.4
  */
 public class SearchViewModel extends ViewModel {
 
+    /**
+     * Interface models a listener which is informed about the progress of a search. All methods are
+     * invoked on the main thread.
+     */
+    public interface SearchListener {
+
+        /**
+         * Method is called whenever a new search is started. The list of search results is empty
+         * at this point.
+         */
+        void onSearchStarted();
+
+        /**
+         * Method is called whenever search results were appended to the list of search results while
+         * searching.
+         *
+         * @param position  Position of the first search result that was appended.
+         * @param count     Number of search results that were appended.
+         */
+        void onResultsFound(int position, int count);
+
+        /**
+         * Method is called once the search has finished. The list of search results is replaced with
+         * the results ordered according to their priority.
+         */
+        void onSearchFinished();
+
+    }
+
+
+    /**
+     * Field stores the delay (in milliseconds) with which queries are searched while typing.
+     */
+    private static final long DEBOUNCE_DELAY = 200;
+
+
     /**
      * Attribute stores the list of search results.
      */
@@ -67,6 +110,38 @@ public class SearchViewModel extends ViewModel {
      */
     private int resultCode;
 
+    /**
+     * Attribute stores the executor which runs the searches one after another.
+     */
+    @NonNull
+    private final ExecutorService searchExecutor;
+
+    /**
+     * Attribute stores the handler through which results are passed to the main thread.
+     */
+    @NonNull
+    private final Handler mainHandler;
+
+    /**
+     * Attribute stores the token through which the current search can be cancelled. This is
+     * {@code null} if no search was started.
+     */
+    @Nullable
+    private CancellationToken cancellationToken;
+
+    /**
+     * Attribute stores the debounced search which is started once the user stops typing. This is
+     * {@code null} if no search is pending.
+     */
+    @Nullable
+    private Runnable pendingSearch;
+
+    /**
+     * Attribute stores the listener which is informed about the progress of searches.
+     */
+    @Nullable
+    private SearchListener searchListener;
+
 
     /**
      * Constructor instantiates a new view model.
@@ -80,23 +155,46 @@ public class SearchViewModel extends ViewModel {
         firstOpenedPosition = -1;
         lastOpenedPosition = -1;
         resultCode = SearchActivity.RESULT_OK;
+        searchExecutor = Executors.newSingleThreadExecutor();
+        mainHandler = new Handler(Looper.getMainLooper());
+        cancellationToken = null;
+        pendingSearch = null;
+        searchListener = null;
     }
 
 
     /**
-     * Method returns a list of search results. If nothing has been searched so far,
-     * {@code null} is returned.
+     * Method returns a list of search results. While searching, the list contains the results that
+     * were found so far. If nothing has been searched so far, {@code null} is returned.
      *
      * @return  List of search results.
      */
     @Nullable
     public ArrayList<SearchResult> getSearchResults() {
-        if (!finished) {
+        if (!finished && !searching) {
             return null;
         }
         return searchResults;
     }
 
+    /**
+     * Method returns whether a search is currently running.
+     *
+     * @return  Whether a search is running.
+     */
+    public boolean isSearching() {
+        return searching;
+    }
+
+    /**
+     * Method changes the listener which is informed about the progress of searches.
+     *
+     * @param searchListener    Listener to inform, or {@code null} if no listener shall be informed.
+     */
+    public void setSearchListener(@Nullable SearchListener searchListener) {
+        this.searchListener = searchListener;
+    }
+
     /**
      * Method returns whether the search operation has finished.
      *
@@ -187,33 +285,127 @@ public class SearchViewModel extends ViewModel {
 
 
     /**
-     * Method searches the app for the specified query and invokes the callback after searching.
+     * Method searches the passed query immediately. Any running or pending search is cancelled. This
+     * must be called on the main thread.
      *
-     * @param callback  Callback to invoke after the search finishes.
-     * @param query     Search query.
-     * @param force     Whether to force search, even if searching has already finished.
-     */
-    public void search(@Nullable Runnable callback, @NonNull String query, boolean force) {
-        if (!searching) {
-            if (!finished || force) {
-                searching = true;
-                Thread thread = new Thread(() -> {
-                    this.lowercaseQuery = query.toLowerCase();
-                    searchResults = searchHandler.search(query);
-                    finished = true;
+     * @param query Query to search.
+     * @param force Whether to search again, even if a search has already finished.
+     */
+    public void search(@NonNull String query, boolean force) {
+        if (!force && finished) {
+            if (searchListener != null) {
+                searchListener.onSearchFinished();
+            }
+            return;
+        }
+        startSearch(query);
+    }
+
+    /**
+     * Method searches the passed query once no other query was passed for a short delay. This is
+     * intended to be used while the user types the query. If the query is already searched, nothing
+     * happens. This must be called on the main thread.
+     *
+     * @param query Query to search.
+     */
+    public void searchDelayed(@NonNull String query) {
+        if (pendingSearch != null) {
+            mainHandler.removeCallbacks(pendingSearch);
+        }
+        if (query.toLowerCase().equals(lowercaseQuery) && (searching || finished)) {
+            pendingSearch = null;
+            return;
+        }
+        pendingSearch = () -> startSearch(query);
+        mainHandler.postDelayed(pendingSearch, DEBOUNCE_DELAY);
+    }
+
+
+    /**
+     * Method is called when the view model is no longer used, and cancels all searches.
+     */
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        if (pendingSearch != null) {
+            mainHandler.removeCallbacks(pendingSearch);
+        }
+        if (cancellationToken != null) {
+            cancellationToken.cancel();
+        }
+        searchListener = null;
+        searchExecutor.shutdown();
+    }
+
+
+    /**
+     * Method cancels any running or pending search and starts searching the passed query on the
+     * {@link #searchExecutor}.
+     *
+     * @param query Query to search.
+     */
+    private void startSearch(@NonNull String query) {
+        if (pendingSearch != null) {
+            mainHandler.removeCallbacks(pendingSearch);
+            pendingSearch = null;
+        }
+        if (cancellationToken != null) {
+            cancellationToken.cancel();
+        }
+        CancellationToken token = new CancellationToken();
+        cancellationToken = token;
+        lowercaseQuery = query.toLowerCase();
+        searchResults = new ArrayList<>();
+        searching = true;
+        finished = false;
+        if (searchListener != null) {
+            searchListener.onSearchStarted();
+        }
+        searchExecutor.execute(() -> searchHandler.search(query, token, new SearchHandler.SearchCallback() {
+            @Override
+            public void onResultsFound(ArrayList<SearchResult> results) {
+                mainHandler.post(() -> {
+                    if (token.isCancelled()) {
+                        return;
+                    }
+                    int position = searchResults.size();
+                    searchResults.addAll(results);
+                    if (searchListener != null) {
+                        searchListener.onResultsFound(position, results.size());
+                    }
+                });
+            }
+
+            @Override
+            public void onSearchFinished(ArrayList<SearchResult> results) {
+                mainHandler.post(() -> {
+                    if (token.isCancelled()) {
+                        return;
+                    }
+                    searchResults = results;
                     searching = false;
-                    if (callback != null) {
-                        callback.run();
+                    finished = true;
+                    if (searchListener != null) {
+                        searchListener.onSearchFinished();
                     }
                 });
-                thread.start();
             }
-            else {
-                if (callback != null) {
-                    callback.run();
-                }
+
+            @Override
+            public void onSearchFailed() {
+                mainHandler.post(() -> {
+                    if (token.isCancelled()) {
+                        return;
+                    }
+                    //Results which were found before the search failed remain visible:
+                    searching = false;
+                    finished = true;
+                    if (searchListener != null) {
+                        searchListener.onSearchFinished();
+                    }
+                });
             }
-        }
+        }));
     }
 
 
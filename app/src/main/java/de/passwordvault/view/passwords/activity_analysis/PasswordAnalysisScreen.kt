@@ -4,6 +4,7 @@ import androidx.compose.foundation.background
 import androidx.compose.foundation.layout.Box
 import androidx.compose.foundation.layout.Column
 import androidx.compose.foundation.layout.fillMaxSize
+import androidx.compose.foundation.layout.fillMaxWidth
 import androidx.compose.foundation.layout.padding
 import androidx.compose.foundation.pager.HorizontalPager
 import androidx.compose.foundation.pager.rememberPagerState
@@ -11,6 +12,7 @@ import androidx.compose.material3.CircularProgressIndicator
 import androidx.compose.material3.ExperimentalMaterial3Api
 import androidx.compose.material3.Icon
 import androidx.compose.material3.IconButton
+import androidx.compose.material3.LinearProgressIndicator
 import androidx.compose.material3.MaterialTheme
 import androidx.compose.material3.Scaffold
 import de.passwordvault.ui.composables.Tab
@@ -21,14 +23,18 @@ import androidx.compose.material3.Text
 import androidx.compose.material3.TopAppBar
 import androidx.compose.material3.TopAppBarDefaults
 import androidx.compose.runtime.Composable
+import androidx.compose.runtime.collectAsState
+import androidx.compose.runtime.getValue
 import androidx.compose.runtime.rememberCoroutineScope
 import androidx.compose.ui.Alignment
 import androidx.compose.ui.Modifier
+import androidx.compose.ui.res.dimensionResource
 import androidx.compose.ui.res.painterResource
 import androidx.compose.ui.res.stringResource
 import de.passwordvault.ui.theme.LocalPasswordVaultColors
 import de.passwordvault.R
 import de.passwordvault.model.analysis.passwords.AnalyzedPassword
+import de.passwordvault.model.analysis.passwords.PasswordAnalysisPipeline
 import de.passwordvault.model.entry.EntryAbbreviated
 import kotlinx.coroutines.launch
 
@@ -47,6 +53,8 @@ fun PasswordAnalysisScreen(
     onNavigateUp: () -> Unit,
     onNavigateToEntry: (String) -> Unit
 ) {
+    val progress: PasswordAnalysisPipeline.Progress? by viewModel.progress.collectAsState()
+
     Scaffold(
         topBar = {
             TopAppBar(
@@ -94,7 +102,9 @@ fun PasswordAnalysisScreen(
                 .padding(innerPadding)
         ) {
             if (viewModel.isAnalysisStarted) {
-                LoadingSection()
+                LoadingSection(
+                    progress = progress
+                )
             }
             else {
                 ContentSection(
@@ -120,14 +130,44 @@ fun PasswordAnalysisScreen(
 
 /**
  * Composable displays the loading section while passwords are being analyzed.
+ *
+ * @param progress  Progress of the analysis, or null if no progress has been published yet.
  */
 @Composable
-private fun LoadingSection() {
+private fun LoadingSection(
+    progress: PasswordAnalysisPipeline.Progress?
+) {
     Box(
         contentAlignment = Alignment.Center,
         modifier = Modifier.fillMaxSize()
     ) {
-        CircularProgressIndicator()
+        if (progress == null || progress.isFinished) {
+            CircularProgressIndicator()
+        }
+        else {
+            Column(
+                horizontalAlignment = Alignment.CenterHorizontally,
+                modifier = Modifier
+                    .fillMaxWidth()
+                    .padding(horizontal = dimensionResource(R.dimen.padding_horizontal))
+            ) {
+                LinearProgressIndicator(
+                    progress = { progress.getFraction() },
+                    modifier = Modifier.fillMaxWidth()
+                )
+                Text(
+                    text = stringResource(R.string.password_analysis_progress, progress.analyzedEntries, progress.totalEntries),
+                    color = MaterialTheme.colorScheme.onSurface,
+                    style = MaterialTheme.typography.bodyMedium,
+                    modifier = Modifier.padding(top = dimensionResource(R.dimen.padding_vertical))
+                )
+                Text(
+                    text = stringResource(R.string.password_analysis_progress_found, progress.weakPasswords, progress.identicalPasswords),
+                    color = MaterialTheme.colorScheme.onSurfaceVariant,
+                    style = MaterialTheme.typography.bodySmall
+                )
+            }
+        }
     }
 }
 
@@ -6,12 +6,19 @@ import androidx.compose.runtime.mutableStateOf
 import androidx.compose.runtime.setValue
 import androidx.lifecycle.ViewModel
 import androidx.lifecycle.viewModelScope
+import de.passwordvault.model.analysis.PasswordStrengthEngine
 import de.passwordvault.model.analysis.QualityGateManager
 import de.passwordvault.model.analysis.passwords.AnalyzedPassword
-import de.passwordvault.model.detail.DetailType
-import de.passwordvault.model.entry.EntryExtended
+import de.passwordvault.model.analysis.passwords.PasswordAnalysisCache
+import de.passwordvault.model.analysis.passwords.PasswordAnalysisPipeline
+import de.passwordvault.model.analysis.passwords.PasswordAnalyzer
+import de.passwordvault.model.analysis.strength.EntropyStrengthEngine
 import de.passwordvault.model.entry.EntryManager
+import de.passwordvault.model.storage.settings.Config
 import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
 import kotlinx.coroutines.launch
 
 
@@ -33,6 +40,12 @@ class PasswordAnalysisViewModel: ViewModel() {
      */
     private lateinit var qualityGateManager: QualityGateManager
 
+    /**
+     * Stores whether passwords are scored by the estimated number of guesses instead of the passed
+     * quality gates.
+     */
+    private var useEntropyStrengthEstimation = false
+
     /**
      * Stores whether the analysis has finished.
      */
@@ -78,6 +91,17 @@ class PasswordAnalysisViewModel: ViewModel() {
      */
     var identicalPasswords: List<List<AnalyzedPassword>> = emptyList()
 
+    /**
+     * Stores the progress of the running analysis.
+     */
+    private val _progress: MutableStateFlow<PasswordAnalysisPipeline.Progress?> = MutableStateFlow(null)
+
+    /**
+     * Stores the progress of the running analysis, including the weak and identical passwords found
+     * so far.
+     */
+    val progress: StateFlow<PasswordAnalysisPipeline.Progress?> = _progress.asStateFlow()
+
 
     /**
      * Initializes the view model.
@@ -88,7 +112,8 @@ class PasswordAnalysisViewModel: ViewModel() {
     fun init(entryManager: EntryManager, qualityGateManager: QualityGateManager) {
         this.entryManager = entryManager
         this.qualityGateManager = qualityGateManager
-        maxSecurityScore = qualityGateManager.numberOfQualityGates()
+        useEntropyStrengthEstimation = Config.getInstance().entropyStrengthEstimation.get()
+        maxSecurityScore = if (useEntropyStrengthEstimation) EntropyStrengthEngine.MAX_SCORE else qualityGateManager.numberOfQualityGates()
         thresholdGood = maxSecurityScore!! * 0.67f
         thresholdNeutral = maxSecurityScore!! * 0.34f
         if (!isAnalysisStarted && !isAnalysisFinished) {
@@ -98,65 +123,30 @@ class PasswordAnalysisViewModel: ViewModel() {
 
 
     /**
-     * Method analyzes the password security.
+     * Method analyzes the password security. The progress of the analysis is published through
+     * [progress].
      */
     fun analyze() = viewModelScope.launch(Dispatchers.IO) {
         isAnalysisStarted = true
         isAnalysisFinished = false
-        val passwords: MutableList<AnalyzedPassword> = mutableListOf()
-        val weakPasswords: MutableList<AnalyzedPassword> = mutableListOf()
-        val identicalPasswords: MutableList<MutableList<AnalyzedPassword>> = mutableListOf()
-        var securityScore = 0.0
-        val requiredQualityGates: Int = Math.round(qualityGateManager.numberOfQualityGates().toDouble() * 0.5).toInt()
-
-        //Retrieve all passwords:
-        entryManager.data.forEach { abbreviated ->
-            val extended: EntryExtended? = entryManager.get(abbreviated.uuid, false)
-            extended?.details?.forEach { detail ->
-                if (detail.type == DetailType.PASSWORD) {
-                    val passwordSecurityScore: Int = qualityGateManager.calculatePassedQualityGates(detail.content)
-                    passwords.add(AnalyzedPassword(passwordSecurityScore, detail.content, abbreviated))
-                }
-            }
-        }
-
-        //Security analysis:
-        for (i in 0..<passwords.size) {
-            val password: AnalyzedPassword = passwords[i]
-            securityScore += password.securityScore
-            for (j in (i + 1)..<passwords.size) {
-                val comparedPassword: AnalyzedPassword = passwords[j]
-                if (password.password.equals(comparedPassword.password)) {
-                    var passwordFound = false
-                    identicalPasswords.forEach { identicalPasswordsGroup ->
-                        if (identicalPasswordsGroup[0].password.equals(password.password)) {
-                            if (!identicalPasswordsGroup.contains(comparedPassword)) {
-                                identicalPasswordsGroup.add(comparedPassword)
-                            }
-                            passwordFound = true
-                            return@forEach
-                        }
-                    }
-                    if (!passwordFound) {
-                        val identicalPasswordGroup: MutableList<AnalyzedPassword> = mutableListOf()
-                        identicalPasswordGroup.add(password)
-                        identicalPasswordGroup.add(comparedPassword)
-                        identicalPasswords.add(identicalPasswordGroup)
-                    }
+        val strengthEngine: PasswordStrengthEngine = if (useEntropyStrengthEstimation) EntropyStrengthEngine.getInstance() else qualityGateManager.snapshot
+        val requiredScore: Int = Math.round(strengthEngine.maxScore.toDouble() * 0.5).toInt()
+        val pipeline = PasswordAnalysisPipeline(entryManager, strengthEngine, PasswordAnalysisCache(), Config.getInstance().analysisParallelism.get())
+
+        pipeline.analyze(requiredScore).collect { progress ->
+            _progress.value = progress
+            val passwords: List<AnalyzedPassword>? = progress.passwords
+            val result: PasswordAnalyzer.Result? = progress.result
+            if (passwords != null && result != null) {
+                //Save data
+                if (passwords.isNotEmpty()) {
+                    this@PasswordAnalysisViewModel.securityScore = result.securityScore
                 }
+                this@PasswordAnalysisViewModel.analyzedPasswords = passwords
+                this@PasswordAnalysisViewModel.weakPasswords = result.weakPasswords
+                this@PasswordAnalysisViewModel.identicalPasswords = result.identicalPasswords
             }
-            if (password.securityScore <= requiredQualityGates) {
-                weakPasswords.add(password)
-            }
-        }
-
-        //Save data
-        if (passwords.isNotEmpty()) {
-            this@PasswordAnalysisViewModel.securityScore = securityScore / passwords.size
         }
-        this@PasswordAnalysisViewModel.analyzedPasswords = passwords
-        this@PasswordAnalysisViewModel.weakPasswords = weakPasswords
-        this@PasswordAnalysisViewModel.identicalPasswords = identicalPasswords
 
         isAnalysisFinished = true
         isAnalysisStarted = false
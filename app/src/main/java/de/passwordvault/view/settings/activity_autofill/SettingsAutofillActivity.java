@@ -13,15 +13,20 @@ import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.google.android.material.materialswitch.MaterialSwitch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import de.passwordvault.App;
 import de.passwordvault.R;
 import de.passwordvault.model.security.authentication.AuthenticationCallback;
 import de.passwordvault.model.security.authentication.AuthenticationFailure;
 import de.passwordvault.model.security.authentication.Authenticator;
 import de.passwordvault.model.storage.settings.Config;
+import de.passwordvault.service.autofill.AutofillHotSet;
+import de.passwordvault.service.autofill.caching.Cache;
 import de.passwordvault.service.autofill.caching.ContentCache;
 import de.passwordvault.service.autofill.caching.InvalidationCache;
 import de.passwordvault.service.autofill.caching.MappingCache;
+import de.passwordvault.service.autofill.caching.UsageCache;
 import de.passwordvault.view.utils.components.PasswordVaultActivity;
 import de.passwordvault.view.settings.activity_settings.SettingsViewModel;
 
@@ -30,7 +35,7 @@ import de.passwordvault.view.settings.activity_settings.SettingsViewModel;
  * Class implements an activity which allows the user to configure the autofill service.
  *
  * @author  Christian-2003
- * @version 3.5.3
+ * @version 3.7.4
  */
 public class SettingsAutofillActivity extends PasswordVaultActivity<SettingsViewModel> implements AuthenticationCallback, CompoundButton.OnCheckedChangeListener {
 
@@ -185,22 +190,35 @@ public class SettingsAutofillActivity extends PasswordVaultActivity<SettingsView
 
 
     /**
-     * Method deletes all autofill caches.
+     * Method deletes all autofill caches in the background. Once all caches have been deleted, the
+     * user is informed about the result.
      */
     private void clearAutofillCaches() {
-        boolean errorOccurred = !MappingCache.deleteCache();
-        if (!ContentCache.deleteCache()) {
-            errorOccurred = true;
-        }
-        if (!InvalidationCache.deleteCache()) {
-            errorOccurred = true;
-        }
-        if (errorOccurred) {
-            Toast.makeText(this, getString(R.string.settings_autofill_cache_delete_error), Toast.LENGTH_SHORT).show();
-        }
-        else {
-            Toast.makeText(this, getString(R.string.settings_autofill_cache_delete_success), Toast.LENGTH_SHORT).show();
-        }
+        AutofillHotSet.getInstance().clear();
+        AtomicInteger remainingCaches = new AtomicInteger(4);
+        AtomicBoolean errorOccurred = new AtomicBoolean(false);
+        Cache.DeletionCallback callback = success -> {
+            if (!success) {
+                errorOccurred.set(true);
+            }
+            if (remainingCaches.decrementAndGet() == 0) {
+                runOnUiThread(() -> {
+                    if (isDestroyed()) {
+                        return;
+                    }
+                    if (errorOccurred.get()) {
+                        Toast.makeText(this, getString(R.string.settings_autofill_cache_delete_error), Toast.LENGTH_SHORT).show();
+                    }
+                    else {
+                        Toast.makeText(this, getString(R.string.settings_autofill_cache_delete_success), Toast.LENGTH_SHORT).show();
+                    }
+                });
+            }
+        };
+        MappingCache.deleteCache(callback);
+        ContentCache.deleteCache(callback);
+        InvalidationCache.deleteCache(callback);
+        UsageCache.deleteCache(callback);
     }
 
 }
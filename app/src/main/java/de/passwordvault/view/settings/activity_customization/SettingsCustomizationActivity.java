@@ -12,7 +12,7 @@ import de.passwordvault.view.utils.components.PasswordVaultActivity;
  * Class implements the activity which allows the user to customize the app.
  *
  * @author  Christian-2003
- * @version 3.7.0
+ * @version 3.7.4
  */
 public class SettingsCustomizationActivity extends PasswordVaultActivity<SettingsCustomizationViewModel> {
 
@@ -46,6 +46,15 @@ public class SettingsCustomizationActivity extends PasswordVaultActivity<Setting
             viewModel.openResourcesInBrowser(!viewModel.openResourcesInBrowser());
             resourcesSwitch.setChecked(viewModel.openResourcesInBrowser());
         });
+
+        //Search:
+        MaterialSwitch fuzzySearchSwitch = findViewById(R.id.switch_fuzzy_search);
+        fuzzySearchSwitch.setChecked(viewModel.useFuzzySearch());
+        fuzzySearchSwitch.setOnCheckedChangeListener((view, checked) -> viewModel.useFuzzySearch(checked));
+        findViewById(R.id.container_fuzzy_search).setOnClickListener(view -> {
+            viewModel.useFuzzySearch(!viewModel.useFuzzySearch());
+            fuzzySearchSwitch.setChecked(viewModel.useFuzzySearch());
+        });
     }
 
 
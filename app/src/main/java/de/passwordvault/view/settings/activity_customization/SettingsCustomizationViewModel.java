@@ -8,7 +8,7 @@ import de.passwordvault.model.storage.settings.Config;
  * Class implements the view model for {@link SettingsCustomizationActivity}.
  *
  * @author  Christian-2003
- * @version 3.7.2
+ * @version 3.7.4
  */
 public class SettingsCustomizationViewModel extends ViewModel {
 
@@ -31,4 +31,24 @@ public class SettingsCustomizationViewModel extends ViewModel {
         Config.getInstance().openResourcesInBrowser.set(openResourcesInBrowser);
     }
 
+
+    /**
+     * Method returns whether the search tolerates typos.
+     *
+     * @return  Whether the search tolerates typos.
+     */
+    public boolean useFuzzySearch() {
+        return Config.getInstance().fuzzySearch.get();
+    }
+
+
+    /**
+     * Method changes whether the search tolerates typos.
+     *
+     * @param useFuzzySearch    Whether the search tolerates typos.
+     */
+    public void useFuzzySearch(boolean useFuzzySearch) {
+        Config.getInstance().fuzzySearch.set(useFuzzySearch);
+    }
+
 }
@@ -11,7 +11,7 @@ import de.passwordvault.model.storage.encryption.EncryptionException;
  * Class implements the view model for the activity with which to restore a backup.
  *
  * @author  Christian-2003
- * @version 3.5.4
+ * @version 3.7.4
  */
 public class RestoreBackupViewModel extends ViewModel {
 
@@ -83,7 +83,7 @@ public class RestoreBackupViewModel extends ViewModel {
      */
     public Calendar getCreated() {
         if (createdCache == null) {
-            if (backup == null) {
+            if (backup == null || backup.isLocked()) {
                 return Calendar.getInstance();
             }
             else {
@@ -107,7 +107,8 @@ public class RestoreBackupViewModel extends ViewModel {
     }
 
     /**
-     * Method returns whether settings are available with the backup.
+     * Method returns whether settings are available with the backup. Since the metadata of a locked
+     * backup is not available, settings are assumed to be available until the backup is unlocked.
      *
      * @return  Whether settings are available.
      */
@@ -115,11 +116,15 @@ public class RestoreBackupViewModel extends ViewModel {
         if (backup == null) {
             return false;
         }
+        if (backup.isLocked()) {
+            return true;
+        }
         return Boolean.parseBoolean(backup.getMetadata(Backup.INCLUDE_SETTINGS));
     }
 
     /**
-     * Method returns whether quality gates are available with the backup.
+     * Method returns whether quality gates are available with the backup. Since the metadata of a locked
+     * backup is not available, quality gates are assumed to be available until the backup is unlocked.
      *
      * @return  Whether quality gates are available.
      */
@@ -127,6 +132,9 @@ public class RestoreBackupViewModel extends ViewModel {
         if (backup == null) {
             return false;
         }
+        if (backup.isLocked()) {
+            return true;
+        }
         return Boolean.parseBoolean(backup.getMetadata(Backup.INCLUDE_QUALITY_GATES));
     }
 
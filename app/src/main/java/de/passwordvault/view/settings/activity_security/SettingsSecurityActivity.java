@@ -27,7 +27,7 @@ import de.passwordvault.view.utils.components.PasswordVaultActivity;
  * Class implements an activity for security-related settings.
  *
  * @author  Christian-2003
- * @version 3.6.0
+ * @version 3.7.4
  */
 public class SettingsSecurityActivity extends PasswordVaultActivity<SettingsViewModel> implements AuthenticationCallback, CompoundButton.OnCheckedChangeListener {
 
@@ -155,6 +155,9 @@ public class SettingsSecurityActivity extends PasswordVaultActivity<SettingsView
             }
             authenticator.authenticate(this, Authenticator.AUTH_BIOMETRICS, Authenticator.TYPE_AUTHENTICATE);
         }
+        else if (button.getId() == R.id.settings_security_password_entropy_switch) {
+            Config.getInstance().entropyStrengthEstimation.set(checked);
+        }
         else if (button.getId() == R.id.settings_security_data_screenshot_switch) {
             Config.getInstance().preventScreenshots.set(checked);
         }
@@ -187,6 +190,12 @@ public class SettingsSecurityActivity extends PasswordVaultActivity<SettingsView
         findViewById(R.id.settings_security_login_password_container).setOnClickListener(view -> changePassword());
         findViewById(R.id.settings_security_login_recovery_container).setOnClickListener(view -> startActivity(new Intent(SettingsSecurityActivity.this, RecoveryActivity.class)));
 
+        //Password security:
+        MaterialSwitch entropySwitch = findViewById(R.id.settings_security_password_entropy_switch);
+        entropySwitch.setChecked(Config.getInstance().entropyStrengthEstimation.get());
+        entropySwitch.setOnCheckedChangeListener(this);
+        findViewById(R.id.settings_security_password_entropy_clickable).setOnClickListener(view -> entropySwitch.setChecked(!entropySwitch.isChecked()));
+
         //Data:
         MaterialSwitch screenshotSwitch = findViewById(R.id.settings_security_data_screenshot_switch);
         screenshotSwitch.setChecked(Config.getInstance().preventScreenshots.get());
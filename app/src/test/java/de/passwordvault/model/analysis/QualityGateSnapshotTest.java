@@ -0,0 +1,141 @@
+package de.passwordvault.model.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.Random;
+
+
+/**
+ * Class tests that the {@link QualityGateSnapshot} calculates the same number of passed quality gates
+ * as the regexes of the quality gates, regardless of whether the quality gates are lowered.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class QualityGateSnapshotTest {
+
+    /**
+     * Field stores the regexes of the default quality gates.
+     */
+    private static final String[] DEFAULT_REGEXES = {
+            "\\b(\\w|\\W){12,}\\b",
+            "\\b(\\w|\\W){18,}\\b",
+            "(\\w|\\W)*[!\"'§$%&/{(\\[})\\]=?\\\\°^*+~#,;.:-_€><|]+(\\w|\\W)*",
+            "(\\w|\\W)*[0-9]+(\\w|\\W)*",
+            "(\\w|\\W)*[A-Z]+(\\w|\\W)*"
+    };
+
+    /**
+     * Field stores the characters from which random passwords are generated. This includes characters
+     * outside of the precomputed range, surrogate pairs and combining marks.
+     */
+    private static final String ALPHABET = "aZ09 !\"'§$%&/{}()[]=?\\°^*+~#,;.:-_€><|@`ä́ 中😀";
+
+
+    /**
+     * Method tests that the default quality gates are evaluated like their regexes.
+     */
+    @Test
+    public void defaultQualityGatesMatchRegexes() {
+        ArrayList<QualityGate> qualityGates = createQualityGates(DEFAULT_REGEXES);
+        QualityGateSnapshot snapshot = new QualityGateSnapshot(qualityGates);
+        assertEquals(DEFAULT_REGEXES.length, snapshot.getNumberOfQualityGates());
+
+        String[] passwords = {"", "password", "Password1", "correct horse battery staple", "Tr0ub4dor&3!", "abc:def", "ABCDEFGHIJKLMNOPQRSTU ", "äöüäöüäöüäöü"};
+        for (String password : passwords) {
+            assertEquals(password, countMatchingRegexes(qualityGates, password), snapshot.calculatePassedQualityGates(password));
+        }
+    }
+
+    /**
+     * Method tests that random passwords are evaluated like the regexes of the quality gates.
+     */
+    @Test
+    public void randomPasswordsMatchRegexes() {
+        ArrayList<QualityGate> qualityGates = createQualityGates(DEFAULT_REGEXES);
+        qualityGates.add(new QualityGate("(\\w|\\W){4,}", "", true, true));
+        qualityGates.add(new QualityGate("(\\w|\\W)*[a-z]+(\\w|\\W)*", "", true, true));
+        qualityGates.add(new QualityGate(".*[\\p{L}&&[^a-z]].*", "", true, true));
+        QualityGateSnapshot snapshot = new QualityGateSnapshot(qualityGates);
+
+        Random random = new Random(42);
+        int[] codePoints = ALPHABET.codePoints().toArray();
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder password = new StringBuilder();
+            int length = random.nextInt(24);
+            for (int j = 0; j < length; j++) {
+                password.appendCodePoint(codePoints[random.nextInt(codePoints.length)]);
+            }
+            String s = password.toString();
+            assertEquals(s, countMatchingRegexes(qualityGates, s), snapshot.calculatePassedQualityGates(s));
+        }
+    }
+
+    /**
+     * Method tests that disabled quality gates are ignored and that invalid quality gates are never
+     * passed.
+     */
+    @Test
+    public void disabledAndInvalidQualityGatesAreNotPassed() {
+        ArrayList<QualityGate> qualityGates = createQualityGates(DEFAULT_REGEXES);
+        qualityGates.get(3).setEnabled(false);
+        qualityGates.add(new QualityGate("[", "", true, true));
+        QualityGateSnapshot snapshot = new QualityGateSnapshot(qualityGates);
+
+        assertEquals(DEFAULT_REGEXES.length, snapshot.getNumberOfQualityGates());
+        assertEquals(1, snapshot.getNumberOfInvalidQualityGates());
+        assertEquals(3, snapshot.calculatePassedQualityGates("Password1!xyz"));
+    }
+
+    /**
+     * Method tests that the snapshot is outdated and changes its version once a quality gate changes.
+     */
+    @Test
+    public void changedQualityGatesOutdateSnapshot() {
+        ArrayList<QualityGate> qualityGates = createQualityGates(DEFAULT_REGEXES);
+        QualityGateSnapshot snapshot = new QualityGateSnapshot(qualityGates);
+        assertTrue(snapshot.isUpToDate(qualityGates));
+        assertEquals(snapshot.getVersion(), new QualityGateSnapshot(createQualityGates(DEFAULT_REGEXES)).getVersion());
+
+        qualityGates.get(0).setEnabled(false);
+        assertFalse(snapshot.isUpToDate(qualityGates));
+        assertNotEquals(snapshot.getVersion(), new QualityGateSnapshot(qualityGates).getVersion());
+    }
+
+
+    /**
+     * Method creates enabled quality gates with the passed regexes.
+     *
+     * @param regexes   Regexes of the quality gates.
+     * @return          Created quality gates.
+     */
+    private static ArrayList<QualityGate> createQualityGates(String[] regexes) {
+        ArrayList<QualityGate> qualityGates = new ArrayList<>();
+        for (String regex : regexes) {
+            qualityGates.add(new QualityGate(regex, "", true, false));
+        }
+        return qualityGates;
+    }
+
+    /**
+     * Method returns the number of enabled quality gates whose regex matches the passed string.
+     *
+     * @param qualityGates  Quality gates to test.
+     * @param s             String to test.
+     * @return              Number of matching quality gates.
+     */
+    private static int countMatchingRegexes(ArrayList<QualityGate> qualityGates, String s) {
+        int matching = 0;
+        for (QualityGate qualityGate : qualityGates) {
+            if (qualityGate.isEnabled() && qualityGate.matches(s)) {
+                matching++;
+            }
+        }
+        return matching;
+    }
+
+}
@@ -0,0 +1,107 @@
+package de.passwordvault.model.analysis.strength;
+
+import static org.junit.Assert.assertTrue;
+import org.junit.Assume;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Class implements a JMH benchmark which measures the time the {@link EntropyStrengthEngine} needs to
+ * estimate the strength of a single password with the shipped dictionaries. The benchmark is only run
+ * if the build is invoked with {@code -Pbenchmark}, e.g.
+ * {@code ./gradlew testDebugUnitTest -Pbenchmark --tests "*Benchmark"}, and fails if a password takes
+ * a millisecond or longer on average.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EntropyStrengthEngineBenchmark {
+
+    /**
+     * Field stores the maximum average time in microseconds which a single estimation may take.
+     */
+    private static final double MAX_MICROSECONDS = 1000;
+
+
+    /**
+     * Attribute stores the password whose strength is estimated. The passwords cover a passphrase of
+     * dictionary words, a l33t word with a suffix, a name with a date, and a random password of the
+     * maximum analysed length.
+     */
+    @Param({"correcthorsebatterystaple", "Tr0ub4dor&3", "Michael1985", "aB3$dE6^gH9*jK2@mN5!pQ8&sT1%vW4#yZ7(bC0)eF3_hI6+kL9-nO2=qR5!uX8#"})
+    public String password;
+
+    /**
+     * Attribute stores the engine with the shipped dictionaries.
+     */
+    private EntropyStrengthEngine engine;
+
+
+    /**
+     * Method loads the shipped dictionaries before the benchmark is run.
+     *
+     * @throws IOException  A dictionary could not be loaded.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        engine = new EntropyStrengthEngine(EntropyStrengthEngineTest.loadDictionaries(), EntropyStrengthEngineTest.REFERENCE_YEAR);
+    }
+
+
+    /**
+     * Method estimates the strength of the {@link #password}.
+     *
+     * @return  Estimated strength, which is returned so that the estimation is not eliminated.
+     */
+    @Benchmark
+    public StrengthEstimate estimate() {
+        return engine.estimate(password);
+    }
+
+
+    /**
+     * Method runs the benchmark and tests that every password is estimated in less than a millisecond
+     * on average. The benchmark runs within the test process, since the classpath of the test process
+     * cannot be passed to forked processes.
+     *
+     * @throws RunnerException  The benchmark could not be run.
+     */
+    @Test
+    public void estimationTakesLessThanOneMillisecond() throws RunnerException {
+        Assume.assumeTrue(Boolean.getBoolean("benchmark"));
+        Options options = new OptionsBuilder()
+                .include(EntropyStrengthEngineBenchmark.class.getName() + ".estimate")
+                .forks(0)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+        for (RunResult result : results) {
+            double microseconds = result.getPrimaryResult().getScore();
+            assertTrue(result.getParams().getParam("password") + ": " + microseconds + " us", microseconds < MAX_MICROSECONDS);
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+package de.passwordvault.model.analysis.strength;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+
+/**
+ * Class tests that the {@link EntropyStrengthEngine} rates passwords which consist of common words
+ * with the dictionaries which are shipped with the app, instead of guessing them by brute force.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class EntropyStrengthEngineTest {
+
+    /**
+     * Field stores the directory which contains the compressed dictionaries, relative to the module.
+     */
+    private static final String DICTIONARY_DIRECTORY = "src/main/res/raw/";
+
+    /**
+     * Field stores the names of the shipped dictionaries, in the order in which the engine loads them.
+     */
+    private static final String[] DICTIONARY_NAMES = {"passwords", "words", "words_de", "names"};
+
+    /**
+     * Field stores the year relative to which dates are guessed.
+     */
+    static final int REFERENCE_YEAR = 2025;
+
+
+    /**
+     * Field stores the dictionaries which are shared by all tests, since loading them is expensive.
+     */
+    private static DictionaryTrie[] dictionaries;
+
+
+    /**
+     * Method loads the shipped dictionaries.
+     *
+     * @throws IOException  A dictionary could not be loaded.
+     */
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        dictionaries = loadDictionaries();
+    }
+
+
+    /**
+     * Method tests that the shipped dictionaries contain common words which are not contained in a
+     * small word list.
+     */
+    @Test
+    public void dictionariesContainCommonWords() {
+        for (String word : new String[] {"correct", "horse", "battery", "staple", "kitchen", "dragon"}) {
+            assertTrue(word, dictionaries[1].getRank(word) > 0);
+        }
+        assertTrue(dictionaries[2].getRank("passwort") > 0);
+        assertTrue(dictionaries[3].getRank("michael") > 0);
+        assertEquals(0, dictionaries[1].getRank("xqzvkw"));
+    }
+
+    /**
+     * Method tests that a passphrase of common words is rated as a sequence of dictionary words, which
+     * requires far fewer guesses than brute force of its 25 lowercase letters.
+     */
+    @Test
+    public void passphraseOfCommonWordsIsNotBruteForced() {
+        StrengthEstimate estimate = new EntropyStrengthEngine(dictionaries, REFERENCE_YEAR).estimate("correcthorsebatterystaple");
+        assertTrue(Double.toString(estimate.getGuesses()), estimate.getGuessesLog10() < 16);
+        assertTrue(estimate.getMatches().size() >= 4);
+    }
+
+    /**
+     * Method tests that common passwords receive a low score, while a random password receives the
+     * maximum score.
+     */
+    @Test
+    public void commonPasswordsScoreLow() {
+        EntropyStrengthEngine engine = new EntropyStrengthEngine(dictionaries, REFERENCE_YEAR);
+        for (String password : new String[] {"password1", "dragon", "qwertz123", "Sommer2024", "Michael1985"}) {
+            assertTrue(password, engine.calculateScore(password) <= 1);
+        }
+        assertEquals(EntropyStrengthEngine.MAX_SCORE, engine.calculateScore("xK#9vLq2$mP!7wZ"));
+    }
+
+
+    /**
+     * Static method loads the compressed dictionaries which are shipped with the app.
+     *
+     * @return              Loaded dictionaries.
+     * @throws IOException  A dictionary could not be loaded.
+     */
+    static DictionaryTrie[] loadDictionaries() throws IOException {
+        DictionaryTrie[] loadedDictionaries = new DictionaryTrie[DICTIONARY_NAMES.length];
+        for (int i = 0; i < DICTIONARY_NAMES.length; i++) {
+            try (InputStream input = new FileInputStream(DICTIONARY_DIRECTORY + "strength_" + DICTIONARY_NAMES[i] + ".gz")) {
+                loadedDictionaries[i] = DictionaryTrie.readCompressed(DICTIONARY_NAMES[i], input);
+            }
+        }
+        return loadedDictionaries;
+    }
+
+}
@@ -0,0 +1,141 @@
+package de.passwordvault.model.entry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.ArrayList;
+import de.passwordvault.model.detail.Detail;
+
+
+/**
+ * Class tests the least recently used eviction of the {@link EntryCache}.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class EntryCacheTest {
+
+    /**
+     * Attribute stores the entries which were evicted from the tested cache, in the order of their
+     * eviction.
+     */
+    private ArrayList<EntryExtended> evicted;
+
+
+    /**
+     * Method clears the evicted entries.
+     */
+    @Before
+    public void setUp() {
+        evicted = new ArrayList<>();
+    }
+
+
+    /**
+     * Method tests that the least recently used entry is evicted once the maximum number of entries
+     * is exceeded.
+     */
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() {
+        EntryCache cache = new EntryCache(2, Long.MAX_VALUE, evicted::add);
+        EntryExtended a = createEntry("a", "Content A");
+        EntryExtended b = createEntry("b", "Content B");
+        cache.put("a", a);
+        cache.put("b", b);
+        cache.get("a");
+        cache.put("c", createEntry("c", "Content C"));
+
+        assertEquals(1, evicted.size());
+        assertSame(b, evicted.get(0));
+        assertNull(cache.get("b"));
+        assertSame(a, cache.get("a"));
+        assertNotNull(cache.get("c"));
+    }
+
+    /**
+     * Method tests that pinned entries are not evicted until they are unpinned.
+     */
+    @Test
+    public void pinnedEntriesAreNotEvicted() {
+        EntryCache cache = new EntryCache(1, Long.MAX_VALUE, evicted::add);
+        cache.pin("a");
+        cache.put("a", createEntry("a", "Content A"));
+        cache.put("b", createEntry("b", "Content B"));
+        assertTrue(evicted.isEmpty());
+        assertEquals(2, cache.size());
+
+        cache.unpin("a");
+        assertEquals(1, evicted.size());
+        assertEquals("a", evicted.get(0).getUuid());
+        assertNull(cache.get("a"));
+    }
+
+    /**
+     * Method tests that entries are evicted once the maximum weight is exceeded, and that the weight
+     * of the cache is updated accordingly.
+     */
+    @Test
+    public void entriesAreEvictedByWeight() {
+        EntryCache cache = new EntryCache(Integer.MAX_VALUE, Long.MAX_VALUE, evicted::add);
+        cache.put("a", createEntry("a", "Content A"));
+        long weight = cache.getWeight();
+        cache.put("b", createEntry("b", "Content B"));
+        assertEquals(2 * weight, cache.getWeight());
+
+        cache.setLimits(Integer.MAX_VALUE, weight);
+        assertEquals(1, evicted.size());
+        assertEquals("a", evicted.get(0).getUuid());
+        assertEquals(weight, cache.getWeight());
+    }
+
+    /**
+     * Method tests that removed and replaced entries are not passed to the eviction listener.
+     */
+    @Test
+    public void removedEntriesAreNotEvicted() {
+        EntryCache cache = new EntryCache(1, Long.MAX_VALUE, evicted::add);
+        cache.put("a", createEntry("a", "Content A"));
+        cache.put("a", createEntry("a", "Content B"));
+        cache.remove("a");
+        assertTrue(evicted.isEmpty());
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeight());
+    }
+
+    /**
+     * Method tests that wiping a copy of an entry, as the cache does with evicted copies, does not
+     * affect the entry from which it was copied.
+     */
+    @Test
+    public void wipingCopyKeepsOriginal() {
+        EntryExtended original = createEntry("a", "Content A");
+        EntryCache cache = new EntryCache(1, Long.MAX_VALUE, EntryExtended::wipe);
+        cache.put("a", new EntryExtended(original));
+        cache.put("b", createEntry("b", "Content B"));
+
+        assertEquals(1, original.getDetails().size());
+        assertEquals("Content A", original.getDetails().get(0).getContent());
+    }
+
+
+    /**
+     * Method creates a new entry with the passed UUID and a single detail with the passed content.
+     *
+     * @param uuid      UUID for the entry.
+     * @param content   Content for the detail of the entry.
+     * @return          Created entry.
+     */
+    private static EntryExtended createEntry(String uuid, String content) {
+        EntryExtended entry = new EntryExtended();
+        entry.setUuid(uuid);
+        Detail detail = new Detail();
+        detail.setContent(content);
+        entry.getDetails().add(detail);
+        return entry;
+    }
+
+}
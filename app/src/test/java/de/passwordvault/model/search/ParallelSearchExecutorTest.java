@@ -0,0 +1,119 @@
+package de.passwordvault.model.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import de.passwordvault.model.entry.EntryAbbreviated;
+
+
+/**
+ * Class tests that the {@link ParallelSearchExecutor} passes the results in the order of the entries,
+ * regardless of the parallelism, that processing can be cancelled, and that failures of the processor
+ * are reported.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class ParallelSearchExecutorTest {
+
+    /**
+     * Field stores the number of entries which are processed. This spans multiple chunks.
+     */
+    private static final int NUMBER_OF_ENTRIES = 1000;
+
+
+    /**
+     * Method tests that the results are passed in the order of the entries, and that entries without
+     * results are omitted.
+     */
+    @Test
+    public void resultsAreInEntryOrder() throws SearchException {
+        ArrayList<EntryAbbreviated> entries = createEntries();
+        for (int parallelism : new int[] {1, 2, 4}) {
+            ArrayList<String> results = new ArrayList<>();
+            boolean finished = new ParallelSearchExecutor(parallelism).process(entries, entry -> Integer.parseInt(entry.getUuid()) % 3 == 0 ? null : entry.getUuid(), null, results::addAll);
+
+            assertTrue(finished);
+            ArrayList<String> expected = new ArrayList<>();
+            for (EntryAbbreviated entry : entries) {
+                if (Integer.parseInt(entry.getUuid()) % 3 != 0) {
+                    expected.add(entry.getUuid());
+                }
+            }
+            assertEquals(expected, results);
+        }
+    }
+
+    /**
+     * Method tests that processing stops once the token is cancelled.
+     */
+    @Test
+    public void processingCanBeCancelled() throws SearchException {
+        ArrayList<EntryAbbreviated> entries = createEntries();
+        for (int parallelism : new int[] {1, 4}) {
+            CancellationToken token = new CancellationToken();
+            AtomicInteger processed = new AtomicInteger();
+            boolean finished = new ParallelSearchExecutor(parallelism).process(entries, entry -> {
+                if (processed.incrementAndGet() == NUMBER_OF_ENTRIES / 4) {
+                    token.cancel();
+                }
+                return entry;
+            }, token, results -> {});
+
+            assertFalse(finished);
+            assertTrue(processed.get() < NUMBER_OF_ENTRIES);
+        }
+    }
+
+    /**
+     * Method tests that an exception of the processor is reported through a {@link SearchException}
+     * instead of being lost in a worker thread, that no results are passed after the failing entry,
+     * and that the executor can still be used afterwards.
+     */
+    @Test
+    public void processingFailureIsReported() throws SearchException {
+        ArrayList<EntryAbbreviated> entries = createEntries();
+        for (int parallelism : new int[] {1, 4}) {
+            ParallelSearchExecutor executor = new ParallelSearchExecutor(parallelism);
+            ArrayList<EntryAbbreviated> results = new ArrayList<>();
+            try {
+                executor.process(entries, entry -> {
+                    if (entry.getUuid().equals(Integer.toString(NUMBER_OF_ENTRIES / 2))) {
+                        throw new IllegalStateException("Entry cannot be decrypted");
+                    }
+                    return entry;
+                }, null, results::addAll);
+                fail();
+            }
+            catch (SearchException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+                assertTrue(results.size() < NUMBER_OF_ENTRIES / 2);
+            }
+
+            ArrayList<EntryAbbreviated> retriedResults = new ArrayList<>();
+            assertTrue(executor.process(entries, entry -> entry, null, retriedResults::addAll));
+            assertEquals(entries, retriedResults);
+        }
+    }
+
+
+    /**
+     * Method creates entries whose UUIDs are their indices.
+     *
+     * @return  Created entries.
+     */
+    private static ArrayList<EntryAbbreviated> createEntries() {
+        ArrayList<EntryAbbreviated> entries = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_ENTRIES; i++) {
+            EntryAbbreviated entry = new EntryAbbreviated();
+            entry.setUuid(Integer.toString(i));
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+}
@@ -0,0 +1,108 @@
+package de.passwordvault.model.search;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import java.util.ArrayList;
+import de.passwordvault.model.entry.EntryAbbreviated;
+
+
+/**
+ * Class tests the ranking of search results by the {@link SearchHandler} and the matching with typos
+ * through the {@link FuzzyMatcher}.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class SearchHandlerTest {
+
+    /**
+     * Method tests that groups with a higher priority are ranked before groups with a lower priority.
+     */
+    @Test
+    public void groupsAreRankedByPriority() {
+        ArrayList<SearchResultGroup> groups = new ArrayList<>();
+        groups.add(createGroup("fuzzy", SearchResult.PRIORITY_FUZZY_MATCH));
+        groups.add(createGroup("detail", SearchResult.PRIORITY_MATCHING_DETAIL_NAME));
+        groups.add(createGroup("tag", SearchResult.PRIORITY_MATCHING_ENTRY_TAG));
+        groups.add(createGroup("name", SearchResult.PRIORITY_MATCHING_ENTRY_NAME + SearchResult.PRIORITY_MATCHING_ENTRY_DESCRIPTION));
+
+        assertArrayEquals(new String[] {"tag", "name", "detail", "fuzzy"}, getUuids(SearchHandler.rankByPriority(groups)));
+    }
+
+    /**
+     * Method tests that groups with the same priority remain in the order of the entries.
+     */
+    @Test
+    public void rankingIsStable() {
+        ArrayList<SearchResultGroup> groups = new ArrayList<>();
+        groups.add(createGroup("a", SearchResult.PRIORITY_MATCHING_ENTRY_NAME));
+        groups.add(createGroup("b", SearchResult.PRIORITY_MATCHING_ENTRY_TAG));
+        groups.add(createGroup("c", SearchResult.PRIORITY_MATCHING_ENTRY_NAME));
+        groups.add(createGroup("d", SearchResult.PRIORITY_MATCHING_ENTRY_TAG));
+        groups.add(createGroup("e", SearchResult.PRIORITY_MATCHING_ENTRY_NAME));
+
+        assertArrayEquals(new String[] {"b", "d", "a", "c", "e"}, getUuids(SearchHandler.rankByPriority(groups)));
+    }
+
+    /**
+     * Method tests that ranking no groups returns no groups.
+     */
+    @Test
+    public void rankingNoGroupsReturnsNoGroups() {
+        assertEquals(0, SearchHandler.rankByPriority(new ArrayList<>()).length);
+    }
+
+    /**
+     * Method tests that the query matches prefixes of words with typos, but not within words.
+     */
+    @Test
+    public void fuzzyMatcherMatchesWordPrefixes() {
+        assertTrue(FuzzyMatcher.matches("paypal", "my paypl account", 1));
+        assertTrue(FuzzyMatcher.matches("paypal", "apypal", 1));
+        assertFalse(FuzzyMatcher.matches("paypal", "mypaypal", 1));
+        assertFalse(FuzzyMatcher.matches("paypal", "pyapl", 1));
+    }
+
+    /**
+     * Method tests the number of typos which are tolerated depending on the length of the query.
+     */
+    @Test
+    public void fuzzyDistanceDependsOnQueryLength() {
+        assertEquals(0, FuzzyMatcher.getMaxDistance(FuzzyMatcher.MIN_QUERY_LENGTH - 1));
+        assertEquals(1, FuzzyMatcher.getMaxDistance(FuzzyMatcher.MIN_QUERY_LENGTH));
+        assertEquals(2, FuzzyMatcher.getMaxDistance(FuzzyMatcher.MAX_QUERY_LENGTH));
+        assertEquals(0, FuzzyMatcher.getMaxDistance(FuzzyMatcher.MAX_QUERY_LENGTH + 1));
+    }
+
+
+    /**
+     * Method creates a new group of search results for an entry with the passed UUID.
+     *
+     * @param uuid      UUID of the entry.
+     * @param priority  Priority of the search result for the entry.
+     * @return          Created group.
+     */
+    private static SearchResultGroup createGroup(String uuid, int priority) {
+        EntryAbbreviated entry = new EntryAbbreviated();
+        entry.setUuid(uuid);
+        return new SearchResultGroup(new SearchResultEntry(entry, priority));
+    }
+
+    /**
+     * Method returns the UUIDs of the entries of the passed groups.
+     *
+     * @param groups    Groups whose UUIDs to return.
+     * @return          UUIDs of the entries.
+     */
+    private static String[] getUuids(SearchResultGroup[] groups) {
+        String[] uuids = new String[groups.length];
+        for (int i = 0; i < groups.length; i++) {
+            uuids[i] = groups[i].getEntryResult().getEntry().getUuid();
+        }
+        return uuids;
+    }
+
+}
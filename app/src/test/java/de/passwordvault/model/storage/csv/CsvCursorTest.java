@@ -0,0 +1,141 @@
+package de.passwordvault.model.storage.csv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+/**
+ * Class tests that the {@link CsvCursor} reads the CSV generated by the {@link CsvBuilder}, including
+ * cells which need to be escaped, identically to the {@link CsvParser}.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class CsvCursorTest {
+
+    /**
+     * Field stores cells which contain characters that need to be escaped. Backslashes are not
+     * escaped by the CSV format, so they are only used where they do not precede "n" or a string
+     * separator.
+     */
+    private static final String[] SPECIAL_CELLS = {
+            "comma, separated",
+            "quote \" within",
+            "line\nfeed",
+            "\"",
+            "back\\slash",
+            "mixed \", \n and \\ within"
+    };
+
+
+    /**
+     * Method tests that cells containing special characters are read as they were appended.
+     */
+    @Test
+    public void escapedCellsAreReadUnchanged() {
+        CsvBuilder builder = new CsvBuilder();
+        for (String cell : SPECIAL_CELLS) {
+            builder.append(cell);
+        }
+
+        CsvCursor cursor = new CsvCursor(builder.toString());
+        for (String cell : SPECIAL_CELLS) {
+            assertTrue(cursor.hasNext());
+            assertEquals(cell, cursor.nextString());
+        }
+        assertFalse(cursor.hasNext());
+    }
+
+    /**
+     * Method tests that the cursor reads the same cells as the parser.
+     */
+    @Test
+    public void cursorReadsCellsLikeParser() {
+        CsvBuilder builder = new CsvBuilder();
+        builder.append("plain");
+        for (String cell : SPECIAL_CELLS) {
+            builder.append(cell);
+        }
+        builder.append("");
+        builder.append("last");
+        String csv = builder.toString();
+
+        CsvCursor cursor = new CsvCursor(csv);
+        for (String cell : new CsvParser(csv).parseCsv()) {
+            assertEquals(cell, cursor.nextCharSequence().toString());
+        }
+        assertFalse(cursor.hasNext());
+    }
+
+    /**
+     * Method tests that typed cells and {@code null} are read as they were appended.
+     */
+    @Test
+    public void typedCellsAreReadUnchanged() {
+        CsvBuilder builder = new CsvBuilder();
+        builder.append(Long.MIN_VALUE);
+        builder.append(Integer.MAX_VALUE);
+        builder.append(-42);
+        builder.append(true);
+        builder.append(false);
+        builder.append((String)null);
+        builder.append("after null");
+
+        CsvCursor cursor = new CsvCursor(builder.toString());
+        assertEquals(Long.MIN_VALUE, cursor.nextLong());
+        assertEquals(Integer.MAX_VALUE, cursor.nextInt());
+        assertEquals(-42, cursor.nextInt());
+        assertTrue(cursor.nextBoolean());
+        assertFalse(cursor.nextBoolean());
+        assertNull(cursor.nextString());
+        assertEquals("after null", cursor.nextString());
+        assertFalse(cursor.hasNext());
+    }
+
+    /**
+     * Method tests that a cursor which is reset reads the new CSV, even if the previous cell was
+     * escaped.
+     */
+    @Test
+    public void resetCursorReadsNewCsv() {
+        CsvBuilder builder = new CsvBuilder();
+        builder.append("quote \" within");
+        CsvCursor cursor = new CsvCursor(builder.toString());
+        assertEquals("quote \" within", cursor.nextString());
+
+        cursor.reset("plain,cell");
+        assertEquals("plain", cursor.nextString());
+        cursor.skip();
+        assertFalse(cursor.hasNext());
+    }
+
+    /**
+     * Method tests that invalid numbers are rejected.
+     */
+    @Test(expected = NumberFormatException.class)
+    public void invalidNumberIsRejected() {
+        new CsvCursor("12a").nextLong();
+    }
+
+    /**
+     * Method tests that numbers which overflow a long are rejected.
+     */
+    @Test(expected = NumberFormatException.class)
+    public void overflowingNumberIsRejected() {
+        new CsvCursor("9223372036854775808").nextLong();
+    }
+
+    /**
+     * Method tests that reading beyond the last cell fails.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void readingBeyondLastCellFails() {
+        CsvCursor cursor = new CsvCursor("only");
+        cursor.skip();
+        cursor.nextString();
+    }
+
+}
@@ -0,0 +1,166 @@
+package de.passwordvault.model.storage.encryption;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Assume;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+
+/**
+ * Class implements a JMH benchmark which compares the cost of decrypting a single entry before and
+ * after the ciphers were cached by {@link AES}. Before, every entry was decrypted by a new
+ * {@link AES}-instance, which derived its key and created a new {@linkplain Cipher} for every call.
+ * The KeyStore cannot be accessed on the JVM, so the benchmark uses a seeded key, and the KeyStore
+ * accesses which were previously made for every call are not included in the baseline. The benchmark
+ * is only run if the build is invoked with {@code -Pbenchmark}, e.g.
+ * {@code ./gradlew testDebugUnitTest -Pbenchmark --tests "*Benchmark"}.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AESBenchmark {
+
+    /**
+     * Field stores the seed from which the key is derived.
+     */
+    private static final String SEED = "aes-benchmark";
+
+    /**
+     * Field stores the length of the IV which precedes the cipher text.
+     */
+    private static final int IV_LENGTH = 12;
+
+
+    /**
+     * Attribute stores the length of the serialized entry in bytes. The lengths cover an entry with a
+     * few details and an entry with long notes.
+     */
+    @Param({"512", "8192"})
+    public int entryLength;
+
+    /**
+     * Attribute stores the AES-instance which is shared by all decryptions.
+     */
+    private AES aes;
+
+    /**
+     * Attribute stores the encrypted entry.
+     */
+    private byte[] encryptedEntry;
+
+
+    /**
+     * Method encrypts a random entry before the benchmark is run.
+     *
+     * @throws EncryptionException  The entry could not be encrypted.
+     */
+    @Setup
+    public void setUp() throws EncryptionException {
+        byte[] entry = new byte[entryLength];
+        new Random(42).nextBytes(entry);
+        aes = new AES(SEED);
+        encryptedEntry = aes.encrypt(entry, null);
+    }
+
+
+    /**
+     * Method decrypts the entry like before the ciphers were cached: The key is derived from the seed,
+     * and a new cipher is created for the entry.
+     *
+     * @return              Decrypted entry.
+     * @throws Exception    The entry could not be decrypted.
+     */
+    @Benchmark
+    public byte[] decryptWithNewCipher() throws Exception {
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest(SEED.getBytes(StandardCharsets.UTF_8));
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(hash, 0, 16, "AES"), new GCMParameterSpec(128, encryptedEntry, 0, IV_LENGTH));
+        return cipher.doFinal(encryptedEntry, IV_LENGTH, encryptedEntry.length - IV_LENGTH);
+    }
+
+    /**
+     * Method decrypts the entry with a new {@link AES}-instance, which reuses the cipher of the
+     * current thread.
+     *
+     * @return                      Decrypted entry.
+     * @throws EncryptionException  The entry could not be decrypted.
+     */
+    @Benchmark
+    public byte[] decryptWithNewInstance() throws EncryptionException {
+        return new AES(SEED).decrypt(encryptedEntry, 0, encryptedEntry.length, null);
+    }
+
+    /**
+     * Method decrypts the entry with the shared {@link AES}-instance, which reuses the cipher of the
+     * current thread.
+     *
+     * @return                      Decrypted entry.
+     * @throws EncryptionException  The entry could not be decrypted.
+     */
+    @Benchmark
+    public byte[] decryptWithSharedInstance() throws EncryptionException {
+        return aes.decrypt(encryptedEntry, 0, encryptedEntry.length, null);
+    }
+
+
+    /**
+     * Method runs the benchmark and tests that decrypting an entry with the shared instance is faster
+     * than decrypting it with a new cipher. The benchmark runs within the test process, since the
+     * classpath of the test process cannot be passed to forked processes.
+     *
+     * @throws RunnerException  The benchmark could not be run.
+     */
+    @Test
+    public void cachedCipherDecryptsFaster() throws RunnerException {
+        Assume.assumeTrue(Boolean.getBoolean("benchmark"));
+        Options options = new OptionsBuilder()
+                .include(AESBenchmark.class.getName() + ".decrypt")
+                .forks(0)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+        HashMap<String, Double> microseconds = new HashMap<>();
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            String method = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+            microseconds.put(method + "/" + result.getParams().getParam("entryLength"), result.getPrimaryResult().getScore());
+        }
+        for (String length : new String[] {"512", "8192"}) {
+            Double before = microseconds.get("decryptWithNewCipher/" + length);
+            Double after = microseconds.get("decryptWithSharedInstance/" + length);
+            assertNotNull(before);
+            assertNotNull(after);
+            assertTrue(length + " bytes: " + after + " us after, " + before + " us before", after < before);
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+package de.passwordvault.model.storage.encryption;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import org.junit.Before;
+import org.junit.Test;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * Class tests the round trip of encrypted content through {@link AES}, as well as the detection of
+ * modified content.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class AESTest {
+
+    /**
+     * Attribute stores the tested AES cipher.
+     */
+    private AES aes;
+
+
+    /**
+     * Method creates the AES cipher with a seeded key.
+     */
+    @Before
+    public void setUp() {
+        aes = new AES("aes-test");
+    }
+
+
+    /**
+     * Method tests that encrypted text is decrypted to the original text, and that the same text is
+     * encrypted differently every time.
+     */
+    @Test
+    public void textIsDecryptedUnchanged() throws EncryptionException {
+        String[] texts = {"", "Content", "äöü 中 😀\n\"quoted\"", new String(new char[100000]).replace('\0', 'x')};
+        for (String text : texts) {
+            String encrypted = aes.encrypt(text);
+            assertNotEquals(encrypted, aes.encrypt(text));
+            assertEquals(text, aes.decrypt(encrypted));
+        }
+    }
+
+    /**
+     * Method tests that encrypted bytes are decrypted from a range within a larger array, if the same
+     * associated data is passed.
+     */
+    @Test
+    public void bytesAreDecryptedFromRange() throws EncryptionException {
+        byte[] plainBytes = "Content".getBytes(StandardCharsets.UTF_8);
+        byte[] associatedData = {1, 2, 3};
+        byte[] encrypted = aes.encrypt(plainBytes, associatedData);
+        byte[] framed = new byte[encrypted.length + 8];
+        System.arraycopy(encrypted, 0, framed, 4, encrypted.length);
+
+        assertArrayEquals(plainBytes, aes.decrypt(framed, 4, encrypted.length, associatedData));
+    }
+
+    /**
+     * Method tests that modified encrypted bytes are rejected.
+     */
+    @Test(expected = EncryptionException.class)
+    public void modifiedBytesAreRejected() throws EncryptionException {
+        byte[] encrypted = aes.encrypt("Content".getBytes(StandardCharsets.UTF_8), null);
+        encrypted[encrypted.length - 1] ^= 1;
+        aes.decrypt(encrypted, 0, encrypted.length, null);
+    }
+
+    /**
+     * Method tests that encrypted bytes are rejected if different associated data is passed.
+     */
+    @Test(expected = EncryptionException.class)
+    public void differentAssociatedDataIsRejected() throws EncryptionException {
+        byte[] encrypted = aes.encrypt("Content".getBytes(StandardCharsets.UTF_8), new byte[] {1});
+        aes.decrypt(encrypted, 0, encrypted.length, new byte[] {2});
+    }
+
+    /**
+     * Method tests that encrypted text cannot be decrypted with a different key.
+     */
+    @Test(expected = EncryptionException.class)
+    public void differentKeyIsRejected() throws EncryptionException {
+        String encrypted = aes.encrypt("Content");
+        new AES("other-key").decrypt(encrypted);
+    }
+
+}
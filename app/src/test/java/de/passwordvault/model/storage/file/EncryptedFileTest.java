@@ -0,0 +1,192 @@
+package de.passwordvault.model.storage.file;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Base64;
+import de.passwordvault.model.storage.encryption.AES;
+import de.passwordvault.model.storage.encryption.EncryptionException;
+
+
+/**
+ * Class tests that encrypted files are replaced atomically by the {@link EncryptedFileWriter}, and
+ * that the {@link EncryptedFileReader} reads files of the current and the previous format.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class EncryptedFileTest {
+
+    /**
+     * Attribute stores the AES cipher used for encryption.
+     */
+    private AES aes;
+
+    /**
+     * Attribute stores the directory in which the tested files are created.
+     */
+    private File directory;
+
+    /**
+     * Attribute stores the tested file.
+     */
+    private File file;
+
+
+    /**
+     * Method creates the AES cipher and a temporary directory.
+     *
+     * @throws IOException  The directory could not be created.
+     */
+    @Before
+    public void setUp() throws IOException {
+        aes = new AES("encrypted-file-test");
+        directory = Files.createTempDirectory("encrypted-file-test").toFile();
+        file = new File(directory, "content.csv");
+    }
+
+    /**
+     * Method deletes the temporary directory.
+     */
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        directory.delete();
+    }
+
+
+    /**
+     * Method tests that written content is read unchanged and that no temporary file is left behind.
+     */
+    @Test
+    public void writtenFileIsReadUnchanged() throws IOException, EncryptionException {
+        byte[] content = createContent(200000);
+        write(content);
+
+        assertArrayEquals(content, read());
+        assertEquals(1, directory.listFiles().length);
+    }
+
+    /**
+     * Method tests that an aborted write keeps the previous file and removes the temporary file.
+     */
+    @Test
+    public void abortedWriteKeepsPreviousFile() throws IOException, EncryptionException {
+        byte[] content = createContent(1000);
+        write(content);
+
+        EncryptedOutputStream out = EncryptedFileWriter.openOutputStream(file, aes);
+        out.write(createContent(500000));
+        out.abort();
+
+        assertArrayEquals(content, read());
+        assertEquals(1, directory.listFiles().length);
+    }
+
+    /**
+     * Method tests that files of the previous format, whose Base64-encoded cipher text may be split
+     * into multiple lines, are still read.
+     */
+    @Test
+    public void legacyFileIsRead() throws IOException, EncryptionException {
+        byte[] content = createContent(5000);
+        String encoded = Base64.getEncoder().encodeToString(aes.encrypt(content, null));
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            for (int i = 0; i < encoded.length(); i += 76) {
+                out.write(encoded.substring(i, Math.min(encoded.length(), i + 76)).getBytes(StandardCharsets.US_ASCII));
+                out.write('\n');
+            }
+        }
+
+        assertArrayEquals(content, read());
+    }
+
+    /**
+     * Method tests that a missing file is read as {@code null}.
+     */
+    @Test
+    public void missingFileIsNull() throws EncryptionException {
+        assertFalse(file.exists());
+        assertNull(EncryptedFileReader.openInputStream(file, aes));
+    }
+
+    /**
+     * Method tests that a truncated file is rejected while it is read.
+     */
+    @Test(expected = IOException.class)
+    public void truncatedFileIsRejected() throws IOException, EncryptionException {
+        write(createContent(200000));
+        byte[] encrypted = Files.readAllBytes(file.toPath());
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(encrypted, 0, encrypted.length / 2);
+        }
+        assertTrue(file.exists());
+        read();
+    }
+
+
+    /**
+     * Method writes the passed content to the {@link #file}.
+     *
+     * @param content               Content to write.
+     * @throws IOException          The content could not be written.
+     * @throws EncryptionException  The file could not be opened.
+     */
+    private void write(byte[] content) throws IOException, EncryptionException {
+        try (EncryptedOutputStream out = EncryptedFileWriter.openOutputStream(file, aes)) {
+            out.write(content);
+        }
+    }
+
+    /**
+     * Method reads the decrypted content of the {@link #file}.
+     *
+     * @return                      Decrypted content.
+     * @throws IOException          The file could not be read.
+     * @throws EncryptionException  The file could not be opened.
+     */
+    private byte[] read() throws IOException, EncryptionException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try (InputStream in = EncryptedFileReader.openInputStream(file, aes)) {
+            byte[] buffer = new byte[4096];
+            int count = in.read(buffer);
+            while (count != -1) {
+                content.write(buffer, 0, count);
+                count = in.read(buffer);
+            }
+        }
+        return content.toByteArray();
+    }
+
+    /**
+     * Method creates UTF-8 encoded content of the passed length.
+     *
+     * @param length    Number of bytes.
+     * @return          Created content.
+     */
+    private static byte[] createContent(int length) {
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte)('a' + i % 26);
+        }
+        return content;
+    }
+
+}
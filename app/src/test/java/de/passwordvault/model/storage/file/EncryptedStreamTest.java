@@ -0,0 +1,227 @@
+package de.passwordvault.model.storage.file;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import de.passwordvault.model.storage.encryption.AES;
+
+
+/**
+ * Class tests the round trip of content through the {@link EncryptedOutputStream} and
+ * {@link EncryptedInputStream}, as well as the detection of truncated and manipulated streams.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class EncryptedStreamTest {
+
+    /**
+     * Field stores the chunk size which is used for the tests, so that the content spans many chunks.
+     */
+    private static final int CHUNK_SIZE = 16;
+
+    /**
+     * Field stores the length of the header of the encrypted stream.
+     */
+    private static final int HEADER_LENGTH = 4 + 1 + 4;
+
+
+    /**
+     * Attribute stores the AES cipher used for encryption.
+     */
+    private AES aes;
+
+
+    /**
+     * Method creates the AES cipher with a seeded key.
+     */
+    @Before
+    public void setUp() {
+        aes = new AES("encrypted-stream-test");
+    }
+
+
+    /**
+     * Method tests that content of different lengths is decrypted unchanged, regardless of whether
+     * it fills the last chunk completely.
+     */
+    @Test
+    public void contentIsDecryptedUnchanged() throws IOException {
+        Random random = new Random(42);
+        for (int length : new int[] {0, 1, CHUNK_SIZE - 1, CHUNK_SIZE, CHUNK_SIZE + 1, CHUNK_SIZE * 10, 1000}) {
+            byte[] content = new byte[length];
+            random.nextBytes(content);
+            byte[] encrypted = encrypt(content);
+
+            assertTrue(EncryptedInputStream.hasHeader(new ByteArrayInputStream(encrypted)));
+            assertArrayEquals(content, decrypt(encrypted));
+        }
+    }
+
+    /**
+     * Method tests that content which is written byte by byte is decrypted unchanged.
+     */
+    @Test
+    public void singleBytesAreDecryptedUnchanged() throws IOException {
+        byte[] content = "Content which spans multiple chunks".getBytes();
+        ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+        try (EncryptedOutputStream out = new EncryptedOutputStream(encrypted, aes, CHUNK_SIZE)) {
+            for (byte b : content) {
+                out.write(b);
+            }
+        }
+
+        ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+        try (InputStream in = new EncryptedInputStream(new ByteArrayInputStream(encrypted.toByteArray()), aes)) {
+            int b = in.read();
+            while (b != -1) {
+                decrypted.write(b);
+                b = in.read();
+            }
+        }
+        assertArrayEquals(content, decrypted.toByteArray());
+    }
+
+    /**
+     * Method tests that content without the header of the encrypted stream is not detected as such,
+     * and that the tested bytes are not consumed.
+     */
+    @Test
+    public void legacyContentHasNoHeader() throws IOException {
+        InputStream in = new BufferedInputStream(new ByteArrayInputStream("QUJD\n".getBytes()));
+        assertFalse(EncryptedInputStream.hasHeader(in));
+        assertEquals('Q', in.read());
+    }
+
+    /**
+     * Method tests that a stream which is truncated at a chunk boundary is rejected, since the last
+     * chunk is missing.
+     */
+    @Test(expected = IOException.class)
+    public void missingLastChunkIsRejected() throws IOException {
+        byte[] encrypted = encrypt(new byte[CHUNK_SIZE * 3]);
+        int[] offsets = findChunks(encrypted);
+        decrypt(Arrays.copyOf(encrypted, offsets[offsets.length - 1]));
+    }
+
+    /**
+     * Method tests that a stream which is truncated within a chunk is rejected.
+     */
+    @Test(expected = IOException.class)
+    public void truncatedChunkIsRejected() throws IOException {
+        byte[] encrypted = encrypt(new byte[CHUNK_SIZE * 3]);
+        decrypt(Arrays.copyOf(encrypted, encrypted.length - 1));
+    }
+
+    /**
+     * Method tests that a stream whose content stops with an aborted stream is rejected.
+     */
+    @Test(expected = IOException.class)
+    public void abortedStreamIsRejected() throws IOException {
+        ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+        EncryptedOutputStream out = new EncryptedOutputStream(encrypted, aes, CHUNK_SIZE);
+        out.write(new byte[CHUNK_SIZE * 2 + 3]);
+        out.abort();
+        decrypt(encrypted.toByteArray());
+    }
+
+    /**
+     * Method tests that a stream whose chunks are swapped is rejected.
+     */
+    @Test(expected = IOException.class)
+    public void reorderedChunksAreRejected() throws IOException {
+        byte[] encrypted = encrypt(new byte[CHUNK_SIZE * 3]);
+        int[] offsets = findChunks(encrypted);
+        int firstLength = offsets[1] - offsets[0];
+        int secondLength = offsets[2] - offsets[1];
+        byte[] reordered = encrypted.clone();
+        System.arraycopy(encrypted, offsets[1], reordered, offsets[0], secondLength);
+        System.arraycopy(encrypted, offsets[0], reordered, offsets[0] + secondLength, firstLength);
+        decrypt(reordered);
+    }
+
+    /**
+     * Method tests that a stream with a modified byte is rejected.
+     */
+    @Test(expected = IOException.class)
+    public void modifiedChunkIsRejected() throws IOException {
+        byte[] encrypted = encrypt(new byte[CHUNK_SIZE * 3]);
+        encrypted[encrypted.length - 1] ^= 1;
+        decrypt(encrypted);
+    }
+
+    /**
+     * Method tests that a stream cannot be decrypted with a different key.
+     */
+    @Test(expected = IOException.class)
+    public void differentKeyIsRejected() throws IOException {
+        byte[] encrypted = encrypt("Content".getBytes());
+        aes = new AES("other-key");
+        decrypt(encrypted);
+    }
+
+
+    /**
+     * Method encrypts the passed content with the {@link #CHUNK_SIZE}.
+     *
+     * @param content       Content to encrypt.
+     * @return              Encrypted stream.
+     * @throws IOException  The content could not be encrypted.
+     */
+    private byte[] encrypt(byte[] content) throws IOException {
+        ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+        try (EncryptedOutputStream out = new EncryptedOutputStream(encrypted, aes, CHUNK_SIZE)) {
+            out.write(content);
+        }
+        return encrypted.toByteArray();
+    }
+
+    /**
+     * Method decrypts the passed stream completely.
+     *
+     * @param encrypted     Encrypted stream.
+     * @return              Decrypted content.
+     * @throws IOException  The stream could not be decrypted.
+     */
+    private byte[] decrypt(byte[] encrypted) throws IOException {
+        ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+        try (InputStream in = new EncryptedInputStream(new ByteArrayInputStream(encrypted), aes)) {
+            byte[] buffer = new byte[7];
+            int count = in.read(buffer);
+            while (count != -1) {
+                decrypted.write(buffer, 0, count);
+                count = in.read(buffer);
+            }
+        }
+        return decrypted.toByteArray();
+    }
+
+    /**
+     * Method returns the offsets of all chunks within the passed encrypted stream.
+     *
+     * @param encrypted Encrypted stream.
+     * @return          Offsets of the chunks.
+     */
+    private static int[] findChunks(byte[] encrypted) {
+        int[] offsets = new int[0];
+        int offset = HEADER_LENGTH;
+        while (offset < encrypted.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length + 1);
+            offsets[offsets.length - 1] = offset;
+            int length = ((encrypted[offset + 1] & 0xFF) << 24) | ((encrypted[offset + 2] & 0xFF) << 16) | ((encrypted[offset + 3] & 0xFF) << 8) | (encrypted[offset + 4] & 0xFF);
+            offset += 1 + 4 + length;
+        }
+        return offsets;
+    }
+
+}
@@ -0,0 +1,241 @@
+package de.passwordvault.model.storage.vault;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.HashMap;
+import de.passwordvault.model.storage.encryption.AES;
+
+
+/**
+ * Class tests the {@link VaultStore}, including the recovery of corrupted segments and the
+ * compaction of deleted records.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class VaultStoreTest {
+
+    /**
+     * Attribute stores the directory in which the segments of the tested store are stored.
+     */
+    private File directory;
+
+    /**
+     * Attribute stores the AES cipher used by the tested store.
+     */
+    private AES aes;
+
+
+    /**
+     * Method creates an empty directory for the segments.
+     *
+     * @throws IOException  The directory could not be created.
+     */
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("vault").toFile();
+        aes = new AES("vault-store-test");
+    }
+
+    /**
+     * Method deletes the directory of the segments.
+     */
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+
+    /**
+     * Method tests that written records can be read after the store is opened again.
+     */
+    @Test
+    public void recordsAreReadAfterReopening() throws Exception {
+        VaultStore store = new VaultStore(directory, aes);
+        store.write(VaultStore.TYPE_EXTENDED_ENTRY, "a", "Content A");
+        store.write(VaultStore.TYPE_ABBREVIATED_ENTRY, "a", "Abbreviated A");
+
+        VaultStore reopened = new VaultStore(directory, aes);
+        assertEquals("Content A", reopened.read(VaultStore.TYPE_EXTENDED_ENTRY, "a"));
+        assertEquals("Abbreviated A", reopened.read(VaultStore.TYPE_ABBREVIATED_ENTRY, "a"));
+        assertNull(reopened.read(VaultStore.TYPE_EXTENDED_ENTRY, "b"));
+    }
+
+    /**
+     * Method tests that records whose content is unchanged are not written again.
+     */
+    @Test
+    public void unchangedRecordsAreSkipped() throws Exception {
+        VaultStore store = new VaultStore(directory, aes);
+        store.write(VaultStore.TYPE_EXTENDED_ENTRY, "a", "Content A");
+        store.write(VaultStore.TYPE_EXTENDED_ENTRY, "a", "Content A");
+        assertEquals(1, store.getFramesWritten());
+        store.write(VaultStore.TYPE_EXTENDED_ENTRY, "a", "Content B");
+        assertEquals(2, store.getFramesWritten());
+    }
+
+    /**
+     * Method tests that replacing all records of a type deletes the records that are not passed.
+     */
+    @Test
+    public void replacingDeletesMissingRecords() throws Exception {
+        VaultStore store = new VaultStore(directory, aes);
+        HashMap<String, String> records = new HashMap<>();
+        records.put("a", "Content A");
+        records.put("b", "Content B");
+        store.writeAll(VaultStore.TYPE_EXTENDED_ENTRY, records, true);
+        records.remove("a");
+        store.writeAll(VaultStore.TYPE_EXTENDED_ENTRY, records, true);
+
+        VaultStore reopened = new VaultStore(directory, aes);
+        assertFalse(reopened.contains(VaultStore.TYPE_EXTENDED_ENTRY, "a"));
+        assertEquals("Content B", reopened.read(VaultStore.TYPE_EXTENDED_ENTRY, "b"));
+    }
+
+    /**
+     * Method tests that only records whose owning record exists are written, and that records of
+     * deleted owners are removed.
+     */
+    @Test
+    public void recordsWithoutOwnerAreNotWritten() throws Exception {
+        VaultStore store = new VaultStore(directory, aes);
+        store.write(VaultStore.TYPE_EXTENDED_ENTRY, "a", "Content A");
+        store.write(VaultStore.TYPE_EXTENDED_ENTRY, "b", "Content B");
+        HashMap<String, String> analyses = new HashMap<>();
+        analyses.put("a", "Analysis A");
+        analyses.put("b", "Analysis B");
+        analyses.put("c", "Analysis C");
+        store.writeAllOwned(VaultStore.TYPE_PASSWORD_ANALYSIS, analyses, VaultStore.TYPE_EXTENDED_ENTRY, true);
+        assertTrue(store.contains(VaultStore.TYPE_PASSWORD_ANALYSIS, "b"));
+        assertFalse(store.contains(VaultStore.TYPE_PASSWORD_ANALYSIS, "c"));
+
+        store.delete(VaultStore.TYPE_EXTENDED_ENTRY, "b");
+        store.writeAllOwned(VaultStore.TYPE_PASSWORD_ANALYSIS, analyses, VaultStore.TYPE_EXTENDED_ENTRY, true);
+
+        VaultStore reopened = new VaultStore(directory, aes);
+        assertEquals("Analysis A", reopened.read(VaultStore.TYPE_PASSWORD_ANALYSIS, "a"));
+        assertFalse(reopened.contains(VaultStore.TYPE_PASSWORD_ANALYSIS, "b"));
+        assertFalse(reopened.contains(VaultStore.TYPE_PASSWORD_ANALYSIS, "c"));
+    }
+
+    /**
+     * Method tests that a truncated frame at the end of the active segment is removed, so that
+     * frames which are appended afterwards can be read.
+     */
+    @Test
+    public void truncatedTailIsRemoved() throws Exception {
+        VaultStore store = new VaultStore(directory, aes);
+        store.write(VaultStore.TYPE_EXTENDED_ENTRY, "a", "Content A");
+        try (FileOutputStream output = new FileOutputStream(getSegmentFiles()[0], true)) {
+            //Frame length without frame:
+            output.write(new byte[] {0, 0, 1, 0, 2});
+        }
+
+        VaultStore recovered = new VaultStore(directory, aes);
+        assertEquals("Content A", recovered.read(VaultStore.TYPE_EXTENDED_ENTRY, "a"));
+        recovered.write(VaultStore.TYPE_EXTENDED_ENTRY, "b", "Content B");
+
+        VaultStore reopened = new VaultStore(directory, aes);
+        assertEquals("Content A", reopened.read(VaultStore.TYPE_EXTENDED_ENTRY, "a"));
+        assertEquals("Content B", reopened.read(VaultStore.TYPE_EXTENDED_ENTRY, "b"));
+    }
+
+    /**
+     * Method tests that no frames are appended to an active segment with an invalid header, since
+     * they could not be read afterwards.
+     */
+    @Test
+    public void invalidHeaderStartsNewSegment() throws Exception {
+        VaultStore store = new VaultStore(directory, aes);
+        store.write(VaultStore.TYPE_EXTENDED_ENTRY, "a", "Content A");
+        try (RandomAccessFile file = new RandomAccessFile(getSegmentFiles()[0], "rw")) {
+            file.write(new byte[] {'X', 'X', 'X', 'X'});
+        }
+
+        VaultStore recovered = new VaultStore(directory, aes);
+        assertFalse(recovered.contains(VaultStore.TYPE_EXTENDED_ENTRY, "a"));
+        recovered.write(VaultStore.TYPE_EXTENDED_ENTRY, "b", "Content B");
+        assertEquals(2, getSegmentFiles().length);
+
+        VaultStore reopened = new VaultStore(directory, aes);
+        assertEquals("Content B", reopened.read(VaultStore.TYPE_EXTENDED_ENTRY, "b"));
+    }
+
+    /**
+     * Method tests that compaction removes deleted records and keeps live records.
+     */
+    @Test
+    public void compactionRemovesDeletedRecords() throws Exception {
+        VaultStore store = new VaultStore(directory, aes);
+        store.write(VaultStore.TYPE_EXTENDED_ENTRY, "a", "Content A");
+        store.write(VaultStore.TYPE_EXTENDED_ENTRY, "b", "Content B");
+        assertTrue(store.delete(VaultStore.TYPE_EXTENDED_ENTRY, "a"));
+        long sizeBefore = getSegmentFiles()[0].length();
+        store.compact();
+
+        File[] segments = getSegmentFiles();
+        assertEquals(1, segments.length);
+        assertTrue(segments[0].length() < sizeBefore);
+        assertEquals("Content B", store.read(VaultStore.TYPE_EXTENDED_ENTRY, "b"));
+
+        VaultStore reopened = new VaultStore(directory, aes);
+        assertFalse(reopened.contains(VaultStore.TYPE_EXTENDED_ENTRY, "a"));
+        assertEquals("Content B", reopened.read(VaultStore.TYPE_EXTENDED_ENTRY, "b"));
+    }
+
+    /**
+     * Method tests that deleted records do not reappear if a segment that was compacted could not be
+     * deleted.
+     */
+    @Test
+    public void obsoleteSegmentsAreIgnored() throws Exception {
+        VaultStore store = new VaultStore(directory, aes);
+        store.write(VaultStore.TYPE_EXTENDED_ENTRY, "a", "Content A");
+        store.write(VaultStore.TYPE_EXTENDED_ENTRY, "b", "Content B");
+        store.delete(VaultStore.TYPE_EXTENDED_ENTRY, "a");
+        File obsoleteSegment = getSegmentFiles()[0];
+        byte[] obsoleteContent = Files.readAllBytes(obsoleteSegment.toPath());
+        store.compact();
+
+        //Simulate that the compacted segment could not be deleted:
+        Files.write(obsoleteSegment.toPath(), obsoleteContent);
+
+        VaultStore reopened = new VaultStore(directory, aes);
+        assertFalse(reopened.contains(VaultStore.TYPE_EXTENDED_ENTRY, "a"));
+        assertEquals("Content B", reopened.read(VaultStore.TYPE_EXTENDED_ENTRY, "b"));
+        assertFalse(obsoleteSegment.exists());
+
+        reopened.write(VaultStore.TYPE_EXTENDED_ENTRY, "c", "Content C");
+        VaultStore reopenedAgain = new VaultStore(directory, aes);
+        assertEquals("Content C", reopenedAgain.read(VaultStore.TYPE_EXTENDED_ENTRY, "c"));
+    }
+
+
+    /**
+     * Method returns the segment files within the directory, sorted by their names.
+     *
+     * @return  Segment files.
+     */
+    private File[] getSegmentFiles() {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith("segment_"));
+        java.util.Arrays.sort(files);
+        return files;
+    }
+
+}
@@ -0,0 +1,101 @@
+package de.passwordvault.service.autofill.caching;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import de.passwordvault.model.storage.encryption.AES;
+import de.passwordvault.model.storage.encryption.EncryptionException;
+
+
+/**
+ * Class tests that the {@link ContentCacheKey} generates a data key once, which is loaded again
+ * by later processes.
+ *
+ * @author  Christian-2003
+ * @version 3.7.4
+ */
+public class ContentCacheKeyTest {
+
+    /**
+     * Attribute stores the AES cipher which encrypts the data key.
+     */
+    private AES keyEncryptionAlgorithm;
+
+    /**
+     * Attribute stores the file which contains the encrypted data key.
+     */
+    private File file;
+
+
+    /**
+     * Method creates the AES cipher and the path of the key file.
+     *
+     * @throws IOException  The directory could not be created.
+     */
+    @Before
+    public void setUp() throws IOException {
+        keyEncryptionAlgorithm = new AES("content-cache-key-test");
+        file = new File(Files.createTempDirectory("content-cache-key-test").toFile(), "content.key");
+    }
+
+    /**
+     * Method deletes the key file.
+     */
+    @After
+    public void tearDown() {
+        file.delete();
+        file.getParentFile().delete();
+    }
+
+
+    /**
+     * Method tests that a generated data key is loaded again by a new instance, and that the data
+     * key is only loaded once per instance.
+     */
+    @Test
+    public void generatedKeyIsLoadedAgain() throws EncryptionException {
+        ContentCacheKey key = new ContentCacheKey(file, keyEncryptionAlgorithm);
+        AES cipher = key.getCipher(true);
+        assertSame(cipher, key.getCipher(false));
+        assertTrue(file.exists());
+
+        byte[] plainBytes = "username,password,entry".getBytes(StandardCharsets.UTF_8);
+        byte[] encrypted = cipher.encrypt(plainBytes, new byte[] {1});
+        AES loadedCipher = new ContentCacheKey(file, keyEncryptionAlgorithm).getCipher(false);
+        assertArrayEquals(plainBytes, loadedCipher.decrypt(encrypted, 0, encrypted.length, new byte[] {1}));
+    }
+
+    /**
+     * Method tests that no data key is generated unless requested.
+     */
+    @Test(expected = EncryptionException.class)
+    public void missingKeyIsNotGenerated() throws EncryptionException {
+        new ContentCacheKey(file, keyEncryptionAlgorithm).getCipher(false);
+    }
+
+    /**
+     * Method tests that a data key which cannot be decrypted is not replaced by a new data key, since
+     * this would make all cached credentials unreadable.
+     */
+    @Test
+    public void undecryptableKeyIsNotReplaced() throws EncryptionException, IOException {
+        new ContentCacheKey(file, keyEncryptionAlgorithm).getCipher(true);
+        byte[] keyFile = Files.readAllBytes(file.toPath());
+        try {
+            new ContentCacheKey(file, new AES("other-key")).getCipher(true);
+            fail();
+        }
+        catch (EncryptionException e) {
+            assertArrayEquals(keyFile, Files.readAllBytes(file.toPath()));
+        }
+    }
+
+}